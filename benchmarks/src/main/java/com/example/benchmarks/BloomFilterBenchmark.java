@@ -0,0 +1,102 @@
+package com.example.benchmarks;
+
+import com.example.springbatchguide.dedup.MappedBloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeduplicatingItemProcessor 가 아이템마다 하는 블룸 필터 조회 비용을 재는 벤치마크
+ * history 건을 미리 넣은 필터(오탐률 1%)에서, 처음 보는 키(miss)와 이미 넣은 키(hit)를 해시해 조회한다. (lookup 은 해시 제외)
+ * 키는 방금 읽은 아이템처럼 캐시에 있도록 1024 개만 돌려 쓰고, 필터는 history 가 클수록 캐시 밖에 있다.
+ * 필터는 힙 밖에 매핑되므로 -prof gc 에서 history 와 상관없이 힙 사용량이 같다.
+ *
+ * java -jar benchmarks/target/benchmarks.jar BloomFilterBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BloomFilterBenchmark {
+
+    static final int KEYS = 1 << 10;
+
+    static final int HASHES = 1 << 20;
+
+    @Param({"1000000", "50000000"})
+    public long history;
+
+    private Path file;
+
+    private MappedBloomFilter filter;
+
+    private final String[] newKeys = new String[KEYS];
+
+    private final String[] seenKeys = new String[KEYS];
+
+    private final long[] newHashes = new long[HASHES];
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("bloom-filter-benchmark", ".bloom");
+        Files.delete(this.file);
+        this.filter = MappedBloomFilter.open(this.file, this.history, 0.01);
+
+        // 기록은 문자열 대신 잘 섞인 64 비트 값으로 채운다. (splitmix64)
+        for (long i = 0; i < this.history; i++) {
+            long z = (i + 1) * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            this.filter.put(z ^ (z >>> 31));
+        }
+        for (int i = 0; i < KEYS; i++) {
+            this.seenKeys[i] = UUID.randomUUID().toString();
+            this.filter.put(MappedBloomFilter.hash(this.seenKeys[i]));
+            this.newKeys[i] = UUID.randomUUID().toString();
+        }
+        // lookup 은 해시를 미리 계산해두고, 필터의 여러 블록에 고르게 닿도록 키보다 많이 준비한다.
+        for (int i = 0; i < HASHES; i++) {
+            this.newHashes[i] = MappedBloomFilter.hash(UUID.randomUUID().toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.filter.close();
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return this.filter.mightContain(MappedBloomFilter.hash(this.newKeys[this.index++ & (KEYS - 1)]));
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return this.filter.mightContain(MappedBloomFilter.hash(this.seenKeys[this.index++ & (KEYS - 1)]));
+    }
+
+    @Benchmark
+    public boolean lookup() {
+        return this.filter.mightContain(this.newHashes[this.index++ & (HASHES - 1)]);
+    }
+}
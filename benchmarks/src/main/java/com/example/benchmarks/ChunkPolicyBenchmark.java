@@ -0,0 +1,251 @@
+package com.example.benchmarks;
+
+import com.example.springbatchguide.chunk.AdaptiveChunkSizePolicy;
+import com.example.springbatchguide.chunk.RandomChunkSizePolicy;
+import com.example.springbatchguide.partition.RangePartitioner;
+import com.example.springbatchguide.writer.BufferedChannelItemWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.CompositeCompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.batch.repeat.policy.TimeoutTerminationPolicy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 청크 크기, CompletionPolicy, 라이터 종류, 스레드 수 조합을 비교하는 벤치마크
+ * ChunkJob 의 빈이 아니라 조합마다 스텝을 직접 조립하므로 구성 요소끼리의 비교에만 사용한다.
+ * 배포되는 구성(ChunkJob.chunkStep 등)의 처리량은 ChunkStepBenchmark 로 측정한다.
+ * 할당률은 -prof gc 옵션으로 함께 확인한다.
+ *
+ * java -jar benchmarks/target/benchmarks.jar ChunkPolicyBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ChunkPolicyBenchmark {
+
+    static final int ITEM_COUNT = 100000;
+
+    @Param({"100", "1000", "10000"})
+    public int chunkSize;
+
+    /**
+     * simple : SimpleCompletionPolicy, composite : TimeoutTerminationPolicy + SimpleCompletionPolicy,
+     * random : RandomChunkSizePolicy (0 ~ chunkSize 사이의 무작위 크기), adaptive : AdaptiveChunkSizePolicy
+     */
+    @Param({"simple", "composite", "random", "adaptive"})
+    public String policy;
+
+    /**
+     * println : 기존 ChunkJob 의 아이템별 println, buffered / bufferedAsync : BufferedChannelItemWriter
+     */
+    @Param({"println", "buffered", "bufferedAsync"})
+    public String writer;
+
+    /**
+     * 1 이면 단일 스텝, 그 이상이면 인덱스 범위별 스텝을 split 으로 동시에 실행
+     */
+    @Param({"1", "4"})
+    public int threads;
+
+    private EmbeddedBatchInfrastructure infrastructure;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    private List<String> items;
+
+    private Path output;
+
+    private PrintStream printStream;
+
+    private ItemWriter<String> itemWriter;
+
+    private PrintStream originalOut;
+
+    private Job job;
+
+    private long runId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // RandomChunkSizePolicy 가 청크마다 출력하는 로그가 결과를 가리지 않도록 표준 출력을 버린다.
+        this.originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        this.infrastructure = new EmbeddedBatchInfrastructure();
+
+        this.taskExecutor = new ThreadPoolTaskExecutor();
+        this.taskExecutor.setCorePoolSize(this.threads);
+        this.taskExecutor.setMaxPoolSize(this.threads);
+        this.taskExecutor.initialize();
+
+        this.items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            this.items.add(UUID.randomUUID().toString());
+        }
+
+        this.output = Files.createTempFile("chunk-policy-benchmark", ".txt");
+        this.itemWriter = createItemWriter();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareJob() {
+        this.job = createJob();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public JobExecution chunkStep() throws Exception {
+        JobExecution jobExecution = this.infrastructure.getJobLauncher().run(this.job,
+                new JobParametersBuilder().addLong("run.id", ++this.runId).toJobParameters());
+
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Benchmark job did not complete : " + jobExecution.getAllFailureExceptions());
+        }
+        return jobExecution;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (this.printStream != null) {
+            this.printStream.close();
+        }
+        this.taskExecutor.shutdown();
+        this.infrastructure.close();
+        Files.deleteIfExists(this.output);
+        System.setOut(this.originalOut);
+    }
+
+    private Job createJob() {
+        JobBuilderFactory jobBuilderFactory = this.infrastructure.jobBuilderFactory();
+
+        if (this.threads == 1) {
+            return jobBuilderFactory.get("chunkBasedJob")
+                    .start(createStep("chunkStep", 0, ITEM_COUNT))
+                    .build();
+        }
+
+        Flow[] flows = new RangePartitioner(ITEM_COUNT).partition(this.threads).values().stream()
+                .map(this::createFlow)
+                .toArray(Flow[]::new);
+
+        return jobBuilderFactory.get("partitionedChunkJob")
+                .start(new FlowBuilder<Flow>("partitionedFlow").split(this.taskExecutor).add(flows).build())
+                .end()
+                .build();
+    }
+
+    private Flow createFlow(ExecutionContext range) {
+        int minIndex = range.getInt(RangePartitioner.MIN_INDEX_KEY);
+        int maxIndex = range.getInt(RangePartitioner.MAX_INDEX_KEY);
+        String name = "workerChunkStep:" + minIndex;
+
+        return new FlowBuilder<Flow>(name)
+                .start(createStep(name, minIndex, maxIndex))
+                .build();
+    }
+
+    /**
+     * 스텝마다 리더와 CompletionPolicy 를 새로 만든다. (상태를 가진 정책을 스텝끼리 공유하지 않도록)
+     */
+    private Step createStep(String name, int minIndex, int maxIndex) {
+        StepBuilderFactory stepBuilderFactory = this.infrastructure.stepBuilderFactory();
+        CompletionPolicy completionPolicy = createCompletionPolicy();
+
+        SimpleStepBuilder<String, String> builder = stepBuilderFactory.get(name)
+                .<String, String> chunk(completionPolicy)
+                .reader(new IndexRangeItemReader<>(this.items, minIndex, maxIndex))
+                .writer(this.itemWriter);
+
+        if (completionPolicy instanceof AdaptiveChunkSizePolicy) {
+            builder.listener((ChunkListener) completionPolicy);
+            builder.listener((StepExecutionListener) completionPolicy);
+        }
+        return builder.build();
+    }
+
+    private CompletionPolicy createCompletionPolicy() {
+        switch (this.policy) {
+            case "simple":
+                return new SimpleCompletionPolicy(this.chunkSize);
+            case "composite":
+                CompositeCompletionPolicy compositeCompletionPolicy = new CompositeCompletionPolicy();
+                compositeCompletionPolicy.setPolicies(new CompletionPolicy[] {
+                        new TimeoutTerminationPolicy(3),
+                        new SimpleCompletionPolicy(this.chunkSize)
+                });
+                return compositeCompletionPolicy;
+            case "random":
+                return new RandomChunkSizePolicy(this.chunkSize);
+            case "adaptive":
+                AdaptiveChunkSizePolicy adaptiveChunkSizePolicy = new AdaptiveChunkSizePolicy(10, Math.max(10, this.chunkSize * 10), 500);
+                adaptiveChunkSizePolicy.setInitialChunkSize(this.chunkSize);
+                adaptiveChunkSizePolicy.setIncrement(Math.max(1, this.chunkSize / 10));
+                return adaptiveChunkSizePolicy;
+            default:
+                throw new IllegalArgumentException("Unknown policy : " + this.policy);
+        }
+    }
+
+    private ItemWriter<String> createItemWriter() throws Exception {
+        switch (this.writer) {
+            case "println":
+                // System.out 과 같은 구성 (128 바이트 버퍼, 줄마다 flush)
+                this.printStream = new PrintStream(new BufferedOutputStream(new FileOutputStream(this.output.toFile()), 128), true);
+                return items -> {
+                    for (String item : items) {
+                        this.printStream.println(">> current item = " + item);
+                    }
+                };
+            case "buffered":
+            case "bufferedAsync":
+                BufferedChannelItemWriter<String> bufferedChannelItemWriter = new BufferedChannelItemWriter<>(this.output,
+                        (item, line) -> line.append(">> current item = ").append(item));
+                bufferedChannelItemWriter.setAsyncFlush("bufferedAsync".equals(this.writer));
+                return bufferedChannelItemWriter;
+            default:
+                throw new IllegalArgumentException("Unknown writer : " + this.writer);
+        }
+    }
+}
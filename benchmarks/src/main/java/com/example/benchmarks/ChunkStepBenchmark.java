@@ -0,0 +1,106 @@
+package com.example.benchmarks;
+
+import com.example.springbatchguide.launch.LazyJobLauncherApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChunkJob 에 정의된 잡 빈을 그대로 실행하는 벤치마크
+ * LazyJobLauncherApplication 을 내장 H2 잡 저장소로 띄우고 JobRegistry 에서 잡을 꺼내므로,
+ * 리더 / 프로세서 / 라이터 / CompletionPolicy 는 배포되는 구성과 같다.
+ * 다른 설정값은 시스템 프로퍼티로 바꿀 수 있다. (예: -jvmArgsAppend -Dchunk.partition.grid-size=4)
+ *
+ * java -jar benchmarks/target/benchmarks.jar ChunkStepBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ChunkStepBenchmark {
+
+    static final int ITEM_COUNT = 100000;
+
+    /**
+     * chunkBasedJob : chunkStep (AdaptiveChunkSizePolicy + 비동기 프로세서 + BufferedChannelItemWriter)
+     * partitionedChunkJob : workerChunkStep 을 chunk.partition.grid-size 개로 나눠 실행
+     * columnarChunkJob : UuidChunk 단위로 옮기는 columnarChunkStep
+     */
+    @Param({"chunkBasedJob", "partitionedChunkJob", "columnarChunkJob"})
+    public String jobName;
+
+    private Path output;
+
+    private ConfigurableApplicationContext context;
+
+    private JobLauncher jobLauncher;
+
+    private Job job;
+
+    private long runId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.output = Files.createTempFile("chunk-step-benchmark", ".txt");
+        // 루트 모듈의 application.properties(MySQL)보다 우선하도록 명령행 인자로 넘긴다.
+        this.context = new SpringApplicationBuilder(LazyJobLauncherApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.batch.job.enabled=false",
+                        "--chunk.item-count=" + ITEM_COUNT,
+                        "--chunk.writer.output=" + this.output);
+        this.jobLauncher = this.context.getBean(JobLauncher.class);
+        this.job = this.context.getBean(JobRegistry.class).getJob(this.jobName);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public JobExecution chunkJob() throws Exception {
+        JobExecution jobExecution = this.jobLauncher.run(this.job,
+                new JobParametersBuilder().addLong("run.id", ++this.runId).toJobParameters());
+
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Benchmark job did not complete : " + jobExecution.getAllFailureExceptions());
+        }
+        return jobExecution;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.context.close();
+        Files.deleteIfExists(this.output);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.benchmarks;
+
+import com.example.springbatchguide.reader.MappedCsvItemReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MappedCsvItemReader 와 FlatFileItemReader(DelimitedLineTokenizer) 로 같은 csv 파일을 끝까지 읽는 벤치마크
+ * 결과는 초당 레코드 수이며, -prof gc 의 gc.alloc.rate.norm 이 레코드당 할당 바이트다.
+ *
+ * java -jar benchmarks/target/benchmarks.jar CsvReaderBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CsvReaderBenchmark {
+
+    static final int ROWS = 1_000_000;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("csv-reader-benchmark", ".csv");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)) {
+            writer.write("id,name,amount,memo\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(i + ",customer-" + i + "," + (i % 10000) + ",\"memo, with delimiter " + i + "\"\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mappedCsvItemReader(Blackhole blackhole) throws Exception {
+        MappedCsvItemReader<Row> reader = new MappedCsvItemReader<>(this.file,
+                record -> new Row(record.getLong(0), record.getString(1), record.getLong(2)));
+        reader.setLinesToSkip(1);
+
+        readAll(reader, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void flatFileItemReader(Blackhole blackhole) throws Exception {
+        FlatFileItemReader<Row> reader = new FlatFileItemReaderBuilder<Row>()
+                .name("flatFileItemReader")
+                .resource(new FileSystemResource(this.file))
+                .encoding(StandardCharsets.UTF_8.name())
+                .linesToSkip(1)
+                .delimited()
+                .names("id", "name", "amount", "memo")
+                .fieldSetMapper(fieldSet -> new Row(fieldSet.readLong(0), fieldSet.readString(1), fieldSet.readLong(2)))
+                .build();
+
+        readAll(reader, blackhole);
+    }
+
+    private void readAll(ItemStreamReader<Row> reader, Blackhole blackhole) throws Exception {
+        reader.open(new ExecutionContext());
+        try {
+            Row row;
+            while ((row = reader.read()) != null) {
+                blackhole.consume(row);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    static class Row {
+
+        final long id;
+
+        final String name;
+
+        final long amount;
+
+        Row(long id, String name, long amount) {
+            this.id = id;
+            this.name = name;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.benchmarks;
+
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * 벤치마크용 배치 인프라 : 내장 H2 잡 저장소와 잡/스텝 빌더 팩토리, 동기 JobLauncher
+ * 스프링 컨텍스트 없이 직접 조립하므로 트라이얼마다 가볍게 만들고 버릴 수 있다.
+ */
+public class EmbeddedBatchInfrastructure implements AutoCloseable {
+
+    private final EmbeddedDatabase database;
+
+    private final DataSourceTransactionManager transactionManager;
+
+    private final JobRepository jobRepository;
+
+    private final JobLauncher jobLauncher;
+
+    public EmbeddedBatchInfrastructure() throws Exception {
+        this(null);
+    }
+
+    /**
+     * @param serializer ExecutionContext 직렬화기 (null 이면 기본 Jackson 직렬화기)
+     * @throws Exception
+     */
+    public EmbeddedBatchInfrastructure(ExecutionContextSerializer serializer) throws Exception {
+        this.database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        this.transactionManager = new DataSourceTransactionManager(this.database);
+
+        JobRepositoryFactoryBean jobRepositoryFactoryBean = new JobRepositoryFactoryBean();
+        jobRepositoryFactoryBean.setDataSource(this.database);
+        jobRepositoryFactoryBean.setTransactionManager(this.transactionManager);
+        if (serializer != null) {
+            jobRepositoryFactoryBean.setSerializer(serializer);
+        }
+        jobRepositoryFactoryBean.afterPropertiesSet();
+        this.jobRepository = jobRepositoryFactoryBean.getObject();
+
+        SimpleJobLauncher simpleJobLauncher = new SimpleJobLauncher();
+        simpleJobLauncher.setJobRepository(this.jobRepository);
+        simpleJobLauncher.afterPropertiesSet();
+        this.jobLauncher = simpleJobLauncher;
+    }
+
+    public EmbeddedDatabase getDatabase() {
+        return this.database;
+    }
+
+    public DataSourceTransactionManager getTransactionManager() {
+        return this.transactionManager;
+    }
+
+    public JobRepository getJobRepository() {
+        return this.jobRepository;
+    }
+
+    public JobLauncher getJobLauncher() {
+        return this.jobLauncher;
+    }
+
+    public JobBuilderFactory jobBuilderFactory() {
+        return new JobBuilderFactory(this.jobRepository);
+    }
+
+    public StepBuilderFactory stepBuilderFactory() {
+        return new StepBuilderFactory(this.jobRepository, this.transactionManager);
+    }
+
+    @Override
+    public void close() {
+        this.database.shutdown();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.benchmarks;
+
+import com.example.springbatchguide.repository.BinaryExecutionContextSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 청크 커밋마다 저장되는 스텝 ExecutionContext 를 Jackson(기본값)과 BinaryExecutionContextSerializer 로 직렬화하는 벤치마크
+ * - serialize / deserialize : 직렬화기만 측정 (µs)
+ * - commit : JobRepository.updateExecutionContext 로 내장 H2 의 BATCH_STEP_EXECUTION_CONTEXT 를 갱신하는 시간 (µs per commit)
+ * 체크포인트당 저장 바이트 수는 트라이얼 시작 시 출력한다.
+ *
+ * java -jar benchmarks/target/benchmarks.jar ExecutionContextSerializerBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ExecutionContextSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    public String serializer;
+
+    /**
+     * reader : 리더 하나가 위치를 저장하는 일반적인 스텝, partitioned : 파티션 200 개의 범위를 가진 매니저 스텝
+     */
+    @Param({"reader", "partitioned"})
+    public String context;
+
+    private ExecutionContextSerializer contextSerializer;
+
+    private Map<String, Object> checkpoint;
+
+    private byte[] serialized;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+
+    private EmbeddedBatchInfrastructure infrastructure;
+
+    private StepExecution stepExecution;
+
+    private long commits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.contextSerializer = "binary".equals(this.serializer)
+                ? new BinaryExecutionContextSerializer() : new Jackson2ExecutionContextStringSerializer();
+        this.checkpoint = "partitioned".equals(this.context) ? partitionedContext() : readerContext();
+
+        this.out.reset();
+        this.contextSerializer.serialize(this.checkpoint, this.out);
+        this.serialized = this.out.toByteArray();
+        System.out.printf("%n%s / %s : %d bytes per checkpoint%n", this.serializer, this.context, this.serialized.length);
+
+        this.infrastructure = new EmbeddedBatchInfrastructure(this.contextSerializer);
+        JobExecution jobExecution = this.infrastructure.getJobRepository().createJobExecution("serializerBenchmarkJob",
+                new JobParametersBuilder().addString("serializer", this.serializer).addString("context", this.context).toJobParameters());
+        this.stepExecution = jobExecution.createStepExecution("serializerBenchmarkStep");
+        this.infrastructure.getJobRepository().add(this.stepExecution);
+        this.stepExecution.setExecutionContext(new ExecutionContext(this.checkpoint));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.infrastructure.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        this.out.reset();
+        this.contextSerializer.serialize(this.checkpoint, this.out);
+        return this.out.toByteArray();
+    }
+
+    @Benchmark
+    public Map<String, Object> deserialize() throws Exception {
+        return this.contextSerializer.deserialize(new ByteArrayInputStream(this.serialized));
+    }
+
+    /**
+     * 리더가 매 커밋마다 위치를 갱신하는 것처럼 값 하나를 바꾼 뒤 저장
+     */
+    @Benchmark
+    public void commit() {
+        this.stepExecution.getExecutionContext().putLong("reader.read.count", ++this.commits);
+        this.infrastructure.getJobRepository().updateExecutionContext(this.stepExecution);
+    }
+
+    private static Map<String, Object> readerContext() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("batch.taskletType", "org.springframework.batch.core.step.item.ChunkOrientedTasklet");
+        context.put("batch.stepType", "org.springframework.batch.core.step.tasklet.TaskletStep");
+        context.put("reader.read.count", 123_456L);
+        context.put("reader.read.count.max", 1_000_000);
+        context.put("reader.seed", 987_654_321L);
+        context.put("fileName.startOffset", 52_428_800L);
+        context.put("lastModified", new Date());
+        return context;
+    }
+
+    private static Map<String, Object> partitionedContext() {
+        Map<String, Object> context = readerContext();
+        for (int i = 0; i < 200; i++) {
+            context.put("partition" + i + ".minIndex", i * 500);
+            context.put("partition" + i + ".maxIndex", i * 500 + 499);
+        }
+        return context;
+    }
+}
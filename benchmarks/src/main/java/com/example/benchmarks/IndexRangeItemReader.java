@@ -0,0 +1,49 @@
+package com.example.benchmarks;
+
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * 리스트의 [minIndex, maxIndex) 범위만 읽는 ItemStreamReader
+ * 읽은 건수를 ExecutionContext 에 저장하므로, 파티션이 재시작되면 마지막 커밋 위치부터 다시 읽는다.
+ * 원본 리스트는 복사하거나 변경하지 않으므로 여러 워커 스텝이 같은 리스트를 공유해도 된다.
+ * ChunkPolicyBenchmark 에서 미리 만든 아이템을 파티션별로 나눠 읽을 때 사용한다.
+ */
+public class IndexRangeItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private final List<T> items;
+
+    private final int minIndex;
+
+    public IndexRangeItemReader(List<T> items, int minIndex, int maxIndex) {
+        Assert.notNull(items, "items must not be null");
+        Assert.isTrue(0 <= minIndex && minIndex <= maxIndex && maxIndex <= items.size(),
+                "index range must be within the list bounds");
+
+        this.items = items;
+        this.minIndex = minIndex;
+        setMaxItemCount(maxIndex - minIndex);
+        setName(ClassUtils.getShortName(IndexRangeItemReader.class));
+    }
+
+    @Override
+    protected T doRead() {
+        return this.items.get(this.minIndex + getCurrentItemCount() - 1);
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // 인덱스로 바로 접근하므로 건너뛸 필요가 없다.
+    }
+
+    @Override
+    protected void doOpen() {
+    }
+
+    @Override
+    protected void doClose() {
+    }
+}
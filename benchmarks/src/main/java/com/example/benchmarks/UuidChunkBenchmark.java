@@ -0,0 +1,113 @@
+package com.example.benchmarks;
+
+import com.example.springbatchguide.chunk.UuidChunk;
+import com.example.springbatchguide.chunk.UuidChunkPool;
+import com.example.springbatchguide.processor.UuidChunkItemProcessor;
+import com.example.springbatchguide.reader.UuidChunkItemReader;
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.writer.BufferedChannelItemWriter;
+import com.example.springbatchguide.writer.UuidChunkItemWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chunkStep 의 읽기 -> 처리 -> 인코딩 경로를 잡 저장소 없이 반복해서, 아이템 표현 방식별 할당량을 비교하는 벤치마크
+ * string : UuidItemReader 가 만든 36자 문자열을 청크 리스트로 옮긴다.
+ * columnar : UuidChunkItemReader 가 채운 UuidChunk(long 배열 두 개)를 재사용하며 옮긴다.
+ * 두 경우 모두 청크(1000 UUID)마다 새 리스트를 만들고, 인코딩 결과는 재사용 버퍼에 썼다가 비운다. (BufferedChannelItemWriter 와 같은 형식)
+ *
+ * 실행 한 번이 잡 한 번이므로 gc.alloc.rate.norm 은 실행당 할당 바이트다.
+ * java -jar benchmarks/target/benchmarks.jar UuidChunkBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class UuidChunkBenchmark {
+
+    static final int CHUNK_SIZE = 1000;
+
+    static final String PREFIX = ">> current item = ";
+
+    @Param({"100000", "10000000"})
+    public int itemCount;
+
+    @Param({"string", "columnar"})
+    public String representation;
+
+    private final StringBuilder output = new StringBuilder(CHUNK_SIZE * 64);
+
+    @Benchmark
+    public long pipeline() throws Exception {
+        return "string".equals(this.representation) ? stringPipeline() : columnarPipeline();
+    }
+
+    private long stringPipeline() throws Exception {
+        UuidItemReader reader = new UuidItemReader(this.itemCount);
+        reader.setSeed(42L);
+        reader.open(new ExecutionContext());
+        ItemProcessor<String, String> processor = item -> item;
+        BufferedChannelItemWriter.ItemEncoder<String> encoder = (item, line) -> line.append(PREFIX).append(item);
+
+        long written = 0;
+        String item = reader.read();
+        while (item != null) {
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = 0; i < CHUNK_SIZE && item != null; i++) {
+                chunk.add(processor.process(item));
+                item = reader.read();
+            }
+            for (String value : chunk) {
+                encoder.encode(value, this.output);
+                this.output.append('\n');
+            }
+            written += this.output.length();
+            this.output.setLength(0);
+        }
+        reader.close();
+        return written;
+    }
+
+    private long columnarPipeline() throws Exception {
+        UuidChunkPool pool = new UuidChunkPool(CHUNK_SIZE);
+        UuidChunkItemReader reader = new UuidChunkItemReader(0, this.itemCount, pool);
+        reader.setSeed(42L);
+        reader.open(new ExecutionContext());
+        UuidChunkItemProcessor processor = new UuidChunkItemProcessor((most, least) -> true, pool);
+        BufferedChannelItemWriter.ItemEncoder<UuidChunk> encoder = UuidChunkItemWriter.encoder(PREFIX, "\n");
+        UuidChunkItemWriter writer = new UuidChunkItemWriter(chunks -> {
+            for (UuidChunk value : chunks) {
+                encoder.encode(value, this.output);
+                this.output.append('\n');
+            }
+        }, pool);
+
+        long written = 0;
+        UuidChunk item;
+        while ((item = reader.read()) != null) {
+            List<UuidChunk> chunk = new ArrayList<>(1);
+            chunk.add(processor.process(item));
+            writer.write(chunk);
+            written += this.output.length();
+            this.output.setLength(0);
+        }
+        reader.close();
+        return written;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.quartz.cluster;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * 클러스터의 각 노드가 자신의 부하를 BATCH_NODE_LOAD 테이블에 주기적으로 기록하고,
+ * 다른 노드보다 부하가 높으면 트리거를 가져가지 않도록(LoadBalancedJobStore) 알려주는 컴포넌트
+ *
+ * [부하 점수]
+ * 실행 중인 배치 잡 수 + cpuWeight * CPU 사용률(0 ~ 1)
+ *
+ * [판단]
+ * 최근 staleAfterMillis 안에 기록한 다른 노드 중 가장 낮은 점수 + margin 보다 내 점수가 높으면 트리거 획득을 미룬다.
+ * 가장 한가한 노드는 절대 미루지 않으므로 살아있는 노드가 하나라도 있으면 트리거는 실행된다.
+ * 죽은 노드의 기록은 staleAfterMillis 가 지나면 무시된다.
+ */
+public class ClusterLoadBalancer implements AutoCloseable {
+
+    private static final Map<String, ClusterLoadBalancer> INSTANCES = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String schedulerName;
+
+    private final String instanceId;
+
+    private final IntSupplier runningJobs;
+
+    private DoubleSupplier cpuLoad = ClusterLoadBalancer::systemCpuLoad;
+
+    private double cpuWeight = 1.0;
+
+    private double margin = 0.5;
+
+    private long refreshIntervalMillis = 1_000;
+
+    private long staleAfterMillis = 3_000;
+
+    private ScheduledExecutorService refresher;
+
+    private volatile boolean deferring;
+
+    private volatile double score;
+
+    public ClusterLoadBalancer(DataSource dataSource, String schedulerName, String instanceId, IntSupplier runningJobs) {
+        Assert.notNull(dataSource, "dataSource must not be null");
+        Assert.hasText(schedulerName, "schedulerName must not be empty");
+        Assert.hasText(instanceId, "instanceId must not be empty");
+        Assert.notNull(runningJobs, "runningJobs must not be null");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.schedulerName = schedulerName;
+        this.instanceId = instanceId;
+        this.runningJobs = runningJobs;
+    }
+
+    /**
+     * LoadBalancedJobStore 가 자신의 노드에 해당하는 인스턴스를 찾을 때 사용
+     * @param schedulerName
+     * @param instanceId
+     * @return
+     */
+    static ClusterLoadBalancer forInstance(String schedulerName, String instanceId) {
+        return INSTANCES.get(schedulerName + "/" + instanceId);
+    }
+
+    public void setCpuLoad(DoubleSupplier cpuLoad) {
+        this.cpuLoad = cpuLoad;
+    }
+
+    public void setCpuWeight(double cpuWeight) {
+        this.cpuWeight = cpuWeight;
+    }
+
+    /**
+     * 다른 노드보다 이 값 이상 부하가 높을 때만 미룬다. (작은 차이로 노드 간에 번갈아 미루는 것을 막음)
+     * @param margin
+     */
+    public void setMargin(double margin) {
+        this.margin = margin;
+    }
+
+    public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+        Assert.isTrue(refreshIntervalMillis > 0, "refreshIntervalMillis must be greater than 0");
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    public void setStaleAfterMillis(long staleAfterMillis) {
+        Assert.isTrue(staleAfterMillis > 0, "staleAfterMillis must be greater than 0");
+        this.staleAfterMillis = staleAfterMillis;
+    }
+
+    /**
+     * 테이블을 만들고 첫 부하를 기록한 뒤 refreshIntervalMillis 마다 갱신한다.
+     */
+    public synchronized void start() {
+        if (this.refresher != null) {
+            return;
+        }
+        this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS BATCH_NODE_LOAD ("
+                + "SCHED_NAME VARCHAR(120) NOT NULL, INSTANCE_NAME VARCHAR(200) NOT NULL, "
+                + "LOAD_SCORE DOUBLE NOT NULL, LAST_UPDATED BIGINT NOT NULL, "
+                + "PRIMARY KEY (SCHED_NAME, INSTANCE_NAME))");
+        refresh();
+        INSTANCES.put(key(), this);
+
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-load-" + this.instanceId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                // DB 에 접근할 수 없으면 미루지 않는다. (다른 노드도 이 노드의 기록을 오래된 것으로 본다)
+                this.deferring = false;
+            }
+        }, this.refreshIntervalMillis, this.refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 자신의 부하를 기록하고 트리거 획득을 미룰지 다시 판단한다.
+     */
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        double current = this.runningJobs.getAsInt() + this.cpuWeight * Math.max(0, Math.min(1, this.cpuLoad.getAsDouble()));
+        this.score = current;
+
+        int updated = this.jdbcTemplate.update(
+                "UPDATE BATCH_NODE_LOAD SET LOAD_SCORE = ?, LAST_UPDATED = ? WHERE SCHED_NAME = ? AND INSTANCE_NAME = ?",
+                current, now, this.schedulerName, this.instanceId);
+        if (updated == 0) {
+            this.jdbcTemplate.update(
+                    "INSERT INTO BATCH_NODE_LOAD (SCHED_NAME, INSTANCE_NAME, LOAD_SCORE, LAST_UPDATED) VALUES (?, ?, ?, ?)",
+                    this.schedulerName, this.instanceId, current, now);
+        }
+
+        List<Double> others = this.jdbcTemplate.queryForList(
+                "SELECT LOAD_SCORE FROM BATCH_NODE_LOAD WHERE SCHED_NAME = ? AND INSTANCE_NAME <> ? AND LAST_UPDATED >= ?",
+                Double.class, this.schedulerName, this.instanceId, now - this.staleAfterMillis);
+        double leastLoaded = others.stream().mapToDouble(Double::doubleValue).min().orElse(Double.MAX_VALUE);
+        this.deferring = current > leastLoaded + this.margin;
+    }
+
+    /**
+     * @return true 면 이 노드는 트리거를 가져가지 않는다.
+     */
+    public boolean shouldDefer() {
+        return this.deferring;
+    }
+
+    public double getScore() {
+        return this.score;
+    }
+
+    /**
+     * 갱신을 멈추고 기록을 지워 다른 노드가 바로 제외하게 한다.
+     */
+    @Override
+    public synchronized void close() {
+        INSTANCES.remove(key(), this);
+        if (this.refresher != null) {
+            this.refresher.shutdownNow();
+            this.refresher = null;
+            this.jdbcTemplate.update("DELETE FROM BATCH_NODE_LOAD WHERE SCHED_NAME = ? AND INSTANCE_NAME = ?",
+                    this.schedulerName, this.instanceId);
+        }
+        this.deferring = false;
+    }
+
+    private String key() {
+        return this.schedulerName + "/" + this.instanceId;
+    }
+
+    /**
+     * 최근 1분 평균 부하를 코어 수로 나눈 값. 지원하지 않는 OS 에서는 0
+     * @return
+     */
+    private static double systemCpuLoad() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        double loadAverage = os.getSystemLoadAverage();
+        return loadAverage < 0 ? 0 : loadAverage / os.getAvailableProcessors();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.quartz.cluster;
+
+import com.example.quartz.quartzjob.CoalescingJobLauncher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.quartz.QuartzProperties;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * 여러 프로세스가 같은 데이터소스를 공유하는 쿼츠 클러스터 구성 (quartz.cluster.enabled=true)
+ *
+ * - spring.quartz.job-store-type=jdbc 와 함께 사용해야 하며, 쿼츠 테이블(tables_*.sql)이 미리 있어야 한다.
+ * - 각 노드는 clusterCheckinInterval 마다 체크인하고, 체크인이 failureGraceMillis 이상 늦은 노드는 죽은 것으로 보고
+ *   그 노드가 잡고 있던 트리거와 복구 대상 잡을 다른 노드가 가져간다.
+ * - ClusterLoadBalancer 가 노드별 부하(실행 중인 배치 잡 수 + CPU)를 공유하고, 부하가 높은 노드는 트리거 획득을 미룬다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "quartz.cluster.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ClusteredQuartzConfiguration {
+
+    private final QuartzProperties quartzProperties;
+
+    @Value("${spring.quartz.scheduler-name:quartzScheduler}")
+    private String schedulerName;
+
+    /**
+     * 노드 식별자. 지정하지 않으면 호스트 이름과 UUID 로 만든다.
+     */
+    @Value("${quartz.cluster.instance-id:}")
+    private String instanceId;
+
+    @Value("${quartz.cluster.checkin-interval-millis:1000}")
+    private long checkinIntervalMillis;
+
+    /**
+     * 체크인이 이 시간 이상 늦은 노드는 죽은 것으로 판단 (쿼츠 기본값과 같은 7500)
+     * 줄이면 죽은 노드의 트리거를 더 빨리 가져오지만, GC 멈춤이나 DB 지연으로 체크인이 잠깐 늦은 살아 있는 노드도
+     * 죽은 것으로 보고 그 노드가 실행 중인 잡을 복구 실행하므로 같은 잡이 두 번 실행될 수 있다.
+     */
+    @Value("${quartz.cluster.failure-grace-millis:7500}")
+    private long failureGraceMillis;
+
+    @Value("${quartz.cluster.load-margin:0.5}")
+    private double loadMargin;
+
+    @Value("${quartz.cluster.cpu-weight:1.0}")
+    private double cpuWeight;
+
+    @Bean
+    public SchedulerFactoryBeanCustomizer clusteredSchedulerCustomizer() {
+        return schedulerFactoryBean -> {
+            // 자동 구성이 spring.quartz.properties 로 설정한 값을 덮어쓰지 않도록 합쳐서 다시 설정한다.
+            Properties properties = new Properties();
+            properties.putAll(this.quartzProperties.getProperties());
+            properties.putIfAbsent("org.quartz.jobStore.class", LoadBalancedJobStore.class.getName());
+            properties.putIfAbsent("org.quartz.jobStore.isClustered", "true");
+            properties.putIfAbsent("org.quartz.jobStore.clusterCheckinInterval", String.valueOf(this.checkinIntervalMillis));
+            properties.putIfAbsent("org.quartz.jobStore.failureGraceMillis", String.valueOf(this.failureGraceMillis));
+            properties.putIfAbsent("org.quartz.scheduler.idleWaitTime", String.valueOf(Math.max(1_000, this.checkinIntervalMillis)));
+            properties.put("org.quartz.scheduler.instanceId", clusterInstanceId());
+
+            schedulerFactoryBean.setSchedulerName(this.schedulerName);
+            schedulerFactoryBean.setQuartzProperties(properties);
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ClusterLoadBalancer clusterLoadBalancer(DataSource dataSource, CoalescingJobLauncher coalescingJobLauncher) {
+        ClusterLoadBalancer loadBalancer = new ClusterLoadBalancer(dataSource, this.schedulerName, clusterInstanceId(),
+                coalescingJobLauncher::getRunningCount);
+        loadBalancer.setMargin(this.loadMargin);
+        loadBalancer.setCpuWeight(this.cpuWeight);
+        loadBalancer.setRefreshIntervalMillis(this.checkinIntervalMillis);
+        loadBalancer.setStaleAfterMillis(this.checkinIntervalMillis + this.failureGraceMillis);
+        return loadBalancer;
+    }
+
+    private synchronized String clusterInstanceId() {
+        if (this.instanceId == null || this.instanceId.isEmpty()) {
+            this.instanceId = hostName() + "-" + UUID.randomUUID();
+        }
+        return this.instanceId;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.quartz.cluster;
+
+import org.quartz.JobPersistenceException;
+import org.quartz.impl.jdbcjobstore.SchedulerStateRecord;
+import org.quartz.spi.OperableTrigger;
+import org.springframework.scheduling.quartz.LocalDataSourceJobStore;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 클러스터 모드용 JDBC JobStore
+ * - ClusterLoadBalancer 가 이 노드의 부하가 높다고 판단하면 트리거를 가져가지 않아 다른 노드가 실행하게 한다.
+ * - 죽은 노드 판단 기준(마지막 체크인 + 체크인 간격 + failureGraceMillis)의 여유 시간을 설정할 수 있다. (기본값은 쿼츠와 같은 7.5초)
+ *   줄이면 죽은 노드가 잡고 있던 트리거와 복구 대상 잡(requestsRecovery)을 더 빨리 다른 노드가 가져가지만,
+ *   체크인이 잠깐 늦은 살아 있는 노드의 잡까지 복구 실행해 중복 실행이 생길 수 있다.
+ *
+ * org.quartz.jobStore.class 로 지정하며, 설정은 org.quartz.jobStore.failureGraceMillis 로 한다.
+ */
+public class LoadBalancedJobStore extends LocalDataSourceJobStore {
+
+    private long failureGraceMillis = 7_500;
+
+    public void setFailureGraceMillis(long failureGraceMillis) {
+        this.failureGraceMillis = failureGraceMillis;
+    }
+
+    @Override
+    public List<OperableTrigger> acquireNextTriggers(long noLaterThan, int maxCount, long timeWindow) throws JobPersistenceException {
+        ClusterLoadBalancer loadBalancer = ClusterLoadBalancer.forInstance(getInstanceName(), getInstanceId());
+        if (loadBalancer != null && loadBalancer.shouldDefer()) {
+            return Collections.emptyList();
+        }
+        return super.acquireNextTriggers(noLaterThan, maxCount, timeWindow);
+    }
+
+    @Override
+    protected long calcFailedIfAfter(SchedulerStateRecord rec) {
+        // 이 노드의 체크인이 늦어진 경우(GC 등)에는 다른 노드를 죽은 것으로 오판하지 않도록 그만큼 기다린다.
+        return rec.getCheckinTimestamp()
+                + Math.max(rec.getCheckinInterval(), System.currentTimeMillis() - this.lastCheckin)
+                + this.failureGraceMillis;
+    }
+}
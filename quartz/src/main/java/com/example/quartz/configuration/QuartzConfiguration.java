@@ -1,9 +1,16 @@
 package com.example.quartz.configuration;
 
 import com.example.quartz.quartzjob.BatchScheduledJob;
+import com.example.quartz.quartzjob.CoalescingJobLauncher;
 import org.quartz.*;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * 스케줄 구성을 위한 두가지 할 일
@@ -13,13 +20,28 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class QuartzConfiguration {
 
+    /**
+     * true 면 잡을 별도 스레드에서 실행하고 쿼츠 워커 스레드는 바로 반환
+     */
+    @Value("${quartz.launch.async:true}")
+    private boolean asyncLaunch;
+
+    /**
+     * 잡별 동시 실행 수. 이 수만큼 실행 중일 때 발생한 트리거는 실행이 끝난 뒤 한 번으로 합쳐 실행
+     */
+    @Value("${quartz.launch.max-concurrent-runs:1}")
+    private int maxConcurrentRuns;
+
     /**
      * 잡 클래스를 전달 후, 잡을 수행할 트리거가 존재하지 않더라도 쿼츠가 해당 잡 정의를 삭제하지 않도록 JobDetail 생성
+     * 클러스터의 노드들이 같은 잡을 중복 등록하지 않도록 고정된 이름을 사용하고, 실행 중에 노드가 죽으면 다른 노드에서 다시 실행(requestRecovery)
      * @return 실행할 쿼츠 잡 수행 시에 사용되는 메타데이터
      */
     @Bean
     public JobDetail quartzJobDetail() {
         return JobBuilder.newJob(BatchScheduledJob.class)
+                .withIdentity("batchScheduledJob")
+                .requestRecovery()
                 .storeDurably().build();
     }
 
@@ -34,8 +56,31 @@ public class QuartzConfiguration {
                 .withIntervalInSeconds(5).withRepeatCount(4);
 
         return TriggerBuilder.newTrigger()
+                .withIdentity("batchScheduledTrigger")
                 .forJob(quartzJobDetail())
                 .withSchedule(scheduleBuilder)
                 .build();
     }
+
+    /**
+     * 트리거마다 잡 저장소를 조회하고 잡이 끝날 때까지 쿼츠 스레드를 점유하던 실행 방식을 대체
+     * @param jobLauncher
+     * @param jobExplorer
+     * @return
+     */
+    @Bean
+    public CoalescingJobLauncher coalescingJobLauncher(JobLauncher jobLauncher, JobExplorer jobExplorer) {
+        return new CoalescingJobLauncher(jobLauncher, jobExplorer, batchLaunchTaskExecutor(), this.maxConcurrentRuns);
+    }
+
+    @Bean
+    public TaskExecutor batchLaunchTaskExecutor() {
+        if (!this.asyncLaunch) {
+            return new SyncTaskExecutor();
+        }
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(this.maxConcurrentRuns);
+        taskExecutor.setThreadNamePrefix("batch-launch-");
+        return taskExecutor;
+    }
 }
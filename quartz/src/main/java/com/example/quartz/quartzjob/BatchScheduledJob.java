@@ -1,17 +1,13 @@
 package com.example.quartz.quartzjob;
 
 import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
 import org.springframework.batch.core.Job;
-import org.springframework.batch.core.JobParameters;
-import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.explore.JobExplorer;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 
 /**
  * 일정 이벤트가 발생할 때 잡을 실행하는 메커니즘을 구현한 코드
+ * 실행과 파라미터 계산은 CoalescingJobLauncher 에 맡기므로 쿼츠 워커 스레드는 잡이 끝날 때까지 기다리지 않는다.
  */
 public class BatchScheduledJob extends QuartzJobBean {
 
@@ -19,10 +15,7 @@ public class BatchScheduledJob extends QuartzJobBean {
     private Job job;
 
     @Autowired
-    private JobExplorer jobExplorer;
-
-    @Autowired
-    private JobLauncher jobLauncher;
+    private CoalescingJobLauncher coalescingJobLauncher;
 
     /**
      * 쿼츠 잡에 잡을 자동와이어링
@@ -30,14 +23,6 @@ public class BatchScheduledJob extends QuartzJobBean {
      */
     @Override
     protected void executeInternal(JobExecutionContext context) {
-        JobParameters jobParameters = new JobParametersBuilder(this.jobExplorer)
-                .getNextJobParameters(this.job)
-                .toJobParameters();
-
-        try {
-            this.jobLauncher.run(this.job, jobParameters);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        this.coalescingJobLauncher.launch(this.job);
     }
 }
@@ -0,0 +1,161 @@
+package com.example.quartz.quartzjob;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 쿼츠 트리거가 발생할 때마다 잡을 실행하되, 실행 중에 들어온 트리거는 하나로 합치는 런처
+ *
+ * [동작방식]
+ * - 잡별로 동시에 실행할 수 있는 수(maxConcurrentRuns)를 넘으면 트리거를 버리지 않고 '대기' 표시만 남긴다.
+ *   실행이 끝났을 때 대기 표시가 있으면 한 번만 다시 실행하므로, 그 사이에 트리거가 몇 번 발생했더라도 추가 실행은 한 번이다.
+ * - 잡은 TaskExecutor 에서 실행되므로 비동기 실행기를 사용하면 쿼츠 워커 스레드는 바로 반환된다.
+ *   SyncTaskExecutor 를 사용하면 기존처럼 쿼츠 스레드에서 실행하고, 대기 중인 실행도 같은 스레드에서 이어서 처리한다.
+ * - 다음 JobParameters 는 처음 한 번만 JobExplorer 로 계산하고, 이후에는 잡의 JobParametersIncrementer 로 메모리에서 만든다.
+ *   다른 프로세스가 같은 잡을 실행해 파라미터가 겹치면 저장소에서 다시 계산한다.
+ *   (이미 끝난 실행이면 JobInstanceAlreadyCompleteException, 다른 노드가 아직 실행 중이면 JobExecutionAlreadyRunningException)
+ */
+@Slf4j
+public class CoalescingJobLauncher {
+
+    private final JobLauncher jobLauncher;
+
+    private final JobExplorer jobExplorer;
+
+    private final TaskExecutor taskExecutor;
+
+    private final int maxConcurrentRuns;
+
+    private final Map<String, JobState> jobStates = new ConcurrentHashMap<>();
+
+    public CoalescingJobLauncher(JobLauncher jobLauncher, JobExplorer jobExplorer, TaskExecutor taskExecutor, int maxConcurrentRuns) {
+        Assert.notNull(jobLauncher, "jobLauncher must not be null");
+        Assert.notNull(jobExplorer, "jobExplorer must not be null");
+        Assert.notNull(taskExecutor, "taskExecutor must not be null");
+        Assert.isTrue(maxConcurrentRuns > 0, "maxConcurrentRuns must be greater than 0");
+
+        this.jobLauncher = jobLauncher;
+        this.jobExplorer = jobExplorer;
+        this.taskExecutor = taskExecutor;
+        this.maxConcurrentRuns = maxConcurrentRuns;
+    }
+
+    /**
+     * 잡 실행을 요청한다.
+     * @param job
+     * @return 새 실행을 시작했으면 true, 실행 중인 잡의 대기 실행으로 합쳐졌으면 false
+     */
+    public boolean launch(Job job) {
+        JobState state = this.jobStates.computeIfAbsent(job.getName(), name -> new JobState());
+
+        synchronized (state) {
+            if (state.running >= this.maxConcurrentRuns) {
+                state.pending = true;
+                state.coalescedCount++;
+                return false;
+            }
+            state.running++;
+        }
+
+        try {
+            this.taskExecutor.execute(() -> runWhilePending(job, state));
+        } catch (RuntimeException e) {
+            synchronized (state) {
+                state.running--;
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * 합쳐진 트리거 수 (모니터링 / 테스트용)
+     * @param jobName
+     * @return
+     */
+    public long getCoalescedCount(String jobName) {
+        JobState state = this.jobStates.get(jobName);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.coalescedCount;
+        }
+    }
+
+    /**
+     * 모든 잡의 실행 중인 수 (클러스터 부하 계산용)
+     * @return
+     */
+    public int getRunningCount() {
+        int running = 0;
+        for (JobState state : this.jobStates.values()) {
+            synchronized (state) {
+                running += state.running;
+            }
+        }
+        return running;
+    }
+
+    private void runWhilePending(Job job, JobState state) {
+        boolean again = true;
+        while (again) {
+            run(job, state);
+
+            synchronized (state) {
+                again = state.pending;
+                state.pending = false;
+                if (!again) {
+                    state.running--;
+                }
+            }
+        }
+    }
+
+    private void run(Job job, JobState state) {
+        try {
+            try {
+                this.jobLauncher.run(job, nextJobParameters(job, state, false));
+            } catch (JobInstanceAlreadyCompleteException | JobExecutionAlreadyRunningException e) {
+                this.jobLauncher.run(job, nextJobParameters(job, state, true));
+            }
+        } catch (Exception e) {
+            log.error("Failed to launch job {}", job.getName(), e);
+        }
+    }
+
+    private JobParameters nextJobParameters(Job job, JobState state, boolean refresh) {
+        synchronized (state) {
+            if (refresh || state.lastJobParameters == null || job.getJobParametersIncrementer() == null) {
+                state.lastJobParameters = new JobParametersBuilder(this.jobExplorer)
+                        .getNextJobParameters(job)
+                        .toJobParameters();
+            } else {
+                state.lastJobParameters = job.getJobParametersIncrementer().getNext(state.lastJobParameters);
+            }
+            return state.lastJobParameters;
+        }
+    }
+
+    private static class JobState {
+
+        private int running;
+
+        private boolean pending;
+
+        private long coalescedCount;
+
+        private JobParameters lastJobParameters;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.quartz.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.quartz.SchedulerFactoryBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 H2 데이터베이스를 공유하는 여러 스케줄러로 클러스터 동작을 확인
+ */
+class ClusteredSchedulerTest {
+
+    private static final String SCHEDULER_NAME = "clusterTest";
+
+    private static final List<String> fires = new CopyOnWriteArrayList<>();
+
+    private static final ConcurrentHashMap<String, CountDownLatch> latches = new ConcurrentHashMap<>();
+
+    private DriverManagerDataSource dataSource;
+
+    private final List<SchedulerFactoryBean> nodes = new ArrayList<>();
+
+    private final List<ClusterLoadBalancer> loadBalancers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fires.clear();
+        latches.clear();
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:quartz-cluster;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("org/quartz/impl/jdbcjobstore/tables_h2.sql")).execute(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        latches.values().forEach(CountDownLatch::countDown);
+        for (SchedulerFactoryBean node : nodes) {
+            node.destroy();
+        }
+        loadBalancers.forEach(ClusterLoadBalancer::close);
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void busyNodeLeavesFiresToIdleNode() throws Exception {
+        ClusterLoadBalancer busy = loadBalancer("busy", 5);
+        ClusterLoadBalancer idle = loadBalancer("idle", 0);
+        busy.refresh();
+        idle.refresh();
+        assertThat(busy.shouldDefer()).isTrue();
+        assertThat(idle.shouldDefer()).isFalse();
+
+        Scheduler busyScheduler = start("busy");
+        start("idle");
+
+        busyScheduler.scheduleJob(recordingJob("recording", false), TriggerBuilder.newTrigger()
+                .withIdentity("every100ms")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule().withIntervalInMilliseconds(100).withRepeatCount(9))
+                .startNow()
+                .build());
+
+        waitUntil(() -> fires.size() >= 10, 10_000);
+        assertThat(fires).hasSize(10).containsOnly("idle");
+    }
+
+    @Test
+    void deadNodeIsDetectedWithinFailureGrace() throws Exception {
+        loadBalancer("first", 0);
+        Scheduler first = start("first");
+        latches.put("first", new CountDownLatch(1));
+
+        first.scheduleJob(recordingJob("blocking", true), TriggerBuilder.newTrigger()
+                .withIdentity("once")
+                .startNow()
+                .build());
+        waitUntil(() -> fires.contains("first"), 10_000);
+
+        // 실행 중에 노드가 멈추면 (체크인 중단) 다른 노드가 복구 대상 잡을 다시 실행한다.
+        loadBalancer("second", 0);
+        start("second");
+        long stoppedAt = System.currentTimeMillis();
+        first.shutdown(false);
+
+        waitUntil(() -> fires.contains("second"), 10_000);
+        assertThat(System.currentTimeMillis() - stoppedAt).isLessThan(5_000);
+    }
+
+    private ClusterLoadBalancer loadBalancer(String instanceId, int runningJobs) {
+        ClusterLoadBalancer loadBalancer = new ClusterLoadBalancer(dataSource, SCHEDULER_NAME, instanceId, () -> runningJobs);
+        loadBalancer.setCpuLoad(() -> 0);
+        loadBalancer.setRefreshIntervalMillis(200);
+        loadBalancer.start();
+        loadBalancers.add(loadBalancer);
+        return loadBalancer;
+    }
+
+    private Scheduler start(String instanceId) throws Exception {
+        Properties properties = new Properties();
+        properties.put("org.quartz.jobStore.class", LoadBalancedJobStore.class.getName());
+        properties.put("org.quartz.jobStore.isClustered", "true");
+        properties.put("org.quartz.jobStore.clusterCheckinInterval", "500");
+        properties.put("org.quartz.jobStore.failureGraceMillis", "500");
+        properties.put("org.quartz.scheduler.idleWaitTime", "1000");
+        properties.put("org.quartz.scheduler.instanceId", instanceId);
+        properties.put("org.quartz.threadPool.threadCount", "2");
+
+        SchedulerFactoryBean node = new SchedulerFactoryBean();
+        node.setSchedulerName(SCHEDULER_NAME);
+        node.setDataSource(dataSource);
+        node.setQuartzProperties(properties);
+        node.setWaitForJobsToCompleteOnShutdown(false);
+        node.afterPropertiesSet();
+        node.start();
+        nodes.add(node);
+        return node.getScheduler();
+    }
+
+    private static JobDetail recordingJob(String name, boolean requestRecovery) {
+        return JobBuilder.newJob(RecordingJob.class)
+                .withIdentity(name)
+                .requestRecovery(requestRecovery)
+                .build();
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    public static class RecordingJob implements Job {
+
+        @Override
+        public void execute(JobExecutionContext context) {
+            try {
+                String instanceId = context.getScheduler().getSchedulerInstanceId();
+                fires.add(instanceId);
+                CountDownLatch latch = latches.get(instanceId);
+                if (latch != null) {
+                    latch.await(10, TimeUnit.SECONDS);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
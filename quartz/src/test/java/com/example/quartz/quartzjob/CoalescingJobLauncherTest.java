@@ -0,0 +1,138 @@
+package com.example.quartz.quartzjob;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoalescingJobLauncherTest {
+
+    private final List<Long> launchedRunIds = new CopyOnWriteArrayList<>();
+
+    private JobExplorer jobExplorer;
+
+    private Job job;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    @BeforeEach
+    void setUp() {
+        jobExplorer = mock(JobExplorer.class);
+
+        job = mock(Job.class);
+        when(job.getName()).thenReturn("job");
+        when(job.getJobParametersIncrementer()).thenReturn(new RunIdIncrementer());
+
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(2);
+        taskExecutor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void coalescesFiresWhileRunning() throws Exception {
+        CountDownLatch firstRunStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRun = new CountDownLatch(1);
+        CountDownLatch allRunsDone = new CountDownLatch(2);
+
+        JobLauncher jobLauncher = mock(JobLauncher.class);
+        when(jobLauncher.run(eq(job), any(JobParameters.class))).thenAnswer(invocation -> {
+            JobParameters jobParameters = invocation.getArgument(1);
+            launchedRunIds.add(jobParameters.getLong("run.id"));
+            if (launchedRunIds.size() == 1) {
+                firstRunStarted.countDown();
+                releaseFirstRun.await();
+            }
+            allRunsDone.countDown();
+            return new JobExecution(1L, jobParameters);
+        });
+        CoalescingJobLauncher launcher = new CoalescingJobLauncher(jobLauncher, jobExplorer, taskExecutor, 1);
+
+        assertThat(launcher.launch(job)).isTrue();
+        assertThat(firstRunStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 실행 중에 들어온 트리거 세 번은 대기 실행 한 번으로 합쳐지고, 호출한 스레드는 기다리지 않는다.
+        assertThat(launcher.launch(job)).isFalse();
+        assertThat(launcher.launch(job)).isFalse();
+        assertThat(launcher.launch(job)).isFalse();
+        assertThat(launcher.getCoalescedCount("job")).isEqualTo(3);
+
+        releaseFirstRun.countDown();
+        assertThat(allRunsDone.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(launchedRunIds).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void queriesJobExplorerOnlyForFirstRun() throws Exception {
+        JobLauncher jobLauncher = (job, jobParameters) -> {
+            launchedRunIds.add(jobParameters.getLong("run.id"));
+            return new JobExecution(1L, jobParameters);
+        };
+        CoalescingJobLauncher launcher = new CoalescingJobLauncher(jobLauncher, jobExplorer, Runnable::run, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(launcher.launch(job)).isTrue();
+        }
+
+        assertThat(launchedRunIds).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verify(jobExplorer, times(1)).getLastJobInstance("job");
+    }
+
+    @Test
+    void refreshesRunIdWhenAnotherProcessUsedIt() throws Exception {
+        JobLauncher jobLauncher = mock(JobLauncher.class);
+        when(jobLauncher.run(eq(job), any(JobParameters.class)))
+                .thenReturn(new JobExecution(1L))
+                .thenThrow(new JobInstanceAlreadyCompleteException("run.id=2 already complete"))
+                .thenReturn(new JobExecution(3L));
+        CoalescingJobLauncher launcher = new CoalescingJobLauncher(jobLauncher, jobExplorer, Runnable::run, 1);
+
+        launcher.launch(job);
+        launcher.launch(job);
+
+        verify(jobLauncher, times(3)).run(eq(job), any(JobParameters.class));
+        verify(jobExplorer, times(2)).getLastJobInstance("job");
+    }
+
+    @Test
+    void refreshesRunIdWhenAnotherNodeIsRunningIt() throws Exception {
+        JobLauncher jobLauncher = mock(JobLauncher.class);
+        when(jobLauncher.run(eq(job), any(JobParameters.class)))
+                .thenReturn(new JobExecution(1L))
+                .thenThrow(new JobExecutionAlreadyRunningException("run.id=2 is running on another node"))
+                .thenReturn(new JobExecution(3L));
+        CoalescingJobLauncher launcher = new CoalescingJobLauncher(jobLauncher, jobExplorer, Runnable::run, 1);
+
+        launcher.launch(job);
+        launcher.launch(job);
+
+        verify(jobLauncher, times(3)).run(eq(job), any(JobParameters.class));
+        verify(jobExplorer, times(2)).getLastJobInstance("job");
+    }
+}
@@ -1,26 +1,66 @@
 package com.example.springbatchguide;
 
+import com.example.springbatchguide.batch.BatchMetricsListener;
+import com.example.springbatchguide.chunk.AdaptiveChunkSizePolicy;
+import com.example.springbatchguide.chunk.BisectingStepBuilder;
+import com.example.springbatchguide.chunk.ByteBudgetCompletionPolicy;
 import com.example.springbatchguide.chunk.RandomChunkSizePolicy;
+import com.example.springbatchguide.chunk.UuidChunk;
+import com.example.springbatchguide.chunk.UuidChunkPool;
+import com.example.springbatchguide.dedup.DeduplicatingItemProcessor;
+import com.example.springbatchguide.dedup.JdbcSeenItemStore;
+import com.example.springbatchguide.partition.RangePartitioner;
+import com.example.springbatchguide.processor.AsyncItemProcessor;
+import com.example.springbatchguide.reader.UuidChunkItemReader;
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.remote.ChunkChannel;
+import com.example.springbatchguide.remote.ChunkWorker;
+import com.example.springbatchguide.remote.LoopbackChunkChannel;
+import com.example.springbatchguide.remote.RemoteChunkItemWriter;
+import com.example.springbatchguide.remote.SocketChunkChannel;
+import com.example.springbatchguide.sort.RunCodec;
+import com.example.springbatchguide.sort.SortedRunMergeReader;
+import com.example.springbatchguide.sort.SortedRunWriter;
+import com.example.springbatchguide.writer.AsyncItemWriter;
+import com.example.springbatchguide.writer.BufferedChannelItemWriter;
+import com.example.springbatchguide.writer.MultiRowInsertItemWriter;
+import com.example.springbatchguide.writer.UuidChunkItemWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.repeat.CompletionPolicy;
 import org.springframework.batch.repeat.policy.CompositeCompletionPolicy;
 import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.batch.repeat.policy.TimeoutTerminationPolicy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.EnableMBeanExport;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @EnableBatchProcessing
 @SpringBootApplication
@@ -31,24 +71,527 @@ public class ChunkJob {
 
     private final StepBuilderFactory stepBuilderFactory;
 
+    private final BatchMetricsListener batchMetricsListener;
+
+    private final DataSource dataSource;
+
+    /**
+     * 생성할 아이템 수. 아이템을 미리 만들어두지 않으므로 값이 커져도 메모리 사용량은 같다.
+     */
+    @Value("${chunk.item-count:100000}")
+    private int itemCount;
+
+    /**
+     * 파티션 개수이자 워커 스레드 수. 기본값은 CPU 코어 수
+     */
+    @Value("${chunk.partition.grid-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int gridSize;
+
+    /**
+     * 출력 파일 경로. 지정하지 않으면 표준 출력으로 쓴다.
+     */
+    @Value("${chunk.writer.output:}")
+    private String writerOutput;
+
+    /**
+     * chunkStep 에서 동시에 처리할 최대 아이템 수
+     */
+    @Value("${chunk.processor.concurrency:8}")
+    private int processorConcurrency;
+
+    /**
+     * enrichItemProcessor 가 아이템마다 기다리는 시간 (외부 조회 지연을 흉내냄)
+     */
+    @Value("${chunk.processor.latency-millis:0}")
+    private long processorLatencyMillis;
+
+    /**
+     * jdbcChunkJob 이 아이템을 쓸 테이블. 없으면 jdbcChunkStep 이 시작할 때 만든다. (id VARCHAR(36) PRIMARY KEY)
+     */
+    @Value("${chunk.writer.jdbc-table:chunk_item}")
+    private String jdbcTable;
+
+    /**
+     * 다중 행 INSERT 문장 하나의 최대 크기. MySQL max_allowed_packet 보다 작게 둔다.
+     */
+    @Value("${chunk.writer.jdbc-max-packet-bytes:4194304}")
+    private long jdbcMaxPacketBytes;
+
+    /**
+     * 청크 하나를 동시에 쓸 커넥션 수
+     */
+    @Value("${chunk.writer.jdbc-parallelism:1}")
+    private int jdbcParallelism;
+
+    /**
+     * jdbcChunkStep 에서 건너뛸 수 있는 중복 키 아이템 수. 0 보다 크면 실패한 청크를 반씩 나눠 중복 아이템만 건너뛴다.
+     */
+    @Value("${chunk.writer.jdbc-skip-limit:0}")
+    private int jdbcSkipLimit;
+
+    /**
+     * jdbcChunkStep 에서 이전 실행에 쓴 아이템을 걸러낼지 여부
+     */
+    @Value("${chunk.dedup.enabled:false}")
+    private boolean dedupEnabled;
+
+    /**
+     * 실행 간에 유지되는 블룸 필터 파일
+     */
+    @Value("${chunk.dedup.bloom-file:chunk-dedup.bloom}")
+    private String dedupBloomFile;
+
+    /**
+     * 블룸 필터를 처음 만들 때의 예상 아이템 수와 오탐률
+     */
+    @Value("${chunk.dedup.expected-items:10000000}")
+    private long dedupExpectedItems;
+
+    @Value("${chunk.dedup.false-positive-rate:0.01}")
+    private double dedupFalsePositiveRate;
+
+    /**
+     * 원격 청킹 워커 목록 (host:port,host:port). 지정하지 않으면 같은 JVM 안의 루프백 워커를 사용한다.
+     */
+    @Value("${chunk.remote.workers:}")
+    private String remoteWorkers;
+
+    @Value("${chunk.remote.loopback-workers:2}")
+    private int loopbackWorkers;
+
+    @Value("${chunk.remote.throttle-limit:6}")
+    private int remoteThrottleLimit;
+
+    /**
+     * 청크 하나에 담을 아이템의 예상 크기 합계 (workerChunkStep)
+     */
+    @Value("${chunk.completion.max-bytes:4194304}")
+    private long completionMaxBytes;
+
+    /**
+     * 청크 하나를 읽는 데 쓸 최대 시간 (workerChunkStep)
+     */
+    @Value("${chunk.completion.max-millis:1000}")
+    private long completionMaxMillis;
+
+    /**
+     * columnarChunkStep 에서 UuidChunk 하나에 담을 UUID 수
+     */
+    @Value("${chunk.columnar.rows-per-chunk:1000}")
+    private int columnarRowsPerChunk;
+
+    /**
+     * sortedChunkJob 에서 런 하나(한 번에 메모리에서 정렬할 아이템)의 예상 크기 합계
+     */
+    @Value("${chunk.sort.run-bytes:67108864}")
+    private long sortRunBytes;
+
+    /**
+     * 정렬된 런 파일을 둘 디렉터리. 잡 인스턴스마다 {jobInstanceId} 하위 디렉터리에 만들고, 병합 스텝이 성공하면 런 파일은 지워진다.
+     */
+    @Value("${chunk.sort.directory:#{systemProperties['java.io.tmpdir']}/chunk-sort}")
+    private String sortDirectory;
+
     @Bean
     public Job chunkBasedJob() {
         return this.jobBuilderFactory.get("chunkBasedJob")
                 .start(chunkStep())
+                .listener(this.batchMetricsListener)
                 .build();
     }
 
+    /**
+     * chunk.processor.latency-millis 가 0 이면 프로세서가 하는 일이 없으므로
+     * 아이템마다 Future 를 만들고 스레드를 넘나드는 비용 없이 itemWriter 로 바로 쓴다.
+     * @return
+     */
     @Bean
     public Step chunkStep() {
-        return this.stepBuilderFactory.get("chunkStep()")
-                // .<String, String> chunk(1000) // 커밋 간격을 하드코딩해 청크 크기를 결정
-                // .<String, String> chunk(completionPolicy()) // 청크가 완료되는 시점을 프로그래밍 방식으로 정의
-                .<String, String> chunk(randomChunkSizePolicy())
-                .reader(itemReader())
-                .writer(itemWriter())
+        SimpleStepBuilder<String, ?> builder;
+        if (this.processorLatencyMillis > 0) {
+            builder = this.stepBuilderFactory.get("chunkStep()")
+                    // .<String, String> chunk(1000) // 커밋 간격을 하드코딩해 청크 크기를 결정
+                    // .<String, String> chunk(completionPolicy()) // 청크가 완료되는 시점을 프로그래밍 방식으로 정의
+                    // .<String, String> chunk(randomChunkSizePolicy()) // 무작위 청크 크기
+                    .<String, Future<String>> chunk(adaptiveChunkSizePolicy()) // 커밋 시간과 처리량을 측정해 청크 크기를 조정
+                    .reader(itemReader(null))
+                    .processor(asyncItemProcessor())
+                    .writer(asyncItemWriter());
+        } else {
+            builder = this.stepBuilderFactory.get("chunkStep()")
+                    .<String, String> chunk(adaptiveChunkSizePolicy())
+                    .reader(itemReader(null))
+                    .writer(itemWriter());
+        }
+        return this.batchMetricsListener.register(builder)
+                .listener((ChunkListener) adaptiveChunkSizePolicy())
+                .listener((StepExecutionListener) adaptiveChunkSizePolicy())
                 .build();
     }
 
+    /**
+     * enrichItemProcessor 를 processorTaskExecutor 에서 최대 processorConcurrency 개까지 동시에 실행
+     * @return
+     */
+    @Bean
+    public AsyncItemProcessor<String, String> asyncItemProcessor() {
+        return new AsyncItemProcessor<>(enrichItemProcessor(), processorTaskExecutor(), this.processorConcurrency);
+    }
+
+    /**
+     * 청크의 Future 들을 순서대로 꺼내 itemWriter 로 쓴다.
+     * @return
+     */
+    @Bean
+    public AsyncItemWriter<String> asyncItemWriter() {
+        return new AsyncItemWriter<>(itemWriter());
+    }
+
+    /**
+     * 외부 API 로 아이템을 보강하는 프로세서 자리. chunk.processor.latency-millis 만큼 I/O 를 기다리는 것으로 대신한다.
+     * @return
+     */
+    @Bean
+    public ItemProcessor<String, String> enrichItemProcessor() {
+        return item -> {
+            if (this.processorLatencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(this.processorLatencyMillis);
+            }
+            return item;
+        };
+    }
+
+    @Bean
+    public TaskExecutor processorTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(this.processorConcurrency);
+        taskExecutor.setMaxPoolSize(this.processorConcurrency);
+        taskExecutor.setThreadNamePrefix("processor-");
+        return taskExecutor;
+    }
+
+    /**
+     * chunkStep 을 파티셔닝해 여러 스레드에서 실행하는 잡
+     * @return
+     */
+    @Bean
+    public Job partitionedChunkJob() {
+        return this.jobBuilderFactory.get("partitionedChunkJob")
+                .start(partitionedChunkStep())
+                .listener(this.batchMetricsListener)
+                .build();
+    }
+
+    /**
+     * 매니저 스텝 : Partitioner 가 나눈 인덱스 범위를 워커 스텝에 할당해 TaskExecutor 로 동시에 실행
+     * 파티션마다 StepExecution 이 따로 저장되므로, 재시작 시 실패한 파티션만 다시 실행된다.
+     * @return
+     */
+    @Bean
+    public Step partitionedChunkStep() {
+        return this.stepBuilderFactory.get("partitionedChunkStep")
+                .partitioner(workerChunkStep().getName(), partitioner())
+                .step(workerChunkStep())
+                .gridSize(this.gridSize)
+                .taskExecutor(partitionTaskExecutor())
+                .build();
+    }
+
+    /**
+     * 워커 스텝 : 할당받은 인덱스 범위만 읽어서 처리
+     * AdaptiveChunkSizePolicy 는 상태를 가지므로 여러 파티션이 공유하지 않도록,
+     * 청크별 상태를 RepeatContext 에 두는 ByteBudgetCompletionPolicy 를 사용
+     * @return
+     */
+    @Bean
+    public Step workerChunkStep() {
+        return this.batchMetricsListener.register(this.stepBuilderFactory.get("workerChunkStep")
+                        .<String, String> chunk(byteBudgetCompletionPolicy())
+                        .reader(partitionItemReader(null, null, null))
+                        .writer(itemWriter())
+                        .listener(byteBudgetCompletionPolicy()))
+                .build();
+    }
+
+    /**
+     * chunkStep 과 같은 아이템을 표준 출력 대신 DB 테이블에 다중 행 INSERT 로 쓰는 잡
+     * @return
+     */
+    @Bean
+    public Job jdbcChunkJob() {
+        return this.jobBuilderFactory.get("jdbcChunkJob")
+                .start(jdbcChunkStep())
+                .listener(this.batchMetricsListener)
+                .build();
+    }
+
+    @Bean
+    public Step jdbcChunkStep() {
+        SimpleStepBuilder<String, String> builder = this.stepBuilderFactory.get("jdbcChunkStep")
+                .<String, String> chunk(5000)
+                .reader(itemReader(null))
+                .writer(jdbcItemWriter());
+        if (this.dedupEnabled) {
+            builder.processor(deduplicatingItemProcessor());
+        }
+        this.batchMetricsListener.register(builder);
+        if (this.jdbcSkipLimit <= 0) {
+            return builder.build();
+        }
+        // 아이템을 하나씩 다시 쓰는 faultTolerant() 대신, 실패한 청크를 반씩 나눠 중복 아이템을 찾는다.
+        return new BisectingStepBuilder<>(builder)
+                .skip(SQLIntegrityConstraintViolationException.class)
+                .skipLimit(this.jdbcSkipLimit)
+                .build();
+    }
+
+    /**
+     * 블룸 필터로 처음 보는 아이템을 바로 통과시키고, 있을 수도 있는 아이템만 chunk_item_seen 테이블에서 확인한다.
+     * @return
+     */
+    @Bean
+    public DeduplicatingItemProcessor<String> deduplicatingItemProcessor() {
+        DeduplicatingItemProcessor<String> processor = new DeduplicatingItemProcessor<>(item -> item,
+                new JdbcSeenItemStore(this.dataSource, this.jdbcTable + "_seen"), Paths.get(this.dedupBloomFile));
+        processor.setExpectedInsertions(this.dedupExpectedItems);
+        processor.setFalsePositiveRate(this.dedupFalsePositiveRate);
+        processor.setMeterRegistry(this.batchMetricsListener.getMeterRegistry());
+        return processor;
+    }
+
+    @Bean
+    public MultiRowInsertItemWriter<String> jdbcItemWriter() {
+        MultiRowInsertItemWriter<String> writer = new MultiRowInsertItemWriter<>(this.dataSource, this.jdbcTable,
+                Arrays.asList("id"), (item, ps, offset) -> ps.setString(offset + 1, item));
+        writer.setCreateTableSql("CREATE TABLE IF NOT EXISTS " + this.jdbcTable + " (id VARCHAR(36) NOT NULL PRIMARY KEY)");
+        writer.setEstimatedRowBytes(48);
+        writer.setMaxPacketBytes(this.jdbcMaxPacketBytes);
+        if (this.jdbcParallelism > 1) {
+            writer.setParallelism(this.jdbcParallelism, partitionTaskExecutor());
+        }
+        writer.setMeterRegistry(this.batchMetricsListener.getMeterRegistry());
+        return writer;
+    }
+
+    /**
+     * 매니저 스텝이 읽기만 하고, 청크는 ChunkChannel 로 워커들에게 보내 쓰게 하는 잡 (원격 청킹)
+     * @return
+     */
+    @Bean
+    public Job remoteChunkJob() {
+        return this.jobBuilderFactory.get("remoteChunkJob")
+                .start(remoteChunkStep())
+                .listener(this.batchMetricsListener)
+                .build();
+    }
+
+    /**
+     * 매니저 스텝 : 청크를 보낸 뒤 바로 커밋하고, 스텝이 끝날 때 모든 응답을 기다린다.
+     * 루프백 워커는 이 JVM 의 itemWriter 에 쓰므로 itemWriter 를 매니저 스텝의 스트림으로 열고 닫는다.
+     * (afterStep 에서 모든 응답을 기다린 뒤에 닫힌다)
+     * @return
+     */
+    @Bean
+    public Step remoteChunkStep() {
+        SimpleStepBuilder<String, String> builder = this.batchMetricsListener.register(this.stepBuilderFactory.get("remoteChunkStep")
+                        .<String, String> chunk(1000)
+                        .reader(itemReader(null))
+                        .writer(remoteChunkItemWriter()));
+        if (chunkChannel() instanceof LoopbackChunkChannel) {
+            builder.stream(itemWriter());
+        }
+        return builder
+                .listener((StepExecutionListener) remoteChunkItemWriter())
+                .build();
+    }
+
+    @Bean
+    public RemoteChunkItemWriter<String> remoteChunkItemWriter() {
+        RemoteChunkItemWriter<String> writer = new RemoteChunkItemWriter<>(chunkChannel());
+        writer.setThrottleLimit(this.remoteThrottleLimit);
+        return writer;
+    }
+
+    /**
+     * chunk.remote.workers 가 있으면 워커들과 TCP 로 연결하고, 없으면 itemWriter 를 공유하는 루프백 워커를 만든다.
+     * @return
+     */
+    @Bean
+    public ChunkChannel chunkChannel() {
+        if (!StringUtils.hasText(this.remoteWorkers)) {
+            List<ChunkWorker<String, String>> workers = new ArrayList<>();
+            for (int i = 0; i < this.loopbackWorkers; i++) {
+                workers.add(new ChunkWorker<>(null, itemWriter()));
+            }
+            return new LoopbackChunkChannel(workers);
+        }
+
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String worker : StringUtils.commaDelimitedListToStringArray(this.remoteWorkers)) {
+            String[] hostAndPort = worker.trim().split(":");
+            addresses.add(new InetSocketAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1])));
+        }
+        try {
+            return new SocketChunkChannel(addresses);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to connect to remote chunk workers", e);
+        }
+    }
+
+    /**
+     * chunkStep 과 같은 아이템을 문자열 대신 UuidChunk(long 배열 두 개)로 옮기는 잡
+     * 문자열은 출력 버퍼에 인코딩할 때만 만들어지므로 아이템당 할당이 없다.
+     * @return
+     */
+    @Bean
+    public Job columnarChunkJob() {
+        return this.jobBuilderFactory.get("columnarChunkJob")
+                .start(columnarChunkStep())
+                .listener(this.batchMetricsListener)
+                .build();
+    }
+
+    /**
+     * 아이템 하나가 UUID rowsPerChunk 개이므로 버퍼 하나마다 커밋한다. (chunkStep 의 chunk(1000) 과 같은 커밋 간격)
+     * @return
+     */
+    @Bean
+    public Step columnarChunkStep() {
+        return this.batchMetricsListener.register(this.stepBuilderFactory.get("columnarChunkStep")
+                        .<UuidChunk, UuidChunk> chunk(1)
+                        .reader(columnarItemReader(null))
+                        .writer(columnarItemWriter()))
+                .build();
+    }
+
+    @Bean
+    public UuidChunkPool uuidChunkPool() {
+        return new UuidChunkPool(this.columnarRowsPerChunk);
+    }
+
+    @StepScope
+    @Bean
+    public UuidChunkItemReader columnarItemReader(@Value("#{jobParameters['seed']}") Long seed) {
+        UuidChunkItemReader reader = new UuidChunkItemReader(0, this.itemCount, uuidChunkPool());
+        reader.setSeed(seed);
+        return reader;
+    }
+
+    @Bean
+    public UuidChunkItemWriter columnarItemWriter() {
+        String lineSeparator = System.lineSeparator();
+        BufferedChannelItemWriter.ItemEncoder<UuidChunk> encoder = UuidChunkItemWriter.encoder(">> current item = ", lineSeparator);
+
+        BufferedChannelItemWriter<UuidChunk> delegate = StringUtils.hasText(this.writerOutput)
+                ? new BufferedChannelItemWriter<>(Paths.get(this.writerOutput), encoder)
+                : BufferedChannelItemWriter.stdout(encoder);
+        delegate.setLineSeparator(lineSeparator);
+        return new UuidChunkItemWriter(delegate, uuidChunkPool());
+    }
+
+    /**
+     * chunkStep 과 같은 아이템을 정렬해서 쓰는 잡 (외부 정렬)
+     * sortRunStep 이 청크마다 정렬된 런 파일을 만들고, sortMergeStep 이 런들을 병합하며 itemWriter 로 쓴다.
+     * 힙에는 런 하나만 올라오므로 입력이 힙보다 커도 된다.
+     * @return
+     */
+    @Bean
+    public Job sortedChunkJob() {
+        return this.jobBuilderFactory.get("sortedChunkJob")
+                .start(sortRunStep())
+                .next(sortMergeStep())
+                .listener(this.batchMetricsListener)
+                .build();
+    }
+
+    @Bean
+    public Step sortRunStep() {
+        return this.batchMetricsListener.register(this.stepBuilderFactory.get("sortRunStep")
+                        .<String, String> chunk(sortRunCompletionPolicy())
+                        .reader(itemReader(null))
+                        .writer(sortedRunWriter())
+                        .listener(sortRunCompletionPolicy()))
+                .build();
+    }
+
+    @Bean
+    public Step sortMergeStep() {
+        return this.batchMetricsListener.register(this.stepBuilderFactory.get("sortMergeStep")
+                        .<String, String> chunk(1000)
+                        .reader(sortedRunMergeReader(null))
+                        .writer(itemWriter()))
+                .build();
+    }
+
+    /**
+     * 런 하나의 크기는 시간과 상관없이 chunk.sort.run-bytes 로만 정한다.
+     * @return
+     */
+    @Bean
+    public ByteBudgetCompletionPolicy<String> sortRunCompletionPolicy() {
+        ByteBudgetCompletionPolicy<String> policy = new ByteBudgetCompletionPolicy<>(
+                ByteBudgetCompletionPolicy.ItemSizer.strings(), this.sortRunBytes, Long.MAX_VALUE);
+        policy.setMeterRegistry(this.batchMetricsListener.getMeterRegistry());
+        return policy;
+    }
+
+    /**
+     * 실행마다 런 목록과 런 디렉터리를 따로 가지도록 스텝 스코프로 만든다. (겹쳐 실행되는 sortedChunkJob 끼리 상태를 공유하지 않음)
+     * @return
+     */
+    @StepScope
+    @Bean
+    public SortedRunWriter<String> sortedRunWriter() {
+        return new SortedRunWriter<>(Paths.get(this.sortDirectory), "sortedRuns", RunCodec.strings(), Comparator.naturalOrder());
+    }
+
+    /**
+     * sortRunStep 이 잡 ExecutionContext 에 올려둔 런 목록을 늦은 바인딩으로 전달받는다.
+     * @param runs
+     * @return
+     */
+    @StepScope
+    @Bean
+    public SortedRunMergeReader<String> sortedRunMergeReader(@Value("#{jobExecutionContext['sortedRuns.runs']}") String runs) {
+        return new SortedRunMergeReader<>(SortedRunWriter.parseRuns(runs), RunCodec.strings(), Comparator.naturalOrder());
+    }
+
+    @Bean
+    public Partitioner partitioner() {
+        return new RangePartitioner(this.itemCount);
+    }
+
+    /**
+     * 파티션의 ExecutionContext 에서 범위를 늦은 바인딩으로 전달받는 스텝 스코프 리더
+     * @param minIndex
+     * @param maxIndex
+     * @param seed
+     * @return
+     */
+    @StepScope
+    @Bean
+    public UuidItemReader partitionItemReader(
+            @Value("#{stepExecutionContext['minIndex']}") Integer minIndex,
+            @Value("#{stepExecutionContext['maxIndex']}") Integer maxIndex,
+            @Value("#{jobParameters['seed']}") Long seed) {
+        UuidItemReader reader = new UuidItemReader(minIndex, maxIndex);
+        reader.setSeed(seed);
+        return reader;
+    }
+
+    /**
+     * 워커 스텝을 실행할 스레드 풀. 파티션 수만큼 스레드를 둔다.
+     * @return
+     */
+    @Bean
+    public TaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(this.gridSize);
+        taskExecutor.setMaxPoolSize(this.gridSize);
+        taskExecutor.setThreadNamePrefix("partition-");
+        return taskExecutor;
+    }
+
     /**
      * CompositeCompletionPolicy : 청크 완료라고 판단된다면 해당 청크가 완료된 것으로 표시
      * TimeoutTerminationPolicy : 타임아웃 값을 구성하면, 청크 내에서 처리 시간이 해당 시간이 넘을 때 완료된 것으로 간주
@@ -67,28 +610,64 @@ public class ChunkJob {
 //        return policy;
 //    }
 
+    /**
+     * 최대 1000 건까지 담되, 아이템의 예상 크기 합계가 chunk.completion.max-bytes 에 도달하거나
+     * chunk.completion.max-millis 가 지나면 청크를 닫는다.
+     * @return
+     */
+    @Bean
+    public ByteBudgetCompletionPolicy<String> byteBudgetCompletionPolicy() {
+        ByteBudgetCompletionPolicy<String> policy = new ByteBudgetCompletionPolicy<>(
+                ByteBudgetCompletionPolicy.ItemSizer.strings(), this.completionMaxBytes, this.completionMaxMillis);
+        policy.setMaxChunkSize(1000);
+        policy.setMeterRegistry(this.batchMetricsListener.getMeterRegistry());
+        return policy;
+    }
+
     @Bean
     public CompletionPolicy randomChunkSizePolicy() {
         return new RandomChunkSizePolicy();
     }
 
+    /**
+     * 청크 크기 10 ~ 5000 사이에서 청크 하나가 500ms 안에 커밋되도록 크기를 조정
+     * 학습된 크기는 스텝의 ExecutionContext 에 저장되어 재시작 시 그대로 사용된다.
+     * @return
+     */
     @Bean
-    public ListItemReader<String> itemReader() {
-        List<String> items = new ArrayList<>(100000);
+    public AdaptiveChunkSizePolicy adaptiveChunkSizePolicy() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(10, 5000, 500);
+        policy.setInitialChunkSize(100);
+        policy.setIncrement(100);
+        return policy;
+    }
 
-        for(int i=0; i<100000; i++) {
-            items.add(UUID.randomUUID().toString());
-        }
-        return new ListItemReader<>(items);
+    /**
+     * 아이템 목록을 미리 만들지 않고 읽을 때마다 생성하는 리더
+     * seed 잡 파라미터를 주면 항상 같은 아이템을 만들고, 재시작 시에는 저장된 시드와 위치부터 이어서 만든다.
+     * @param seed
+     * @return
+     */
+    @StepScope
+    @Bean
+    public UuidItemReader itemReader(@Value("#{jobParameters['seed']}") Long seed) {
+        UuidItemReader reader = new UuidItemReader(this.itemCount);
+        reader.setSeed(seed);
+        return reader;
     }
 
+    /**
+     * 아이템마다 System.out.println 을 호출하는 대신, 청크 전체를 버퍼에 담아 커밋 후 한 번에 출력
+     * @return
+     */
     @Bean
-    public ItemWriter<String> itemWriter() {
-        return items -> {
-            for (String item : items) {
-                System.out.println(">> current item = " + item);
-            }
-        };
+    public BufferedChannelItemWriter<String> itemWriter() {
+        BufferedChannelItemWriter.ItemEncoder<String> encoder = (item, line) -> line.append(">> current item = ").append(item);
+
+        if (StringUtils.hasText(this.writerOutput)) {
+            return new BufferedChannelItemWriter<>(Paths.get(this.writerOutput), encoder);
+        }
+        return BufferedChannelItemWriter.stdout(encoder);
     }
 
     public static void main(String[] args) {
@@ -1,17 +1,42 @@
 package com.example.springbatchguide;
 
-import com.example.springbatchguide.conditinal.RandomDecider;
+import com.example.springbatchguide.batch.CsvPreflightScanner;
+import com.example.springbatchguide.batch.CsvPreflightValidator;
+import com.example.springbatchguide.conditinal.InputSizeDecider;
+import com.example.springbatchguide.partition.FileRangePartitioner;
+import com.example.springbatchguide.partition.RangePartitioner;
+import com.example.springbatchguide.reader.CsvRecord;
+import com.example.springbatchguide.reader.MappedCsvItemReader;
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.writer.BufferedChannelItemWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.JobParametersValidator;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.CompositeJobParametersValidator;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 스프링 배치의 조건로직(Conditional Logic) 사용하기 : 잡 흐름 커스터마이징
@@ -25,6 +50,32 @@ public class ConditionalJob {
 
     private final StepBuilderFactory stepBuilderFactory;
 
+    private final JobExplorer jobExplorer;
+
+    /**
+     * 과거 실행 기록이 없을 때 단일 스레드 경로로 처리할 최대 건수
+     */
+    @Value("${conditional.decider.max-single-thread-items:10000}")
+    private long maxSingleThreadItems;
+
+    /**
+     * 과거 실행 기록이 있을 때 단일 스레드 경로로 처리할 최대 예상 시간
+     */
+    @Value("${conditional.decider.max-single-thread-millis:2000}")
+    private long maxSingleThreadMillis;
+
+    /**
+     * 과거 실행 기록 캐시 유지 시간
+     */
+    @Value("${conditional.decider.history-ttl-millis:60000}")
+    private long historyTtlMillis;
+
+    /**
+     * 파티셔닝 경로의 파티션 개수이자 워커 스레드 수
+     */
+    @Value("${conditional.partition.grid-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int gridSize;
+
     /**
      * firstStep 의 실행결과가 정상이면 이어서 successStep을 실행하며
      * firstStep 이 ExitStatus 로 FAILED 를 반환하면 failureStep 을 실행한다.
@@ -45,23 +96,199 @@ public class ConditionalJob {
 
     }
 
+    /**
+     * 입력 크기(itemCount 건수 또는 fileName 파일 크기)와 과거 실행 시간으로 경로를 선택
+     * 적은 건수는 청크 처리 없이 태스크릿 하나로 처리하고, 많은 건수는 파티셔닝해 여러 스레드에서 처리한다.
+     * 어느 경로든 디사이더가 크기를 추정한 그 입력을 처리한다. (fileName 이면 헤더를 제외한 CSV 의 각 줄)
+     * fileName 이면 잡 시작 전에 파일을 검사하고, 디사이더와 파티셔너는 파일 크기 대신 실제 레코드 수를 사용한다.
+     * @return
+     */
     @Bean
     public Job job2() {
+        CompositeJobParametersValidator validator = new CompositeJobParametersValidator();
+        // 입력 파라미터 조합을 먼저 확인한 뒤 파일 내용을 검사한다.
+        validator.setValidators(Arrays.asList(deciderParametersValidator(), deciderPreflightValidator()));
+
         return this.jobBuilderFactory.get("conditionalDeciderJob")
+                .validator(validator)
+                .listener(deciderPreflightValidator())
                 .start(firstStep())
                 .next(decider())
                 .from(decider())
-                .on("FAILED").to(failureStep())
+                .on(InputSizeDecider.SINGLE_THREAD.getName()).to(singleThreadStep())
                 .from(decider())
-                .on("*").to(successStep())
+                .on("*").to(partitionedStep())
                 .end()
                 .build();
 
     }
 
+    /**
+     * itemCount 와 fileName 중 정확히 하나가 있어야 한다. 둘 다 없으면 처리할 입력이 없고, 둘 다 있으면 디사이더와 스텝이 다른 입력을 보게 된다.
+     * @return
+     */
+    @Bean
+    public JobParametersValidator deciderParametersValidator() {
+        return parameters -> {
+            Long itemCount = parameters.getLong("itemCount", null);
+            String fileName = parameters.getString("fileName");
+
+            if ((itemCount == null) == (fileName == null)) {
+                throw new JobParametersInvalidException("Exactly one of itemCount or fileName parameter is required");
+            }
+            if (itemCount != null && itemCount < 0) {
+                throw new JobParametersInvalidException("itemCount parameter must not be negative : " + itemCount);
+            }
+            if (fileName != null && !Files.isReadable(Paths.get(fileName))) {
+                throw new JobParametersInvalidException("fileName parameter is not a readable file : " + fileName);
+            }
+        };
+    }
+
+    /**
+     * fileName 파일을 검사하고 레코드 수를 잡 ExecutionContext 의 'fileName.rowCount' 키에 저장한다. itemCount 로 실행하면 통과시킨다.
+     * @return
+     */
+    @Bean
+    public CsvPreflightValidator deciderPreflightValidator() {
+        return new CsvPreflightValidator(new CsvPreflightScanner(), "fileName");
+    }
+
     @Bean
     public JobExecutionDecider decider() {
-        return new RandomDecider();
+        InputSizeDecider decider = new InputSizeDecider(this.jobExplorer, "singleThreadStep");
+        decider.setRowCountKey(CsvPreflightValidator.rowCountKey("fileName"));
+        decider.setMaxSingleThreadItems(this.maxSingleThreadItems);
+        decider.setMaxSingleThreadMillis(this.maxSingleThreadMillis);
+        decider.setHistoryTtlMillis(this.historyTtlMillis);
+        return decider;
+    }
+
+    @Bean
+    public Step singleThreadStep() {
+        return this.stepBuilderFactory.get("singleThreadStep")
+                .tasklet(singleThreadTasklet(null, null, null))
+                .stream(decisionItemWriter())
+                .build();
+    }
+
+    /**
+     * 모든 아이템을 하나의 트랜잭션에서 읽고 쓰는 태스크릿. 청크마다 발생하는 커밋과 메타데이터 갱신이 없다.
+     * @param itemCount
+     * @param fileName
+     * @param seed
+     * @return
+     */
+    @StepScope
+    @Bean
+    public Tasklet singleThreadTasklet(@Value("#{jobParameters['itemCount']}") Long itemCount,
+                                       @Value("#{jobParameters['fileName']}") String fileName,
+                                       @Value("#{jobParameters['seed']}") Long seed) {
+        return (stepContribution, chunkContext) -> {
+            ItemStreamReader<String> reader = fileName != null ? fileItemReader(fileName) : uuidItemReader(0, itemCount.intValue(), seed);
+            reader.open(new ExecutionContext());
+
+            List<String> items = new ArrayList<>(1000);
+            for (String item = reader.read(); item != null; item = reader.read()) {
+                stepContribution.incrementReadCount();
+                items.add(item);
+                if (items.size() == 1000) {
+                    decisionItemWriter().write(items);
+                    stepContribution.incrementWriteCount(items.size());
+                    items.clear();
+                }
+            }
+            decisionItemWriter().write(items);
+            stepContribution.incrementWriteCount(items.size());
+            reader.close();
+            return RepeatStatus.FINISHED;
+        };
+    }
+
+    @Bean
+    public Step partitionedStep() {
+        return this.stepBuilderFactory.get("partitionedStep")
+                .partitioner(decisionWorkerStep().getName(), decisionPartitioner(null, null, null))
+                .step(decisionWorkerStep())
+                .gridSize(this.gridSize)
+                .taskExecutor(decisionTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    public Step decisionWorkerStep() {
+        return this.stepBuilderFactory.get("decisionWorkerStep")
+                .<String, String> chunk(1000)
+                .reader(decisionItemReader(null, null, null, null, null, null))
+                .writer(decisionItemWriter())
+                .build();
+    }
+
+    /**
+     * fileName 이면 파일을 줄 단위 바이트 범위로, itemCount 면 인덱스 범위로 나눈다.
+     * 검사한 레코드 수가 있으면 파티션을 레코드 수보다 많이 만들지 않는다.
+     * @param itemCount
+     * @param fileName
+     * @param rowCount
+     * @return
+     */
+    @StepScope
+    @Bean
+    public Partitioner decisionPartitioner(@Value("#{jobParameters['itemCount']}") Long itemCount,
+                                           @Value("#{jobParameters['fileName']}") String fileName,
+                                           @Value("#{jobExecutionContext['fileName.rowCount']}") Long rowCount) {
+        if (fileName != null) {
+            FileRangePartitioner partitioner = new FileRangePartitioner(Paths.get(fileName), 1);
+            if (rowCount != null) {
+                partitioner.setRowCount(rowCount);
+            }
+            return partitioner;
+        }
+        return new RangePartitioner(itemCount.intValue());
+    }
+
+    @StepScope
+    @Bean
+    public ItemStreamReader<String> decisionItemReader(
+            @Value("#{stepExecutionContext['minIndex']}") Integer minIndex,
+            @Value("#{stepExecutionContext['maxIndex']}") Integer maxIndex,
+            @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+            @Value("#{jobParameters['fileName']}") String fileName,
+            @Value("#{jobParameters['seed']}") Long seed) {
+        if (fileName != null) {
+            MappedCsvItemReader<String> reader = fileItemReader(fileName);
+            reader.setStartOffset(startOffset);
+            reader.setEndOffset(endOffset);
+            return reader;
+        }
+        return uuidItemReader(minIndex, maxIndex, seed);
+    }
+
+    private static MappedCsvItemReader<String> fileItemReader(String fileName) {
+        MappedCsvItemReader<String> reader = new MappedCsvItemReader<>(Paths.get(fileName), CsvRecord::toString);
+        reader.setLinesToSkip(1);
+        return reader;
+    }
+
+    private static UuidItemReader uuidItemReader(int minIndex, int maxIndex, Long seed) {
+        UuidItemReader reader = new UuidItemReader(minIndex, maxIndex);
+        reader.setSeed(seed);
+        return reader;
+    }
+
+    @Bean
+    public BufferedChannelItemWriter<String> decisionItemWriter() {
+        return BufferedChannelItemWriter.stdout((item, line) -> line.append(">> current item = ").append(item));
+    }
+
+    @Bean
+    public TaskExecutor decisionTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(this.gridSize);
+        taskExecutor.setMaxPoolSize(this.gridSize);
+        taskExecutor.setThreadNamePrefix("decision-");
+        return taskExecutor;
     }
 
     @Bean
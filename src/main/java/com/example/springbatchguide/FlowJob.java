@@ -1,5 +1,6 @@
 package com.example.springbatchguide;
 
+import com.example.springbatchguide.flow.DependencyFlowBuilder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
@@ -13,6 +14,8 @@ import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * 잡에서 사용한 스텝의 정의를 추출해서 재사용 가능한 컴포넌트 형태로 만들 수 있다.
@@ -64,15 +67,39 @@ public class FlowJob {
                 .build();
     }
 
+    /**
+     * 스텝 간 의존 관계를 선언해 플로우 구성
+     * 재고 파일과 고객 파일 적재는 서로 의존하지 않으므로 split 으로 동시에 실행하고,
+     * updateStartStep 은 두 적재 스텝이 모두 끝난 뒤 실행된다.
+     * @return
+     */
     @Bean
     public Flow preProcessingFlow() {
-        return new FlowBuilder<Flow>("preProcessingFlow")
-                .start(loadFileStep())
-                .next(loadCustomerStep())
-                .next(updateStartStep())
+        // return new FlowBuilder<Flow>("preProcessingFlow")
+        //         .start(loadFileStep())
+        //         .next(loadCustomerStep())
+        //         .next(updateStartStep())
+        //         .build();
+        return new DependencyFlowBuilder("preProcessingFlow", flowTaskExecutor())
+                .step(loadFileStep())
+                .step(loadCustomerStep())
+                .step(updateStartStep(), loadFileStep(), loadCustomerStep())
                 .build();
     }
 
+    /**
+     * split 으로 나뉜 플로우를 실행할 스레드 풀. 동시에 실행되는 브랜치 수를 제한한다.
+     * @return
+     */
+    @Bean
+    public TaskExecutor flowTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(4);
+        taskExecutor.setMaxPoolSize(4);
+        taskExecutor.setThreadNamePrefix("flow-");
+        return taskExecutor;
+    }
+
     @Bean
     public Step loadFileStep() {
         return this.stepBuilderFactory.get("loadFileStep")
@@ -1,8 +1,14 @@
 package com.example.springbatchguide;
 
+import com.example.springbatchguide.batch.BatchMetricsListener;
+import com.example.springbatchguide.batch.CsvPreflightScanner;
+import com.example.springbatchguide.batch.CsvPreflightValidator;
 import com.example.springbatchguide.batch.DailyJobTimestamper;
-import com.example.springbatchguide.batch.JobLoggerListener;
 import com.example.springbatchguide.batch.ParameterValidator;
+import com.example.springbatchguide.incremental.InputFingerprintTasklet;
+import com.example.springbatchguide.reader.CsvRecord;
+import com.example.springbatchguide.reader.MappedCsvItemReader;
+import com.example.springbatchguide.writer.BufferedChannelItemWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParametersValidator;
@@ -11,9 +17,10 @@ import org.springframework.batch.core.configuration.annotation.EnableBatchProces
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.CompositeJobParametersValidator;
 import org.springframework.batch.core.job.DefaultJobParametersValidator;
-import org.springframework.batch.core.listener.JobListenerFactoryBean;
+import org.springframework.batch.core.job.builder.FlowJobBuilder;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,7 +28,10 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 @EnableBatchProcessing
 @SpringBootApplication
@@ -30,6 +40,20 @@ public class SpringBatchGuideApplication {
 
     private final JobBuilderFactory jobBuilderFactory; // 잡을 생성하는 빌더
     private final StepBuilderFactory stepBuilderFactory; // 스텝을 생성하는 빌더
+    private final BatchMetricsListener batchMetricsListener; // 잡, 스텝, 청크 실행 지표 기록
+    private final JobExplorer jobExplorer; // 이전 실행의 입력 파일 지문 조회
+
+    /**
+     * 잡 실행 전에 fileName 을 끝까지 검사할지 여부 (CsvPreflightValidator)
+     */
+    @Value("${preflight.enabled:false}")
+    private boolean preflightEnabled;
+
+    /**
+     * true 면 파일 끝에 추가된 행만 처리한다. (InputFingerprintTasklet)
+     */
+    @Value("${incremental.append-only:false}")
+    private boolean appendOnly;
 
     /**
      * JobParameters 의 유효성 검증 수행
@@ -47,21 +71,66 @@ public class SpringBatchGuideApplication {
 
         defaultJobParametersValidator.afterPropertiesSet();;
 
-        validator.setValidators(Arrays.asList(new ParameterValidator(), defaultJobParametersValidator));
+        List<JobParametersValidator> validators = new ArrayList<>(Arrays.asList(new ParameterValidator(), defaultJobParametersValidator));
+        // 이름과 필수 파라미터 검사를 통과한 경우에만 파일 내용을 검사한다.
+        if (this.preflightEnabled) {
+            validators.add(csvPreflightValidator());
+        }
+        validator.setValidators(validators);
 
         return validator;
     }
 
+    /**
+     * 헤더, 컬럼 수, 인코딩을 병렬로 검사하고 레코드 수를 잡 ExecutionContext 의 'fileName.rowCount' 키에 저장한다.
+     * 같은 파일로 다시 실행하면 캐시된 결과를 사용한다.
+     * @return
+     */
+    @Bean
+    public CsvPreflightValidator csvPreflightValidator() {
+        return new CsvPreflightValidator(new CsvPreflightScanner(), "fileName");
+    }
+
+    /**
+     * fileName 의 내용이 마지막으로 성공한 실행과 같으면 이후 스텝을 실행하지 않고 종료한다.
+     * currentDate 가 매일 달라져 새 잡 인스턴스가 만들어져도 같은 파일을 다시 처리하지 않는다.
+     * @return
+     */
     @Bean
     public Job job() {
-        return this.jobBuilderFactory.get("basicJob")
-                .start(step1())
+        FlowJobBuilder builder = this.jobBuilderFactory.get("basicJob")
+                .start(inputFingerprintStep())
+                .on(InputFingerprintTasklet.UNCHANGED.getExitCode()).end()
+                .from(inputFingerprintStep()).on("*").to(step1())
+                .next(csvFileStep())
+                .end()
                 .validator(validator())
                 .incrementer(new DailyJobTimestamper())
-                .listener(JobListenerFactoryBean.getListener(new JobLoggerListener()))
+                .listener(this.batchMetricsListener);
+        if (this.preflightEnabled) {
+            builder.listener(csvPreflightValidator());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public Step inputFingerprintStep() {
+        return this.stepBuilderFactory.get("inputFingerprintStep")
+                .tasklet(inputFingerprintTasklet())
                 .build();
     }
 
+    /**
+     * incremental.append-only=true 면 파일 끝에 추가된 행만 처리한다.
+     * @return
+     */
+    @Bean
+    public InputFingerprintTasklet inputFingerprintTasklet() {
+        InputFingerprintTasklet tasklet = new InputFingerprintTasklet(this.jobExplorer, "fileName");
+        tasklet.setAppendOnly(this.appendOnly);
+        return tasklet;
+    }
+
     @Bean
     public Step step1() {
         return this.stepBuilderFactory.get("step1")
@@ -86,6 +155,48 @@ public class SpringBatchGuideApplication {
         };
     }
 
+    /**
+     * fileName 파라미터로 전달된 csv 파일을 읽는 스텝
+     * @return
+     */
+    @Bean
+    public Step csvFileStep() {
+        return this.batchMetricsListener.register(this.stepBuilderFactory.get("csvFileStep")
+                        .<String[], String[]> chunk(1000)
+                        .reader(csvItemReader(null, null))
+                        .writer(csvItemWriter()))
+                .build();
+    }
+
+    /**
+     * 메모리 매핑된 파일에서 레코드 경계를 바로 찾는 csv 리더. 첫 줄(헤더)은 건너뛴다.
+     * 재시작 시 마지막 커밋된 바이트 위치부터 다시 읽는다.
+     * inputFingerprintStep 이 추가된 행의 시작 위치를 저장했다면 해당 위치부터 읽는다.
+     * @param fileName
+     * @param startOffset
+     * @return
+     */
+    @StepScope
+    @Bean
+    public MappedCsvItemReader<String[]> csvItemReader(@Value("#{jobParameters['fileName']}") String fileName,
+                                                       @Value("#{jobExecutionContext['fileName.startOffset']}") Long startOffset) {
+        MappedCsvItemReader<String[]> reader = new MappedCsvItemReader<>(Paths.get(fileName), CsvRecord::toStringArray);
+        reader.setLinesToSkip(1);
+        if (startOffset != null) {
+            reader.setStartOffset(startOffset);
+        }
+        return reader;
+    }
+
+    @Bean
+    public BufferedChannelItemWriter<String[]> csvItemWriter() {
+        return BufferedChannelItemWriter.stdout((fields, line) -> {
+            line.append(">> current record =");
+            for (String field : fields) {
+                line.append(' ').append(field);
+            }
+        });
+    }
 
     public static void main(String[] args) {
         SpringApplication.run(SpringBatchGuideApplication.class, args);
@@ -0,0 +1,27 @@
+package com.example.springbatchguide.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * MeterRegistry 빈이 없으면 (actuator 를 사용하지 않는 경우) 메모리에 보관하는 SimpleMeterRegistry 를 등록
+ * (Metrics.globalRegistry 는 등록된 레지스트리가 없으면 기록을 모두 버린다)
+ *
+ * @ConditionalOnMissingBean 은 사용자 구성과 다른 자동 구성이 모두 등록된 뒤에 평가해야 하므로 컴포넌트 스캔 대상이 아닌 자동 구성으로 둔다.
+ * actuator 가 있으면 그 레지스트리가 먼저 등록되도록 actuator 의 지표 자동 구성 뒤에 처리한다.
+ * (META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports 에 등록)
+ */
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration"})
+public class BatchMetricsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public SimpleMeterRegistry simpleMeterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springbatchguide.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MeterRegistry 빈이 있으면 (예: actuator 사용 시) 해당 레지스트리에, 없으면 BatchMetricsAutoConfiguration 이 등록한
+ * SimpleMeterRegistry 에 배치 지표를 기록
+ */
+@Configuration
+public class BatchMetricsConfiguration {
+
+    @Bean
+    public BatchMetricsListener batchMetricsListener(MeterRegistry meterRegistry) {
+        return new BatchMetricsListener(meterRegistry);
+    }
+}
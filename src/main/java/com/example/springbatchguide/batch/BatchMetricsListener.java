@@ -0,0 +1,334 @@
+package com.example.springbatchguide.batch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.util.Assert;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잡, 스텝, 청크의 실행 지표를 Micrometer MeterRegistry 에 기록하는 리스너
+ *
+ * [지표] 스텝 지표에는 job, step 태그가 붙는다.
+ * - batch.job.duration (Timer, job / status)
+ * - batch.step.duration (Timer, status)
+ * - batch.chunk.duration (Timer, 히스토그램) : beforeChunk 부터 커밋 후 afterChunk 까지
+ * - batch.chunk.phase (Timer, phase=read|process|write) : 청크 안에서 읽기, 처리, 쓰기에 걸린 시간
+ * - batch.chunk.throughput (DistributionSummary, 히스토그램) : 청크별 초당 쓰기 아이템 수
+ * - batch.step.items (Counter, type=read|write|filter)
+ * - batch.step.commits, batch.step.rollbacks (Counter)
+ * - batch.step.skips (Counter, type=read|process|write)
+ *
+ * [오버헤드]
+ * 청크는 읽기 -> 처리 -> 쓰기 순서로 진행되므로 단계가 바뀌는 시점만 기록해 단계별 시간을 구한다.
+ * 아이템마다 호출되는 콜백은 beforeProcess 하나이고 청크의 첫 아이템에서만 시간을 잰다.
+ * 건수는 청크가 끝날 때 StepExecution 의 누적값과의 차이로 구하고, 미터는 스텝 시작 시 한 번만 만들어 두므로
+ * 청크 처리 중에는 객체를 할당하지 않는다.
+ * 내결함성 스텝에서 스킵 때문에 청크를 다시 스캔하면 단계별 시간은 근사값이 된다.
+ *
+ * [등록방법]
+ * 잡 : .listener(batchMetricsListener), 스텝 : batchMetricsListener.register(stepBuilder)
+ */
+public class BatchMetricsListener implements JobExecutionListener, StepExecutionListener, ChunkListener,
+        ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, StepMeters> stepMeters = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<ChunkTiming> chunkTiming = ThreadLocal.withInitial(ChunkTiming::new);
+
+    public BatchMetricsListener(MeterRegistry meterRegistry) {
+        Assert.notNull(meterRegistry, "meterRegistry must not be null");
+        this.meterRegistry = meterRegistry;
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return this.meterRegistry;
+    }
+
+    /**
+     * 스텝, 청크, 아이템 처리, 쓰기 리스너로 한 번에 등록한다.
+     * @param builder
+     * @return
+     */
+    public <I, O> SimpleStepBuilder<I, O> register(SimpleStepBuilder<I, O> builder) {
+        builder.listener((StepExecutionListener) this);
+        builder.listener((ChunkListener) this);
+        builder.listener((ItemProcessListener<Object, Object>) this);
+        builder.listener((ItemWriteListener<Object>) this);
+        return builder;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        Timer.builder("batch.job.duration")
+                .tag("job", jobExecution.getJobInstance().getJobName())
+                .tag("status", jobExecution.getStatus().name())
+                .register(this.meterRegistry)
+                .record(elapsedMillis(jobExecution.getStartTime()), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepMeters.put(stepExecution.getId(), new StepMeters(this.meterRegistry, stepExecution));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepMeters meters = this.stepMeters.remove(stepExecution.getId());
+        if (meters != null) {
+            meters.countDelta(stepExecution);
+            Timer.builder("batch.step.duration")
+                    .tags(meters.tags)
+                    .tag("status", stepExecution.getStatus().name())
+                    .register(this.meterRegistry)
+                    .record(elapsedMillis(stepExecution.getStartTime()), TimeUnit.MILLISECONDS);
+        }
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        ChunkTiming timing = this.chunkTiming.get();
+        timing.meters = this.stepMeters.get(context.getStepContext().getStepExecution().getId());
+        timing.processing = false;
+        timing.writing = false;
+        timing.chunkStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        ChunkTiming timing = this.chunkTiming.get();
+        StepMeters meters = timing.meters;
+        if (meters == null) {
+            return;
+        }
+
+        long chunkEnd = System.nanoTime();
+        long writeStart = timing.writing ? timing.writeStart : chunkEnd;
+        long writeEnd = timing.writing ? timing.writeEnd : chunkEnd;
+        long processStart = timing.processing ? timing.processStart : writeStart;
+        long chunkNanos = chunkEnd - timing.chunkStart;
+
+        meters.chunkTimer.record(chunkNanos, TimeUnit.NANOSECONDS);
+        meters.readTimer.record(processStart - timing.chunkStart, TimeUnit.NANOSECONDS);
+        meters.processTimer.record(writeStart - processStart, TimeUnit.NANOSECONDS);
+        meters.writeTimer.record(writeEnd - writeStart, TimeUnit.NANOSECONDS);
+
+        long written = meters.countDelta(context.getStepContext().getStepExecution());
+        if (written > 0 && chunkNanos > 0) {
+            meters.throughput.record(written * 1_000_000_000d / chunkNanos);
+        }
+        timing.meters = null;
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        ChunkTiming timing = this.chunkTiming.get();
+        if (timing.meters != null) {
+            timing.meters.countDelta(context.getStepContext().getStepExecution());
+            timing.meters = null;
+        }
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        ChunkTiming timing = this.chunkTiming.get();
+        if (!timing.processing) {
+            timing.processing = true;
+            timing.processStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        ChunkTiming timing = this.chunkTiming.get();
+        timing.writing = true;
+        timing.writeStart = System.nanoTime();
+        timing.writeEnd = timing.writeStart;
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        this.chunkTiming.get().writeEnd = System.nanoTime();
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+        this.chunkTiming.get().writeEnd = System.nanoTime();
+    }
+
+    private long elapsedMillis(Date startTime) {
+        return startTime != null ? System.currentTimeMillis() - startTime.getTime() : 0;
+    }
+
+    /**
+     * 스텝 실행 하나의 미터와 마지막으로 반영한 StepExecution 누적값
+     * 멀티 스레드 스텝에서는 여러 스레드가 같은 StepExecution 을 갱신하므로 차이 계산은 동기화한다.
+     */
+    private static class StepMeters {
+
+        private final Tags tags;
+
+        private final Timer chunkTimer;
+
+        private final Timer readTimer;
+
+        private final Timer processTimer;
+
+        private final Timer writeTimer;
+
+        private final DistributionSummary throughput;
+
+        private final Counter readItems;
+
+        private final Counter writeItems;
+
+        private final Counter filterItems;
+
+        private final Counter commits;
+
+        private final Counter rollbacks;
+
+        private final Counter readSkips;
+
+        private final Counter processSkips;
+
+        private final Counter writeSkips;
+
+        private long readCount;
+
+        private long writeCount;
+
+        private long filterCount;
+
+        private long commitCount;
+
+        private long rollbackCount;
+
+        private long readSkipCount;
+
+        private long processSkipCount;
+
+        private long writeSkipCount;
+
+        StepMeters(MeterRegistry registry, StepExecution stepExecution) {
+            this.tags = Tags.of("job", stepExecution.getJobExecution().getJobInstance().getJobName(),
+                    "step", stepExecution.getStepName());
+
+            this.chunkTimer = Timer.builder("batch.chunk.duration").tags(this.tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.readTimer = phaseTimer(registry, "read");
+            this.processTimer = phaseTimer(registry, "process");
+            this.writeTimer = phaseTimer(registry, "write");
+            this.throughput = DistributionSummary.builder("batch.chunk.throughput").tags(this.tags)
+                    .baseUnit("items/s")
+                    .publishPercentileHistogram()
+                    .register(registry);
+
+            this.readItems = counter(registry, "batch.step.items", "read");
+            this.writeItems = counter(registry, "batch.step.items", "write");
+            this.filterItems = counter(registry, "batch.step.items", "filter");
+            this.commits = Counter.builder("batch.step.commits").tags(this.tags).register(registry);
+            this.rollbacks = Counter.builder("batch.step.rollbacks").tags(this.tags).register(registry);
+            this.readSkips = counter(registry, "batch.step.skips", "read");
+            this.processSkips = counter(registry, "batch.step.skips", "process");
+            this.writeSkips = counter(registry, "batch.step.skips", "write");
+
+            // 재시작한 스텝은 이전 실행의 누적값을 이어받으므로 시작 시점의 값을 기준으로 삼는다.
+            this.readCount = stepExecution.getReadCount();
+            this.writeCount = stepExecution.getWriteCount();
+            this.filterCount = stepExecution.getFilterCount();
+            this.commitCount = stepExecution.getCommitCount();
+            this.rollbackCount = stepExecution.getRollbackCount();
+            this.readSkipCount = stepExecution.getReadSkipCount();
+            this.processSkipCount = stepExecution.getProcessSkipCount();
+            this.writeSkipCount = stepExecution.getWriteSkipCount();
+        }
+
+        /**
+         * 마지막 반영 이후 늘어난 건수를 카운터에 더하고, 새로 쓴 아이템 수를 반환한다.
+         * @param stepExecution
+         * @return
+         */
+        synchronized long countDelta(StepExecution stepExecution) {
+            long written = stepExecution.getWriteCount() - this.writeCount;
+
+            this.readCount = increment(this.readItems, this.readCount, stepExecution.getReadCount());
+            this.writeCount = increment(this.writeItems, this.writeCount, stepExecution.getWriteCount());
+            this.filterCount = increment(this.filterItems, this.filterCount, stepExecution.getFilterCount());
+            this.commitCount = increment(this.commits, this.commitCount, stepExecution.getCommitCount());
+            this.rollbackCount = increment(this.rollbacks, this.rollbackCount, stepExecution.getRollbackCount());
+            this.readSkipCount = increment(this.readSkips, this.readSkipCount, stepExecution.getReadSkipCount());
+            this.processSkipCount = increment(this.processSkips, this.processSkipCount, stepExecution.getProcessSkipCount());
+            this.writeSkipCount = increment(this.writeSkips, this.writeSkipCount, stepExecution.getWriteSkipCount());
+            return written;
+        }
+
+        private long increment(Counter counter, long previous, long current) {
+            if (current > previous) {
+                counter.increment(current - previous);
+            }
+            return current;
+        }
+
+        private Timer phaseTimer(MeterRegistry registry, String phase) {
+            return Timer.builder("batch.chunk.phase").tags(this.tags).tag("phase", phase).register(registry);
+        }
+
+        private Counter counter(MeterRegistry registry, String name, String type) {
+            return Counter.builder(name).tags(this.tags).tag("type", type).register(registry);
+        }
+    }
+
+    /**
+     * 스레드별 현재 청크의 단계 전환 시점
+     */
+    private static class ChunkTiming {
+
+        private StepMeters meters;
+
+        private long chunkStart;
+
+        private boolean processing;
+
+        private long processStart;
+
+        private boolean writing;
+
+        private long writeStart;
+
+        private long writeEnd;
+    }
+}
@@ -0,0 +1,492 @@
+package com.example.springbatchguide.batch;
+
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * CSV 파일을 끝까지 한 번 훑어 헤더, 레코드마다의 컬럼 수, 문자 인코딩을 검사하고 레코드 수를 센다.
+ * 헤더의 컬럼 이름은 비어 있거나 중복되면 안 되며, 맨 앞의 UTF-8 BOM 은 제거한다.
+ *
+ * [병렬 처리]
+ * 헤더 다음부터 파일을 segmentSize 크기의 구간으로 나눠 메모리 매핑하고, 구간마다 executor 에서 따로 검사한다.
+ * 구간 경계는 레코드 경계와 맞지 않으므로 구간마다 첫 줄바꿈 앞(prefix)과 마지막 줄바꿈 뒤(suffix)의 구분자 수를 따로 세어 두고,
+ * 모든 구간이 끝나면 순서대로 이어 붙여 경계에 걸친 레코드의 컬럼 수를 계산한다.
+ * 구간은 따옴표 밖에서 시작한다고 가정하고 검사한다. 앞 구간이 따옴표 안에서 끝났으면 해당 구간만 다시 검사한다.
+ * (여러 줄에 걸친 따옴표 필드가 구간 경계에 걸친 경우에만 발생)
+ *
+ * 문자셋은 MappedCsvItemReader 와 같이 줄바꿈, 구분자, 따옴표가 1바이트인 ASCII 호환 문자셋이어야 한다.
+ */
+public class CsvPreflightScanner {
+
+    private static final int HEADER_LIMIT = 1024 * 1024;
+
+    private static final int DECODE_CHUNK = 64 * 1024;
+
+    private Charset charset = StandardCharsets.UTF_8;
+
+    private byte delimiter = ',';
+
+    private byte quote = '"';
+
+    private long segmentSize = 32 * 1024 * 1024;
+
+    private Executor executor = ForkJoinPool.commonPool();
+
+    public void setCharset(Charset charset) {
+        Assert.notNull(charset, "charset must not be null");
+        this.charset = charset;
+    }
+
+    public void setDelimiter(char delimiter) {
+        this.delimiter = (byte) delimiter;
+    }
+
+    public void setQuoteCharacter(char quote) {
+        this.quote = (byte) quote;
+    }
+
+    /**
+     * 구간 하나의 크기. 파일이 이보다 작으면 호출한 스레드에서 한 번에 검사한다.
+     * @param segmentSize
+     */
+    public void setSegmentSize(long segmentSize) {
+        Assert.isTrue(segmentSize > 0 && segmentSize <= Integer.MAX_VALUE, "segmentSize must be between 1 and Integer.MAX_VALUE");
+        this.segmentSize = segmentSize;
+    }
+
+    public void setExecutor(Executor executor) {
+        Assert.notNull(executor, "executor must not be null");
+        this.executor = executor;
+    }
+
+    public Result scan(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return Result.invalid("file is empty");
+            }
+
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, HEADER_LIMIT));
+            int headerEnd = findLineEnd(head);
+            if (headerEnd < 0 && size > HEADER_LIMIT) {
+                return Result.invalid("header is longer than " + HEADER_LIMIT + " bytes");
+            }
+            List<String> header;
+            try {
+                header = parseHeader(head, headerEnd < 0 ? head.limit() : headerEnd);
+            } catch (CharacterCodingException e) {
+                return Result.invalid("header is not valid " + this.charset.name());
+            }
+            String headerError = validateHeader(header);
+            if (headerError != null) {
+                return Result.invalid(headerError);
+            }
+
+            long dataStart = headerEnd < 0 ? size : headerEnd + 1;
+            List<long[]> bounds = segments(channel, dataStart, size);
+            List<CompletableFuture<Segment>> futures = new ArrayList<>(bounds.size());
+            for (long[] bound : bounds) {
+                if (bounds.size() == 1) {
+                    futures.add(CompletableFuture.completedFuture(scanSegment(channel, bound[0], bound[1], false, header.size())));
+                    continue;
+                }
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return scanSegment(channel, bound[0], bound[1], false, header.size());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, this.executor));
+            }
+            return merge(channel, bounds, futures, header);
+        }
+    }
+
+    /**
+     * 구간 결과를 순서대로 이어 붙인다. 경계에 걸친 레코드는 앞 구간의 suffix 와 뒤 구간의 prefix 를 합쳐서 검사한다.
+     */
+    private Result merge(FileChannel channel, List<long[]> bounds, List<CompletableFuture<Segment>> futures, List<String> header)
+            throws IOException {
+        Result result = new Result(header);
+        boolean inQuote = false;
+        long carryDelimiters = 0;
+        long carryBytes = 0;
+
+        for (int i = 0; i < futures.size(); i++) {
+            Segment segment = join(futures.get(i));
+            if (segment.entryInQuote != inQuote) {
+                segment = scanSegment(channel, bounds.get(i)[0], bounds.get(i)[1], inQuote, header.size());
+            }
+            if (result.malformedOffset < 0) {
+                result.malformedOffset = segment.malformedOffset;
+            }
+
+            if (!segment.sawNewline) {
+                carryDelimiters += segment.prefixDelimiters;
+                carryBytes += segment.prefixBytes;
+            } else {
+                result.record(carryDelimiters + segment.prefixDelimiters + 1);
+                if (segment.invalidRows > 0 && result.firstInvalidRow < 0) {
+                    result.firstInvalidRow = result.rowCount + segment.firstInvalidRow + 1;
+                    result.firstInvalidColumnCount = segment.firstInvalidColumnCount;
+                }
+                result.invalidRowCount += segment.invalidRows;
+                result.rowCount += segment.rows;
+                carryDelimiters = segment.suffixDelimiters;
+                carryBytes = segment.suffixBytes;
+            }
+            inQuote = segment.exitInQuote;
+        }
+
+        // 마지막 줄바꿈 뒤에 남은 레코드
+        if (carryBytes > 0 || carryDelimiters > 0) {
+            result.record(carryDelimiters + 1);
+        }
+        result.unterminatedQuote = inQuote;
+        return result;
+    }
+
+    private Segment join(CompletableFuture<Segment> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 구간 경계를 나눈다. UTF-8 이면 경계가 멀티바이트 문자 중간에 오지 않도록 다음 문자 시작 위치로 옮긴다.
+     */
+    private List<long[]> segments(FileChannel channel, long start, long size) throws IOException {
+        if (start >= size) {
+            return Collections.emptyList();
+        }
+        List<long[]> bounds = new ArrayList<>();
+        ByteBuffer one = ByteBuffer.allocate(1);
+        long from = start;
+        while (from < size) {
+            long to = Math.min(size, from + this.segmentSize);
+            if (StandardCharsets.UTF_8.equals(this.charset)) {
+                while (to < size) {
+                    one.clear();
+                    channel.read(one, to);
+                    if ((one.get(0) & 0xC0) != 0x80) {
+                        break;
+                    }
+                    to++;
+                }
+            }
+            bounds.add(new long[] {from, to});
+            from = to;
+        }
+        return bounds;
+    }
+
+    private Segment scanSegment(FileChannel channel, long start, long end, boolean inQuote, int columnCount) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        Segment segment = new Segment(inQuote);
+        CharsetDecoder decoder = newDecoder();
+        CharBuffer chars = CharBuffer.allocate(DECODE_CHUNK);
+        ByteBuffer encoded = buffer.duplicate();
+        int length = buffer.limit();
+        long delimiters = 0;
+        long bytes = 0;
+
+        for (int chunkStart = 0; chunkStart < length; chunkStart += DECODE_CHUNK) {
+            int chunkEnd = Math.min(length, chunkStart + DECODE_CHUNK);
+            for (int i = chunkStart; i < chunkEnd; i++) {
+                byte b = buffer.get(i);
+                if (b == this.quote) {
+                    inQuote = !inQuote;
+                    bytes++;
+                } else if (inQuote) {
+                    bytes++;
+                } else if (b == this.delimiter) {
+                    delimiters++;
+                    bytes++;
+                } else if (b == '\n') {
+                    segment.endRecord(delimiters, bytes, columnCount);
+                    delimiters = 0;
+                    bytes = 0;
+                } else if (b != '\r') {
+                    bytes++;
+                }
+            }
+
+            // 같은 구간을 캐시에 남아 있을 때 디코딩한다. 청크 끝에 걸친 멀티바이트 문자는 다음 청크에서 이어서 디코딩된다.
+            if (segment.malformedOffset < 0) {
+                encoded.limit(chunkEnd);
+                if (!decode(decoder, encoded, chars, chunkEnd == length)) {
+                    segment.malformedOffset = start + encoded.position();
+                }
+            }
+        }
+
+        if (segment.sawNewline) {
+            segment.suffixDelimiters = delimiters;
+            segment.suffixBytes = bytes;
+        } else {
+            segment.prefixDelimiters = delimiters;
+            segment.prefixBytes = bytes;
+        }
+        segment.exitInQuote = inQuote;
+        return segment;
+    }
+
+    private static boolean decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out, boolean endOfInput) {
+        while (true) {
+            out.clear();
+            CoderResult result = decoder.decode(in, out, endOfInput);
+            if (result.isError()) {
+                return false;
+            }
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+        if (endOfInput) {
+            out.clear();
+            return !decoder.flush(out).isError();
+        }
+        return true;
+    }
+
+    private CharsetDecoder newDecoder() {
+        return this.charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    private int findLineEnd(ByteBuffer buffer) {
+        boolean inQuote = false;
+        for (int i = 0; i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+            if (b == this.quote) {
+                inQuote = !inQuote;
+            } else if (b == '\n' && !inQuote) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<String> parseHeader(ByteBuffer buffer, int end) throws CharacterCodingException {
+        ByteBuffer line = buffer.duplicate();
+        line.position(0).limit(end > 0 && buffer.get(end - 1) == '\r' ? end - 1 : end);
+        String text = newDecoder().decode(line).toString();
+        // UTF-8 BOM 이 첫 컬럼 이름에 붙지 않도록 제거한다.
+        if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+            text = text.substring(1);
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuote = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == this.quote) {
+                if (inQuote && i + 1 < text.length() && text.charAt(i + 1) == this.quote) {
+                    field.append(c);
+                    i++;
+                } else {
+                    inQuote = !inQuote;
+                }
+            } else if (c == this.delimiter && !inQuote) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * 컬럼 이름은 비어 있지 않고 서로 달라야 한다. 문제가 없으면 null
+     * @param header
+     * @return
+     */
+    private static String validateHeader(List<String> header) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i);
+            if (name.trim().isEmpty()) {
+                return "header column " + (i + 1) + " has no name";
+            }
+            if (!names.add(name)) {
+                return "header column '" + name + "' is duplicated";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 구간 하나의 검사 결과. rows 는 구간 안의 첫 줄바꿈과 마지막 줄바꿈 사이에 있는 레코드 수다.
+     */
+    private static class Segment {
+
+        private final boolean entryInQuote;
+
+        private boolean exitInQuote;
+
+        private boolean sawNewline;
+
+        private long prefixDelimiters;
+
+        private long prefixBytes;
+
+        private long suffixDelimiters;
+
+        private long suffixBytes;
+
+        private long rows;
+
+        private long invalidRows;
+
+        private long firstInvalidRow = -1;
+
+        private long firstInvalidColumnCount;
+
+        private long malformedOffset = -1;
+
+        Segment(boolean entryInQuote) {
+            this.entryInQuote = entryInQuote;
+        }
+
+        void endRecord(long delimiters, long bytes, int columnCount) {
+            if (!this.sawNewline) {
+                this.sawNewline = true;
+                this.prefixDelimiters = delimiters;
+                this.prefixBytes = bytes;
+                return;
+            }
+            if (delimiters + 1 != columnCount) {
+                if (this.invalidRows++ == 0) {
+                    this.firstInvalidRow = this.rows;
+                    this.firstInvalidColumnCount = delimiters + 1;
+                }
+            }
+            this.rows++;
+        }
+    }
+
+    /**
+     * 파일 전체의 검사 결과. 레코드 번호는 헤더를 제외하고 1 부터 센다.
+     */
+    public static final class Result {
+
+        private final List<String> header;
+
+        private final String invalidReason;
+
+        private long rowCount;
+
+        private long invalidRowCount;
+
+        private long firstInvalidRow = -1;
+
+        private long firstInvalidColumnCount;
+
+        private long malformedOffset = -1;
+
+        private boolean unterminatedQuote;
+
+        private Result(List<String> header) {
+            this(header, null);
+        }
+
+        private Result(List<String> header, String invalidReason) {
+            this.header = Collections.unmodifiableList(header);
+            this.invalidReason = invalidReason;
+        }
+
+        static Result invalid(String reason) {
+            return new Result(Collections.emptyList(), reason);
+        }
+
+        private void record(long columnCount) {
+            this.rowCount++;
+            if (columnCount != this.header.size() && this.invalidRowCount++ == 0) {
+                this.firstInvalidRow = this.rowCount;
+                this.firstInvalidColumnCount = columnCount;
+            }
+        }
+
+        public boolean isValid() {
+            return getError() == null;
+        }
+
+        /**
+         * 검사에 실패한 이유. 통과했으면 null
+         * @return
+         */
+        public String getError() {
+            if (this.invalidReason != null) {
+                return this.invalidReason;
+            }
+            if (this.malformedOffset >= 0) {
+                return "invalid character encoding at byte " + this.malformedOffset;
+            }
+            if (this.unterminatedQuote) {
+                return "unterminated quoted field at end of file";
+            }
+            if (this.invalidRowCount > 0) {
+                return this.invalidRowCount + " of " + this.rowCount + " records do not have " + this.header.size()
+                        + " columns (first: record " + this.firstInvalidRow + " has " + this.firstInvalidColumnCount + ")";
+            }
+            return null;
+        }
+
+        public List<String> getHeader() {
+            return this.header;
+        }
+
+        public int getColumnCount() {
+            return this.header.size();
+        }
+
+        public long getRowCount() {
+            return this.rowCount;
+        }
+
+        public long getInvalidRowCount() {
+            return this.invalidRowCount;
+        }
+
+        public long getFirstInvalidRow() {
+            return this.firstInvalidRow;
+        }
+
+        @Override
+        public String toString() {
+            return "Result [columns=" + this.header.size() + ", rows=" + this.rowCount + ", error=" + getError() + "]";
+        }
+    }
+}
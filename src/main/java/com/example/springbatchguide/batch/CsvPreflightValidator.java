@@ -0,0 +1,223 @@
+package com.example.springbatchguide.batch;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.JobParametersValidator;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * parameterName 파라미터로 전달된 CSV 파일을 잡이 시작되기 전에 끝까지 검사하는 JobParametersValidator (선택 사항)
+ *
+ * - 헤더, 레코드마다의 컬럼 수, 문자 인코딩을 CsvPreflightScanner 로 병렬 검사하고, 잘못된 파일이면 잡을 실행하지 않는다.
+ * - 결과는 경로별로 크기, 수정 시각, 앞뒤 블록(sampleSize 바이트)의 체크섬과 함께 캐시한다.
+ *   같은 파일로 다시 실행하면 파일을 다시 훑지 않는다. (크기와 수정 시각을 유지한 채 가운데만 바뀐 파일은 구별하지 못한다)
+ * - 잡 리스너로도 등록하면 레코드 수를 잡 ExecutionContext 의 '{parameterName}.rowCount' 키에 저장한다.
+ *   리더나 파티셔너는 #{jobExecutionContext['fileName.rowCount']} 로 받아 크기를 정할 수 있다.
+ *
+ * 파라미터가 없는 경우는 ParameterValidator / DefaultJobParametersValidator 가 확인하므로 여기서는 통과시킨다.
+ */
+public class CsvPreflightValidator implements JobParametersValidator, JobExecutionListener {
+
+    private final CsvPreflightScanner scanner;
+
+    private final String parameterName;
+
+    private final Map<String, CachedResult> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong scanCount = new AtomicLong();
+
+    private List<String> expectedHeader;
+
+    private int sampleSize = 64 * 1024;
+
+    private int maxCacheEntries = 256;
+
+    public CsvPreflightValidator(CsvPreflightScanner scanner, String parameterName) {
+        Assert.notNull(scanner, "scanner must not be null");
+        Assert.hasText(parameterName, "parameterName must not be empty");
+        this.scanner = scanner;
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * 헤더가 정확히 이 컬럼들이어야 한다. 지정하지 않으면 헤더의 컬럼 수만 기준으로 사용한다.
+     * @param expectedHeader
+     */
+    public void setExpectedHeader(String... expectedHeader) {
+        this.expectedHeader = expectedHeader.length > 0 ? Arrays.asList(expectedHeader) : null;
+    }
+
+    public void setSampleSize(int sampleSize) {
+        Assert.isTrue(sampleSize > 0, "sampleSize must be greater than 0");
+        this.sampleSize = sampleSize;
+    }
+
+    public void setMaxCacheEntries(int maxCacheEntries) {
+        Assert.isTrue(maxCacheEntries > 0, "maxCacheEntries must be greater than 0");
+        this.maxCacheEntries = maxCacheEntries;
+    }
+
+    public static String rowCountKey(String parameterName) {
+        return parameterName + ".rowCount";
+    }
+
+    @Override
+    public void validate(JobParameters parameters) throws JobParametersInvalidException {
+        String fileName = parameters == null ? null : parameters.getString(this.parameterName);
+        if (!StringUtils.hasText(fileName)) {
+            return;
+        }
+
+        CsvPreflightScanner.Result result = preflight(fileName);
+        if (!result.isValid()) {
+            throw new JobParametersInvalidException(this.parameterName + " failed pre-flight validation: " + result.getError());
+        }
+        if (this.expectedHeader != null && !this.expectedHeader.equals(result.getHeader())) {
+            throw new JobParametersInvalidException(this.parameterName + " header " + result.getHeader()
+                    + " does not match " + this.expectedHeader);
+        }
+    }
+
+    /**
+     * validate 에서 캐시된 결과로 레코드 수를 저장한다. (그 사이 파일이 바뀌었으면 다시 검사한 결과)
+     * @param jobExecution
+     */
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        String fileName = jobExecution.getJobParameters().getString(this.parameterName);
+        if (!StringUtils.hasText(fileName)) {
+            return;
+        }
+        try {
+            jobExecution.getExecutionContext().putLong(rowCountKey(this.parameterName), preflight(fileName).getRowCount());
+        } catch (JobParametersInvalidException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+    }
+
+    /**
+     * 실제로 파일을 훑은 횟수 (모니터링 / 테스트용)
+     * @return
+     */
+    public long getScanCount() {
+        return this.scanCount.get();
+    }
+
+    private CsvPreflightScanner.Result preflight(String fileName) throws JobParametersInvalidException {
+        Path path = Paths.get(fileName).toAbsolutePath().normalize();
+        try {
+            Fingerprint fingerprint = fingerprint(path);
+            CachedResult cached = this.cache.get(path.toString());
+            if (cached != null && cached.fingerprint.equals(fingerprint)) {
+                return cached.result;
+            }
+
+            CsvPreflightScanner.Result result = this.scanner.scan(path);
+            this.scanCount.incrementAndGet();
+            if (this.cache.size() >= this.maxCacheEntries && !this.cache.containsKey(path.toString())) {
+                Iterator<String> paths = this.cache.keySet().iterator();
+                if (paths.hasNext()) {
+                    this.cache.remove(paths.next());
+                }
+            }
+            this.cache.put(path.toString(), new CachedResult(fingerprint, result));
+            return result;
+        } catch (IOException e) {
+            throw new JobParametersInvalidException(this.parameterName + " cannot be read: " + e);
+        }
+    }
+
+    /**
+     * 크기, 수정 시각, 앞뒤 sampleSize 바이트의 CRC32C. 파일 크기와 관계없이 최대 2 * sampleSize 바이트만 읽는다.
+     */
+    private Fingerprint fingerprint(Path path) throws IOException {
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(this.sampleSize, size));
+            readFully(channel, buffer, 0);
+            crc.update(buffer);
+            if (size > this.sampleSize) {
+                buffer.clear();
+                readFully(channel, buffer, Math.max(this.sampleSize, size - this.sampleSize));
+                crc.update(buffer);
+            }
+            return new Fingerprint(size, lastModified, crc.getValue());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private static final class Fingerprint {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final long checksum;
+
+        Fingerprint(long size, long lastModified, long checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) o;
+            return this.size == other.size && this.lastModified == other.lastModified && this.checksum == other.checksum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.size) * 31 + Long.hashCode(this.checksum);
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final Fingerprint fingerprint;
+
+        private final CsvPreflightScanner.Result result;
+
+        CachedResult(Fingerprint fingerprint, CsvPreflightScanner.Result result) {
+            this.fingerprint = fingerprint;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.springbatchguide.chunk;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.Assert;
+
+/**
+ * 청크 트랜잭션 시간과 초당 처리 건수를 측정해 청크 크기를 스스로 조정하는 CompletionPolicy 구현체 (AIMD 방식)
+ * - 목표 커밋 시간 안에 끝나고 처리량이 떨어지지 않았다면 청크 크기를 increment 만큼 늘린다. (Additive Increase)
+ * - 목표 커밋 시간을 넘기거나 롤백되면 청크 크기를 decreaseFactor 비율로 줄인다. (Multiplicative Decrease)
+ * 학습된 청크 크기는 스텝의 ExecutionContext 에 저장되어 재시작 시 해당 크기부터 시작한다.
+ * [주의사항]
+ * 청크 시간 측정을 위해 스텝에 ChunkListener, StepExecutionListener 로도 등록해야 한다.
+ */
+public class AdaptiveChunkSizePolicy implements CompletionPolicy, ChunkListener, StepExecutionListener {
+
+    public static final String CHUNK_SIZE_KEY = "adaptiveChunkSizePolicy.chunkSize";
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetCommitNanos;
+
+    private int initialChunkSize;
+    private int increment;
+    private double decreaseFactor = 0.5;
+    private double throughputTolerance = 0.1;
+
+    private int chunkSize;
+    private int totalProcessed;
+    private long chunkStartNanos;
+    private double lastThroughput;
+    private StepExecution stepExecution;
+
+    /**
+     * @param minChunkSize 청크 크기 하한
+     * @param maxChunkSize 청크 크기 상한
+     * @param targetCommitMillis 청크 하나(읽기 ~ 커밋)의 목표 처리 시간
+     */
+    public AdaptiveChunkSizePolicy(int minChunkSize, int maxChunkSize, long targetCommitMillis) {
+        Assert.isTrue(minChunkSize > 0, "minChunkSize must be greater than 0");
+        Assert.isTrue(maxChunkSize >= minChunkSize, "maxChunkSize must not be less than minChunkSize");
+        Assert.isTrue(targetCommitMillis > 0, "targetCommitMillis must be greater than 0");
+
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetCommitNanos = targetCommitMillis * 1_000_000L;
+        this.initialChunkSize = minChunkSize;
+        this.increment = minChunkSize;
+        this.chunkSize = minChunkSize;
+    }
+
+    public void setInitialChunkSize(int initialChunkSize) {
+        this.initialChunkSize = clamp(initialChunkSize);
+        this.chunkSize = this.initialChunkSize;
+    }
+
+    public void setIncrement(int increment) {
+        Assert.isTrue(increment > 0, "increment must be greater than 0");
+        this.increment = increment;
+    }
+
+    public void setDecreaseFactor(double decreaseFactor) {
+        Assert.isTrue(decreaseFactor > 0 && decreaseFactor < 1, "decreaseFactor must be between 0 and 1");
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    public void setThroughputTolerance(double throughputTolerance) {
+        Assert.isTrue(throughputTolerance >= 0, "throughputTolerance must not be negative");
+        this.throughputTolerance = throughputTolerance;
+    }
+
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * 스텝 시작 시 이전 실행에서 학습한 청크 크기가 있으면 복원한다.
+     * @param stepExecution
+     */
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+        this.lastThroughput = 0;
+
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        this.chunkSize = executionContext.containsKey(CHUNK_SIZE_KEY)
+                ? clamp(executionContext.getInt(CHUNK_SIZE_KEY))
+                : this.initialChunkSize;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        stepExecution.getExecutionContext().putInt(CHUNK_SIZE_KEY, this.chunkSize);
+        this.stepExecution = null;
+        return null;
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context, RepeatStatus result) {
+        if (RepeatStatus.FINISHED == result) {
+            return true;
+        } else {
+            return isComplete(context);
+        }
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return this.totalProcessed >= this.chunkSize;
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext repeatContext) {
+        this.totalProcessed = 0;
+        return repeatContext;
+    }
+
+    @Override
+    public void update(RepeatContext repeatContext) {
+        this.totalProcessed++;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        this.chunkStartNanos = System.nanoTime();
+    }
+
+    /**
+     * 트랜잭션 커밋 이후 호출되므로 커밋 시간까지 포함해 측정된다.
+     * @param context
+     */
+    @Override
+    public void afterChunk(ChunkContext context) {
+        // 입력이 끝나 덜 채워진 마지막 청크는 측정에서 제외
+        if (this.totalProcessed < this.chunkSize) {
+            return;
+        }
+        adjust(this.totalProcessed, System.nanoTime() - this.chunkStartNanos);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        this.chunkSize = clamp((int) (this.chunkSize * this.decreaseFactor));
+        this.lastThroughput = 0;
+        saveChunkSize();
+    }
+
+    void adjust(int items, long elapsedNanos) {
+        double throughput = items * 1_000_000_000d / Math.max(elapsedNanos, 1L);
+
+        if (elapsedNanos > this.targetCommitNanos) {
+            this.chunkSize = clamp((int) (this.chunkSize * this.decreaseFactor));
+        } else if (throughput >= this.lastThroughput * (1 - this.throughputTolerance)) {
+            this.chunkSize = clamp(this.chunkSize + this.increment);
+        }
+        this.lastThroughput = throughput;
+        saveChunkSize();
+    }
+
+    private void saveChunkSize() {
+        if (this.stepExecution != null) {
+            this.stepExecution.getExecutionContext().putInt(CHUNK_SIZE_KEY, this.chunkSize);
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.max(this.minChunkSize, Math.min(this.maxChunkSize, size));
+    }
+}
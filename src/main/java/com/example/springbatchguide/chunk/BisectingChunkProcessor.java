@@ -0,0 +1,172 @@
+package com.example.springbatchguide.chunk;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.metrics.BatchMetrics;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 쓰기에 실패한 청크를 반씩 나눠 다시 써서 실패한 아이템만 건너뛰는 ChunkProcessor
+ *
+ * [기본 fault tolerant 스텝과의 차이]
+ * FaultTolerantChunkProcessor 는 쓰기에 실패하면 청크를 롤백하고 아이템을 하나씩 별도 트랜잭션으로 다시 쓴다. (1,000 건이면 1,000 번 커밋)
+ * 이 프로세서는 같은 청크 트랜잭션 안에서 실패한 구간을 반으로 나눠 다시 쓰고, 성공한 구간은 그대로 둔 채 실패한 구간만 계속 나눈다.
+ * 실패한 아이템 하나를 찾는 데 약 log2(n) 번의 추가 쓰기가 필요하며, 정상 아이템은 청크와 함께 한 번에 커밋된다.
+ *
+ * [구간 롤백]
+ * 시도마다 세이브포인트(PROPAGATION_NESTED)를 만들어 실패한 구간이 쓴 내용만 되돌린다.
+ * 따라서 라이터는 스텝 트랜잭션의 커넥션으로 써야 한다. (별도 커넥션, 파일 등은 세이브포인트로 되돌릴 수 없다)
+ * transactionManager 를 지정하지 않으면 세이브포인트 없이 다시 쓰므로, 실패한 쓰기가 일부만 반영되지 않는 라이터에만 사용한다.
+ *
+ * [건너뛰기]
+ * 건너뛸 수 있는 예외인지와 건너뛰기 한도는 skipPolicy 로 판단한다. 건너뛸 수 없는 예외는 그대로 던져 청크를 롤백한다.
+ * 건너뛴 아이템은 writeSkipCount 에 더해지고 SkipListener.onSkipInWrite 가 호출되므로 기본 fault tolerant 스텝과 같은 결과가 남는다.
+ * 읽기/처리 중 예외는 건너뛰지 않는다.
+ */
+public class BisectingChunkProcessor<I, O> extends SimpleChunkProcessor<I, O> {
+
+    private final SkipPolicy skipPolicy;
+
+    private TransactionTemplate savepointTemplate;
+
+    public BisectingChunkProcessor(ItemProcessor<? super I, ? extends O> itemProcessor, ItemWriter<? super O> itemWriter,
+                                   SkipPolicy skipPolicy) {
+        super(itemProcessor, itemWriter);
+        Assert.notNull(skipPolicy, "skipPolicy must not be null");
+        this.skipPolicy = skipPolicy;
+    }
+
+    /**
+     * 구간마다 세이브포인트를 만들 트랜잭션 매니저 (스텝과 같은 매니저)
+     * @param transactionManager
+     */
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        if (transactionManager == null) {
+            this.savepointTemplate = null;
+            return;
+        }
+        this.savepointTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @Override
+    protected void write(StepContribution contribution, Chunk<I> inputs, Chunk<O> outputs) throws Exception {
+        Timer.Sample sample = BatchMetrics.createTimerSample();
+        String status = BatchMetrics.STATUS_SUCCESS;
+        List<SkippedItem<O>> skipped = new ArrayList<>();
+        try {
+            int written = bisect(contribution, outputs.getItems(), skipped);
+            contribution.incrementWriteCount(written);
+            // 청크 전체를 쓴 뒤에 반영해야 한도 초과로 롤백된 청크의 건너뛰기가 집계되지 않는다.
+            for (int i = 0; i < skipped.size(); i++) {
+                contribution.incrementWriteSkipCount();
+            }
+        } catch (Exception e) {
+            status = BatchMetrics.STATUS_FAILURE;
+            throw e;
+        } finally {
+            stopTimer(sample, contribution.getStepExecution(), "chunk.write", status, "Chunk writing");
+        }
+
+        for (SkippedItem<O> item : skipped) {
+            getListener().onSkipInWrite(item.item, item.cause);
+        }
+    }
+
+    /**
+     * 앞쪽 구간부터 순서대로 쓴다. 실패한 구간은 반으로 나눠 앞쪽 절반부터 다시 시도한다.
+     * @return 쓴 아이템 수
+     */
+    private int bisect(StepContribution contribution, List<O> items, List<SkippedItem<O>> skipped) throws Exception {
+        Deque<List<O>> segments = new ArrayDeque<>();
+        segments.push(items);
+        int written = 0;
+
+        while (!segments.isEmpty()) {
+            List<O> segment = segments.pop();
+            if (segment.isEmpty()) {
+                continue;
+            }
+
+            Exception failure = tryWrite(segment);
+            if (failure == null) {
+                written += segment.size();
+                continue;
+            }
+
+            if (segment.size() > 1) {
+                // 한도와 상관없이 건너뛸 수 있는 예외인지만 확인한다. (FaultTolerantChunkProcessor 와 같은 방식)
+                if (!this.skipPolicy.shouldSkip(failure, -1)) {
+                    throw failure;
+                }
+                int middle = segment.size() / 2;
+                segments.push(segment.subList(middle, segment.size()));
+                segments.push(segment.subList(0, middle));
+                continue;
+            }
+
+            if (!this.skipPolicy.shouldSkip(failure, contribution.getStepSkipCount() + skipped.size())) {
+                throw failure;
+            }
+            skipped.add(new SkippedItem<>(segment.get(0), failure));
+        }
+        return written;
+    }
+
+    /**
+     * @return 실패했으면 예외, 성공했으면 null
+     */
+    private Exception tryWrite(List<O> segment) {
+        try {
+            if (this.savepointTemplate == null) {
+                doWrite(segment);
+            } else {
+                this.savepointTemplate.execute(status -> {
+                    try {
+                        doWrite(segment);
+                    } catch (Exception e) {
+                        throw new SegmentFailedException(e);
+                    }
+                    return null;
+                });
+            }
+            return null;
+        } catch (SegmentFailedException e) {
+            return (Exception) e.getCause();
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private static class SegmentFailedException extends RuntimeException {
+
+        SegmentFailedException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static class SkippedItem<O> {
+
+        private final O item;
+
+        private final Throwable cause;
+
+        SkippedItem(O item, Throwable cause) {
+            this.item = item;
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springbatchguide.chunk;
+
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepListener;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.item.ChunkOrientedTasklet;
+import org.springframework.batch.core.step.item.SimpleChunkProvider;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 쓰기 실패를 BisectingChunkProcessor 로 처리하는 청크 스텝 빌더
+ * reader, processor, writer 등을 모두 설정한 SimpleStepBuilder 를 넘겨 받아 건너뛰기 설정만 더한다.
+ *
+ * <pre>
+ * new BisectingStepBuilder&lt;&gt;(stepBuilderFactory.get("step").&lt;String, String&gt; chunk(1000).reader(reader).writer(writer))
+ *         .skip(DataIntegrityViolationException.class)
+ *         .skipLimit(100)
+ *         .build();
+ * </pre>
+ */
+public class BisectingStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
+
+    private final Map<Class<? extends Throwable>, Boolean> skippableExceptions = new HashMap<>();
+
+    private final Set<SkipListener<? super I, ? super O>> skipListeners = new LinkedHashSet<>();
+
+    private int skipLimit = 10;
+
+    private SkipPolicy skipPolicy;
+
+    public BisectingStepBuilder(SimpleStepBuilder<I, O> parent) {
+        super(parent);
+    }
+
+    public BisectingStepBuilder<I, O> skip(Class<? extends Throwable> type) {
+        this.skippableExceptions.put(type, true);
+        return this;
+    }
+
+    public BisectingStepBuilder<I, O> noSkip(Class<? extends Throwable> type) {
+        this.skippableExceptions.put(type, false);
+        return this;
+    }
+
+    public BisectingStepBuilder<I, O> skipLimit(int skipLimit) {
+        Assert.isTrue(skipLimit >= 0, "skipLimit must not be negative");
+        this.skipLimit = skipLimit;
+        return this;
+    }
+
+    /**
+     * 지정하면 skip, noSkip, skipLimit 설정은 무시한다.
+     * @param skipPolicy
+     * @return
+     */
+    public BisectingStepBuilder<I, O> skipPolicy(SkipPolicy skipPolicy) {
+        this.skipPolicy = skipPolicy;
+        return this;
+    }
+
+    public BisectingStepBuilder<I, O> listener(SkipListener<? super I, ? super O> listener) {
+        this.skipListeners.add(listener);
+        return this;
+    }
+
+    @Override
+    protected Tasklet createTasklet() {
+        Assert.state(getReader() != null, "ItemReader must be provided");
+        Assert.state(getWriter() != null, "ItemWriter must be provided");
+
+        SimpleChunkProvider<I> chunkProvider = new SimpleChunkProvider<>(getReader(), createChunkOperations());
+        BisectingChunkProcessor<I, O> chunkProcessor = new BisectingChunkProcessor<>(getProcessor(), getWriter(), createSkipPolicy());
+        chunkProcessor.setTransactionManager(getTransactionManager());
+
+        chunkProvider.setListeners(new ArrayList<>(getItemListeners()));
+        List<StepListener> processorListeners = new ArrayList<>(getItemListeners());
+        processorListeners.addAll(this.skipListeners);
+        chunkProcessor.setListeners(processorListeners);
+
+        ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(chunkProvider, chunkProcessor);
+        tasklet.setBuffering(!isReaderTransactionalQueue());
+        return tasklet;
+    }
+
+    private SkipPolicy createSkipPolicy() {
+        if (this.skipPolicy != null) {
+            return this.skipPolicy;
+        }
+        return new LimitCheckingItemSkipPolicy(this.skipLimit, this.skippableExceptions);
+    }
+}
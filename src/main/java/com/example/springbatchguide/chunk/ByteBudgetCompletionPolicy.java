@@ -0,0 +1,233 @@
+package com.example.springbatchguide.chunk;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.support.RepeatSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 청크에 담긴 아이템의 예상 메모리 크기(바이트)와 경과 시간으로 청크를 닫는 CompletionPolicy 구현체
+ * - ItemSizer 로 읽은 아이템마다 크기를 추정해 더하고, maxChunkBytes 에 도달하면 청크를 닫는다.
+ *   예산을 넘긴 아이템까지 청크에 포함되므로 청크 하나의 크기는 maxChunkBytes + 아이템 하나 이하다.
+ * - 청크 시작 후 maxChunkMillis 가 지나면 닫는다. (아이템을 읽은 직후에 확인하므로 읽기 하나가 오래 걸리면 그만큼 늦어진다)
+ * - maxChunkSize 건에 도달해도 닫는다.
+ * 청크별 상태는 RepeatContext 에 담기므로 멀티 스레드 스텝이나 파티션 워커들이 하나의 인스턴스를 공유해도 된다.
+ *
+ * [지표] meterRegistry 를 설정하면 청크가 닫힐 때 job, step, reason(count|bytes|time|end) 태그로 기록한다.
+ * - batch.chunk.items (DistributionSummary) : 청크에 담긴 아이템 수
+ * - batch.chunk.bytes (DistributionSummary) : 청크에 담긴 아이템의 예상 크기
+ *
+ * [주의사항]
+ * 아이템 크기를 알기 위해 스텝에 ItemReadListener 로도 등록해야 한다.
+ */
+public class ByteBudgetCompletionPolicy<T> implements CompletionPolicy, ItemReadListener<T> {
+
+    /**
+     * 아이템 하나가 힙에서 차지하는 크기를 추정
+     */
+    @FunctionalInterface
+    public interface ItemSizer<T> {
+
+        long sizeOf(T item);
+
+        /**
+         * Latin-1 문자열 추정치 : String(24) + byte[] 헤더(16) + 문자 수를 8 바이트 단위로 올림
+         * @return
+         */
+        static ItemSizer<String> strings() {
+            return item -> 40 + ((item.length() + 7) & ~7);
+        }
+
+        static <T> ItemSizer<T> fixed(long bytes) {
+            return item -> bytes;
+        }
+    }
+
+    private final ItemSizer<? super T> itemSizer;
+
+    private final long maxChunkBytes;
+
+    private final long maxChunkNanos;
+
+    private int maxChunkSize = Integer.MAX_VALUE;
+
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, ChunkMeters> chunkMeters = new ConcurrentHashMap<>();
+
+    /**
+     * @param itemSizer 아이템 크기 추정
+     * @param maxChunkBytes 청크 하나에 담을 아이템의 예상 크기 합계
+     * @param maxChunkMillis 청크 하나를 읽는 데 쓸 최대 시간
+     */
+    public ByteBudgetCompletionPolicy(ItemSizer<? super T> itemSizer, long maxChunkBytes, long maxChunkMillis) {
+        Assert.notNull(itemSizer, "itemSizer must not be null");
+        Assert.isTrue(maxChunkBytes > 0, "maxChunkBytes must be greater than 0");
+        Assert.isTrue(maxChunkMillis > 0, "maxChunkMillis must be greater than 0");
+
+        this.itemSizer = itemSizer;
+        this.maxChunkBytes = maxChunkBytes;
+        this.maxChunkNanos = TimeUnit.MILLISECONDS.toNanos(maxChunkMillis);
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        Assert.isTrue(maxChunkSize > 0, "maxChunkSize must be greater than 0");
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        return new BudgetContext(parent);
+    }
+
+    @Override
+    public void beforeRead() {
+    }
+
+    /**
+     * 아이템을 읽은 스레드의 현재 RepeatContext(청크)에 크기를 더한다.
+     * @param item
+     */
+    @Override
+    public void afterRead(T item) {
+        RepeatContext context = RepeatSynchronizationManager.getContext();
+        if (context instanceof BudgetContext) {
+            BudgetContext budget = (BudgetContext) context;
+            budget.items++;
+            budget.bytes += this.itemSizer.sizeOf(item);
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+    }
+
+    /**
+     * 읽기 시도 횟수. 입력의 끝(null)을 읽는 시도도 포함되므로 아이템 수는 afterRead 에서 따로 센다.
+     * @param context
+     */
+    @Override
+    public void update(RepeatContext context) {
+        ((BudgetContext) context).iterations++;
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context, RepeatStatus result) {
+        if (result == null || !result.isContinuable()) {
+            close((BudgetContext) context, "end");
+            return true;
+        }
+        return isComplete(context);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        BudgetContext budget = (BudgetContext) context;
+        if (budget.iterations >= this.maxChunkSize) {
+            close(budget, "count");
+        } else if (budget.bytes >= this.maxChunkBytes) {
+            close(budget, "bytes");
+        } else if (System.nanoTime() - budget.startNanos >= this.maxChunkNanos) {
+            close(budget, "time");
+        }
+        return budget.reason != null;
+    }
+
+    /**
+     * 청크가 닫힌 이유를 남기고 처음 한 번만 지표를 기록한다.
+     * @param budget
+     * @param reason
+     */
+    private void close(BudgetContext budget, String reason) {
+        if (budget.reason != null) {
+            return;
+        }
+        budget.reason = reason;
+        if (this.meterRegistry == null || budget.items == 0) {
+            return;
+        }
+        ChunkMeters meters = meters(reason);
+        meters.items.record(budget.items);
+        meters.bytes.record(budget.bytes);
+    }
+
+    private ChunkMeters meters(String reason) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        String job = "none";
+        String step = "none";
+        if (stepContext != null) {
+            StepExecution stepExecution = stepContext.getStepExecution();
+            job = stepExecution.getJobExecution().getJobInstance().getJobName();
+            step = stepExecution.getStepName();
+        }
+        Tags tags = Tags.of("job", job, "step", step, "reason", reason);
+        return this.chunkMeters.computeIfAbsent(job + '/' + step + '/' + reason, key -> new ChunkMeters(this.meterRegistry, tags));
+    }
+
+    /**
+     * 청크 하나의 아이템 수, 예상 크기, 시작 시점
+     */
+    static class BudgetContext extends RepeatContextSupport {
+
+        private final long startNanos = System.nanoTime();
+
+        private int iterations;
+
+        private int items;
+
+        private long bytes;
+
+        private String reason;
+
+        BudgetContext(RepeatContext parent) {
+            super(parent);
+        }
+
+        int getItems() {
+            return this.items;
+        }
+
+        long getBytes() {
+            return this.bytes;
+        }
+
+        String getReason() {
+            return this.reason;
+        }
+    }
+
+    private static class ChunkMeters {
+
+        private final DistributionSummary items;
+
+        private final DistributionSummary bytes;
+
+        ChunkMeters(MeterRegistry registry, Tags tags) {
+            this.items = DistributionSummary.builder("batch.chunk.items").tags(tags)
+                    .baseUnit("items")
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.bytes = DistributionSummary.builder("batch.chunk.bytes").tags(tags)
+                    .baseUnit("bytes")
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -12,10 +12,22 @@ import java.util.Random;
  */
 public class RandomChunkSizePolicy implements CompletionPolicy {
 
+    private final int maxChunkSize;
     private int chunkSize;
     private int totalProcessed;
     private Random random = new Random();
 
+    public RandomChunkSizePolicy() {
+        this(20);
+    }
+
+    /**
+     * @param maxChunkSize 청크 크기는 0 ~ maxChunkSize - 1 사이에서 정해진다.
+     */
+    public RandomChunkSizePolicy(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+
     /**
      * 청크 완료 여부의 상태를 기반으로 결정 로직을 수행
      * @param context
@@ -49,7 +61,7 @@ public class RandomChunkSizePolicy implements CompletionPolicy {
      */
     @Override
     public RepeatContext start(RepeatContext repeatContext) {
-        this.chunkSize = random.nextInt(20);
+        this.chunkSize = random.nextInt(this.maxChunkSize);
         this.totalProcessed = 0;
 
         System.out.println("The chunk size has been set to " + this.chunkSize);
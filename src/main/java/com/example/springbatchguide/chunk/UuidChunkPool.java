@@ -0,0 +1,70 @@
+package com.example.springbatchguide.chunk;
+
+import org.springframework.util.Assert;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * UuidChunk 재사용 풀
+ * 리더가 꺼내 쓰고, 라이터(커밋 후)나 프로세서(모두 걸러진 경우)가 돌려준다.
+ * 풀이 비어 있으면 새로 만들고, maxIdle 개를 넘게 반환되면 버린다.
+ */
+public class UuidChunkPool {
+
+    private final int rowsPerChunk;
+
+    private final int maxIdle;
+
+    private final Queue<UuidChunk> idle = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private final AtomicInteger createdCount = new AtomicInteger();
+
+    public UuidChunkPool(int rowsPerChunk) {
+        this(rowsPerChunk, 64);
+    }
+
+    public UuidChunkPool(int rowsPerChunk, int maxIdle) {
+        Assert.isTrue(rowsPerChunk > 0, "rowsPerChunk must be greater than 0");
+        Assert.isTrue(maxIdle >= 0, "maxIdle must not be negative");
+        this.rowsPerChunk = rowsPerChunk;
+        this.maxIdle = maxIdle;
+    }
+
+    public int getRowsPerChunk() {
+        return this.rowsPerChunk;
+    }
+
+    public UuidChunk acquire() {
+        UuidChunk chunk = this.idle.poll();
+        if (chunk == null) {
+            this.createdCount.incrementAndGet();
+            return new UuidChunk(this.rowsPerChunk);
+        }
+        this.idleCount.decrementAndGet();
+        chunk.clear();
+        return chunk;
+    }
+
+    public void release(UuidChunk chunk) {
+        if (chunk.capacity() != this.rowsPerChunk) {
+            return;
+        }
+        if (this.idleCount.incrementAndGet() > this.maxIdle) {
+            this.idleCount.decrementAndGet();
+            return;
+        }
+        this.idle.offer(chunk);
+    }
+
+    /**
+     * 지금까지 새로 만든 버퍼 수 (모니터링 / 테스트용)
+     * @return
+     */
+    public int getCreatedCount() {
+        return this.createdCount.get();
+    }
+}
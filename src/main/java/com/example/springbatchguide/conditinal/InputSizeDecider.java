@@ -0,0 +1,210 @@
+package com.example.springbatchguide.conditinal;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 입력 크기와 과거 실행 시간으로 단일 스레드 경로와 파티셔닝 경로 중 하나를 고르는 JobExecutionDecider
+ *
+ * [입력 크기 추정]
+ * 0. rowCountKey 가 지정되어 있고 잡 ExecutionContext 에 값이 있으면 그대로 사용 (CsvPreflightValidator 가 센 레코드 수)
+ * 1. itemCountParameter 잡 파라미터(예상 건수)가 있으면 그대로 사용
+ * 2. 없으면 fileParameter 잡 파라미터로 전달된 파일 크기 / bytesPerItem
+ * 3. 둘 다 없으면 크기를 알 수 없으므로 PARTITIONED
+ *
+ * [판단 기준]
+ * - 단일 스레드 스텝(singleThreadStepName)이 최근에 성공한 기록이 있으면 아이템당 처리 시간으로 예상 시간을 계산해
+ *   maxSingleThreadMillis 이하면 SINGLE_THREAD
+ * - 기록이 없으면 예상 건수가 maxSingleThreadItems 이하일 때 SINGLE_THREAD
+ *
+ * 과거 기록은 잡 이름별로 historyTtlMillis 동안 캐시하므로, 대부분의 판단은 JobExplorer 조회 없이 끝난다.
+ */
+public class InputSizeDecider implements JobExecutionDecider {
+
+    public static final FlowExecutionStatus SINGLE_THREAD = new FlowExecutionStatus("SINGLE_THREAD");
+
+    public static final FlowExecutionStatus PARTITIONED = new FlowExecutionStatus("PARTITIONED");
+
+    private final JobExplorer jobExplorer;
+
+    private final String singleThreadStepName;
+
+    private final Map<String, History> histories = new ConcurrentHashMap<>();
+
+    private String itemCountParameter = "itemCount";
+
+    private String fileParameter = "fileName";
+
+    private String rowCountKey;
+
+    private long bytesPerItem = 100;
+
+    private long maxSingleThreadItems = 10_000;
+
+    private long maxSingleThreadMillis = 2_000;
+
+    private long historyTtlMillis = 60_000;
+
+    private int lookback = 10;
+
+    public InputSizeDecider(JobExplorer jobExplorer, String singleThreadStepName) {
+        Assert.notNull(jobExplorer, "jobExplorer must not be null");
+        Assert.hasText(singleThreadStepName, "singleThreadStepName must not be empty");
+        this.jobExplorer = jobExplorer;
+        this.singleThreadStepName = singleThreadStepName;
+    }
+
+    public void setItemCountParameter(String itemCountParameter) {
+        this.itemCountParameter = itemCountParameter;
+    }
+
+    public void setFileParameter(String fileParameter) {
+        this.fileParameter = fileParameter;
+    }
+
+    /**
+     * 잡 ExecutionContext 에서 실제 레코드 수를 찾을 키 (예: CsvPreflightValidator.rowCountKey("fileName"))
+     * @param rowCountKey
+     */
+    public void setRowCountKey(String rowCountKey) {
+        this.rowCountKey = rowCountKey;
+    }
+
+    /**
+     * 파일 크기로 건수를 추정할 때 사용할 아이템 하나의 평균 바이트 수
+     * @param bytesPerItem
+     */
+    public void setBytesPerItem(long bytesPerItem) {
+        Assert.isTrue(bytesPerItem > 0, "bytesPerItem must be greater than 0");
+        this.bytesPerItem = bytesPerItem;
+    }
+
+    /**
+     * 과거 기록이 없을 때 단일 스레드로 처리할 최대 건수
+     * @param maxSingleThreadItems
+     */
+    public void setMaxSingleThreadItems(long maxSingleThreadItems) {
+        this.maxSingleThreadItems = maxSingleThreadItems;
+    }
+
+    /**
+     * 과거 기록이 있을 때 단일 스레드로 처리할 최대 예상 시간
+     * @param maxSingleThreadMillis
+     */
+    public void setMaxSingleThreadMillis(long maxSingleThreadMillis) {
+        this.maxSingleThreadMillis = maxSingleThreadMillis;
+    }
+
+    public void setHistoryTtlMillis(long historyTtlMillis) {
+        this.historyTtlMillis = historyTtlMillis;
+    }
+
+    public void setLookback(int lookback) {
+        Assert.isTrue(lookback > 0, "lookback must be greater than 0");
+        this.lookback = lookback;
+    }
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        long items = this.rowCountKey != null && jobExecution.getExecutionContext().containsKey(this.rowCountKey)
+                ? jobExecution.getExecutionContext().getLong(this.rowCountKey)
+                : estimateItems(jobExecution.getJobParameters());
+        if (items < 0) {
+            return PARTITIONED;
+        }
+
+        History history = history(jobExecution.getJobInstance().getJobName());
+        if (history.hasSamples()) {
+            double estimatedMillis = items * history.nanosPerItem / TimeUnit.MILLISECONDS.toNanos(1);
+            return estimatedMillis <= this.maxSingleThreadMillis ? SINGLE_THREAD : PARTITIONED;
+        }
+        return items <= this.maxSingleThreadItems ? SINGLE_THREAD : PARTITIONED;
+    }
+
+    /**
+     * 잡 파라미터로 처리할 건수를 추정한다. 알 수 없으면 -1
+     * @param jobParameters
+     * @return
+     */
+    long estimateItems(JobParameters jobParameters) {
+        if (jobParameters.getParameters().containsKey(this.itemCountParameter)) {
+            return jobParameters.getLong(this.itemCountParameter);
+        }
+
+        String fileName = jobParameters.getString(this.fileParameter);
+        if (fileName != null) {
+            File file = new File(fileName);
+            if (file.isFile()) {
+                return file.length() / this.bytesPerItem;
+            }
+        }
+        return -1;
+    }
+
+    private History history(String jobName) {
+        long now = System.nanoTime();
+        History history = this.histories.get(jobName);
+        if (history == null || now - history.loadedAt > TimeUnit.MILLISECONDS.toNanos(this.historyTtlMillis)) {
+            history = loadHistory(jobName, now);
+            this.histories.put(jobName, history);
+        }
+        return history;
+    }
+
+    /**
+     * 최근 잡 인스턴스에서 성공한 단일 스레드 스텝의 아이템당 평균 처리 시간을 구한다.
+     * @param jobName
+     * @param now
+     * @return
+     */
+    private History loadHistory(String jobName, long now) {
+        long totalMillis = 0;
+        long totalItems = 0;
+
+        for (JobInstance jobInstance : this.jobExplorer.getJobInstances(jobName, 0, this.lookback)) {
+            for (JobExecution jobExecution : this.jobExplorer.getJobExecutions(jobInstance)) {
+                for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+                    if (!this.singleThreadStepName.equals(stepExecution.getStepName())
+                            || stepExecution.getStatus() != BatchStatus.COMPLETED
+                            || stepExecution.getStartTime() == null || stepExecution.getEndTime() == null
+                            || stepExecution.getWriteCount() == 0) {
+                        continue;
+                    }
+                    totalMillis += stepExecution.getEndTime().getTime() - stepExecution.getStartTime().getTime();
+                    totalItems += stepExecution.getWriteCount();
+                }
+            }
+        }
+
+        double nanosPerItem = totalItems > 0 ? (double) TimeUnit.MILLISECONDS.toNanos(totalMillis) / totalItems : Double.NaN;
+        return new History(nanosPerItem, now);
+    }
+
+    private static class History {
+
+        private final double nanosPerItem;
+
+        private final long loadedAt;
+
+        History(double nanosPerItem, long loadedAt) {
+            this.nanosPerItem = nanosPerItem;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean hasSamples() {
+            return !Double.isNaN(this.nanosPerItem);
+        }
+    }
+}
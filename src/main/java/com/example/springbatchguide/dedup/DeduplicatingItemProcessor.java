@@ -0,0 +1,247 @@
+package com.example.springbatchguide.dedup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 이전 실행(또는 같은 실행의 앞 청크)에서 처리한 아이템을 걸러내는 ItemProcessor (중복이면 null 을 반환해 필터링)
+ *
+ * [판단 순서]
+ * 1. 키의 해시를 MappedBloomFilter 에 추가해 새로 켜진 비트가 있으면 처음 보는 키다. (DB 조회 없음)
+ * 2. 모든 비트가 이미 켜져 있으면(probable hit) 현재 청크에서 통과시킨 키와 JdbcSeenItemStore 를 확인한다.
+ *    어느 쪽에도 없으면 오탐(false positive)이므로 통과시킨다.
+ * 쓰기에 성공한 아이템의 키는 afterWrite 에서 같은 트랜잭션으로 저장소에 추가되므로, 롤백된 청크의 키는 남지 않는다.
+ * (블룸 필터의 비트는 남지만 오탐만 늘 뿐 다음 실행에서 저장소 확인으로 걸러진다)
+ *
+ * [영속성]
+ * 블룸 필터 파일은 스텝이 끝날 때(close) 디스크에 반영된다. 프로세스가 죽어도 매핑된 페이지는 OS 가 기록하지만,
+ * OS 장애로 파일이 사라지거나 새로 만들어지면 open 시 저장소의 키로 다시 채운다.
+ *
+ * [지표]
+ * afterStep 에서 스텝 ExecutionContext 의 dedup.* 키와 meterRegistry 의 batch.dedup.* 지표로 기록한다.
+ * - 조회 수, 중복 수, 오탐 수, 관측 오탐률 = 오탐 / (오탐 + 처음 보는 키), 필터 기준 예상 오탐률, 매핑된 바이트 수
+ * 힙에는 카운터와 현재 청크의 키만 있으므로 기록이 늘어도 힙 사용량은 늘지 않는다.
+ */
+public class DeduplicatingItemProcessor<T> implements ItemProcessor<T, T>, ItemStream, ItemWriteListener<T>, StepExecutionListener {
+
+    private final Function<? super T, String> keyExtractor;
+
+    private final JdbcSeenItemStore store;
+
+    private final Path bloomFile;
+
+    private long expectedInsertions = 10_000_000;
+
+    private double falsePositiveRate = 0.01;
+
+    private MeterRegistry meterRegistry;
+
+    private volatile MappedBloomFilter bloomFilter;
+
+    private final AtomicLong lookups = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong duplicates = new AtomicLong();
+
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public DeduplicatingItemProcessor(Function<? super T, String> keyExtractor, JdbcSeenItemStore store, Path bloomFile) {
+        Assert.notNull(keyExtractor, "keyExtractor must not be null");
+        Assert.notNull(store, "store must not be null");
+        Assert.notNull(bloomFile, "bloomFile must not be null");
+        this.keyExtractor = keyExtractor;
+        this.store = store;
+        this.bloomFile = bloomFile;
+    }
+
+    /**
+     * 새 블룸 필터 파일을 만들 때의 예상 키 수. 이미 있는 파일은 만들 때의 크기를 사용한다.
+     * @param expectedInsertions
+     */
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.bloomFilter != null) {
+            return;
+        }
+        this.store.createTableIfNotExists();
+        try {
+            MappedBloomFilter filter = MappedBloomFilter.open(this.bloomFile, this.expectedInsertions, this.falsePositiveRate);
+            if (filter.getInsertions() == 0) {
+                this.store.forEach(key -> filter.put(MappedBloomFilter.hash(key)));
+            }
+            this.bloomFilter = filter;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open bloom filter " + this.bloomFile, e);
+        }
+        if (this.meterRegistry != null) {
+            Gauge.builder("batch.dedup.bloom.bytes", this, processor -> processor.bloomFilter != null ? processor.bloomFilter.getMappedBytes() : 0)
+                    .description("Off-heap bytes mapped for the dedup bloom filter")
+                    .register(this.meterRegistry);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        MappedBloomFilter filter = this.bloomFilter;
+        this.bloomFilter = null;
+        if (filter == null) {
+            return;
+        }
+        try {
+            filter.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close bloom filter " + this.bloomFile, e);
+        }
+    }
+
+    @Override
+    public T process(T item) {
+        MappedBloomFilter filter = this.bloomFilter;
+        Assert.state(filter != null, "DeduplicatingItemProcessor must be opened before processing");
+
+        String key = this.keyExtractor.apply(item);
+        Set<String> chunkKeys = chunkKeys();
+        this.lookups.incrementAndGet();
+
+        if (filter.put(MappedBloomFilter.hash(key))) {
+            this.misses.incrementAndGet();
+            chunkKeys.add(key);
+            return item;
+        }
+        if (chunkKeys.contains(key) || this.store.contains(key)) {
+            this.duplicates.incrementAndGet();
+            return null;
+        }
+        this.falsePositives.incrementAndGet();
+        chunkKeys.add(key);
+        return item;
+    }
+
+    /**
+     * 현재 청크에서 통과시킨 키. 트랜잭션마다 바인딩되므로 롤백되면 버려진다.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> chunkKeys() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashSet<>();
+        }
+        Set<String> keys = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (keys == null) {
+            keys = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DeduplicatingItemProcessor.this);
+                }
+            });
+        }
+        return keys;
+    }
+
+    @Override
+    public void beforeWrite(List<? extends T> items) {
+    }
+
+    @Override
+    public void afterWrite(List<? extends T> items) {
+        List<String> keys = new ArrayList<>(items.size());
+        for (T item : items) {
+            keys.add(this.keyExtractor.apply(item));
+        }
+        this.store.addAll(keys);
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<? extends T> items) {
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.lookups.set(0);
+        this.misses.set(0);
+        this.duplicates.set(0);
+        this.falsePositives.set(0);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        MappedBloomFilter filter = this.bloomFilter;
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong("dedup.lookups", this.lookups.get());
+        context.putLong("dedup.duplicates", this.duplicates.get());
+        context.putLong("dedup.falsePositives", this.falsePositives.get());
+        context.putDouble("dedup.falsePositiveRate", getObservedFalsePositiveRate());
+        if (filter != null) {
+            context.putDouble("dedup.expectedFalsePositiveRate", filter.expectedFalsePositiveRate());
+            context.putLong("dedup.bloomBytes", filter.getMappedBytes());
+        }
+
+        if (this.meterRegistry != null) {
+            this.meterRegistry.counter("batch.dedup.duplicates", "step", stepExecution.getStepName()).increment(this.duplicates.get());
+            this.meterRegistry.counter("batch.dedup.false.positives", "step", stepExecution.getStepName()).increment(this.falsePositives.get());
+            this.meterRegistry.summary("batch.dedup.false.positive.rate", "step", stepExecution.getStepName()).record(getObservedFalsePositiveRate());
+        }
+        return null;
+    }
+
+    /**
+     * 처음 보는 키 중 블룸 필터가 '있을 수도 있음'이라고 답한 비율
+     * @return
+     */
+    public double getObservedFalsePositiveRate() {
+        long falsePositives = this.falsePositives.get();
+        long negatives = falsePositives + this.misses.get();
+        return negatives == 0 ? 0 : (double) falsePositives / negatives;
+    }
+
+    public long getDuplicateCount() {
+        return this.duplicates.get();
+    }
+
+    public long getFalsePositiveCount() {
+        return this.falsePositives.get();
+    }
+
+    public MappedBloomFilter getBloomFilter() {
+        return this.bloomFilter;
+    }
+}
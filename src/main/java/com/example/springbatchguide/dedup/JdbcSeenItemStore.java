@@ -0,0 +1,83 @@
+package com.example.springbatchguide.dedup;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 이전 실행에서 처리한 아이템 키를 보관하는 테이블. 블룸 필터가 '있을 수도 있음'이라고 답한 키만 여기서 확인한다.
+ * JdbcTemplate 을 사용하므로 스텝 트랜잭션 안에서 호출하면 청크와 함께 커밋/롤백된다.
+ * 테이블이 없으면 만든다. (ITEM_KEY VARCHAR(255) PRIMARY KEY)
+ */
+public class JdbcSeenItemStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String table;
+
+    private final String containsSql;
+
+    private final String insertSql;
+
+    private final String firstPageSql;
+
+    private final String nextPageSql;
+
+    private int pageSize = 10_000;
+
+    public JdbcSeenItemStore(DataSource dataSource, String table) {
+        Assert.notNull(dataSource, "dataSource must not be null");
+        Assert.hasText(table, "table must not be empty");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.table = table;
+        this.containsSql = "SELECT COUNT(*) FROM " + table + " WHERE ITEM_KEY = ?";
+        this.insertSql = "INSERT INTO " + table + " (ITEM_KEY) VALUES (?)";
+        this.firstPageSql = "SELECT ITEM_KEY FROM " + table + " ORDER BY ITEM_KEY LIMIT ?";
+        this.nextPageSql = "SELECT ITEM_KEY FROM " + table + " WHERE ITEM_KEY > ? ORDER BY ITEM_KEY LIMIT ?";
+    }
+
+    /**
+     * forEach 가 한 번에 읽는 키 수
+     * @param pageSize
+     */
+    public void setPageSize(int pageSize) {
+        Assert.isTrue(pageSize > 0, "pageSize must be greater than 0");
+        this.pageSize = pageSize;
+    }
+
+    public void createTableIfNotExists() {
+        this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + this.table + " (ITEM_KEY VARCHAR(255) NOT NULL PRIMARY KEY)");
+    }
+
+    public boolean contains(String key) {
+        Integer count = this.jdbcTemplate.queryForObject(this.containsSql, Integer.class, key);
+        return count != null && count > 0;
+    }
+
+    public void addAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.batchUpdate(this.insertSql, keys.stream().map(key -> new Object[]{key}).collect(Collectors.toList()));
+    }
+
+    /**
+     * 저장된 모든 키를 pageSize 개씩 넘긴다. (블룸 필터 재구성용)
+     * 한 번의 SELECT 로 읽으면 MySQL 드라이버가 결과 전체를 메모리에 올리므로, 기본 키 순서로 마지막 키 다음부터 나눠 읽는다. (keyset paging)
+     * @param consumer
+     */
+    public void forEach(Consumer<String> consumer) {
+        List<String> page = this.jdbcTemplate.queryForList(this.firstPageSql, String.class, this.pageSize);
+        while (!page.isEmpty()) {
+            page.forEach(consumer);
+            if (page.size() < this.pageSize) {
+                return;
+            }
+            page = this.jdbcTemplate.queryForList(this.nextPageSql, String.class, page.get(page.size() - 1), this.pageSize);
+        }
+    }
+}
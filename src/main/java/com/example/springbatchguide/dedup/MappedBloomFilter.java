@@ -0,0 +1,260 @@
+package com.example.springbatchguide.dedup;
+
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 파일에 메모리 매핑된 블록 블룸 필터. 비트 배열은 힙 밖(페이지 캐시)에 있으므로 기록이 늘어도 힙 사용량은 일정하다.
+ *
+ * [블록 구조]
+ * 비트 배열을 64 바이트(캐시 라인 하나, 512 비트) 블록으로 나누고, 키 하나의 k 개 비트는 모두 한 블록 안에 둔다.
+ * 일반 블룸 필터는 조회마다 최대 k 번 캐시 미스가 나지만, 블록 필터는 필터가 아무리 커도 한 번이다.
+ * 같은 크기에서 오탐률은 일반 블룸 필터보다 약간 높다. (10 bits/key, k=7 기준 약 1.0% -> 1.2%)
+ *
+ * [파일 형식]
+ * 64 바이트 헤더(MAGIC, 비트 수, 해시 함수 수, 추가한 건수) 뒤에 블록이 이어지므로 블록은 캐시 라인에 정렬된다.
+ * 이미 있는 파일을 열면 헤더의 크기를 그대로 사용하므로, 잡 실행이 바뀌어도 같은 필터를 이어서 쓴다.
+ *
+ * [크기]
+ * 비트 수는 expectedInsertions 와 falsePositiveRate 로 계산한 값보다 크거나 같은 2 의 거듭제곱으로 올려서 나머지 연산 대신 마스크를 쓴다.
+ * 해시 함수 수(k)는 올리기 전의 비트 수로 계산한다. 매핑 한 번의 한계 때문에 비트 배열은 최대 1 GiB (2^33 비트)다.
+ *
+ * 해시는 64 비트 값 하나를 받아 상위 비트로 블록을 고르고, 한 번 더 섞은 값으로 블록 안의 위치를 이중 해싱한다.
+ * put 은 동기화되어 있고, mightContain 은 잠금 없이 읽는다.
+ */
+public class MappedBloomFilter implements AutoCloseable {
+
+    private static final long MAGIC = 0x424C4F4F4D463031L; // "BLOOMF01"
+
+    private static final int HEADER_BYTES = 64;
+
+    private static final int BLOCK_BYTES = 64;
+
+    private static final int BLOCK_BITS = BLOCK_BYTES * 8;
+
+    private static final long MAX_BITS = 1L << 33;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final long numBits;
+
+    private final int blockMask;
+
+    private final int numHashFunctions;
+
+    private long insertions;
+
+    private MappedBloomFilter(Path path, FileChannel channel, MappedByteBuffer buffer, long numBits, int numHashFunctions, long insertions) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.numBits = numBits;
+        this.blockMask = (int) (numBits / BLOCK_BITS) - 1;
+        this.numHashFunctions = numHashFunctions;
+        this.insertions = insertions;
+    }
+
+    /**
+     * 파일이 있으면 헤더를 읽어 열고, 없으면 expectedInsertions 건에서 falsePositiveRate 를 넘지 않는 크기로 만든다.
+     * @param path
+     * @param expectedInsertions
+     * @param falsePositiveRate
+     * @return
+     * @throws IOException
+     */
+    public static MappedBloomFilter open(Path path, long expectedInsertions, double falsePositiveRate) throws IOException {
+        Assert.isTrue(expectedInsertions > 0, "expectedInsertions must be greater than 0");
+        Assert.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1, "falsePositiveRate must be between 0 and 1");
+
+        boolean exists = Files.isRegularFile(path) && Files.size(path) >= HEADER_BYTES;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (exists) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                if (header.getLong(0) != MAGIC) {
+                    throw new IOException(path + " is not a bloom filter file");
+                }
+                long numBits = header.getLong(8);
+                int numHashFunctions = header.getInt(16);
+                long insertions = header.getLong(24);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + numBits / 8);
+                return new MappedBloomFilter(path, channel, buffer, numBits, numHashFunctions, insertions);
+            }
+
+            double requiredBits = requiredBits(expectedInsertions, falsePositiveRate);
+            long numBits = roundUpNumBits(requiredBits);
+            int numHashFunctions = optimalNumHashFunctions(expectedInsertions, requiredBits);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + numBits / 8);
+            buffer.putLong(0, MAGIC);
+            buffer.putLong(8, numBits);
+            buffer.putInt(16, numHashFunctions);
+            buffer.putLong(24, 0);
+            return new MappedBloomFilter(path, channel, buffer, numBits, numHashFunctions, 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * m = -n ln(p) / (ln 2)^2
+     */
+    static double requiredBits(long expectedInsertions, double falsePositiveRate) {
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        Assert.isTrue(bits <= MAX_BITS, "Bloom filter would need more than " + MAX_BITS + " bits");
+        return bits;
+    }
+
+    /**
+     * 2 의 거듭제곱으로 올림 (최소 블록 하나)
+     */
+    static long roundUpNumBits(double requiredBits) {
+        return Math.max(BLOCK_BITS, Long.highestOneBit((long) Math.ceil(requiredBits) - 1) << 1);
+    }
+
+    /**
+     * k = m / n ln 2
+     */
+    static int optimalNumHashFunctions(long expectedInsertions, double requiredBits) {
+        return Math.max(1, (int) Math.round(requiredBits / expectedInsertions * Math.log(2)));
+    }
+
+    public boolean mightContain(long hash) {
+        int offset = blockOffset(hash);
+        long mixed = hash * 0x9E3779B97F4A7C15L;
+        int position = (int) mixed;
+        int step = (int) (mixed >>> 32) | 1;
+        for (int i = 0; i < this.numHashFunctions; i++) {
+            int bit = position & (BLOCK_BITS - 1);
+            if ((this.buffer.getLong(offset + ((bit >>> 6) << 3)) & (1L << bit)) == 0) {
+                return false;
+            }
+            position += step;
+        }
+        return true;
+    }
+
+    /**
+     * @return 새로 켜진 비트가 있으면 true (처음 보는 값)
+     */
+    public synchronized boolean put(long hash) {
+        int offset = blockOffset(hash);
+        long mixed = hash * 0x9E3779B97F4A7C15L;
+        int position = (int) mixed;
+        int step = (int) (mixed >>> 32) | 1;
+        boolean changed = false;
+        for (int i = 0; i < this.numHashFunctions; i++) {
+            int bit = position & (BLOCK_BITS - 1);
+            int index = offset + ((bit >>> 6) << 3);
+            long current = this.buffer.getLong(index);
+            long updated = current | (1L << bit);
+            if (current != updated) {
+                this.buffer.putLong(index, updated);
+                changed = true;
+            }
+            position += step;
+        }
+        if (changed) {
+            this.insertions++;
+        }
+        return changed;
+    }
+
+    private int blockOffset(long hash) {
+        return HEADER_BYTES + ((int) (hash >>> 32) & this.blockMask) * BLOCK_BYTES;
+    }
+
+    /**
+     * 추가한 건수로 계산한 현재 오탐률 (1 - e^(-kn/m))^k. 블록 필터의 실제 오탐률은 이보다 약간 높다.
+     * @return
+     */
+    public synchronized double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) this.numHashFunctions * this.insertions / this.numBits), this.numHashFunctions);
+    }
+
+    public synchronized long getInsertions() {
+        return this.insertions;
+    }
+
+    public long getNumBits() {
+        return this.numBits;
+    }
+
+    public int getNumHashFunctions() {
+        return this.numHashFunctions;
+    }
+
+    /**
+     * 힙 밖에 매핑된 크기 (헤더 포함)
+     * @return
+     */
+    public long getMappedBytes() {
+        return HEADER_BYTES + this.numBits / 8;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * 추가한 건수를 헤더에 쓰고 변경된 페이지를 디스크에 반영한다.
+     */
+    public synchronized void flush() {
+        this.buffer.putLong(24, this.insertions);
+        this.buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        this.channel.close();
+    }
+
+    /**
+     * 문자열 키용 64 비트 해시. 문자 4 개(64 비트)씩 곱셈 한 번으로 섞되, 의존성 사슬이 짧아지도록 두 갈래로 나눠 계산한 뒤
+     * MurmurHash3 fmix64 로 마무리한다. 중간 객체를 만들지 않는다.
+     * @param key
+     * @return
+     */
+    public static long hash(CharSequence key) {
+        int length = key.length();
+        long h1 = 0xcbf29ce484222325L ^ length;
+        long h2 = 0x84222325cbf29ce4L;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            long w1 = key.charAt(i)
+                    | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32
+                    | (long) key.charAt(i + 3) << 48;
+            long w2 = key.charAt(i + 4)
+                    | (long) key.charAt(i + 5) << 16
+                    | (long) key.charAt(i + 6) << 32
+                    | (long) key.charAt(i + 7) << 48;
+            h1 = Long.rotateLeft((h1 ^ w1) * 0x9E3779B97F4A7C15L, 31);
+            h2 = Long.rotateLeft((h2 ^ w2) * 0xC2B2AE3D27D4EB4FL, 29);
+        }
+        for (; i < length; i++) {
+            h1 = (h1 ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        long h = h1 ^ Long.rotateLeft(h2, 17);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.springbatchguide.flow;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 스텝 간의 의존 관계(DAG)를 선언하면 split() / FlowBuilder 구조로 변환해주는 빌더
+ * 서로 의존하지 않는 스텝들은 split 으로 TaskExecutor 에서 동시에 실행되고,
+ * 의존하는 스텝은 선행 스텝이 모두 끝난 뒤에 실행된다.
+ *
+ * [변환 방법]
+ * 1. 선행 스텝이 하나이고 그 선행 스텝의 후행 스텝도 하나뿐인 경우 하나의 체인(순차 플로우)으로 묶는다.
+ * 2. 체인마다 가장 긴 선행 경로의 길이로 단계(level)를 정한다.
+ * 3. 같은 단계의 체인들은 split 으로 병렬 실행하고, 단계끼리는 순서대로 실행한다.
+ * 직렬-병렬 형태의 그래프라면 전체 실행 시간은 임계 경로(critical path) 길이와 같아진다.
+ *
+ * 결과는 일반 Flow 이므로 FlowStep 으로 감싸서 기존처럼 하나의 스텝으로 모니터링할 수 있다.
+ */
+public class DependencyFlowBuilder {
+
+    private final String name;
+
+    private final TaskExecutor taskExecutor;
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    public DependencyFlowBuilder(String name, TaskExecutor taskExecutor) {
+        Assert.hasText(name, "name must not be empty");
+        Assert.notNull(taskExecutor, "taskExecutor must not be null");
+        this.name = name;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 스텝과 해당 스텝이 의존하는 스텝들을 등록한다.
+     * 의존하는 스텝은 먼저 등록되어 있어야 하므로 순환 의존은 만들어질 수 없다.
+     * @param step
+     * @param dependsOn
+     * @return
+     */
+    public DependencyFlowBuilder step(Step step, Step... dependsOn) {
+        Assert.notNull(step, "step must not be null");
+        Assert.isTrue(!this.nodes.containsKey(step.getName()), "Step " + step.getName() + " is already registered");
+
+        Node node = new Node(step);
+        for (Step dependency : dependsOn) {
+            Node predecessor = this.nodes.get(dependency.getName());
+            Assert.notNull(predecessor, "Step " + step.getName() + " depends on unregistered step " + dependency.getName());
+            node.predecessors.add(predecessor);
+            predecessor.successors.add(node);
+        }
+        this.nodes.put(step.getName(), node);
+        return this;
+    }
+
+    public Flow build() {
+        Assert.state(!this.nodes.isEmpty(), "At least one step must be registered");
+
+        List<List<Chain>> levels = levels(chains());
+
+        FlowBuilder<Flow> builder = new FlowBuilder<>(this.name);
+        for (int level = 0; level < levels.size(); level++) {
+            Flow levelFlow = levelFlow(level, levels.get(level));
+            if (level == 0) {
+                builder.start(levelFlow);
+            } else {
+                builder.next(levelFlow);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 분기나 합류가 없는 구간을 하나의 체인으로 묶는다.
+     * @return
+     */
+    private List<Chain> chains() {
+        Map<Node, Chain> chainOf = new LinkedHashMap<>();
+
+        for (Node node : this.nodes.values()) {
+            if (isChainContinuation(node)) {
+                continue;
+            }
+            Chain chain = new Chain();
+            Node current = node;
+            chain.nodes.add(current);
+            chainOf.put(current, chain);
+
+            while (current.successors.size() == 1 && isChainContinuation(current.successors.get(0))) {
+                current = current.successors.get(0);
+                chain.nodes.add(current);
+                chainOf.put(current, chain);
+            }
+        }
+
+        for (Map.Entry<Node, Chain> entry : chainOf.entrySet()) {
+            Chain chain = entry.getValue();
+            for (Node predecessor : entry.getKey().predecessors) {
+                Chain predecessorChain = chainOf.get(predecessor);
+                if (predecessorChain != chain) {
+                    chain.predecessors.add(predecessorChain);
+                }
+            }
+        }
+        return new ArrayList<>(new LinkedHashSet<>(chainOf.values()));
+    }
+
+    private boolean isChainContinuation(Node node) {
+        return node.predecessors.size() == 1 && node.predecessors.get(0).successors.size() == 1;
+    }
+
+    /**
+     * 각 체인을 가장 긴 선행 경로 길이에 해당하는 단계에 배치한다.
+     * 체인은 등록 순서대로 만들어지므로 선행 체인의 단계가 항상 먼저 정해진다.
+     * @param chains
+     * @return
+     */
+    private List<List<Chain>> levels(List<Chain> chains) {
+        Map<Chain, Integer> levelOf = new LinkedHashMap<>();
+        List<List<Chain>> levels = new ArrayList<>();
+
+        for (Chain chain : chains) {
+            int level = 0;
+            for (Chain predecessor : chain.predecessors) {
+                level = Math.max(level, levelOf.get(predecessor) + 1);
+            }
+            levelOf.put(chain, level);
+
+            while (levels.size() <= level) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(chain);
+        }
+        return levels;
+    }
+
+    private Flow levelFlow(int level, List<Chain> chains) {
+        if (chains.size() == 1) {
+            return chainFlow(chains.get(0));
+        }
+
+        Flow[] chainFlows = chains.stream().map(this::chainFlow).toArray(Flow[]::new);
+        return new FlowBuilder<Flow>(this.name + ".level" + level)
+                .split(this.taskExecutor)
+                .add(chainFlows)
+                .build();
+    }
+
+    private Flow chainFlow(Chain chain) {
+        FlowBuilder<Flow> builder = new FlowBuilder<>(this.name + "." + chain.nodes.get(0).step.getName());
+        builder.start(chain.nodes.get(0).step);
+        for (Node node : chain.nodes.subList(1, chain.nodes.size())) {
+            builder.next(node.step);
+        }
+        return builder.build();
+    }
+
+    private static class Node {
+
+        private final Step step;
+
+        private final List<Node> predecessors = new ArrayList<>();
+
+        private final List<Node> successors = new ArrayList<>();
+
+        Node(Step step) {
+            this.step = step;
+        }
+    }
+
+    private static class Chain {
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        private final Set<Chain> predecessors = new LinkedHashSet<>();
+    }
+}
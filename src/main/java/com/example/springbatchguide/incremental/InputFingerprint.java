@@ -0,0 +1,152 @@
+package com.example.springbatchguide.incremental;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 입력 파일의 크기, 수정 시각, 내용 체크섬(CRC32C)
+ * 체크섬은 파일을 고정 크기 버퍼로 끝까지 한 번 읽으면서 계산하므로 파일 크기와 관계없이 메모리 사용량이 일정하다.
+ * 같은 과정에서 앞부분(prefixLength 바이트)의 체크섬도 함께 구해, 이전 실행 이후 파일 끝에 내용만 추가되었는지 확인할 수 있다.
+ */
+public final class InputFingerprint {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final String PATH_KEY = "path";
+
+    private static final String SIZE_KEY = "size";
+
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+
+    private static final String CHECKSUM_KEY = "checksum";
+
+    private final String path;
+
+    private final long size;
+
+    private final long lastModified;
+
+    private final long checksum;
+
+    private final long prefixChecksum;
+
+    private InputFingerprint(String path, long size, long lastModified, long checksum, long prefixChecksum) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.checksum = checksum;
+        this.prefixChecksum = prefixChecksum;
+    }
+
+    /**
+     * 파일의 지문을 계산한다.
+     * @param path
+     * @param prefixLength 앞부분 체크섬을 구할 길이. 파일이 이보다 짧으면 앞부분 체크섬은 -1
+     * @return
+     * @throws IOException
+     */
+    public static InputFingerprint of(Path path, long prefixLength) throws IOException {
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            long prefixChecksum = prefixLength == 0 ? crc.getValue() : -1;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = 0;
+
+            while (position < size) {
+                // 앞부분 경계에서 버퍼를 끊어 그 시점의 체크섬을 기록한다.
+                long boundary = position < prefixLength ? prefixLength : size;
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, boundary - position));
+
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                crc.update(buffer);
+                position += read;
+
+                if (position == prefixLength) {
+                    prefixChecksum = crc.getValue();
+                }
+            }
+            return new InputFingerprint(path.toAbsolutePath().normalize().toString(), position, lastModified,
+                    crc.getValue(), prefixChecksum);
+        }
+    }
+
+    /**
+     * ExecutionContext 에 prefix 로 시작하는 키로 저장된 지문을 읽는다. 저장된 값이 없으면 null
+     * @param executionContext
+     * @param prefix
+     * @return
+     */
+    public static InputFingerprint from(ExecutionContext executionContext, String prefix) {
+        if (!executionContext.containsKey(prefix + CHECKSUM_KEY)) {
+            return null;
+        }
+        return new InputFingerprint(executionContext.getString(prefix + PATH_KEY),
+                executionContext.getLong(prefix + SIZE_KEY),
+                executionContext.getLong(prefix + LAST_MODIFIED_KEY),
+                executionContext.getLong(prefix + CHECKSUM_KEY),
+                -1);
+    }
+
+    public void saveTo(ExecutionContext executionContext, String prefix) {
+        executionContext.putString(prefix + PATH_KEY, this.path);
+        executionContext.putLong(prefix + SIZE_KEY, this.size);
+        executionContext.putLong(prefix + LAST_MODIFIED_KEY, this.lastModified);
+        executionContext.putLong(prefix + CHECKSUM_KEY, this.checksum);
+    }
+
+    /**
+     * 같은 파일이고 내용이 같으면 true. 수정 시각만 바뀐 경우(touch, 같은 내용으로 다시 받은 파일)도 같은 입력으로 본다.
+     * @param other
+     * @return
+     */
+    public boolean hasSameContentAs(InputFingerprint other) {
+        return other != null && this.path.equals(other.path) && this.size == other.size && this.checksum == other.checksum;
+    }
+
+    /**
+     * previous 이후로 파일 끝에 내용만 추가되었으면 true
+     * @param previous of(path, previous.getSize()) 로 계산한 경우에만 판단할 수 있다.
+     * @return
+     */
+    public boolean isAppendedTo(InputFingerprint previous) {
+        return previous != null && this.path.equals(previous.path) && this.size > previous.size
+                && this.prefixChecksum == previous.checksum;
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    public long getChecksum() {
+        return this.checksum;
+    }
+
+    @Override
+    public String toString() {
+        return "InputFingerprint [path=" + this.path + ", size=" + this.size + ", lastModified=" + this.lastModified
+                + ", checksum=" + Long.toHexString(this.checksum) + "]";
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.springbatchguide.incremental;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 잡 파라미터로 전달된 입력 파일의 지문(InputFingerprint)을 마지막으로 성공한 실행의 지문과 비교하는 태스크릿
+ *
+ * - 내용이 같으면 ExitStatus 를 UNCHANGED 로 반환한다. 잡 흐름에서 .on("UNCHANGED").end() 로 이후 스텝을 건너뛸 수 있다.
+ * - appendOnly 가 true 이고 이전 실행 이후 파일 끝에 행만 추가되었으면, 추가된 부분의 시작 바이트 위치를
+ *   잡 ExecutionContext 의 '{parameterName}.startOffset' 키에 저장한다. 그 외에는 0 을 저장한다.
+ * - 계산한 지문은 잡 ExecutionContext 에 저장되므로, 잡이 COMPLETED 로 끝났을 때만 다음 실행의 비교 대상이 된다.
+ *   실패한 실행의 입력은 다음 실행에서 다시 처리된다.
+ *
+ * 이전 지문은 JobExplorer 로 같은 이름의 최근 잡 인스턴스를 최신 순으로 최대 lookback 개까지 찾는다.
+ * 건너뛴 실행도 COMPLETED 로 끝나며 지문을 저장하므로 보통은 가장 최근 인스턴스에서 바로 찾는다.
+ */
+public class InputFingerprintTasklet implements Tasklet {
+
+    public static final ExitStatus UNCHANGED = new ExitStatus("UNCHANGED", "Input has not changed since the last successful run");
+
+    private final JobExplorer jobExplorer;
+
+    private final String parameterName;
+
+    private boolean appendOnly;
+
+    private int lookback = 20;
+
+    public InputFingerprintTasklet(JobExplorer jobExplorer, String parameterName) {
+        Assert.notNull(jobExplorer, "jobExplorer must not be null");
+        Assert.hasText(parameterName, "parameterName must not be empty");
+        this.jobExplorer = jobExplorer;
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * 파일 끝에 추가된 행만 처리할지 여부
+     * @param appendOnly
+     */
+    public void setAppendOnly(boolean appendOnly) {
+        this.appendOnly = appendOnly;
+    }
+
+    public void setLookback(int lookback) {
+        Assert.isTrue(lookback > 0, "lookback must be greater than 0");
+        this.lookback = lookback;
+    }
+
+    public static String startOffsetKey(String parameterName) {
+        return parameterName + ".startOffset";
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        String fileName = stepExecution.getJobParameters().getString(this.parameterName);
+        Assert.hasText(fileName, "Job parameter " + this.parameterName + " is missing");
+
+        Path path = Paths.get(fileName).toAbsolutePath().normalize();
+        String prefix = this.parameterName + ".fingerprint.";
+        InputFingerprint previous = lastSuccessfulFingerprint(stepExecution.getJobExecution(), prefix, path.toString());
+        InputFingerprint current = InputFingerprint.of(path, previous != null ? previous.getSize() : 0);
+
+        ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+        current.saveTo(jobContext, prefix);
+
+        if (current.hasSameContentAs(previous)) {
+            jobContext.putLong(startOffsetKey(this.parameterName), current.getSize());
+            contribution.setExitStatus(UNCHANGED);
+            return RepeatStatus.FINISHED;
+        }
+
+        long startOffset = this.appendOnly && current.isAppendedTo(previous) && isLineBoundary(path, previous.getSize())
+                ? previous.getSize() : 0;
+        jobContext.putLong(startOffsetKey(this.parameterName), startOffset);
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * 이전 실행 시점의 마지막 바이트가 줄바꿈이어야 추가된 부분이 새 행으로 시작한다.
+     * @param path
+     * @param position
+     * @return
+     * @throws IOException
+     */
+    private boolean isLineBoundary(Path path, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            return channel.read(lastByte, position - 1) == 1 && lastByte.get(0) == '\n';
+        }
+    }
+
+    private InputFingerprint lastSuccessfulFingerprint(JobExecution currentExecution, String prefix, String path) {
+        String jobName = currentExecution.getJobInstance().getJobName();
+
+        for (JobInstance jobInstance : this.jobExplorer.getJobInstances(jobName, 0, this.lookback)) {
+            for (JobExecution jobExecution : this.jobExplorer.getJobExecutions(jobInstance)) {
+                if (jobExecution.getStatus() != BatchStatus.COMPLETED || jobExecution.getId().equals(currentExecution.getId())) {
+                    continue;
+                }
+                InputFingerprint fingerprint = InputFingerprint.from(jobExecution.getExecutionContext(), prefix);
+                if (fingerprint != null && fingerprint.getPath().equals(path)) {
+                    return fingerprint;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.springbatchguide.launch;
+
+import com.example.springbatchguide.ChunkJob;
+import com.example.springbatchguide.ConditionalJob;
+import com.example.springbatchguide.FlowJob;
+import com.example.springbatchguide.SpringBatchGuideApplication;
+import com.example.springbatchguide.batch.BatchMetricsConfiguration;
+import com.example.springbatchguide.batch.BatchMetricsListener;
+import com.example.springbatchguide.repository.BatchRepositoryConfiguration;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 잡 저장소와 지표 리스너만 담은 코어 컨텍스트로 시작하고, 실행할 잡의 구성 클래스만 필요할 때 불러오는 런처
+ * 컴포넌트 스캔을 하지 않으므로 다른 잡의 빈(아이템 10만 건 리더, 스레드 풀 등)을 만들지 않는다.
+ *
+ * 실행할 잡은 spring.batch.job.names 로 지정한다. (스프링 부트의 JobLauncherApplicationRunner 가 JobRegistry 에서 찾아 실행)
+ * java -jar spring-batch.jar --spring.batch.job.names=chunkBasedJob run.id=1
+ *
+ * 구성 클래스에 잡 빈을 추가하면 lazyJobRegistrar 에도 잡 이름을 등록해야 한다. (LazyJobLauncherApplicationTests 가 확인)
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableBatchProcessing
+@Import({BatchMetricsConfiguration.class, BatchRepositoryConfiguration.class})
+public class LazyJobLauncherApplication {
+
+    @Bean
+    public LazyJobRegistrar lazyJobRegistrar(JobRegistry jobRegistry, BatchMetricsListener batchMetricsListener) {
+        LazyJobRegistrar registrar = new LazyJobRegistrar(jobRegistry)
+                .register(SpringBatchGuideApplication.class, "basicJob")
+                .register(ChunkJob.class, "chunkBasedJob", "partitionedChunkJob", "jdbcChunkJob", "remoteChunkJob", "columnarChunkJob", "sortedChunkJob")
+                .register(FlowJob.class, "conditionalStepLogicJob")
+                .register(ConditionalJob.class, "conditionalLogicJob", "conditionalDeciderJob");
+        registrar.setMeterRegistry(batchMetricsListener.getMeterRegistry());
+        return registrar;
+    }
+
+    public static void main(String[] args) {
+        SpringApplication.run(LazyJobLauncherApplication.class, args);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.springbatchguide.launch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.configuration.DuplicateJobException;
+import org.springframework.batch.core.configuration.JobFactory;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.util.Assert;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잡 구성 클래스(ChunkJob, FlowJob 등)를 잡이 처음 실행될 때만 자식 컨텍스트로 불러오는 등록기
+ *
+ * [동작방식]
+ * - 시작 시에는 잡 이름만 JobRegistry 에 등록한다. 구성 클래스의 빈은 하나도 만들지 않는다.
+ * - JobRegistry.getJob 으로 잡을 처음 찾을 때 구성 클래스 하나만 담은 자식 컨텍스트를 만든다.
+ *   - 구성 클래스의 컴포넌트 스캔과 자동 구성은 끄고, 데이터소스 / 잡 저장소 / 지표 리스너는 부모(코어) 컨텍스트의 것을 사용한다.
+ *   - 모든 빈을 지연 초기화하므로 요청한 잡이 사용하는 빈만 만들어진다. (같은 클래스의 다른 잡이 쓰는 리더, 스레드 풀 등은 만들지 않음)
+ * - 잡별로 불러오는 데 걸린 시간과 직후의 힙 사용량을 로그(INFO)와 MeterRegistry(batch.job.context.startup / batch.job.context.heap)에 남긴다.
+ *
+ * 잡 빈 이름이 잡 이름과 같으면 해당 빈만 만든다. 다르면 이름이 맞을 때까지 구성 클래스의 잡 빈을 차례로 만든다.
+ */
+@Slf4j
+public class LazyJobRegistrar implements ApplicationContextAware, SmartInitializingSingleton, DisposableBean {
+
+    private final JobRegistry jobRegistry;
+
+    private final Map<String, Class<?>> configurations = new LinkedHashMap<>();
+
+    private final Map<Class<?>, ConfigurableApplicationContext> contexts = new ConcurrentHashMap<>();
+
+    private final Map<String, JobContextStatistics> statistics = new ConcurrentHashMap<>();
+
+    private ConfigurableApplicationContext parent;
+
+    private MeterRegistry meterRegistry;
+
+    public LazyJobRegistrar(JobRegistry jobRegistry) {
+        Assert.notNull(jobRegistry, "jobRegistry must not be null");
+        this.jobRegistry = jobRegistry;
+    }
+
+    /**
+     * 구성 클래스와 그 클래스가 정의하는 잡 이름을 등록한다.
+     * @param configurationClass
+     * @param jobNames
+     * @return
+     */
+    public LazyJobRegistrar register(Class<?> configurationClass, String... jobNames) {
+        for (String jobName : jobNames) {
+            Class<?> previous = this.configurations.putIfAbsent(jobName, configurationClass);
+            Assert.isTrue(previous == null, () -> "Job " + jobName + " is already registered by " + previous.getName());
+        }
+        return this;
+    }
+
+    /**
+     * 등록된 잡 이름과 그 잡을 정의하는 구성 클래스
+     * @return
+     */
+    public Map<String, Class<?>> getConfigurations() {
+        return Collections.unmodifiableMap(this.configurations);
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.parent = (ConfigurableApplicationContext) applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        this.configurations.forEach((jobName, configurationClass) -> {
+            try {
+                this.jobRegistry.register(new LazyJobFactory(jobName, configurationClass));
+            } catch (DuplicateJobException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * 구성 클래스의 자식 컨텍스트를 이미 불러왔는지 여부
+     * @param configurationClass
+     * @return
+     */
+    public boolean isLoaded(Class<?> configurationClass) {
+        return this.contexts.containsKey(configurationClass);
+    }
+
+    /**
+     * 잡을 처음 불러올 때 기록한 시간과 힙 사용량. 아직 불러오지 않았으면 null
+     * @param jobName
+     * @return
+     */
+    public JobContextStatistics getStatistics(String jobName) {
+        return this.statistics.get(jobName);
+    }
+
+    @Override
+    public void destroy() {
+        this.contexts.values().forEach(ConfigurableApplicationContext::close);
+        this.contexts.clear();
+    }
+
+    private synchronized Job loadJob(String jobName, Class<?> configurationClass) {
+        long startedAt = System.nanoTime();
+        ConfigurableApplicationContext context = this.contexts.computeIfAbsent(configurationClass, this::createContext);
+        Job job = findJob(context, jobName);
+
+        if (!this.statistics.containsKey(jobName)) {
+            long startupNanos = System.nanoTime() - startedAt;
+            long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            JobContextStatistics jobStatistics = new JobContextStatistics(TimeUnit.NANOSECONDS.toMillis(startupNanos), heapUsed);
+            this.statistics.put(jobName, jobStatistics);
+            report(jobName, configurationClass, startupNanos, jobStatistics);
+        }
+        return job;
+    }
+
+    private ConfigurableApplicationContext createContext(Class<?> configurationClass) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setParent(this.parent);
+        context.setDisplayName("lazy-job-context:" + configurationClass.getSimpleName());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("lazyJobContext",
+                Collections.singletonMap(EnableAutoConfiguration.ENABLED_OVERRIDE_PROPERTY, "false")));
+        context.addBeanFactoryPostProcessor(new LazyInitializationBeanFactoryPostProcessor());
+
+        // @EnableBatchProcessing 이 자식 컨텍스트에 잡 저장소를 새로 만들지 않도록 부모의 BatchConfigurer 를 넘긴다.
+        context.getBeanFactory().registerSingleton("batchConfigurer", this.parent.getBean(BatchConfigurer.class));
+        context.getBeanFactory().registerSingleton("excludeAllTypesFilter", new ExcludeAllTypesFilter());
+        context.register(configurationClass);
+        context.refresh();
+        return context;
+    }
+
+    private Job findJob(ConfigurableApplicationContext context, String jobName) {
+        if (context.containsBean(jobName) && context.isTypeMatch(jobName, Job.class)) {
+            Job job = context.getBean(jobName, Job.class);
+            if (jobName.equals(job.getName())) {
+                return job;
+            }
+        }
+        for (String beanName : context.getBeanNamesForType(Job.class, false, false)) {
+            Job job = context.getBean(beanName, Job.class);
+            if (jobName.equals(job.getName())) {
+                return job;
+            }
+        }
+        throw new IllegalStateException("Job " + jobName + " is not defined in " + context.getDisplayName());
+    }
+
+    private void report(String jobName, Class<?> configurationClass, long startupNanos, JobContextStatistics jobStatistics) {
+        log.info("Job context loaded : {} ({}) in {} ms, heap used {} MB", jobName, configurationClass.getSimpleName(),
+                jobStatistics.getStartupMillis(), jobStatistics.getHeapUsedBytes() >> 20);
+
+        if (this.meterRegistry != null) {
+            Timer.builder("batch.job.context.startup")
+                    .tag("job", jobName)
+                    .register(this.meterRegistry)
+                    .record(startupNanos, TimeUnit.NANOSECONDS);
+            Gauge.builder("batch.job.context.heap", jobStatistics, JobContextStatistics::getHeapUsedBytes)
+                    .tag("job", jobName)
+                    .baseUnit("bytes")
+                    .register(this.meterRegistry);
+        }
+    }
+
+    /**
+     * 잡을 불러오는 데 걸린 시간과 직후의 힙 사용량
+     */
+    public static class JobContextStatistics {
+
+        private final long startupMillis;
+
+        private final long heapUsedBytes;
+
+        JobContextStatistics(long startupMillis, long heapUsedBytes) {
+            this.startupMillis = startupMillis;
+            this.heapUsedBytes = heapUsedBytes;
+        }
+
+        public long getStartupMillis() {
+            return this.startupMillis;
+        }
+
+        public long getHeapUsedBytes() {
+            return this.heapUsedBytes;
+        }
+    }
+
+    /**
+     * JobRegistry 가 getJob 을 호출할 때마다 createJob 을 부르므로, 컨텍스트는 처음 한 번만 만들고 이후에는 캐시된 잡을 반환한다.
+     */
+    private class LazyJobFactory implements JobFactory {
+
+        private final String jobName;
+
+        private final Class<?> configurationClass;
+
+        LazyJobFactory(String jobName, Class<?> configurationClass) {
+            this.jobName = jobName;
+            this.configurationClass = configurationClass;
+        }
+
+        @Override
+        public Job createJob() {
+            return loadJob(this.jobName, this.configurationClass);
+        }
+
+        @Override
+        public String getJobName() {
+            return this.jobName;
+        }
+    }
+
+    /**
+     * @SpringBootApplication 구성 클래스의 컴포넌트 스캔이 다른 잡 구성 클래스를 끌어오지 않도록 스캔 결과를 모두 제외
+     */
+    private static class ExcludeAllTypesFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ExcludeAllTypesFilter;
+        }
+
+        @Override
+        public int hashCode() {
+            return ExcludeAllTypesFilter.class.hashCode();
+        }
+    }
+}
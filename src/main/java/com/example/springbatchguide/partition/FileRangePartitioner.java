@@ -0,0 +1,118 @@
+package com.example.springbatchguide.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 파일을 [startOffset, endOffset) 바이트 범위로 나누는 Partitioner 구현체
+ * 경계를 줄바꿈 바로 다음 위치로 맞추므로 파티션마다 온전한 줄만 읽는다. 파일 전체를 훑지 않고 경계 부근만 읽는다.
+ * 워커 스텝에서는 stepExecutionContext['startOffset'], stepExecutionContext['endOffset'] 를
+ * MappedCsvItemReader 의 setStartOffset / setEndOffset 으로 전달한다.
+ * 레코드 수를 알고 있으면(setRowCount) 파티션을 레코드 수보다 많이 만들지 않는다.
+ * [주의사항]
+ * 따옴표 안에 줄바꿈이 있는 CSV 는 경계가 레코드 중간에 걸릴 수 있으므로 사용할 수 없다.
+ */
+public class FileRangePartitioner implements Partitioner {
+
+    public static final String START_OFFSET_KEY = "startOffset";
+    public static final String END_OFFSET_KEY = "endOffset";
+
+    private static final String PARTITION_KEY = "partition";
+
+    private final Path path;
+
+    private final int linesToSkip;
+
+    private long rowCount = -1;
+
+    public FileRangePartitioner(Path path, int linesToSkip) {
+        Assert.notNull(path, "path must not be null");
+        Assert.isTrue(linesToSkip >= 0, "linesToSkip must not be negative");
+        this.path = path;
+        this.linesToSkip = linesToSkip;
+    }
+
+    /**
+     * 헤더를 제외한 레코드 수 (예: CsvPreflightValidator 가 센 'fileName.rowCount'). 음수면 알 수 없는 것으로 본다.
+     * @param rowCount
+     */
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Assert.isTrue(gridSize > 0, "gridSize must be greater than 0");
+        if (this.rowCount >= 0) {
+            gridSize = (int) Math.max(1, Math.min(gridSize, this.rowCount));
+        }
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long dataStart = 0;
+            for (int i = 0; i < this.linesToSkip && dataStart < fileSize; i++) {
+                dataStart = nextLineStart(channel, dataStart + 1, fileSize);
+            }
+
+            long dataSize = fileSize - dataStart;
+            Map<String, ExecutionContext> partitions = new HashMap<>(gridSize);
+            long startOffset = dataStart;
+
+            for (int i = 0; i < gridSize && (startOffset < fileSize || partitions.isEmpty()); i++) {
+                long endOffset = i == gridSize - 1 ? fileSize
+                        : Math.max(startOffset, nextLineStart(channel, dataStart + dataSize * (i + 1) / gridSize, fileSize));
+
+                // 긴 줄 때문에 경계가 겹치면 빈 파티션을 만들지 않는다.
+                if (endOffset == startOffset && startOffset < fileSize) {
+                    continue;
+                }
+
+                ExecutionContext context = new ExecutionContext();
+                context.putLong(START_OFFSET_KEY, startOffset);
+                context.putLong(END_OFFSET_KEY, endOffset);
+                partitions.put(PARTITION_KEY + partitions.size(), context);
+
+                startOffset = endOffset;
+            }
+            return partitions;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to partition " + this.path, e);
+        }
+    }
+
+    /**
+     * position 이상이면서 줄의 시작인 첫 위치. (position - 1 이 줄바꿈이면 position) 없으면 파일 크기를 반환한다.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long fileSize) throws IOException {
+        if (position <= 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long current = position - 1;
+
+        while (current < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, current);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += read;
+        }
+        return fileSize;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.springbatchguide.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 전체 입력을 [minIndex, maxIndex) 인덱스 범위로 나누는 Partitioner 구현체
+ * 파티션마다 별도의 ExecutionContext 를 가지므로, 실패한 파티션만 따로 재시작할 수 있다.
+ * 워커 스텝에서는 stepExecutionContext['minIndex'], stepExecutionContext['maxIndex'] 로 범위를 전달받는다.
+ */
+public class RangePartitioner implements Partitioner {
+
+    public static final String MIN_INDEX_KEY = "minIndex";
+    public static final String MAX_INDEX_KEY = "maxIndex";
+
+    private static final String PARTITION_KEY = "partition";
+
+    private final int totalCount;
+
+    public RangePartitioner(int totalCount) {
+        Assert.isTrue(totalCount >= 0, "totalCount must not be negative");
+        this.totalCount = totalCount;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Assert.isTrue(gridSize > 0, "gridSize must be greater than 0");
+
+        int partitionCount = Math.max(1, Math.min(gridSize, this.totalCount));
+        int rangeSize = this.totalCount / partitionCount;
+        int remainder = this.totalCount % partitionCount;
+
+        Map<String, ExecutionContext> partitions = new HashMap<>(partitionCount);
+        int minIndex = 0;
+
+        for (int i = 0; i < partitionCount; i++) {
+            // 나머지는 앞쪽 파티션에 하나씩 나눠준다.
+            int maxIndex = minIndex + rangeSize + (i < remainder ? 1 : 0);
+
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(MIN_INDEX_KEY, minIndex);
+            context.putInt(MAX_INDEX_KEY, maxIndex);
+            partitions.put(PARTITION_KEY + i, context);
+
+            minIndex = maxIndex;
+        }
+        return partitions;
+    }
+}
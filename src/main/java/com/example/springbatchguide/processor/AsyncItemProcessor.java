@@ -0,0 +1,71 @@
+package com.example.springbatchguide.processor;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 아이템 처리를 TaskExecutor 에 맡기고 결과 대신 Future 를 반환하는 ItemProcessor (AsyncItemWriter 와 함께 사용)
+ * - 외부 API 조회처럼 지연 시간이 긴 프로세서를 청크 안에서 동시에 실행해, 아이템이 앞 아이템의 처리를 기다리지 않게 한다.
+ * - 동시에 처리 중인 아이템은 최대 concurrencyLimit 개이며, 넘으면 리더 스레드가 대기한다.
+ * - 처리 스레드에서도 스텝 스코프 빈을 사용할 수 있도록 StepContext 를 전달한다.
+ *
+ * [실패 처리]
+ * 프로세서 예외는 AsyncItemWriter 가 Future 를 꺼낼 때 던진다. 즉 내결함성 스텝에서는 쓰기 오류로 처리된다.
+ * 롤백 후 청크를 다시 처리할 때 프로세서도 다시 호출되므로 retry 와 skip(한 건씩 재처리해 실패 아이템 식별)은 그대로 동작한다.
+ * 다만 skip 은 processSkipCount 가 아닌 writeSkipCount 로 집계되고, 필터링(null 반환)된 아이템은 filterCount 에 잡히지 않는다.
+ */
+public class AsyncItemProcessor<I, O> implements ItemProcessor<I, Future<O>> {
+
+    private final ItemProcessor<I, O> delegate;
+
+    private final TaskExecutor taskExecutor;
+
+    private final Semaphore permits;
+
+    public AsyncItemProcessor(ItemProcessor<I, O> delegate, TaskExecutor taskExecutor, int concurrencyLimit) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.notNull(taskExecutor, "taskExecutor must not be null");
+        Assert.isTrue(concurrencyLimit > 0, "concurrencyLimit must be greater than 0");
+        this.delegate = delegate;
+        this.taskExecutor = taskExecutor;
+        this.permits = new Semaphore(concurrencyLimit);
+    }
+
+    @Override
+    public Future<O> process(I item) throws Exception {
+        this.permits.acquire();
+
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext != null ? stepContext.getStepExecution() : null;
+        FutureTask<O> task = new FutureTask<>(() -> {
+            if (stepExecution != null) {
+                StepSynchronizationManager.register(stepExecution);
+            }
+            try {
+                return this.delegate.process(item);
+            } finally {
+                if (stepExecution != null) {
+                    StepSynchronizationManager.close();
+                }
+                this.permits.release();
+            }
+        });
+
+        try {
+            this.taskExecutor.execute(task);
+        } catch (TaskRejectedException e) {
+            this.permits.release();
+            throw e;
+        }
+        return task;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.springbatchguide.processor;
+
+import com.example.springbatchguide.chunk.UuidChunk;
+import com.example.springbatchguide.chunk.UuidChunkPool;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.util.Assert;
+
+/**
+ * UuidChunk 의 행을 조건에 따라 걸러내는 프로세서. 새 버퍼를 만들지 않고 같은 버퍼 안에서 앞으로 당긴다.
+ * 모든 행이 걸러지면 버퍼를 풀에 돌려주고 null 을 반환한다. (Spring Batch 의 필터 건수는 버퍼 단위로 센다)
+ */
+public class UuidChunkItemProcessor implements ItemProcessor<UuidChunk, UuidChunk> {
+
+    private final UuidChunk.UuidPredicate filter;
+
+    private final UuidChunkPool chunkPool;
+
+    public UuidChunkItemProcessor(UuidChunk.UuidPredicate filter, UuidChunkPool chunkPool) {
+        Assert.notNull(filter, "filter must not be null");
+        Assert.notNull(chunkPool, "chunkPool must not be null");
+        this.filter = filter;
+        this.chunkPool = chunkPool;
+    }
+
+    @Override
+    public UuidChunk process(UuidChunk chunk) {
+        chunk.retainIf(this.filter);
+        if (chunk.isEmpty()) {
+            this.chunkPool.release(chunk);
+            return null;
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.springbatchguide.reader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 매핑된 파일 바이트 위의 CSV 레코드 한 줄을 가리키는 뷰
+ * 필드 경계는 필드에 처음 접근할 때 계산하고, 숫자 필드는 문자열을 만들지 않고 바이트에서 바로 변환한다.
+ * MappedCsvItemReader 가 레코드마다 재사용하므로 CsvRecordMapper 밖으로 참조를 넘기면 안 된다.
+ */
+public final class CsvRecord {
+
+    private final byte delimiter;
+
+    private final byte quote;
+
+    private final Charset charset;
+
+    private ByteBuffer buffer;
+
+    private int start;
+
+    private int end;
+
+    private int fieldCount = -1;
+
+    private int[] fieldStarts = new int[16];
+
+    private int[] fieldEnds = new int[16];
+
+    private boolean[] quoted = new boolean[16];
+
+    private byte[] scratch = new byte[128];
+
+    CsvRecord(byte delimiter, byte quote, Charset charset) {
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.charset = charset;
+    }
+
+    void reset(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        this.fieldCount = -1;
+    }
+
+    public int getFieldCount() {
+        split();
+        return this.fieldCount;
+    }
+
+    public boolean isEmpty(int index) {
+        checkIndex(index);
+        return this.fieldStarts[index] == this.fieldEnds[index];
+    }
+
+    public String getString(int index) {
+        checkIndex(index);
+        int fieldStart = this.fieldStarts[index];
+        int length = this.fieldEnds[index] - fieldStart;
+
+        if (length > this.scratch.length) {
+            this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+        }
+
+        if (!this.quoted[index]) {
+            for (int i = 0; i < length; i++) {
+                this.scratch[i] = this.buffer.get(fieldStart + i);
+            }
+            return new String(this.scratch, 0, length, this.charset);
+        }
+
+        // 따옴표로 감싼 필드 안의 "" 는 " 하나로 바꾼다.
+        int written = 0;
+        for (int i = fieldStart; i < fieldStart + length; i++) {
+            byte b = this.buffer.get(i);
+            this.scratch[written++] = b;
+            if (b == this.quote && i + 1 < fieldStart + length && this.buffer.get(i + 1) == this.quote) {
+                i++;
+            }
+        }
+        return new String(this.scratch, 0, written, this.charset);
+    }
+
+    public int getInt(int index) {
+        long value = getLong(index);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Field " + index + " is out of int range : " + value);
+        }
+        return (int) value;
+    }
+
+    public long getLong(int index) {
+        checkIndex(index);
+        int i = this.fieldStarts[index];
+        int fieldEnd = this.fieldEnds[index];
+
+        boolean negative = false;
+        if (i < fieldEnd && (this.buffer.get(i) == '-' || this.buffer.get(i) == '+')) {
+            negative = this.buffer.get(i) == '-';
+            i++;
+        }
+        if (i == fieldEnd) {
+            throw new NumberFormatException("Field " + index + " is not a number : '" + getString(index) + "'");
+        }
+
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = this.buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Field " + index + " is not a number : '" + getString(index) + "'");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    public double getDouble(int index) {
+        return Double.parseDouble(getString(index));
+    }
+
+    public String[] toStringArray() {
+        String[] values = new String[getFieldCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getString(i);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toStringArray());
+    }
+
+    private void checkIndex(int index) {
+        split();
+        if (index < 0 || index >= this.fieldCount) {
+            throw new IndexOutOfBoundsException("Field index " + index + " is out of range, field count : " + this.fieldCount);
+        }
+    }
+
+    /**
+     * 구분자 위치를 찾아 필드 경계를 기록한다. 따옴표 안의 구분자는 무시한다.
+     */
+    private void split() {
+        if (this.fieldCount >= 0) {
+            return;
+        }
+
+        int count = 0;
+        int fieldStart = this.start;
+        boolean inQuotes = false;
+
+        for (int i = this.start; i <= this.end; i++) {
+            if (i < this.end) {
+                byte b = this.buffer.get(i);
+                if (b == this.quote) {
+                    inQuotes = !inQuotes;
+                    continue;
+                }
+                if (b != this.delimiter || inQuotes) {
+                    continue;
+                }
+            }
+
+            if (count == this.fieldStarts.length) {
+                grow();
+            }
+            boolean quotedField = i - fieldStart >= 2
+                    && this.buffer.get(fieldStart) == this.quote && this.buffer.get(i - 1) == this.quote;
+            this.quoted[count] = quotedField;
+            this.fieldStarts[count] = quotedField ? fieldStart + 1 : fieldStart;
+            this.fieldEnds[count] = quotedField ? i - 1 : i;
+            count++;
+            fieldStart = i + 1;
+        }
+        this.fieldCount = count;
+    }
+
+    private void grow() {
+        int length = this.fieldStarts.length * 2;
+        this.fieldStarts = Arrays.copyOf(this.fieldStarts, length);
+        this.fieldEnds = Arrays.copyOf(this.fieldEnds, length);
+        this.quoted = Arrays.copyOf(this.quoted, length);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.springbatchguide.reader;
+
+/**
+ * CsvRecord 를 아이템으로 변환 (FieldSetMapper 와 같은 역할)
+ * 레코드는 재사용되므로 필요한 필드만 꺼내서 새 객체로 만들어야 한다.
+ */
+@FunctionalInterface
+public interface CsvRecordMapper<T> {
+
+    T map(CsvRecord record) throws Exception;
+}
@@ -0,0 +1,259 @@
+package com.example.springbatchguide.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ParseException;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 메모리 매핑된 FileChannel 위에서 CSV 를 읽는 ItemStreamReader
+ * - 매핑된 바이트에서 직접 줄바꿈을 찾아 레코드 경계를 정하므로 줄마다 String 을 만들지 않는다.
+ * - 필드는 CsvRecordMapper 가 접근할 때만 해석한다. (CsvRecord 참고)
+ * - ExecutionContext 에 다음 레코드의 바이트 위치를 저장하므로, 재시작 시 처음부터 다시 훑지 않고 해당 위치로 바로 이동한다.
+ * - 2GB 를 넘는 파일은 windowSize 크기의 구간으로 나눠서 매핑한다.
+ * [주의사항]
+ * 스레드 안전하지 않으므로 멀티 스레드 스텝에서는 파티션마다 별도의 인스턴스를 사용해야 한다.
+ * 문자셋은 UTF-8 처럼 줄바꿈, 구분자, 따옴표가 1바이트인 ASCII 호환 문자셋이어야 한다.
+ */
+public class MappedCsvItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
+
+    private static final String OFFSET_KEY = "offset";
+
+    private static final String READ_COUNT_KEY = "read.count";
+
+    private static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final Path path;
+
+    private final CsvRecordMapper<T> recordMapper;
+
+    private Charset charset = StandardCharsets.UTF_8;
+
+    private byte delimiter = ',';
+
+    private byte quote = '"';
+
+    private int linesToSkip;
+
+    private long startOffset;
+
+    private long endOffset = -1;
+
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+
+    private boolean saveState = true;
+
+    private FileChannel channel;
+
+    private long fileSize;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private long offset;
+
+    private long readCount;
+
+    private CsvRecord record;
+
+    public MappedCsvItemReader(Path path, CsvRecordMapper<T> recordMapper) {
+        Assert.notNull(path, "path must not be null");
+        Assert.notNull(recordMapper, "recordMapper must not be null");
+        this.path = path;
+        this.recordMapper = recordMapper;
+        setName(ClassUtils.getShortName(MappedCsvItemReader.class));
+    }
+
+    public void setCharset(Charset charset) {
+        Assert.notNull(charset, "charset must not be null");
+        this.charset = charset;
+    }
+
+    public void setDelimiter(char delimiter) {
+        this.delimiter = (byte) delimiter;
+    }
+
+    public void setQuoteCharacter(char quote) {
+        this.quote = (byte) quote;
+    }
+
+    public void setLinesToSkip(int linesToSkip) {
+        this.linesToSkip = linesToSkip;
+    }
+
+    /**
+     * 처음 실행할 때 읽기 시작할 바이트 위치. 레코드의 시작 위치여야 하며, 0 보다 크면 linesToSkip 은 적용하지 않는다.
+     * 재시작 시에는 저장된 위치가 우선한다. (이전 실행 이후 추가된 행만 처리할 때 사용, InputFingerprintTasklet 참고)
+     * @param startOffset
+     */
+    public void setStartOffset(long startOffset) {
+        Assert.isTrue(startOffset >= 0, "startOffset must not be negative");
+        this.startOffset = startOffset;
+    }
+
+    /**
+     * 이 위치부터 시작하는 레코드는 읽지 않는다. 레코드의 시작 위치여야 하며, 지정하지 않으면 파일 끝까지 읽는다.
+     * startOffset 과 함께 파일을 바이트 범위로 나눠 읽을 때 사용한다. (FileRangePartitioner 참고)
+     * @param endOffset
+     */
+    public void setEndOffset(long endOffset) {
+        Assert.isTrue(endOffset >= 0, "endOffset must not be negative");
+        this.endOffset = endOffset;
+    }
+
+    /**
+     * 한 번에 매핑할 바이트 수. 레코드 하나가 이보다 길면 자동으로 늘린다.
+     * @param windowSize
+     */
+    public void setWindowSize(int windowSize) {
+        Assert.isTrue(windowSize > 0, "windowSize must be greater than 0");
+        this.windowSize = windowSize;
+    }
+
+    public void setSaveState(boolean saveState) {
+        this.saveState = saveState;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            this.channel = FileChannel.open(this.path, StandardOpenOption.READ);
+            this.fileSize = this.channel.size();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open " + this.path, e);
+        }
+
+        this.record = new CsvRecord(this.delimiter, this.quote, this.charset);
+        this.window = null;
+
+        if (executionContext.containsKey(getExecutionContextKey(OFFSET_KEY))) {
+            this.offset = executionContext.getLong(getExecutionContextKey(OFFSET_KEY));
+            this.readCount = executionContext.getLong(getExecutionContextKey(READ_COUNT_KEY), 0L);
+            Assert.state(this.offset <= this.fileSize, "Saved offset " + this.offset + " is beyond the end of " + this.path);
+            return;
+        }
+
+        this.readCount = 0;
+        if (this.startOffset > 0) {
+            Assert.state(this.startOffset <= this.fileSize, "Start offset " + this.startOffset + " is beyond the end of " + this.path);
+            this.offset = this.startOffset;
+            return;
+        }
+
+        this.offset = 0;
+        for (int i = 0; i < this.linesToSkip && this.offset < this.fileSize; i++) {
+            this.offset = Math.min(findRecordEnd(this.offset) + 1, this.fileSize);
+        }
+    }
+
+    @Override
+    public T read() throws Exception {
+        long limit = this.endOffset < 0 ? this.fileSize : Math.min(this.endOffset, this.fileSize);
+        while (this.offset < limit) {
+            long recordStart = this.offset;
+            long recordEnd = findRecordEnd(recordStart);
+            this.offset = Math.min(recordEnd + 1, this.fileSize);
+
+            int start = (int) (recordStart - this.windowStart);
+            int end = (int) (recordEnd - this.windowStart);
+            if (end > start && this.window.get(end - 1) == '\r') {
+                end--;
+            }
+            // 빈 줄은 건너뛴다.
+            if (end == start) {
+                continue;
+            }
+
+            this.readCount++;
+            this.record.reset(this.window, start, end);
+            try {
+                return this.recordMapper.map(this.record);
+            } catch (Exception e) {
+                throw new ParseException("Parsing error at record " + this.readCount + " (byte offset " + recordStart
+                        + ") in " + this.path + " : " + this.record, e);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.saveState) {
+            executionContext.putLong(getExecutionContextKey(OFFSET_KEY), this.offset);
+            executionContext.putLong(getExecutionContextKey(READ_COUNT_KEY), this.readCount);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        this.window = null;
+        this.record = null;
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close " + this.path, e);
+        } finally {
+            this.channel = null;
+        }
+    }
+
+    /**
+     * start 부터 따옴표 밖의 첫 줄바꿈 위치를 찾는다. 마지막 레코드에 줄바꿈이 없으면 파일 크기를 반환한다.
+     * 레코드가 현재 구간을 벗어나면 레코드 시작 위치부터 다시 매핑하고, 구간보다 긴 레코드면 구간을 늘린다.
+     * @param start
+     * @return
+     */
+    private long findRecordEnd(long start) {
+        int size = this.windowSize;
+        mapWindow(start, size, false);
+
+        while (true) {
+            int limit = this.window.limit();
+            boolean inQuotes = false;
+
+            for (int i = (int) (start - this.windowStart); i < limit; i++) {
+                byte b = this.window.get(i);
+                if (b == this.quote) {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return this.windowStart + i;
+                }
+            }
+
+            if (this.windowStart + limit >= this.fileSize) {
+                return this.fileSize;
+            }
+            if (this.windowStart == start) {
+                size = (int) Math.min((long) size * 2, Integer.MAX_VALUE);
+            }
+            mapWindow(start, size, true);
+        }
+    }
+
+    private void mapWindow(long position, int size, boolean force) {
+        if (!force && this.window != null && position >= this.windowStart && position < this.windowStart + this.window.limit()) {
+            return;
+        }
+        try {
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size, this.fileSize - position));
+            this.windowStart = position;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to map " + this.path + " at offset " + position, e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.springbatchguide.reader;
+
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
+import java.util.function.LongFunction;
+
+/**
+ * Flow.Publisher 를 구독해 아이템을 하나씩 꺼내주는 ItemReader (리액티브 소스 -> 청크 스텝)
+ *
+ * [배압]
+ * 받아둔 아이템을 모두 꺼낸 뒤에만 청크 하나만큼(demand)을 request 하므로, 소스가 아무리 빨라도
+ * 리더가 들고 있는 아이템은 최대 demand 건이다. 요청보다 많이 보내는 Publisher 는 규약 위반으로 보고 실패시킨다.
+ * demand 는 스텝의 청크 크기와 맞춰야 한다. (AdaptiveChunkSizePolicy 를 쓰면 policy::getChunkSize)
+ *
+ * [재시작]
+ * 읽은 건수는 ExecutionContext 에 저장되며, 재시작하면 publisherFactory 에 마지막 커밋 위치(offset)를 넘겨 그 위치부터 다시 구독한다.
+ * 따라서 소스는 offset 부터 재생할 수 있어야 한다. (Kafka 오프셋, DB 커서 위치 등)
+ */
+public class PublisherItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private static final Object COMPLETE = new Object();
+
+    private final LongFunction<? extends Flow.Publisher<? extends T>> publisherFactory;
+
+    private final IntSupplier demand;
+
+    private long readTimeoutMillis = 60_000;
+
+    private long startOffset;
+
+    private ItemSubscriber subscriber;
+
+    private boolean completed;
+
+    /**
+     * @param publisherFactory offset 부터 아이템을 내보내는 Publisher 를 만든다.
+     * @param demand 한 번에 request 할 건수
+     */
+    public PublisherItemReader(LongFunction<? extends Flow.Publisher<? extends T>> publisherFactory, IntSupplier demand) {
+        Assert.notNull(publisherFactory, "publisherFactory must not be null");
+        Assert.notNull(demand, "demand must not be null");
+        this.publisherFactory = publisherFactory;
+        this.demand = demand;
+        setName(ClassUtils.getShortName(PublisherItemReader.class));
+    }
+
+    public PublisherItemReader(LongFunction<? extends Flow.Publisher<? extends T>> publisherFactory, int chunkSize) {
+        this(publisherFactory, () -> chunkSize);
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+    }
+
+    /**
+     * 아이템 하나(또는 구독)를 기다릴 최대 시간
+     * @param readTimeoutMillis
+     */
+    public void setReadTimeoutMillis(long readTimeoutMillis) {
+        Assert.isTrue(readTimeoutMillis > 0, "readTimeoutMillis must be greater than 0");
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    protected void doOpen() {
+        this.startOffset = 0;
+        this.completed = false;
+    }
+
+    /**
+     * 재시작 시 저장된 읽기 건수로 호출된다. 건너뛰지 않고 해당 위치부터 구독한다.
+     * @param itemIndex
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        this.startOffset = itemIndex;
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        if (this.completed) {
+            return null;
+        }
+        if (this.subscriber == null) {
+            this.subscriber = new ItemSubscriber();
+            this.publisherFactory.apply(this.startOffset).subscribe(this.subscriber);
+        }
+        return this.subscriber.next();
+    }
+
+    @Override
+    protected void doClose() {
+        if (this.subscriber != null) {
+            this.subscriber.cancel();
+            this.subscriber = null;
+        }
+    }
+
+    /**
+     * 받은 신호(아이템, 완료, 오류)를 순서대로 담는 구독자. 큐에는 요청한 건수 + 종료 신호 하나까지만 들어온다.
+     */
+    private class ItemSubscriber implements Flow.Subscriber<T> {
+
+        private final CompletableFuture<Flow.Subscription> subscription = new CompletableFuture<>();
+
+        private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+        /**
+         * request 했지만 아직 도착하지 않은 건수 (onNext 스레드와 공유)
+         */
+        private long outstanding;
+
+        /**
+         * request 했지만 아직 꺼내지 않은 건수 (읽기 스레드만 사용)
+         */
+        private long remaining;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (!this.subscription.complete(subscription)) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (this.outstanding == 0) {
+                    this.signals.offer(new Failure(new IllegalStateException("Publisher emitted more items than requested")));
+                    cancel();
+                    return;
+                }
+                this.outstanding--;
+            }
+            this.signals.offer(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.signals.offer(new Failure(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            this.signals.offer(COMPLETE);
+        }
+
+        @SuppressWarnings("unchecked")
+        T next() throws Exception {
+            if (this.remaining == 0) {
+                requestChunk();
+            }
+
+            Object signal = this.signals.poll(PublisherItemReader.this.readTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (signal == null) {
+                throw new NonTransientResourceException("No signal from publisher within " + PublisherItemReader.this.readTimeoutMillis + " ms");
+            }
+            if (signal == COMPLETE) {
+                PublisherItemReader.this.completed = true;
+                return null;
+            }
+            if (signal instanceof Failure) {
+                PublisherItemReader.this.completed = true;
+                throw new NonTransientResourceException("Publisher failed", ((Failure) signal).cause);
+            }
+            this.remaining--;
+            return (T) signal;
+        }
+
+        /**
+         * 이전에 요청한 아이템을 모두 꺼낸 뒤에만 호출되므로, 새로 요청하는 시점에는 도착 대기 중인 아이템이 없다.
+         */
+        private void requestChunk() throws Exception {
+            long requested = Math.max(1, PublisherItemReader.this.demand.getAsInt());
+            synchronized (this) {
+                this.outstanding += requested;
+            }
+            this.remaining = requested;
+            subscription().request(requested);
+        }
+
+        private Flow.Subscription subscription() throws Exception {
+            try {
+                return this.subscription.get(PublisherItemReader.this.readTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new NonTransientResourceException("Publisher did not call onSubscribe within " + PublisherItemReader.this.readTimeoutMillis + " ms");
+            } catch (ExecutionException e) {
+                throw new NonTransientResourceException("Publisher failed", e.getCause());
+            }
+        }
+
+        void cancel() {
+            Flow.Subscription current = this.subscription.getNow(null);
+            if (current != null) {
+                current.cancel();
+            } else {
+                this.subscription.cancel(false);
+            }
+        }
+    }
+
+    private static class Failure {
+
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.springbatchguide.reader;
+
+import com.example.springbatchguide.chunk.UuidChunk;
+import com.example.springbatchguide.chunk.UuidChunkPool;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * UuidItemReader 와 같은 UUID 수열을 문자열 대신 UuidChunk 에 long 값으로 채워 반환하는 리더
+ * 아이템 하나가 UuidChunk 하나(rowsPerChunk 개의 UUID)이므로, 스텝의 읽기/쓰기 건수와 커밋 간격은 버퍼 단위로 센다.
+ * 버퍼는 UuidChunkPool 에서 꺼내며, 다 쓴 버퍼는 UuidChunkItemWriter 가 커밋 후 풀에 돌려준다.
+ * 재시작 시에는 저장된 시드와 버퍼 위치부터 이어서 만든다.
+ */
+public class UuidChunkItemReader extends AbstractItemCountingItemStreamItemReader<UuidChunk> {
+
+    private static final String SEED_KEY = "seed";
+
+    private final long fromIndex;
+
+    private final long toIndex;
+
+    private final UuidChunkPool chunkPool;
+
+    private Long seed;
+
+    private long currentSeed;
+
+    /**
+     * [fromIndex, toIndex) 범위의 UUID 를 chunkPool 의 버퍼 크기 단위로 나눠 만든다.
+     * @param fromIndex
+     * @param toIndex
+     * @param chunkPool
+     */
+    public UuidChunkItemReader(long fromIndex, long toIndex, UuidChunkPool chunkPool) {
+        Assert.isTrue(0 <= fromIndex && fromIndex <= toIndex, "fromIndex must be between 0 and toIndex");
+        Assert.notNull(chunkPool, "chunkPool must not be null");
+
+        long chunkCount = (toIndex - fromIndex + chunkPool.getRowsPerChunk() - 1) / chunkPool.getRowsPerChunk();
+        Assert.isTrue(chunkCount <= Integer.MAX_VALUE, "range must not exceed Integer.MAX_VALUE chunks");
+
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.chunkPool = chunkPool;
+        setMaxItemCount((int) chunkCount);
+        setName(ClassUtils.getShortName(UuidChunkItemReader.class));
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String seedKey = getExecutionContextKey(SEED_KEY);
+
+        if (executionContext.containsKey(seedKey)) {
+            this.currentSeed = executionContext.getLong(seedKey);
+        } else {
+            this.currentSeed = this.seed != null ? this.seed : ThreadLocalRandom.current().nextLong();
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(SEED_KEY), this.currentSeed);
+        }
+    }
+
+    @Override
+    protected UuidChunk doRead() {
+        long start = this.fromIndex + (long) (getCurrentItemCount() - 1) * this.chunkPool.getRowsPerChunk();
+        long end = Math.min(this.toIndex, start + this.chunkPool.getRowsPerChunk());
+
+        UuidChunk chunk = this.chunkPool.acquire();
+        for (long index = start; index < end; index++) {
+            chunk.add(UuidSequence.mostSignificantBits(this.currentSeed, index),
+                    UuidSequence.leastSignificantBits(this.currentSeed, index));
+        }
+        return chunk;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // 인덱스로 바로 계산하므로 건너뛸 필요가 없다.
+    }
+
+    @Override
+    protected void doOpen() {
+    }
+
+    @Override
+    protected void doClose() {
+    }
+}
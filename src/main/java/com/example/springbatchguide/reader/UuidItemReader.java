@@ -0,0 +1,90 @@
+package com.example.springbatchguide.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * UUID 문자열을 필요할 때마다 만들어 반환하는 ItemStreamReader (아이템 목록을 미리 힙에 만들어두지 않음)
+ * ExecutionContext 에는 읽은 위치와 시드만 저장하므로, 아이템 수와 상관없이 메모리 사용량이 일정하다.
+ * 재시작하면 저장된 시드로 마지막 커밋 위치부터 같은 아이템을 이어서 만든다.
+ * 시드를 지정하지 않으면 처음 열릴 때 무작위로 정해서 저장한다.
+ */
+public class UuidItemReader extends AbstractItemCountingItemStreamItemReader<String> {
+
+    private static final String SEED_KEY = "seed";
+
+    private final long fromIndex;
+
+    private Long seed;
+
+    private long currentSeed;
+
+    /**
+     * [0, itemCount) 범위의 아이템을 만든다.
+     * @param itemCount
+     */
+    public UuidItemReader(int itemCount) {
+        this(0, itemCount);
+    }
+
+    /**
+     * [fromIndex, toIndex) 범위의 아이템을 만든다. (파티션 워커용)
+     * @param fromIndex
+     * @param toIndex
+     */
+    public UuidItemReader(long fromIndex, long toIndex) {
+        Assert.isTrue(0 <= fromIndex && fromIndex <= toIndex, "fromIndex must be between 0 and toIndex");
+        Assert.isTrue(toIndex - fromIndex <= Integer.MAX_VALUE, "range must not exceed Integer.MAX_VALUE items");
+
+        this.fromIndex = fromIndex;
+        setMaxItemCount((int) (toIndex - fromIndex));
+        setName(ClassUtils.getShortName(UuidItemReader.class));
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String seedKey = getExecutionContextKey(SEED_KEY);
+
+        if (executionContext.containsKey(seedKey)) {
+            this.currentSeed = executionContext.getLong(seedKey);
+        } else {
+            this.currentSeed = this.seed != null ? this.seed : ThreadLocalRandom.current().nextLong();
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(SEED_KEY), this.currentSeed);
+        }
+    }
+
+    @Override
+    protected String doRead() {
+        return UuidSequence.get(this.currentSeed, this.fromIndex + getCurrentItemCount() - 1).toString();
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // 인덱스로 바로 계산하므로 건너뛸 필요가 없다.
+    }
+
+    @Override
+    protected void doOpen() {
+    }
+
+    @Override
+    protected void doClose() {
+    }
+}
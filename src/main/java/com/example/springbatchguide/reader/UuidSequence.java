@@ -0,0 +1,36 @@
+package com.example.springbatchguide.reader;
+
+import java.util.UUID;
+
+/**
+ * 시드와 인덱스만으로 결정되는 UUID(버전 4 형식) 수열
+ * 이전 값을 몰라도 임의의 인덱스를 바로 계산할 수 있어서, 재시작 시 위치만 알면 같은 아이템부터 이어서 만들 수 있다.
+ * SplitMix64 를 사용하므로 아이템마다 Random 객체나 상태를 만들지 않는다.
+ */
+public final class UuidSequence {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private UuidSequence() {
+    }
+
+    public static UUID get(long seed, long index) {
+        return new UUID(mostSignificantBits(seed, index), leastSignificantBits(seed, index));
+    }
+
+    public static long mostSignificantBits(long seed, long index) {
+        long bits = mix(seed + GOLDEN_GAMMA * (2 * index + 1));
+        return (bits & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L; // version 4
+    }
+
+    public static long leastSignificantBits(long seed, long index) {
+        long bits = mix(seed + GOLDEN_GAMMA * (2 * index + 2));
+        return (bits & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; // IETF variant
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.springbatchguide.remote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 매니저와 워커 사이에서 청크 요청과 응답을 주고받는 채널
+ * 구현체는 살아있는 워커 중 하나로 요청을 보내고, 워커가 응답하지 못하고 사라지면 해당 워커에 보냈던 요청을 Listener 에 돌려준다.
+ * 한 번에 하나의 매니저 스텝(RemoteChunkItemWriter)만 사용할 수 있다.
+ */
+public interface ChunkChannel extends Closeable {
+
+    /**
+     * 워커 중 하나에 요청을 보낸다.
+     * @param request
+     * @throws IOException 요청을 받을 수 있는 워커가 없을 때
+     */
+    void send(ChunkRequest request) throws IOException;
+
+    void setListener(Listener listener);
+
+    interface Listener {
+
+        void onResponse(ChunkResponse response);
+
+        /**
+         * 워커가 응답 전에 사라져서 처리 여부를 알 수 없는 요청들
+         * @param requests
+         * @param cause
+         */
+        void onUndelivered(List<ChunkRequest> requests, Exception cause);
+    }
+}
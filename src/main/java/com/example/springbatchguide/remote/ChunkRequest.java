@@ -0,0 +1,42 @@
+package com.example.springbatchguide.remote;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 매니저가 워커에게 보내는 청크. 매니저 스텝 실행 안에서 sequence 로 구분한다.
+ */
+public final class ChunkRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long stepExecutionId;
+
+    private final long sequence;
+
+    private final List<?> items;
+
+    public ChunkRequest(long stepExecutionId, long sequence, List<?> items) {
+        this.stepExecutionId = stepExecutionId;
+        this.sequence = sequence;
+        this.items = items;
+    }
+
+    public long getStepExecutionId() {
+        return this.stepExecutionId;
+    }
+
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public List<?> getItems() {
+        return this.items;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkRequest [stepExecutionId=" + this.stepExecutionId + ", sequence=" + this.sequence
+                + ", items=" + this.items.size() + "]";
+    }
+}
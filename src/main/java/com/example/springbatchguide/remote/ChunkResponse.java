@@ -0,0 +1,64 @@
+package com.example.springbatchguide.remote;
+
+import java.io.Serializable;
+
+/**
+ * 워커가 청크를 처리한 결과 (ack)
+ */
+public final class ChunkResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long stepExecutionId;
+
+    private final long sequence;
+
+    private final boolean successful;
+
+    private final int writeCount;
+
+    private final String message;
+
+    private ChunkResponse(long stepExecutionId, long sequence, boolean successful, int writeCount, String message) {
+        this.stepExecutionId = stepExecutionId;
+        this.sequence = sequence;
+        this.successful = successful;
+        this.writeCount = writeCount;
+        this.message = message;
+    }
+
+    public static ChunkResponse success(ChunkRequest request, int writeCount) {
+        return new ChunkResponse(request.getStepExecutionId(), request.getSequence(), true, writeCount, null);
+    }
+
+    public static ChunkResponse failure(ChunkRequest request, String message) {
+        return new ChunkResponse(request.getStepExecutionId(), request.getSequence(), false, 0, message);
+    }
+
+    public long getStepExecutionId() {
+        return this.stepExecutionId;
+    }
+
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public boolean isSuccessful() {
+        return this.successful;
+    }
+
+    public int getWriteCount() {
+        return this.writeCount;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkResponse [stepExecutionId=" + this.stepExecutionId + ", sequence=" + this.sequence
+                + ", successful=" + this.successful + ", writeCount=" + this.writeCount
+                + (this.message != null ? ", message=" + this.message : "") + "]";
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.springbatchguide.remote;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 워커 쪽에서 받은 청크를 ItemProcessor 와 ItemWriter 로 처리하고 응답을 만든다.
+ * TransactionManager 를 지정하면 청크마다 트랜잭션 안에서 쓴다. (BufferedChannelItemWriter 처럼 커밋 시점에 출력하는 라이터용)
+ * 처리 중 예외는 실패 응답으로 돌려주며, 매니저 스텝은 실패 응답을 받으면 실패한다.
+ */
+public class ChunkWorker<I, O> {
+
+    private final ItemProcessor<? super I, ? extends O> itemProcessor;
+
+    private final ItemWriter<? super O> itemWriter;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * @param itemProcessor null 이면 받은 아이템을 그대로 쓴다.
+     * @param itemWriter
+     */
+    public ChunkWorker(ItemProcessor<? super I, ? extends O> itemProcessor, ItemWriter<? super O> itemWriter) {
+        Assert.notNull(itemWriter, "itemWriter must not be null");
+        this.itemProcessor = itemProcessor;
+        this.itemWriter = itemWriter;
+    }
+
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+    }
+
+    public ItemWriter<? super O> getItemWriter() {
+        return this.itemWriter;
+    }
+
+    public ChunkResponse handle(ChunkRequest request) {
+        try {
+            List<O> outputs = process(request.getItems());
+            if (this.transactionTemplate == null) {
+                this.itemWriter.write(outputs);
+            } else {
+                this.transactionTemplate.execute(status -> {
+                    try {
+                        this.itemWriter.write(outputs);
+                    } catch (Exception e) {
+                        throw new ChunkWriteException(e);
+                    }
+                    return null;
+                });
+            }
+            return ChunkResponse.success(request, outputs.size());
+        } catch (ChunkWriteException e) {
+            return ChunkResponse.failure(request, e.getCause().toString());
+        } catch (Exception e) {
+            return ChunkResponse.failure(request, e.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<O> process(List<?> items) throws Exception {
+        if (this.itemProcessor == null) {
+            return (List<O>) items;
+        }
+        List<O> outputs = new ArrayList<>(items.size());
+        for (Object item : items) {
+            O output = this.itemProcessor.process((I) item);
+            if (output != null) {
+                outputs.add(output);
+            }
+        }
+        return outputs;
+    }
+
+    private static class ChunkWriteException extends RuntimeException {
+
+        ChunkWriteException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.springbatchguide.remote;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.util.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 소켓으로 청크 요청을 받아 ChunkWorker 로 처리하는 워커 서버 (SocketChunkChannel 의 상대편)
+ * 연결마다 스레드 하나가 요청을 순서대로 처리하고 같은 연결로 응답한다.
+ * 매니저와 같은 장비에서 여러 워커 프로세스를 띄울 수 있도록 기본으로 루프백 주소에만 바인딩한다.
+ * 요청은 ObjectInputFilter 로 ChunkRequest, ArrayList, itemClasses(기본 String) 만 역직렬화하고,
+ * 객체 깊이, 배열 길이, 요청 하나의 바이트 수를 제한한다. 그 밖의 클래스가 오면 해당 연결을 끊는다.
+ */
+@Slf4j
+public class ChunkWorkerServer implements Closeable {
+
+    private static final int MAX_DEPTH = 5;
+
+    /**
+     * ArrayList 가 역직렬화하면서 미리 할당하는 배열의 최대 길이 (청크 하나의 최대 아이템 수)
+     */
+    private static final int MAX_ITEMS = 1 << 20;
+
+    private final ChunkWorker<?, ?> worker;
+
+    private final ServerSocket serverSocket;
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<Class<?>> itemClasses = Set.of(String.class);
+
+    private volatile long maxRequestBytes = 64 * 1024 * 1024;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param port 0 이면 비어있는 포트를 사용 (getPort 로 확인)
+     * @param worker
+     * @throws IOException
+     */
+    public ChunkWorkerServer(int port, ChunkWorker<?, ?> worker) throws IOException {
+        this(port, InetAddress.getLoopbackAddress(), worker);
+    }
+
+    public ChunkWorkerServer(int port, InetAddress bindAddress, ChunkWorker<?, ?> worker) throws IOException {
+        Assert.notNull(worker, "worker must not be null");
+        this.worker = worker;
+        this.serverSocket = new ServerSocket(port, 50, bindAddress);
+
+        if (worker.getItemWriter() instanceof ItemStream) {
+            ((ItemStream) worker.getItemWriter()).open(new ExecutionContext());
+        }
+
+        Thread acceptor = new Thread(this::accept, "chunk-worker-acceptor-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * 청크 아이템으로 받을 클래스 (기본 String). 이후에 맺어지는 연결부터 적용된다.
+     * @param itemClasses
+     */
+    public void setItemClasses(Class<?>... itemClasses) {
+        Assert.notEmpty(itemClasses, "itemClasses must not be empty");
+        this.itemClasses = Set.of(itemClasses);
+    }
+
+    /**
+     * 요청 하나로 읽을 수 있는 최대 바이트 수 (기본 64MB). 이후에 맺어지는 연결부터 적용된다.
+     * @param maxRequestBytes
+     */
+    public void setMaxRequestBytes(long maxRequestBytes) {
+        Assert.isTrue(maxRequestBytes > 0, "maxRequestBytes must be greater than 0");
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    private void accept() {
+        while (this.running) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                this.connections.add(socket);
+
+                Thread handler = new Thread(() -> serve(socket), "chunk-worker-" + socket.getPort());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (this.running) {
+                    log.warn("Failed to accept a connection on port {}", getPort(), e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+             ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            out.flush();
+            RequestFilter filter = new RequestFilter(this.itemClasses, this.maxRequestBytes);
+            in.setObjectInputFilter(filter);
+
+            while (this.running) {
+                filter.startRequest();
+                ChunkRequest request = (ChunkRequest) in.readObject();
+                ChunkResponse response = this.worker.handle(request);
+
+                out.writeObject(response);
+                out.reset();
+                out.flush();
+            }
+        } catch (EOFException | SocketException e) {
+            // 매니저가 연결을 닫았거나 서버가 종료됨
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            if (this.running) {
+                log.warn("Closing connection from {} after an unreadable chunk request", socket.getRemoteSocketAddress(), e);
+            }
+        } finally {
+            this.connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * 새 연결을 받지 않고 열린 연결을 모두 닫는다. 처리 중인 청크의 응답은 보내지 않으므로 매니저는 다른 워커로 다시 보낸다.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        closeQuietly(this.serverSocket);
+        for (Socket socket : this.connections) {
+            closeQuietly(socket);
+        }
+        if (this.worker.getItemWriter() instanceof ItemStream) {
+            ((ItemStream) this.worker.getItemWriter()).close();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // 무시
+        }
+    }
+
+    /**
+     * 연결 하나의 요청을 검사하는 필터. streamBytes 는 연결이 열린 뒤 누적값이므로 요청이 시작된 위치부터 센다.
+     */
+    private static final class RequestFilter implements ObjectInputFilter {
+
+        private final Set<Class<?>> allowedClasses;
+
+        private final long maxRequestBytes;
+
+        private long streamBytes;
+
+        private long requestStart;
+
+        RequestFilter(Set<Class<?>> itemClasses, long maxRequestBytes) {
+            List<Class<?>> allowedClasses = new ArrayList<>(itemClasses);
+            allowedClasses.addAll(Arrays.asList(ChunkRequest.class, ArrayList.class));
+            this.allowedClasses = Set.copyOf(allowedClasses);
+            this.maxRequestBytes = maxRequestBytes;
+        }
+
+        void startRequest() {
+            this.requestStart = this.streamBytes;
+        }
+
+        @Override
+        public Status checkInput(FilterInfo filterInfo) {
+            this.streamBytes = filterInfo.streamBytes();
+            if (filterInfo.depth() > MAX_DEPTH || filterInfo.arrayLength() > MAX_ITEMS
+                    || this.streamBytes - this.requestStart > this.maxRequestBytes) {
+                return Status.REJECTED;
+            }
+
+            Class<?> serialClass = filterInfo.serialClass();
+            if (serialClass == null) {
+                return Status.ALLOWED;
+            }
+            // ArrayList 는 Object[] 로 크기를 검사받는다.
+            if (serialClass == Object[].class) {
+                return Status.ALLOWED;
+            }
+            // 허용된 클래스의 상위 클래스 (예: Long 의 Number) 도 역직렬화 과정에서 검사된다.
+            for (Class<?> allowedClass : this.allowedClasses) {
+                if (serialClass.isAssignableFrom(allowedClass)) {
+                    return Status.ALLOWED;
+                }
+            }
+            return Status.REJECTED;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.springbatchguide.remote;
+
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 같은 JVM 안의 ChunkWorker 들로 요청을 보내는 ChunkChannel (브로커 없이 원격 청킹 구성을 확인하기 위한 대체 구현)
+ * 워커마다 전용 스레드와 큐를 두어 별도 프로세스처럼 동작하며, 요청은 라운드 로빈으로 나눈다.
+ * stop(index) 로 워커가 중간에 죽은 상황을 만들 수 있다.
+ * 워커의 ItemWriter 가 ItemStream 이면 채널은 열고 닫지 않으므로, 매니저 스텝의 스트림으로 등록해야 한다. (ChunkJob.remoteChunkStep 참고)
+ */
+public class LoopbackChunkChannel implements ChunkChannel {
+
+    private final List<LoopbackWorker> workers = new ArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile Listener listener;
+
+    public LoopbackChunkChannel(List<? extends ChunkWorker<?, ?>> chunkWorkers) {
+        Assert.notEmpty(chunkWorkers, "chunkWorkers must not be empty");
+        for (int i = 0; i < chunkWorkers.size(); i++) {
+            this.workers.add(new LoopbackWorker(i, chunkWorkers.get(i)));
+        }
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void send(ChunkRequest request) throws IOException {
+        for (int attempt = 0; attempt < this.workers.size(); attempt++) {
+            LoopbackWorker worker = this.workers.get(Math.floorMod(this.next.getAndIncrement(), this.workers.size()));
+            if (worker.offer(request)) {
+                return;
+            }
+        }
+        throw new IOException("No worker is running");
+    }
+
+    /**
+     * 워커를 멈춘다. 큐에 남아있거나 처리 중이던 요청은 응답 없이 Listener.onUndelivered 로 돌려준다.
+     * @param index
+     */
+    public void stop(int index) {
+        this.workers.get(index).stop();
+    }
+
+    @Override
+    public void close() {
+        for (LoopbackWorker worker : this.workers) {
+            worker.stop();
+        }
+    }
+
+    private class LoopbackWorker {
+
+        private final ChunkWorker<?, ?> chunkWorker;
+
+        private final BlockingQueue<ChunkRequest> queue = new LinkedBlockingQueue<>();
+
+        private final Thread thread;
+
+        private ChunkRequest current;
+
+        private boolean stopped;
+
+        LoopbackWorker(int index, ChunkWorker<?, ?> chunkWorker) {
+            this.chunkWorker = chunkWorker;
+            this.thread = new Thread(this::run, "loopback-chunk-worker-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        synchronized boolean offer(ChunkRequest request) {
+            return !this.stopped && this.queue.offer(request);
+        }
+
+        private void run() {
+            while (true) {
+                ChunkRequest request;
+                try {
+                    request = this.queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                synchronized (this) {
+                    if (this.stopped) {
+                        return;
+                    }
+                    this.current = request;
+                }
+
+                ChunkResponse response = this.chunkWorker.handle(request);
+
+                synchronized (this) {
+                    // 처리 중에 멈춘 워커의 응답은 매니저에 도달하지 못한 것으로 본다.
+                    if (this.stopped) {
+                        return;
+                    }
+                    this.current = null;
+                }
+                Listener listener = LoopbackChunkChannel.this.listener;
+                if (listener != null) {
+                    listener.onResponse(response);
+                }
+            }
+        }
+
+        void stop() {
+            List<ChunkRequest> undelivered = new ArrayList<>();
+            synchronized (this) {
+                if (this.stopped) {
+                    return;
+                }
+                this.stopped = true;
+                if (this.current != null) {
+                    undelivered.add(this.current);
+                    this.current = null;
+                }
+                this.queue.drainTo(undelivered);
+            }
+            this.thread.interrupt();
+
+            Listener listener = LoopbackChunkChannel.this.listener;
+            if (!undelivered.isEmpty() && listener != null) {
+                listener.onUndelivered(undelivered, new IOException("Worker stopped"));
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.springbatchguide.remote;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 매니저 스텝의 ItemWriter. 청크를 직접 쓰지 않고 ChunkChannel 로 워커에게 보낸다.
+ * 스텝에 StepExecutionListener 로도 등록해야 한다. (beforeStep 에서 채널을 연결하고 afterStep 에서 응답을 기다린다)
+ *
+ * [동작방식]
+ * - 응답을 받지 못한 청크는 최대 throttleLimit 개까지만 보내고, 그 이상이면 응답이 올 때까지 리더를 멈춘다.
+ * - 워커가 사라져 돌려받은 청크는 다른 워커로 다시 보낸다.
+ * - 실패 응답을 받으면 다음 write 에서 예외를 던지고, 스텝이 끝날 때까지 실패가 남아있으면 스텝을 FAILED 로 바꾼다.
+ *
+ * [보장 범위]
+ * 매니저는 청크를 보낸 직후 커밋하므로 StepExecution 의 커밋 정보는 워커가 쓴 결과보다 앞서 있다.
+ * 워커가 쓰는 도중 사라진 청크는 다른 워커가 다시 쓰므로 같은 아이템이 두 번 쓰일 수 있다. (at-least-once)
+ * 매니저가 비정상 종료되면 응답받지 못한 청크는 재시작 시 다시 읽히지 않으므로, 재시작이 필요한 잡은 워커 쪽에서 결과를 검증해야 한다.
+ */
+public class RemoteChunkItemWriter<T> implements ItemWriter<T>, StepExecutionListener, ChunkChannel.Listener {
+
+    private final ChunkChannel chunkChannel;
+
+    private int throttleLimit = 6;
+
+    private long responseTimeoutMillis = 60_000;
+
+    private final Map<Long, ChunkRequest> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicReference<String> failure = new AtomicReference<>();
+
+    private Semaphore permits;
+
+    private volatile long stepExecutionId;
+
+    private long sequence;
+
+    private long writeCount;
+
+    public RemoteChunkItemWriter(ChunkChannel chunkChannel) {
+        Assert.notNull(chunkChannel, "chunkChannel must not be null");
+        this.chunkChannel = chunkChannel;
+    }
+
+    /**
+     * 응답을 기다리지 않고 보낼 수 있는 최대 청크 수
+     * @param throttleLimit
+     */
+    public void setThrottleLimit(int throttleLimit) {
+        Assert.isTrue(throttleLimit > 0, "throttleLimit must be greater than 0");
+        this.throttleLimit = throttleLimit;
+    }
+
+    /**
+     * 스텝이 끝날 때 남은 응답을 기다리는 최대 시간
+     * @param responseTimeoutMillis
+     */
+    public void setResponseTimeoutMillis(long responseTimeoutMillis) {
+        this.responseTimeoutMillis = responseTimeoutMillis;
+    }
+
+    /**
+     * 응답을 기다리는 청크 수 (모니터링 / 테스트용)
+     * @return
+     */
+    public int getInFlightCount() {
+        return this.inFlight.size();
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecutionId = stepExecution.getId() != null ? stepExecution.getId() : 0;
+        this.sequence = 0;
+        this.writeCount = 0;
+        this.inFlight.clear();
+        this.failure.set(null);
+        this.permits = new Semaphore(this.throttleLimit);
+        this.chunkChannel.setListener(this);
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        checkFailure();
+
+        if (!this.permits.tryAcquire(this.responseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Timed out waiting for worker responses, in-flight chunks : " + this.inFlight.size());
+        }
+        try {
+            checkFailure();
+        } catch (IllegalStateException e) {
+            this.permits.release();
+            throw e;
+        }
+
+        ChunkRequest request = new ChunkRequest(this.stepExecutionId, this.sequence++, new ArrayList<>(items));
+        this.inFlight.put(request.getSequence(), request);
+        try {
+            this.chunkChannel.send(request);
+        } catch (Exception e) {
+            this.inFlight.remove(request.getSequence());
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void onResponse(ChunkResponse response) {
+        if (response.getStepExecutionId() != this.stepExecutionId
+                || this.inFlight.remove(response.getSequence()) == null) {
+            // 이전 스텝의 늦은 응답이나 재전송된 청크의 중복 응답
+            return;
+        }
+        if (response.isSuccessful()) {
+            synchronized (this) {
+                this.writeCount += response.getWriteCount();
+            }
+        } else {
+            this.failure.compareAndSet(null, response.toString());
+        }
+        this.permits.release();
+    }
+
+    @Override
+    public void onUndelivered(List<ChunkRequest> requests, Exception cause) {
+        for (ChunkRequest request : requests) {
+            if (!this.inFlight.containsKey(request.getSequence()) || request.getStepExecutionId() != this.stepExecutionId) {
+                continue;
+            }
+            try {
+                this.chunkChannel.send(request);
+            } catch (Exception e) {
+                if (this.inFlight.remove(request.getSequence()) != null) {
+                    this.failure.compareAndSet(null, "Chunk " + request.getSequence() + " could not be redelivered : " + e);
+                    this.permits.release();
+                }
+            }
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (this.permits == null) {
+            return null;
+        }
+        try {
+            if (!this.permits.tryAcquire(this.throttleLimit, this.responseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                this.failure.compareAndSet(null, "Timed out waiting for worker responses, in-flight chunks : " + this.inFlight.size());
+            } else {
+                this.permits.release(this.throttleLimit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failure.compareAndSet(null, "Interrupted while waiting for worker responses");
+        }
+
+        String message = this.failure.get();
+        stepExecution.getExecutionContext().putLong("remote.writeCount", this.writeCount);
+        if (message == null) {
+            return null;
+        }
+        stepExecution.setStatus(BatchStatus.FAILED);
+        stepExecution.addFailureException(new IllegalStateException(message));
+        return ExitStatus.FAILED.addExitDescription(message);
+    }
+
+    private void checkFailure() {
+        String message = this.failure.get();
+        if (message != null) {
+            throw new IllegalStateException("Worker failed to process chunk : " + message);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.springbatchguide.remote;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * remote-chunk-worker 프로파일로 실행하면 매니저(remoteChunkJob)가 보내는 청크를 받아 itemWriter 로 쓰는 워커가 된다.
+ * - chunk.remote.worker-port : 요청을 받을 포트 (기본 9090)
+ * - chunk.remote.worker-bind-address : 바인드할 주소 (기본 루프백. 다른 호스트의 매니저를 받으려면 0.0.0.0)
+ * 매니저는 chunk.remote.workers=host1:9090,host2:9090 으로 워커 목록을 지정한다.
+ */
+@Configuration
+@Profile("remote-chunk-worker")
+public class RemoteChunkWorkerConfiguration {
+
+    @Bean
+    public ChunkWorkerServer chunkWorkerServer(@Qualifier("itemWriter") ItemWriter<String> itemWriter,
+                                               @Value("${chunk.remote.worker-port:9090}") int port,
+                                               @Value("${chunk.remote.worker-bind-address:127.0.0.1}") String bindAddress) throws IOException {
+        return new ChunkWorkerServer(port, InetAddress.getByName(bindAddress), new ChunkWorker<String, String>(null, itemWriter));
+    }
+}
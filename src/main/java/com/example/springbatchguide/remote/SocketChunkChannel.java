@@ -0,0 +1,176 @@
+package com.example.springbatchguide.remote;
+
+import org.springframework.util.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChunkWorkerServer 들과 TCP 로 연결하는 ChunkChannel
+ * - 요청은 살아있는 연결에 라운드 로빈으로 보내고, 연결마다 응답을 읽는 스레드가 하나씩 있다.
+ * - 연결이 끊기면 해당 워커를 제외하고, 응답받지 못한 요청을 Listener.onUndelivered 로 돌려준다. (다른 워커로 다시 전송)
+ * - 끊긴 워커에 다시 연결하지는 않는다.
+ */
+public class SocketChunkChannel implements ChunkChannel {
+
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile Listener listener;
+
+    /**
+     * 연결할 수 없는 워커는 건너뛰고, 하나도 연결하지 못하면 예외를 던진다.
+     * @param workers
+     * @throws IOException
+     */
+    public SocketChunkChannel(List<InetSocketAddress> workers) throws IOException {
+        Assert.notEmpty(workers, "workers must not be empty");
+
+        IOException lastFailure = null;
+        for (InetSocketAddress worker : workers) {
+            try {
+                this.connections.add(new Connection(worker));
+            } catch (IOException e) {
+                lastFailure = e;
+            }
+        }
+        if (this.connections.isEmpty()) {
+            throw new IOException("Could not connect to any worker : " + workers, lastFailure);
+        }
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public int getConnectedWorkerCount() {
+        return this.connections.size();
+    }
+
+    @Override
+    public void send(ChunkRequest request) throws IOException {
+        while (true) {
+            List<Connection> alive = this.connections;
+            if (alive.isEmpty()) {
+                throw new IOException("No worker is connected");
+            }
+            Connection connection;
+            try {
+                connection = alive.get(Math.floorMod(this.next.getAndIncrement(), alive.size()));
+            } catch (IndexOutOfBoundsException e) {
+                // 다른 스레드가 연결을 제거한 경우
+                continue;
+            }
+            if (connection.send(request)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Connection connection : this.connections) {
+            connection.close(null);
+        }
+    }
+
+    private class Connection {
+
+        private final InetSocketAddress address;
+
+        private final Socket socket;
+
+        private final ObjectOutputStream out;
+
+        private final Map<Long, ChunkRequest> outstanding = new ConcurrentHashMap<>();
+
+        private boolean closed;
+
+        Connection(InetSocketAddress address) throws IOException {
+            this.address = address;
+            this.socket = new Socket();
+            this.socket.setTcpNoDelay(true);
+            this.socket.connect(address, 5_000);
+            this.out = new ObjectOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+            this.out.flush();
+
+            Thread reader = new Thread(this::readResponses, "chunk-channel-" + address.getPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        /**
+         * @return 보내지 못해 연결을 닫았으면 false
+         */
+        synchronized boolean send(ChunkRequest request) {
+            if (this.closed) {
+                return false;
+            }
+            this.outstanding.put(request.getSequence(), request);
+            try {
+                this.out.writeObject(request);
+                this.out.reset();
+                this.out.flush();
+                return true;
+            } catch (IOException e) {
+                this.outstanding.remove(request.getSequence());
+                close(e);
+                return false;
+            }
+        }
+
+        private void readResponses() {
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(this.socket.getInputStream()))) {
+                while (true) {
+                    ChunkResponse response = (ChunkResponse) in.readObject();
+                    if (this.outstanding.remove(response.getSequence()) != null && listener != null) {
+                        listener.onResponse(response);
+                    }
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                close(e);
+            }
+        }
+
+        /**
+         * 연결을 닫고 응답받지 못한 요청을 돌려준다.
+         * @param cause null 이면 채널을 정상 종료하는 경우
+         */
+        void close(Exception cause) {
+            List<ChunkRequest> undelivered;
+            synchronized (this) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                connections.remove(this);
+                try {
+                    this.socket.close();
+                } catch (IOException e) {
+                    // 무시
+                }
+                undelivered = new ArrayList<>(this.outstanding.values());
+                this.outstanding.clear();
+            }
+
+            if (cause != null && !undelivered.isEmpty() && listener != null) {
+                Collections.sort(undelivered, (a, b) -> Long.compare(a.getSequence(), b.getSequence()));
+                listener.onUndelivered(undelivered, new IOException("Lost connection to worker " + this.address, cause));
+            }
+        }
+    }
+}
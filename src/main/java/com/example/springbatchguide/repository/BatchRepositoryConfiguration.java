@@ -0,0 +1,116 @@
+package com.example.springbatchguide.repository;
+
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.batch.BasicBatchConfigurer;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * 잡 저장소 설정을 바꿀 때 스프링 부트의 BatchConfigurer 대신 사용하는 구성
+ * - batch.repository.durability=batched : WriteBehindJobRepository 로 스텝 메타데이터 저장을 모아서 처리
+ *   - batch.repository.flush-interval-chunks : 몇 번째 청크마다 스텝 메타데이터를 저장할지 (기본 10)
+ *   - batch.repository.flush-interval-millis : 마지막 저장 후 이 시간이 지나면 다음 청크에서 저장 (기본 1000)
+ *   장애 시 유실될 수 있는 범위는 WriteBehindJobRepository 참고
+ * - batch.repository.context-serializer=binary : ExecutionContext 를 BinaryExecutionContextSerializer 로 저장 (JobExplorer 포함)
+ *   - batch.repository.context-compression : 큰 컨텍스트를 압축할지 (기본 true)
+ */
+@Configuration
+@ConditionalOnExpression("'${batch.repository.durability:immediate}' == 'batched' or '${batch.repository.context-serializer:json}' == 'binary'")
+public class BatchRepositoryConfiguration {
+
+    @Bean
+    public BatchConfigurer batchRepositoryConfigurer(BatchProperties properties, DataSource dataSource,
+                                                     ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers,
+                                                     @Value("${batch.repository.durability:immediate}") String durability,
+                                                     @Value("${batch.repository.flush-interval-chunks:10}") int flushIntervalChunks,
+                                                     @Value("${batch.repository.flush-interval-millis:1000}") long flushIntervalMillis,
+                                                     @Value("${batch.repository.context-serializer:json}") String contextSerializer,
+                                                     @Value("${batch.repository.context-compression:true}") boolean contextCompression) {
+        ExecutionContextSerializer serializer = null;
+        if ("binary".equalsIgnoreCase(contextSerializer)) {
+            BinaryExecutionContextSerializer binarySerializer = new BinaryExecutionContextSerializer();
+            binarySerializer.setCompress(contextCompression);
+            serializer = binarySerializer;
+        }
+        boolean batched = "batched".equalsIgnoreCase(durability);
+
+        return new RepositoryBatchConfigurer(properties, dataSource, transactionManagerCustomizers.getIfAvailable(), serializer) {
+            @Override
+            protected JobRepository createJobRepository() throws Exception {
+                JobRepository jobRepository = super.createJobRepository();
+                return batched ? new WriteBehindJobRepository(jobRepository,
+                        WriteBehindJobRepository.Durability.BATCHED, flushIntervalChunks, flushIntervalMillis) : jobRepository;
+            }
+        };
+    }
+
+    /**
+     * serializer 가 있으면 JobRepository 와 JobExplorer 가 같은 직렬화기를 사용하도록 직접 만든다.
+     */
+    private static class RepositoryBatchConfigurer extends BasicBatchConfigurer {
+
+        private final BatchProperties properties;
+
+        private final DataSource dataSource;
+
+        private final ExecutionContextSerializer serializer;
+
+        RepositoryBatchConfigurer(BatchProperties properties, DataSource dataSource,
+                                  TransactionManagerCustomizers transactionManagerCustomizers, ExecutionContextSerializer serializer) {
+            super(properties, dataSource, transactionManagerCustomizers);
+            this.properties = properties;
+            this.dataSource = dataSource;
+            this.serializer = serializer;
+        }
+
+        @Override
+        protected JobRepository createJobRepository() throws Exception {
+            if (this.serializer == null) {
+                return super.createJobRepository();
+            }
+
+            JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+            factory.setDataSource(this.dataSource);
+            String isolationLevel = determineIsolationLevel();
+            if (isolationLevel != null) {
+                factory.setIsolationLevelForCreate(isolationLevel);
+            }
+            if (StringUtils.hasText(this.properties.getJdbc().getTablePrefix())) {
+                factory.setTablePrefix(this.properties.getJdbc().getTablePrefix());
+            }
+            factory.setTransactionManager(getTransactionManager());
+            factory.setSerializer(this.serializer);
+            factory.afterPropertiesSet();
+            return factory.getObject();
+        }
+
+        @Override
+        protected JobExplorer createJobExplorer() throws Exception {
+            if (this.serializer == null) {
+                return super.createJobExplorer();
+            }
+
+            JobExplorerFactoryBean factory = new JobExplorerFactoryBean();
+            factory.setDataSource(this.dataSource);
+            if (StringUtils.hasText(this.properties.getJdbc().getTablePrefix())) {
+                factory.setTablePrefix(this.properties.getJdbc().getTablePrefix());
+            }
+            factory.setSerializer(this.serializer);
+            factory.afterPropertiesSet();
+            return factory.getObject();
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.example.springbatchguide.repository;
+
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 스텝 / 잡 ExecutionContext 를 JSON 대신 바이너리로 직렬화하는 ExecutionContextSerializer
+ *
+ * [형식]
+ * 'bin1:' + Base64(플래그 1바이트 + 본문). 본문은 항목 수, (키, 타입 태그, 값) 의 반복이다.
+ * - 문자열은 UTF-8, 정수와 날짜는 가변 길이(zigzag varint), 실수는 고정 길이로 쓴다.
+ * - 스프링 배치가 항상 넣는 키와 클래스 이름(DICTIONARY)은 사전 번호로 쓴다.
+ * - 그 외 타입은 해당 값만 fallback(Jackson) 으로 직렬화해 그대로 담는다.
+ * - compressionThreshold 이상인 본문은 Deflater(BEST_SPEED) 로 압축하고, 작아질 때만 압축본을 쓴다.
+ * JdbcExecutionContextDao 는 결과를 문자열 컬럼에 저장하므로 DB 문자셋과 관계없이 안전하도록 Base64 로 감싼다.
+ *
+ * [호환성]
+ * 'bin1:' 로 시작하지 않는 데이터는 fallback 으로 읽으므로, 기존 JSON 으로 저장된 컨텍스트도 그대로 재시작할 수 있다.
+ * 반대로 이 직렬화기로 저장한 컨텍스트는 기본 설정의 JobExplorer / JobRepository 로 읽을 수 없다.
+ */
+public class BinaryExecutionContextSerializer implements ExecutionContextSerializer {
+
+    private static final byte[] PREFIX = "bin1:".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int FLAG_COMPRESSED = 1;
+
+    private static final String OBJECT_KEY = "value";
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte DATE = 7;
+    private static final byte FLOAT = 8;
+    private static final byte SHORT = 9;
+    private static final byte BYTE = 10;
+    private static final byte OBJECT = 11;
+
+    /**
+     * 스프링 배치가 모든 스텝 컨텍스트에 넣는 문자열. 문자열 대신 사전 번호로 저장한다. (순서를 바꾸면 기존 데이터를 읽을 수 없다)
+     */
+    private static final List<String> DICTIONARY = Arrays.asList(
+            "batch.taskletType",
+            "batch.stepType",
+            "batch.restart",
+            "batch.executed",
+            "org.springframework.batch.core.step.item.ChunkOrientedTasklet",
+            "org.springframework.batch.core.step.tasklet.TaskletStep",
+            "org.springframework.batch.core.partition.support.PartitionStep",
+            "org.springframework.batch.core.job.flow.FlowStep",
+            "org.springframework.batch.core.step.job.JobStep");
+
+    private static final Map<String, Integer> DICTIONARY_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < DICTIONARY.size(); i++) {
+            DICTIONARY_INDEX.put(DICTIONARY.get(i), i);
+        }
+    }
+
+    /**
+     * Deflater / Inflater 는 생성할 때 네이티브 버퍼를 할당하므로 커밋마다 만들지 않고 스레드별로 재사용한다.
+     */
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private final ExecutionContextSerializer fallback;
+
+    private boolean compress = true;
+
+    private int compressionThreshold = 512;
+
+    public BinaryExecutionContextSerializer() {
+        this(new Jackson2ExecutionContextStringSerializer());
+    }
+
+    /**
+     * @param fallback 지원하지 않는 타입의 값과 이전 형식의 데이터를 처리할 직렬화기
+     */
+    public BinaryExecutionContextSerializer(ExecutionContextSerializer fallback) {
+        Assert.notNull(fallback, "fallback must not be null");
+        this.fallback = fallback;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * 압축을 시도할 최소 본문 크기 (바이트)
+     * @param compressionThreshold
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public void serialize(Map<String, Object> context, OutputStream out) throws IOException {
+        Assert.notNull(context, "context must not be null");
+        Assert.notNull(out, "out must not be null");
+
+        Output body = new Output(256);
+        body.writeVarInt(context.size());
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            body.writeString(entry.getKey());
+            writeValue(body, entry.getValue());
+        }
+
+        int flags = 0;
+        byte[] payload = body.toByteArray();
+        if (this.compress && payload.length >= this.compressionThreshold) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length < payload.length) {
+                flags |= FLAG_COMPRESSED;
+                payload = compressed;
+            }
+        }
+
+        byte[] framed = new byte[payload.length + 1];
+        framed[0] = (byte) flags;
+        System.arraycopy(payload, 0, framed, 1, payload.length);
+
+        out.write(PREFIX);
+        out.write(Base64.getEncoder().encode(framed));
+    }
+
+    @Override
+    public Map<String, Object> deserialize(InputStream in) throws IOException {
+        byte[] bytes = in.readAllBytes();
+        if (!startsWithPrefix(bytes)) {
+            return this.fallback.deserialize(new ByteArrayInputStream(bytes));
+        }
+
+        byte[] framed = Base64.getDecoder().decode(Arrays.copyOfRange(bytes, PREFIX.length, bytes.length));
+        byte[] payload = Arrays.copyOfRange(framed, 1, framed.length);
+        if ((framed[0] & FLAG_COMPRESSED) != 0) {
+            payload = inflate(payload);
+        }
+
+        Input body = new Input(payload);
+        int size = body.readVarInt();
+        Map<String, Object> context = new HashMap<>((int) (size / 0.75f) + 1);
+        for (int i = 0; i < size; i++) {
+            String key = body.readString();
+            context.put(key, readValue(body));
+        }
+        return context;
+    }
+
+    private void writeValue(Output out, Object value) throws IOException {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof String) {
+            out.write(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.write(INTEGER);
+            out.writeVarLong((Integer) value);
+        } else if (value instanceof Long) {
+            out.write(LONG);
+            out.writeVarLong((Long) value);
+        } else if (value instanceof Double) {
+            out.write(DOUBLE);
+            out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else if (value.getClass() == Date.class) {
+            // java.sql.Timestamp 같은 하위 클래스는 타입이 바뀌지 않도록 OBJECT 로 저장
+            out.write(DATE);
+            out.writeVarLong(((Date) value).getTime());
+        } else if (value instanceof Float) {
+            out.write(FLOAT);
+            out.writeFixedInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Short) {
+            out.write(SHORT);
+            out.writeVarLong((Short) value);
+        } else if (value instanceof Byte) {
+            out.write(BYTE);
+            out.write((Byte) value);
+        } else {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            Map<String, Object> wrapper = new HashMap<>(2);
+            wrapper.put(OBJECT_KEY, value);
+            this.fallback.serialize(wrapper, json);
+            out.write(OBJECT);
+            out.writeLengthPrefixed(json.toByteArray());
+        }
+    }
+
+    private Object readValue(Input in) throws IOException {
+        byte tag = in.read();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readString();
+            case INTEGER:
+                return (int) in.readVarLong();
+            case LONG:
+                return in.readVarLong();
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readFixedLong());
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case DATE:
+                return new Date(in.readVarLong());
+            case FLOAT:
+                return Float.intBitsToFloat(in.readFixedInt());
+            case SHORT:
+                return (short) in.readVarLong();
+            case BYTE:
+                return in.read();
+            case OBJECT:
+                return this.fallback.deserialize(new ByteArrayInputStream(in.readLengthPrefixed())).get(OBJECT_KEY);
+            default:
+                throw new IOException("Unknown value tag : " + tag);
+        }
+    }
+
+    private static boolean startsWithPrefix(byte[] bytes) {
+        if (bytes.length < PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < PREFIX.length; i++) {
+            if (bytes[i] != PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+
+        Output out = new Output(payload.length / 2 + 16);
+        out.writeVarInt(payload.length);
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            out.write(buffer, 0, length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        Input in = new Input(compressed);
+        byte[] payload = new byte[in.readVarInt()];
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed, in.position, compressed.length - in.position);
+        try {
+            int length = 0;
+            while (length < payload.length) {
+                int inflated = inflater.inflate(payload, length, payload.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != payload.length) {
+                throw new IOException("Truncated execution context : expected " + payload.length + " bytes but was " + length);
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted execution context", e);
+        }
+    }
+
+    /**
+     * 동기화하지 않는 ByteArrayOutputStream (바이트 단위로 쓰는 varint 인코딩에서 락 비용이 크다)
+     */
+    private static class Output {
+
+        private byte[] buffer;
+
+        private int count;
+
+        Output(int size) {
+            this.buffer = new byte[size];
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            this.buffer[this.count++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, this.buffer, this.count, length);
+            this.count += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(this.buffer, this.count);
+        }
+
+        private void ensureCapacity(int length) {
+            if (this.count + length > this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.count + length));
+            }
+        }
+
+        void writeVarInt(int value) {
+            writeUnsigned(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        void writeFixedInt(int value) {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void writeFixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        /**
+         * 짝수면 (길이 << 1) 뒤에 UTF-8 바이트, 홀수면 (사전 번호 << 1 | 1)
+         */
+        void writeString(String value) {
+            Integer index = DICTIONARY_INDEX.get(value);
+            if (index != null) {
+                writeVarInt(index << 1 | 1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length << 1);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeLengthPrefixed(byte[] bytes) {
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        private void writeUnsigned(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+
+    private static class Input {
+
+        private final byte[] bytes;
+
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        byte read() throws IOException {
+            if (this.position >= this.bytes.length) {
+                throw new IOException("Unexpected end of execution context");
+            }
+            return this.bytes[this.position++];
+        }
+
+        int readVarInt() throws IOException {
+            return (int) readUnsigned();
+        }
+
+        long readVarLong() throws IOException {
+            long value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readFixedInt() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (read() & 0xFF);
+            }
+            return value;
+        }
+
+        long readFixedLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (read() & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() throws IOException {
+            int header = readVarInt();
+            if ((header & 1) != 0) {
+                int index = header >>> 1;
+                if (index >= DICTIONARY.size()) {
+                    throw new IOException("Unknown dictionary index : " + index);
+                }
+                return DICTIONARY.get(index);
+            }
+            int length = header >>> 1;
+            checkAvailable(length);
+            String value = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return value;
+        }
+
+        byte[] readLengthPrefixed() throws IOException {
+            int length = readVarInt();
+            checkAvailable(length);
+            byte[] value = Arrays.copyOfRange(this.bytes, this.position, this.position + length);
+            this.position += length;
+            return value;
+        }
+
+        private long readUnsigned() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in execution context");
+        }
+
+        private void checkAvailable(int length) throws IOException {
+            if (length < 0 || length > this.bytes.length - this.position) {
+                throw new IOException("Unexpected end of execution context");
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.springbatchguide.repository;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.util.Assert;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 청크마다 발생하는 BATCH_STEP_EXECUTION / BATCH_STEP_EXECUTION_CONTEXT 갱신을 모아서 쓰는 JobRepository 데코레이터
+ *
+ * [Durability.IMMEDIATE]
+ * 모든 호출을 그대로 위임한다. (기본 동작과 같음)
+ *
+ * [Durability.BATCHED]
+ * - 실행 중인 스텝의 StepExecution 과 ExecutionContext 갱신은 메모리에만 반영하고,
+ *   flushIntervalChunks 번째 청크마다 또는 마지막 저장 후 flushIntervalMillis 가 지난 첫 청크에서 최신 상태만 한 번에 저장한다.
+ * - 상태(BatchStatus)가 바뀌는 갱신(스텝 시작, 완료, 실패, 중지)은 항상 즉시 저장한다.
+ * - 저장은 해당 청크의 트랜잭션 안에서 일어나므로 메타데이터는 항상 커밋된 청크와 일치하는 시점의 상태다.
+ *
+ * [장애 시 보장 범위]
+ * 프로세스가 비정상 종료되면 마지막 저장 이후에 커밋된 청크(최대 flushIntervalChunks - 1 개, 또는 flushIntervalMillis 동안의 청크)의
+ * 진행 정보가 유실된다. 재시작 시 해당 청크들은 다시 처리되므로 라이터는 같은 아이템을 다시 써도 안전해야 한다. (at-least-once)
+ * 잡 중지 요청(STOPPING)도 저장 시점에만 확인되므로 같은 범위만큼 늦게 반영된다.
+ * 잡 단위의 갱신과 조회는 모두 그대로 위임한다.
+ */
+public class WriteBehindJobRepository implements JobRepository {
+
+    public enum Durability {
+        IMMEDIATE,
+        BATCHED
+    }
+
+    private final JobRepository delegate;
+
+    private final Durability durability;
+
+    private final int flushIntervalChunks;
+
+    private final long flushIntervalNanos;
+
+    private final Map<Long, PendingStepExecution> pendingStepExecutions = new ConcurrentHashMap<>();
+
+    public WriteBehindJobRepository(JobRepository delegate, Durability durability, int flushIntervalChunks, long flushIntervalMillis) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.notNull(durability, "durability must not be null");
+        Assert.isTrue(flushIntervalChunks > 0, "flushIntervalChunks must be greater than 0");
+        Assert.isTrue(flushIntervalMillis > 0, "flushIntervalMillis must be greater than 0");
+
+        this.delegate = delegate;
+        this.durability = durability;
+        this.flushIntervalChunks = flushIntervalChunks;
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000L;
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        if (this.durability == Durability.IMMEDIATE || stepExecution.getId() == null) {
+            this.delegate.update(stepExecution);
+            return;
+        }
+
+        PendingStepExecution pending = this.pendingStepExecutions.get(stepExecution.getId());
+        if (pending == null || pending.flushedStatus != stepExecution.getStatus() || !stepExecution.getStatus().isRunning()) {
+            flush(stepExecution, pending);
+            return;
+        }
+
+        pending.dirtyExecution = true;
+        pending.deferredChunks++;
+        if (pending.deferredChunks >= this.flushIntervalChunks
+                || System.nanoTime() - pending.lastFlushNanos >= this.flushIntervalNanos) {
+            flush(stepExecution, pending);
+        }
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        PendingStepExecution pending = stepExecution.getId() != null
+                ? this.pendingStepExecutions.get(stepExecution.getId()) : null;
+
+        // 아직 추적 중이 아닌 스텝(시작 전/완료 후)은 바로 저장하고, 실행 중인 스텝은 다음 저장 때 함께 저장한다.
+        if (this.durability == Durability.IMMEDIATE || pending == null || !stepExecution.getStatus().isRunning()) {
+            this.delegate.updateExecutionContext(stepExecution);
+            if (pending != null) {
+                pending.dirtyContext = false;
+            }
+            return;
+        }
+        pending.dirtyContext = true;
+    }
+
+    /**
+     * 미뤄둔 ExecutionContext 와 StepExecution 을 저장한다. 실행이 끝난 스텝은 추적 대상에서 제외한다.
+     * @param stepExecution
+     * @param pending
+     */
+    private void flush(StepExecution stepExecution, PendingStepExecution pending) {
+        if (pending != null && pending.dirtyContext) {
+            this.delegate.updateExecutionContext(stepExecution);
+        }
+        this.delegate.update(stepExecution);
+
+        BatchStatus status = stepExecution.getStatus();
+        if (!status.isRunning()) {
+            this.pendingStepExecutions.remove(stepExecution.getId());
+            return;
+        }
+
+        PendingStepExecution current = pending != null ? pending : new PendingStepExecution();
+        current.flushedStatus = status;
+        current.dirtyContext = false;
+        current.dirtyExecution = false;
+        current.deferredChunks = 0;
+        current.lastFlushNanos = System.nanoTime();
+        this.pendingStepExecutions.put(stepExecution.getId(), current);
+    }
+
+    /**
+     * 아직 저장되지 않은 스텝 실행 수 (모니터링 / 테스트용)
+     * @return
+     */
+    public int getPendingStepExecutionCount() {
+        return (int) this.pendingStepExecutions.values().stream()
+                .filter(pending -> pending.dirtyContext || pending.dirtyExecution)
+                .count();
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return this.delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return this.delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(JobInstance jobInstance, JobParameters jobParameters, String jobConfigurationLocation) {
+        return this.delegate.createJobExecution(jobInstance, jobParameters, jobConfigurationLocation);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return this.delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        this.delegate.update(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        this.delegate.add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        this.delegate.addAll(stepExecutions);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        this.delegate.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return this.delegate.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public int getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return this.delegate.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return this.delegate.getLastJobExecution(jobName, jobParameters);
+    }
+
+    private static class PendingStepExecution {
+
+        private BatchStatus flushedStatus;
+
+        private boolean dirtyContext;
+
+        private boolean dirtyExecution;
+
+        private int deferredChunks;
+
+        private long lastFlushNanos;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springbatchguide.sort;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 정렬된 런 파일에 아이템을 쓰고 읽는 바이너리 형식. 레코드 경계는 코덱이 스스로 알아야 한다. (길이 접두사 등)
+ */
+public interface RunCodec<T> {
+
+    void write(T item, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    /**
+     * 2 바이트 길이 + modified UTF-8 (DataOutput.writeUTF). 인코딩 결과가 64 KiB 를 넘는 문자열은 쓸 수 없다.
+     * @return
+     */
+    static RunCodec<String> strings() {
+        return new RunCodec<String>() {
+            @Override
+            public void write(String item, DataOutput out) throws IOException {
+                out.writeUTF(item);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                return in.readUTF();
+            }
+        };
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.springbatchguide.sort;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * 외부 정렬의 두 번째 단계 : SortedRunWriter 가 만든 런 파일들을 k-way 병합해 정렬된 순서로 하나씩 반환하는 ItemReader
+ *
+ * 런마다 다음 아이템 하나와 bufferSize 만큼의 읽기 버퍼만 메모리에 두므로, 힙 사용량은 입력 크기가 아니라 런 수에 비례한다.
+ * 비교 값이 같으면 앞 런의 아이템을 먼저 반환하므로, 런 안의 정렬과 합쳐 입력 순서가 유지된다. (안정 정렬)
+ *
+ * [재시작]
+ * 런마다 아직 반환하지 않은 첫 아이템의 바이트 위치를 ExecutionContext 에 저장하고, 재시작하면 그 위치부터 이어서 읽는다.
+ * 런 파일과 비게 된 런 디렉터리는 스텝이 COMPLETED 로 끝났을 때만 지운다. (deleteRunsOnCompletion, 리스너로 등록해야 함)
+ */
+public class SortedRunMergeReader<T> extends ItemStreamSupport implements ItemStreamReader<T>, StepExecutionListener {
+
+    private static final String OFFSETS_KEY = "offsets";
+
+    private static final String READ_COUNT_KEY = "read.count";
+
+    private final List<Path> runs;
+
+    private final RunCodec<T> codec;
+
+    private final Comparator<? super T> comparator;
+
+    private int bufferSize = 64 * 1024;
+
+    private boolean deleteRunsOnCompletion = true;
+
+    private List<RunCursor> cursors = new ArrayList<>();
+
+    private PriorityQueue<RunCursor> queue;
+
+    private long readCount;
+
+    public SortedRunMergeReader(List<Path> runs, RunCodec<T> codec, Comparator<? super T> comparator) {
+        Assert.notNull(runs, "runs must not be null");
+        Assert.notNull(codec, "codec must not be null");
+        Assert.notNull(comparator, "comparator must not be null");
+        this.runs = new ArrayList<>(runs);
+        this.codec = codec;
+        this.comparator = comparator;
+        setName(ClassUtils.getShortName(SortedRunMergeReader.class));
+    }
+
+    public void setBufferSize(int bufferSize) {
+        Assert.isTrue(bufferSize > 0, "bufferSize must be greater than 0");
+        this.bufferSize = bufferSize;
+    }
+
+    public void setDeleteRunsOnCompletion(boolean deleteRunsOnCompletion) {
+        this.deleteRunsOnCompletion = deleteRunsOnCompletion;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        long[] offsets = new long[this.runs.size()];
+        String offsetsKey = getExecutionContextKey(OFFSETS_KEY);
+        if (executionContext.containsKey(offsetsKey)) {
+            String[] saved = executionContext.getString(offsetsKey).split(",");
+            Assert.state(saved.length == offsets.length, "Saved offsets do not match the number of runs");
+            for (int i = 0; i < saved.length; i++) {
+                offsets[i] = Long.parseLong(saved[i]);
+            }
+        }
+        this.readCount = executionContext.getLong(getExecutionContextKey(READ_COUNT_KEY), 0);
+
+        this.queue = new PriorityQueue<>(Math.max(1, this.runs.size()), (left, right) -> {
+            int compared = this.comparator.compare(left.head, right.head);
+            return compared != 0 ? compared : Integer.compare(left.index, right.index);
+        });
+        this.cursors = new ArrayList<>(this.runs.size());
+        try {
+            for (int i = 0; i < this.runs.size(); i++) {
+                RunCursor cursor = new RunCursor(i, this.runs.get(i), offsets[i]);
+                this.cursors.add(cursor);
+                if (cursor.head != null) {
+                    this.queue.add(cursor);
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw new ItemStreamException("Failed to open sorted runs", e);
+        }
+    }
+
+    @Override
+    public T read() throws Exception {
+        RunCursor cursor = this.queue.poll();
+        if (cursor == null) {
+            return null;
+        }
+        T item = cursor.head;
+        cursor.advance();
+        if (cursor.head != null) {
+            this.queue.add(cursor);
+        }
+        this.readCount++;
+        return item;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putString(getExecutionContextKey(OFFSETS_KEY),
+                this.cursors.stream().map(cursor -> String.valueOf(cursor.headOffset)).collect(Collectors.joining(",")));
+        executionContext.putLong(getExecutionContextKey(READ_COUNT_KEY), this.readCount);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        for (RunCursor cursor : this.cursors) {
+            try {
+                cursor.in.close();
+            } catch (IOException e) {
+                // 읽기 전용이므로 닫기 실패는 무시한다.
+            }
+        }
+        this.cursors = new ArrayList<>();
+        this.queue = null;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (this.deleteRunsOnCompletion && stepExecution.getStatus() == BatchStatus.COMPLETED) {
+            for (Path run : this.runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to delete sorted run " + run, e);
+                }
+            }
+            // 런을 모두 지운 잡 인스턴스 디렉터리({directory}/{jobInstanceId})도 지운다.
+            for (Path runDirectory : this.runs.stream().map(Path::getParent).distinct().collect(Collectors.toList())) {
+                deleteIfEmpty(runDirectory);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 비어 있는 디렉터리만 지운다.
+     */
+    static void deleteIfEmpty(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (DirectoryNotEmptyException e) {
+            // 다른 파일이 남아 있으면 그대로 둔다.
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to delete run directory " + directory, e);
+        }
+    }
+
+    /**
+     * 런 파일 하나의 읽기 위치. head 는 아직 반환하지 않은 다음 아이템이고, headOffset 은 그 아이템의 시작 위치다.
+     */
+    private class RunCursor {
+
+        private final int index;
+
+        private final long length;
+
+        private final CountingInputStream counter;
+
+        private final DataInputStream in;
+
+        private T head;
+
+        private long headOffset;
+
+        RunCursor(int index, Path run, long offset) throws IOException {
+            this.index = index;
+            FileChannel channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.length = channel.size();
+            channel.position(offset);
+            this.counter = new CountingInputStream(new BufferedInputStream(Channels.newInputStream(channel), bufferSize), offset);
+            this.in = new DataInputStream(this.counter);
+            advance();
+        }
+
+        void advance() throws IOException {
+            this.headOffset = this.counter.count;
+            this.head = this.headOffset < this.length ? codec.read(this.in) : null;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in, long count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                this.count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                this.count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            this.count += skipped;
+            return skipped;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + Arrays.toString(this.runs.toArray());
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.springbatchguide.sort;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 외부 정렬의 첫 단계 : 청크 하나를 메모리에서 정렬해 런 파일 하나로 내보내는 ItemWriter
+ *
+ * [메모리 예산]
+ * 런 하나의 크기는 청크 크기이므로 ByteBudgetCompletionPolicy 로 청크를 닫으면 힙에는 런 하나만큼만 올라온다.
+ * parallelSortThreshold 건 이상인 런은 Arrays.parallelSort 로 여러 스레드에서 정렬한다. (안정 정렬)
+ *
+ * [런 디렉터리]
+ * 런 파일은 directory 아래 잡 인스턴스 ID 디렉터리({directory}/{jobInstanceId}/{name}-000000.run)에 만든다.
+ * 다른 잡 인스턴스가 재시작을 기다리는 인스턴스의 런을 덮어쓰지 않고, 버려진 인스턴스의 런은 인스턴스 ID 로 찾아 지울 수 있다.
+ *
+ * [재시작]
+ * 커밋된 런 목록과 다음 런 번호를 ExecutionContext 에 저장한다. 스텝이 실패하면 이미 만든 런은 그대로 두고,
+ * 재시작 시 마지막 커밋 이후의 아이템만 다시 읽어 다음 번호의 런으로 쓴다. (커밋되지 못한 런 파일은 같은 이름으로 덮어쓴다)
+ * 커밋된 런 파일이 없어졌으면 정렬 결과가 빠지므로 open 에서 실패한다.
+ *
+ * 스텝이 COMPLETED 로 끝나면 런 목록을 잡 ExecutionContext 의 '{name}.runs' 키로 올려서 다음 스텝의 SortedRunMergeReader 가 읽게 한다.
+ * 리스너로 등록해야 한다. (청크 스텝의 writer 로 지정하면 자동으로 등록된다)
+ */
+public class SortedRunWriter<T> implements ItemStreamWriter<T>, StepExecutionListener {
+
+    private static final String RUNS_KEY = "runs";
+
+    private static final String NEXT_RUN_KEY = "nextRun";
+
+    private final Path directory;
+
+    private final String name;
+
+    private final RunCodec<T> codec;
+
+    private final Comparator<? super T> comparator;
+
+    private int bufferSize = 64 * 1024;
+
+    private int parallelSortThreshold = 8192;
+
+    private final List<Path> runs = new ArrayList<>();
+
+    private Path runDirectory;
+
+    private int nextRun;
+
+    public SortedRunWriter(Path directory, String name, RunCodec<T> codec, Comparator<? super T> comparator) {
+        Assert.notNull(directory, "directory must not be null");
+        Assert.hasText(name, "name must not be empty");
+        Assert.notNull(codec, "codec must not be null");
+        Assert.notNull(comparator, "comparator must not be null");
+        this.directory = directory;
+        this.name = name;
+        this.codec = codec;
+        this.comparator = comparator;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        Assert.isTrue(bufferSize > 0, "bufferSize must be greater than 0");
+        this.bufferSize = bufferSize;
+    }
+
+    public void setParallelSortThreshold(int parallelSortThreshold) {
+        this.parallelSortThreshold = parallelSortThreshold;
+    }
+
+    /**
+     * 잡 ExecutionContext 에서 런 목록을 찾을 키
+     * @param name
+     * @return
+     */
+    public static String runsKey(String name) {
+        return name + "." + RUNS_KEY;
+    }
+
+    public static List<Path> parseRuns(String runs) {
+        if (!StringUtils.hasText(runs)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(runs.split(File.pathSeparator)).map(Paths::get).collect(Collectors.toList());
+    }
+
+    private static String formatRuns(List<Path> runs) {
+        return runs.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator));
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.runDirectory == null) {
+            throw new ItemStreamException("SortedRunWriter must be registered as a StepExecutionListener");
+        }
+        this.runs.clear();
+        this.runs.addAll(parseRuns(executionContext.getString(key(RUNS_KEY), "")));
+        this.nextRun = executionContext.getInt(key(NEXT_RUN_KEY), 0);
+
+        for (Path run : this.runs) {
+            if (!Files.isRegularFile(run)) {
+                throw new ItemStreamException("Committed run " + run + " is missing, the job instance cannot be restarted");
+            }
+        }
+        try {
+            Files.createDirectories(this.runDirectory);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to create run directory " + this.runDirectory, e);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putString(key(RUNS_KEY), formatRuns(this.runs));
+        executionContext.putInt(key(NEXT_RUN_KEY), this.nextRun);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+    }
+
+    private String key(String suffix) {
+        return this.name + "." + suffix;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(List<? extends T> items) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+        T[] sorted = (T[]) items.toArray();
+        if (sorted.length >= this.parallelSortThreshold) {
+            Arrays.parallelSort(sorted, this.comparator);
+        } else {
+            Arrays.sort(sorted, this.comparator);
+        }
+
+        Path run = this.runDirectory.resolve(String.format("%s-%06d.run", this.name, this.nextRun));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), this.bufferSize))) {
+            for (T item : sorted) {
+                this.codec.write(item, out);
+            }
+        }
+        this.runs.add(run);
+        this.nextRun++;
+    }
+
+    public List<Path> getRuns() {
+        return Collections.unmodifiableList(this.runs);
+    }
+
+    /**
+     * open 보다 먼저 호출되므로 여기서 잡 인스턴스의 런 디렉터리를 정한다.
+     * @param stepExecution
+     */
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.runDirectory = this.directory.resolve(String.valueOf(stepExecution.getJobExecution().getJobId()));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED) {
+            stepExecution.getJobExecution().getExecutionContext().putString(runsKey(this.name), formatRuns(this.runs));
+            // 런이 없으면 병합 스텝이 디렉터리를 알 수 없으므로 여기서 지운다.
+            if (this.runs.isEmpty()) {
+                SortedRunMergeReader.deleteIfEmpty(this.runDirectory);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.springbatchguide.writer;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * AsyncItemProcessor 가 반환한 Future 들을 입력 순서대로 기다린 뒤 결과를 delegate 로 쓰는 ItemWriter
+ * - 결과가 null 인(필터링된) 아이템은 쓰지 않는다.
+ * - 처리 중 발생한 예외는 원래 예외로 풀어서 던지므로 스텝의 skip / retry 설정이 그대로 적용된다.
+ * - delegate 가 ItemStream 이면 open / update / close 도 위임한다.
+ */
+public class AsyncItemWriter<T> implements ItemStreamWriter<Future<T>> {
+
+    private final ItemWriter<T> delegate;
+
+    public AsyncItemWriter(ItemWriter<T> delegate) {
+        Assert.notNull(delegate, "delegate must not be null");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(List<? extends Future<T>> items) throws Exception {
+        List<T> results = new ArrayList<>(items.size());
+        for (Future<T> future : items) {
+            T result;
+            try {
+                result = future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        this.delegate.write(results);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.delegate instanceof ItemStream) {
+            ((ItemStream) this.delegate).open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.delegate instanceof ItemStream) {
+            ((ItemStream) this.delegate).update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (this.delegate instanceof ItemStream) {
+            ((ItemStream) this.delegate).close();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.springbatchguide.writer;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.support.transaction.FlushFailedException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 청크 단위로 버퍼링해서 한 번에 쓰는 ItemWriter (System.out.println 을 아이템마다 호출하는 방식의 대체)
+ * - 청크 전체를 재사용 가능한 버퍼 하나에 인코딩한 뒤, 청크당 한 번만 FileChannel 또는 표준 출력에 쓴다.
+ * - 트랜잭션이 커밋된 뒤(afterCommit)에만 버퍼를 내보내므로, 롤백된 청크는 절대 출력되지 않는다.
+ * - asyncFlush 를 켜면 커밋된 버퍼를 크기가 제한된 큐에 넣고 백그라운드 스레드가 쓴다.
+ *   큐가 가득 차면 커밋 스레드가 대기하므로 메모리 사용량이 제한된다.
+ * [주의사항]
+ * 비동기 모드에서는 커밋되었지만 아직 쓰이지 않은 청크(최대 queueCapacity 개)가 프로세스 비정상 종료 시 유실될 수 있다.
+ * 버퍼는 트랜잭션(스레드)별로 바인딩되므로 멀티 스레드 스텝이나 파티션 워커들이 공유해도 된다.
+ */
+public class BufferedChannelItemWriter<T> implements ItemStreamWriter<T> {
+
+    /**
+     * 아이템 하나를 한 줄로 인코딩. 중간 문자열을 만들지 않고 버퍼에 바로 이어 붙인다.
+     */
+    @FunctionalInterface
+    public interface ItemEncoder<T> {
+        void encode(T item, StringBuilder line);
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final ChunkBuffer poisonPill = new ChunkBuffer(0);
+
+    private final ItemEncoder<T> itemEncoder;
+
+    private final Path path;
+
+    private final Queue<ChunkBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+
+    private Charset charset = StandardCharsets.UTF_8;
+
+    private String lineSeparator = System.lineSeparator();
+
+    private boolean append;
+
+    private boolean asyncFlush;
+
+    private int queueCapacity = 16;
+
+    private WritableByteChannel channel;
+
+    private int openCount;
+
+    private volatile BlockingQueue<ChunkBuffer> flushQueue;
+
+    private volatile Thread flusher;
+
+    private volatile Throwable flushError;
+
+    /**
+     * 파일로 출력
+     * @param path
+     * @param itemEncoder
+     */
+    public BufferedChannelItemWriter(Path path, ItemEncoder<T> itemEncoder) {
+        Assert.notNull(path, "path must not be null");
+        Assert.notNull(itemEncoder, "itemEncoder must not be null");
+        this.path = path;
+        this.itemEncoder = itemEncoder;
+    }
+
+    private BufferedChannelItemWriter(WritableByteChannel channel, ItemEncoder<T> itemEncoder) {
+        Assert.notNull(itemEncoder, "itemEncoder must not be null");
+        this.path = null;
+        this.channel = channel;
+        this.itemEncoder = itemEncoder;
+    }
+
+    /**
+     * 표준 출력으로 출력. 표준 출력 채널은 close 시에도 닫지 않는다.
+     * @param itemEncoder
+     * @return
+     */
+    public static <T> BufferedChannelItemWriter<T> stdout(ItemEncoder<T> itemEncoder) {
+        return new BufferedChannelItemWriter<>(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), itemEncoder);
+    }
+
+    public void setCharset(Charset charset) {
+        Assert.notNull(charset, "charset must not be null");
+        this.charset = charset;
+    }
+
+    public void setLineSeparator(String lineSeparator) {
+        Assert.notNull(lineSeparator, "lineSeparator must not be null");
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * true 면 기존 파일 뒤에 이어서 쓰고, false 면 파일을 비우고 새로 쓴다. (파일 출력에만 적용)
+     * @param append
+     */
+    public void setAppend(boolean append) {
+        this.append = append;
+    }
+
+    public void setAsyncFlush(boolean asyncFlush) {
+        this.asyncFlush = asyncFlush;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than 0");
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 여러 스텝(파티션)이 같은 인스턴스를 공유할 수 있도록 처음 열릴 때만 채널과 플러시 스레드를 준비한다.
+     * @param executionContext
+     */
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.openCount++ > 0) {
+            return;
+        }
+        this.flushError = null;
+
+        if (this.path != null) {
+            try {
+                this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        this.append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to open " + this.path, e);
+            }
+        }
+
+        if (this.asyncFlush) {
+            BlockingQueue<ChunkBuffer> queue = new ArrayBlockingQueue<>(this.queueCapacity);
+            this.flushQueue = queue;
+            this.flusher = new Thread(() -> flushLoop(queue), "chunk-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+    }
+
+    /**
+     * 대기 중인 버퍼를 모두 쓴 뒤 채널을 닫는다.
+     */
+    @Override
+    public synchronized void close() throws ItemStreamException {
+        if (this.openCount == 0 || --this.openCount > 0) {
+            return;
+        }
+
+        try {
+            if (this.flusher != null) {
+                this.flushQueue.put(this.poisonPill);
+                this.flusher.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ItemStreamException("Interrupted while waiting for pending chunks to be flushed", e);
+        } finally {
+            this.flusher = null;
+            this.flushQueue = null;
+            closeChannel();
+        }
+        checkFlushError();
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        checkFlushError();
+
+        ChunkBuffer buffer = currentBuffer();
+        for (T item : items) {
+            this.itemEncoder.encode(item, buffer.text);
+            buffer.text.append(this.lineSeparator);
+        }
+
+        // 트랜잭션 밖에서 호출되면 바로 쓴다.
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flushChunk(buffer);
+        }
+    }
+
+    /**
+     * 트랜잭션마다 버퍼 하나를 바인딩하고, 커밋되면 내보내고 롤백되면 버린다.
+     * 재시도/스캔으로 같은 트랜잭션 안에서 write 가 여러 번 호출되면 같은 버퍼에 이어 쓴다.
+     * @return
+     */
+    private ChunkBuffer currentBuffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return acquire();
+        }
+
+        ChunkBuffer buffer = (ChunkBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            ChunkBuffer transactionBuffer = acquire();
+            TransactionSynchronizationManager.bindResource(this, transactionBuffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    flushChunk(transactionBuffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BufferedChannelItemWriter.this);
+                    if (status != STATUS_COMMITTED) {
+                        release(transactionBuffer);
+                    }
+                }
+            });
+            buffer = transactionBuffer;
+        }
+        return buffer;
+    }
+
+    private void flushChunk(ChunkBuffer buffer) {
+        buffer.encode(this.charset);
+
+        BlockingQueue<ChunkBuffer> queue = this.flushQueue;
+        if (queue == null) {
+            try {
+                writeFully(buffer.bytes);
+            } finally {
+                release(buffer);
+            }
+            return;
+        }
+
+        try {
+            queue.put(buffer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(buffer);
+            throw new FlushFailedException("Interrupted while queueing a chunk for flush", e);
+        }
+    }
+
+    private void flushLoop(BlockingQueue<ChunkBuffer> queue) {
+        while (true) {
+            ChunkBuffer buffer;
+            try {
+                buffer = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (buffer == this.poisonPill) {
+                return;
+            }
+
+            try {
+                if (this.flushError == null) {
+                    writeFully(buffer.bytes);
+                }
+            } catch (Throwable t) {
+                this.flushError = t;
+            } finally {
+                release(buffer);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) {
+        Assert.state(this.channel != null, "Writer must be opened before it can be written to");
+
+        // 한 청크의 바이트가 다른 청크와 섞이지 않도록 채널 단위로 직렬화
+        synchronized (this.channel) {
+            try {
+                while (bytes.hasRemaining()) {
+                    this.channel.write(bytes);
+                }
+            } catch (IOException e) {
+                throw new FlushFailedException("Could not write chunk to " + describeTarget(), e);
+            }
+        }
+    }
+
+    private void checkFlushError() {
+        Throwable error = this.flushError;
+        if (error != null) {
+            throw new FlushFailedException("Could not write chunk to " + describeTarget(), error);
+        }
+    }
+
+    private void closeChannel() {
+        if (this.path == null || this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close " + this.path, e);
+        } finally {
+            this.channel = null;
+        }
+    }
+
+    private String describeTarget() {
+        return this.path != null ? this.path.toString() : "stdout";
+    }
+
+    private ChunkBuffer acquire() {
+        ChunkBuffer buffer = this.bufferPool.poll();
+        return buffer != null ? buffer : new ChunkBuffer(DEFAULT_BUFFER_SIZE);
+    }
+
+    private void release(ChunkBuffer buffer) {
+        buffer.clear();
+        this.bufferPool.offer(buffer);
+    }
+
+    /**
+     * 청크 하나를 담는 재사용 버퍼. 문자 버퍼와 인코딩된 바이트 버퍼를 함께 재사용한다.
+     */
+    private static class ChunkBuffer {
+
+        private final StringBuilder text;
+
+        private ByteBuffer bytes;
+
+        private CharsetEncoder encoder;
+
+        ChunkBuffer(int capacity) {
+            this.text = new StringBuilder(capacity);
+            this.bytes = ByteBuffer.allocateDirect(capacity);
+        }
+
+        void encode(Charset charset) {
+            if (this.encoder == null || !this.encoder.charset().equals(charset)) {
+                this.encoder = charset.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
+
+            int required = (int) Math.ceil(this.text.length() * (double) this.encoder.maxBytesPerChar());
+            if (this.bytes.capacity() < required) {
+                this.bytes = ByteBuffer.allocateDirect(Math.max(required, this.bytes.capacity() * 2));
+            }
+
+            this.bytes.clear();
+            this.encoder.reset();
+            this.encoder.encode(CharBuffer.wrap(this.text), this.bytes, true);
+            this.encoder.flush(this.bytes);
+            this.bytes.flip();
+        }
+
+        void clear() {
+            this.text.setLength(0);
+            this.bytes.clear();
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.springbatchguide.writer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 청크를 INSERT INTO table (c1, c2) VALUES (?, ?), (?, ?), ... 형태의 다중 행 INSERT 로 쓰는 ItemWriter
+ * JdbcBatchItemWriter 는 아이템마다 한 행짜리 INSERT 를 배치로 보내므로, 드라이버 설정(rewriteBatchedStatements)이 없으면 행마다 왕복한다.
+ *
+ * [문장 크기]
+ * 한 문장의 행 수는 maxRowsPerStatement, 파라미터 수 제한(65535), maxPacketBytes / estimatedRowBytes 중 가장 작은 값이다.
+ * MySQL 의 max_allowed_packet 을 넘지 않도록 maxPacketBytes 는 서버 설정보다 작게 둔다.
+ * 같은 행 수의 SQL 은 한 번만 만들고, 청크 안에서는 같은 PreparedStatement 를 재사용한다.
+ * (청크 간 재사용은 MySQL 드라이버의 cachePrepStmts=true 설정으로 처리)
+ *
+ * [병렬 쓰기]
+ * parallelism 이 2 이상이면 청크를 나눠 첫 조각은 스텝 트랜잭션의 커넥션으로, 나머지는 별도 커넥션으로 동시에 쓴다.
+ * 별도 커넥션은 스텝 트랜잭션의 커밋 직전(beforeCommit)에 커밋되고 롤백되면 함께 롤백된다.
+ * 단, 별도 커넥션이 커밋된 뒤 스텝 트랜잭션 커밋이 실패하면 해당 조각은 남으므로, 재실행해도 안전한 테이블(스테이징, INSERT IGNORE 등)에만 사용한다.
+ *
+ * [테이블 생성]
+ * createTableSql 을 지정하면 open 에서 실행한다. 여러 번 실행돼도 되도록 CREATE TABLE IF NOT EXISTS 로 작성한다.
+ */
+public class MultiRowInsertItemWriter<T> implements ItemStreamWriter<T> {
+
+    /**
+     * 아이템 하나의 값을 parameterOffset + 1 부터 컬럼 수만큼의 파라미터에 설정
+     */
+    @FunctionalInterface
+    public interface RowBinder<T> {
+        void bind(T item, PreparedStatement ps, int parameterOffset) throws SQLException;
+    }
+
+    private static final int MAX_PARAMETERS = 65535;
+
+    private final DataSource dataSource;
+
+    private final String table;
+
+    private final List<String> columns;
+
+    private final RowBinder<T> rowBinder;
+
+    private final Map<Integer, String> sqlCache = new ConcurrentHashMap<>();
+
+    private final LongAdder rowsWritten = new LongAdder();
+
+    private final LongAdder writeNanos = new LongAdder();
+
+    private int maxRowsPerStatement = 1000;
+
+    private long maxPacketBytes = 4 * 1024 * 1024;
+
+    private int estimatedRowBytes = 256;
+
+    private int parallelism = 1;
+
+    private TaskExecutor taskExecutor;
+
+    private String createTableSql;
+
+    private Counter rowsCounter;
+
+    private Timer writeTimer;
+
+    public MultiRowInsertItemWriter(DataSource dataSource, String table, List<String> columns, RowBinder<T> rowBinder) {
+        Assert.notNull(dataSource, "dataSource must not be null");
+        Assert.hasText(table, "table must not be empty");
+        Assert.notEmpty(columns, "columns must not be empty");
+        Assert.notNull(rowBinder, "rowBinder must not be null");
+        this.dataSource = dataSource;
+        this.table = table;
+        this.columns = new ArrayList<>(columns);
+        this.rowBinder = rowBinder;
+    }
+
+    public void setMaxRowsPerStatement(int maxRowsPerStatement) {
+        Assert.isTrue(maxRowsPerStatement > 0, "maxRowsPerStatement must be greater than 0");
+        this.maxRowsPerStatement = maxRowsPerStatement;
+    }
+
+    /**
+     * 한 문장의 최대 크기. MySQL 의 max_allowed_packet 보다 작게 설정한다.
+     * @param maxPacketBytes
+     */
+    public void setMaxPacketBytes(long maxPacketBytes) {
+        Assert.isTrue(maxPacketBytes > 0, "maxPacketBytes must be greater than 0");
+        this.maxPacketBytes = maxPacketBytes;
+    }
+
+    /**
+     * 문장 크기를 계산할 때 사용하는 행 하나의 예상 크기 (값과 구분자 포함)
+     * @param estimatedRowBytes
+     */
+    public void setEstimatedRowBytes(int estimatedRowBytes) {
+        Assert.isTrue(estimatedRowBytes > 0, "estimatedRowBytes must be greater than 0");
+        this.estimatedRowBytes = estimatedRowBytes;
+    }
+
+    /**
+     * 청크 하나를 동시에 쓸 커넥션 수. 2 이상이면 taskExecutor 가 필요하다.
+     * @param parallelism
+     * @param taskExecutor
+     */
+    public void setParallelism(int parallelism, TaskExecutor taskExecutor) {
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than 0");
+        Assert.isTrue(parallelism == 1 || taskExecutor != null, "taskExecutor is required when parallelism > 1");
+        this.parallelism = parallelism;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 스텝이 시작할 때(open) 실행할 테이블 생성 문장 (예: CREATE TABLE IF NOT EXISTS item (id VARCHAR(36) PRIMARY KEY))
+     * @param createTableSql
+     */
+    public void setCreateTableSql(String createTableSql) {
+        this.createTableSql = createTableSql;
+    }
+
+    /**
+     * batch.jdbc.rows (쓴 행 수) 와 batch.jdbc.write (청크당 쓰기 시간) 를 기록할 레지스트리
+     * @param meterRegistry
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.rowsCounter = Counter.builder("batch.jdbc.rows").tag("table", this.table).register(meterRegistry);
+        this.writeTimer = Timer.builder("batch.jdbc.write").tag("table", this.table).register(meterRegistry);
+    }
+
+    public int getRowsPerStatement() {
+        long byPacket = Math.max(1, (this.maxPacketBytes - sql(0).length()) / this.estimatedRowBytes);
+        long byParameters = MAX_PARAMETERS / this.columns.size();
+        return (int) Math.max(1, Math.min(this.maxRowsPerStatement, Math.min(byPacket, byParameters)));
+    }
+
+    public long getRowsWritten() {
+        return this.rowsWritten.sum();
+    }
+
+    /**
+     * 지금까지 write 에서 보낸 시간 기준의 초당 행 수
+     * @return
+     */
+    public double getRowsPerSecond() {
+        long nanos = this.writeNanos.sum();
+        return nanos == 0 ? 0 : this.rowsWritten.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        if (this.createTableSql != null) {
+            new JdbcTemplate(this.dataSource).execute(this.createTableSql);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        int rowsPerStatement = getRowsPerStatement();
+        if (this.parallelism == 1 || items.size() <= rowsPerStatement) {
+            Connection connection = DataSourceUtils.getConnection(this.dataSource);
+            try {
+                insert(connection, items, rowsPerStatement);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, this.dataSource);
+            }
+        } else {
+            writeInParallel(items, rowsPerStatement);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        this.rowsWritten.add(items.size());
+        this.writeNanos.add(elapsed);
+        if (this.rowsCounter != null) {
+            this.rowsCounter.increment(items.size());
+            this.writeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void writeInParallel(List<? extends T> items, int rowsPerStatement) throws Exception {
+        // 조각 경계를 문장 크기의 배수로 맞춰 나머지 문장은 마지막 조각에만 생기게 한다.
+        int statements = (items.size() + rowsPerStatement - 1) / rowsPerStatement;
+        int slices = Math.min(this.parallelism, statements);
+        int statementsPerSlice = (statements + slices - 1) / slices;
+
+        List<Connection> connections = new ArrayList<>();
+        List<FutureTask<Void>> tasks = new ArrayList<>();
+        try {
+            for (int from = statementsPerSlice * rowsPerStatement; from < items.size(); from += statementsPerSlice * rowsPerStatement) {
+                List<? extends T> slice = items.subList(from, Math.min(items.size(), from + statementsPerSlice * rowsPerStatement));
+                Connection connection = this.dataSource.getConnection();
+                connections.add(connection);
+                connection.setAutoCommit(false);
+
+                FutureTask<Void> task = new FutureTask<>(() -> {
+                    insert(connection, slice, rowsPerStatement);
+                    return null;
+                });
+                tasks.add(task);
+                this.taskExecutor.execute(task);
+            }
+
+            Connection connection = DataSourceUtils.getConnection(this.dataSource);
+            try {
+                insert(connection, items.subList(0, Math.min(items.size(), statementsPerSlice * rowsPerStatement)), rowsPerStatement);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, this.dataSource);
+            }
+            for (FutureTask<Void> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            awaitQuietly(tasks);
+            rollbackAndClose(connections);
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (Exception e) {
+            awaitQuietly(tasks);
+            rollbackAndClose(connections);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new SliceSynchronization(connections));
+        } else {
+            commit(connections);
+            closeQuietly(connections);
+        }
+    }
+
+    /**
+     * 롤백하기 전에 다른 조각의 INSERT 가 끝나기를 기다린다.
+     * @param tasks
+     */
+    private static void awaitQuietly(List<FutureTask<Void>> tasks) {
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // 첫 번째 예외만 던진다.
+            }
+        }
+    }
+
+    private void insert(Connection connection, List<? extends T> items, int rowsPerStatement) throws SQLException {
+        int full = items.size() / rowsPerStatement;
+        if (full > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(sql(rowsPerStatement))) {
+                for (int i = 0; i < full; i++) {
+                    bindAndExecute(ps, items, i * rowsPerStatement, rowsPerStatement);
+                }
+            }
+        }
+
+        int remainder = items.size() - full * rowsPerStatement;
+        if (remainder > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(sql(remainder))) {
+                bindAndExecute(ps, items, full * rowsPerStatement, remainder);
+            }
+        }
+    }
+
+    private void bindAndExecute(PreparedStatement ps, List<? extends T> items, int from, int rows) throws SQLException {
+        int columnCount = this.columns.size();
+        for (int row = 0; row < rows; row++) {
+            this.rowBinder.bind(items.get(from + row), ps, row * columnCount);
+        }
+        ps.executeUpdate();
+    }
+
+    private String sql(int rows) {
+        return this.sqlCache.computeIfAbsent(rows, this::buildSql);
+    }
+
+    private String buildSql(int rows) {
+        String placeholders = "(" + String.join(", ", Collections.nCopies(this.columns.size(), "?")) + ")";
+        StringBuilder sql = new StringBuilder(64 + rows * (placeholders.length() + 2))
+                .append("INSERT INTO ").append(this.table)
+                .append(" (").append(String.join(", ", this.columns)).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        return sql.toString();
+    }
+
+    private static void commit(List<Connection> connections) throws SQLException {
+        for (Connection connection : connections) {
+            connection.commit();
+        }
+    }
+
+    private static void rollbackAndClose(List<Connection> connections) {
+        for (Connection connection : connections) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                // 닫으면서 함께 정리된다.
+            }
+        }
+        closeQuietly(connections);
+    }
+
+    private static void closeQuietly(List<Connection> connections) {
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // 무시
+            }
+        }
+    }
+
+    /**
+     * 별도 커넥션으로 쓴 조각을 스텝 트랜잭션과 함께 커밋 / 롤백
+     */
+    private static class SliceSynchronization implements TransactionSynchronization {
+
+        private final List<Connection> connections;
+
+        private boolean committed;
+
+        SliceSynchronization(List<Connection> connections) {
+            this.connections = connections;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                commit(this.connections);
+                this.committed = true;
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to commit parallel insert slices", e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (this.committed) {
+                closeQuietly(this.connections);
+            } else {
+                rollbackAndClose(this.connections);
+            }
+        }
+    }
+}
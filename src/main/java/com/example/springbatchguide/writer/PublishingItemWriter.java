@@ -0,0 +1,207 @@
+package com.example.springbatchguide.writer;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커밋된 청크를 Flow.Subscriber(리액티브 싱크)에 List 하나로 내보내는 ItemWriter (청크 스텝 -> 리액티브 싱크)
+ *
+ * [배압]
+ * 싱크가 request 한 건수는 '청크 수'다. write 는 커밋 전에 요청 하나를 예약하고, 요청이 없으면 writeTimeoutMillis 동안 기다린다.
+ * 따라서 싱크가 느리면 스텝이 멈추고, 라이터가 들고 있는 청크는 진행 중인 트랜잭션 수만큼으로 제한된다.
+ * 기다려도 요청이 없거나 싱크가 구독을 취소하면 write 가 실패해 청크는 롤백된다.
+ *
+ * [전달 시점]
+ * 트랜잭션이 커밋된 뒤(afterCommit)에만 onNext 를 호출하므로 롤백된 청크는 싱크에 전달되지 않는다. (롤백되면 예약한 요청은 돌려준다)
+ * 스텝이 끝나면 afterStep 에서 onComplete, 실패했으면 onError 를 보낸다. 리스너로 등록하지 않았으면 close 에서 onComplete 를 보낸다.
+ * 스텝 실행마다 새로 구독하므로 재시작하면 싱크는 재시작 이후에 커밋된 청크만 받는다.
+ */
+public class PublishingItemWriter<T> implements ItemStreamWriter<T>, StepExecutionListener {
+
+    private final Flow.Subscriber<? super List<T>> sink;
+
+    private long writeTimeoutMillis = 60_000;
+
+    private volatile ChunkSubscription subscription;
+
+    public PublishingItemWriter(Flow.Subscriber<? super List<T>> sink) {
+        Assert.notNull(sink, "sink must not be null");
+        this.sink = sink;
+    }
+
+    /**
+     * 싱크의 요청을 기다릴 최대 시간
+     * @param writeTimeoutMillis
+     */
+    public void setWriteTimeoutMillis(long writeTimeoutMillis) {
+        Assert.isTrue(writeTimeoutMillis > 0, "writeTimeoutMillis must be greater than 0");
+        this.writeTimeoutMillis = writeTimeoutMillis;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.subscription != null && !this.subscription.terminated) {
+            return;
+        }
+        ChunkSubscription subscription = new ChunkSubscription();
+        this.subscription = subscription;
+        this.sink.onSubscribe(subscription);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        ChunkSubscription subscription = this.subscription;
+        if (subscription != null) {
+            subscription.complete(null);
+        }
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ChunkSubscription subscription = this.subscription;
+        if (subscription != null) {
+            Throwable failure = null;
+            if (stepExecution.getStatus() == BatchStatus.FAILED) {
+                List<Throwable> failures = stepExecution.getFailureExceptions();
+                failure = failures.isEmpty() ? new IllegalStateException("Step " + stepExecution.getStepName() + " failed") : failures.get(0);
+            }
+            subscription.complete(failure);
+        }
+        return null;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        ChunkSubscription subscription = this.subscription;
+        Assert.state(subscription != null, "Writer must be open before it can be written to");
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            subscription.reserve();
+            subscription.deliver(Collections.unmodifiableList(new ArrayList<>(items)));
+            return;
+        }
+
+        // 재시도/스캔으로 같은 트랜잭션 안에서 write 가 여러 번 호출되면 같은 청크에 이어 붙인다.
+        @SuppressWarnings("unchecked")
+        List<T> chunk = (List<T>) TransactionSynchronizationManager.getResource(this);
+        if (chunk == null) {
+            subscription.reserve();
+            List<T> transactionChunk = new ArrayList<>(items.size());
+            TransactionSynchronizationManager.bindResource(this, transactionChunk);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    subscription.deliver(Collections.unmodifiableList(transactionChunk));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PublishingItemWriter.this);
+                    if (status != STATUS_COMMITTED) {
+                        subscription.release();
+                    }
+                }
+            });
+            chunk = transactionChunk;
+        }
+        chunk.addAll(items);
+    }
+
+    /**
+     * 스텝 실행 하나에 대한 구독. 요청 수(demand)는 청크 단위이며, 모든 신호는 이 객체로 동기화해 순서대로 보낸다.
+     */
+    private class ChunkSubscription implements Flow.Subscription {
+
+        private long demand;
+
+        private boolean cancelled;
+
+        private volatile boolean terminated;
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                complete(new IllegalArgumentException("Requested " + n + " chunks, must be greater than 0"));
+                return;
+            }
+            this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            this.cancelled = true;
+            notifyAll();
+        }
+
+        /**
+         * 청크 하나를 보낼 요청을 예약한다. 요청이 들어올 때까지 기다린다.
+         */
+        synchronized void reserve() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PublishingItemWriter.this.writeTimeoutMillis);
+            while (this.demand == 0 && !this.cancelled && !this.terminated) {
+                long waitNanos = deadline - System.nanoTime();
+                if (waitNanos <= 0) {
+                    throw new IllegalStateException("Sink did not request a chunk within " + PublishingItemWriter.this.writeTimeoutMillis + " ms");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+            }
+            if (this.cancelled || this.terminated) {
+                throw new IllegalStateException("Sink cancelled the subscription");
+            }
+            this.demand--;
+        }
+
+        synchronized void release() {
+            if (this.demand < Long.MAX_VALUE) {
+                this.demand++;
+            }
+            notifyAll();
+        }
+
+        synchronized void deliver(List<T> chunk) {
+            if (this.cancelled || this.terminated) {
+                return;
+            }
+            PublishingItemWriter.this.sink.onNext(chunk);
+        }
+
+        synchronized void complete(Throwable failure) {
+            if (this.terminated) {
+                return;
+            }
+            this.terminated = true;
+            notifyAll();
+            if (this.cancelled) {
+                return;
+            }
+            if (failure != null) {
+                PublishingItemWriter.this.sink.onError(failure);
+            } else {
+                PublishingItemWriter.this.sink.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.springbatchguide.writer;
+
+import com.example.springbatchguide.chunk.UuidChunk;
+import com.example.springbatchguide.chunk.UuidChunkPool;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UuidChunk 를 delegate 로 쓴 뒤 버퍼를 풀에 돌려주는 라이터
+ * 트랜잭션 안에서는 커밋된 뒤에만 돌려준다. 롤백된 청크는 재시도/스캔 시 같은 버퍼를 다시 쓰기 때문이다.
+ * delegate 는 write 호출 안에서 버퍼 내용을 모두 소비해야 한다. (BufferedChannelItemWriter 처럼 바로 인코딩하는 라이터)
+ */
+public class UuidChunkItemWriter implements ItemStreamWriter<UuidChunk> {
+
+    private final ItemWriter<? super UuidChunk> delegate;
+
+    private final UuidChunkPool chunkPool;
+
+    public UuidChunkItemWriter(ItemWriter<? super UuidChunk> delegate, UuidChunkPool chunkPool) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.notNull(chunkPool, "chunkPool must not be null");
+        this.delegate = delegate;
+        this.chunkPool = chunkPool;
+    }
+
+    /**
+     * 버퍼의 행마다 prefix + UUID 한 줄씩 인코딩하는 BufferedChannelItemWriter 용 인코더
+     * 마지막 행의 줄바꿈은 BufferedChannelItemWriter 가 붙이므로 lineSeparator 는 라이터와 같은 값을 사용해야 한다.
+     * @param prefix
+     * @param lineSeparator
+     * @return
+     */
+    public static BufferedChannelItemWriter.ItemEncoder<UuidChunk> encoder(String prefix, String lineSeparator) {
+        return (chunk, line) -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    line.append(lineSeparator);
+                }
+                chunk.appendTo(i, line.append(prefix));
+            }
+        };
+    }
+
+    @Override
+    public void write(List<? extends UuidChunk> chunks) throws Exception {
+        this.delegate.write(chunks);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            chunks.forEach(this.chunkPool::release);
+            return;
+        }
+        List<UuidChunk> written = new ArrayList<>(chunks);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                written.forEach(UuidChunkItemWriter.this.chunkPool::release);
+            }
+        });
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.delegate instanceof ItemStream) {
+            ((ItemStream) this.delegate).open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (this.delegate instanceof ItemStream) {
+            ((ItemStream) this.delegate).update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (this.delegate instanceof ItemStream) {
+            ((ItemStream) this.delegate).close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springbatchguide.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchMetricsAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(BatchMetricsAutoConfiguration.class))
+            .withUserConfiguration(BatchMetricsConfiguration.class);
+
+    @Test
+    void registersSimpleMeterRegistryWhenNoneIsDefined() {
+        this.contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(MeterRegistry.class);
+            assertThat(context.getBean(BatchMetricsListener.class).getMeterRegistry())
+                    .isSameAs(context.getBean(SimpleMeterRegistry.class));
+        });
+    }
+
+    @Test
+    void backsOffWhenApplicationDefinesMeterRegistry() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        this.contextRunner.withBean("applicationMeterRegistry", MeterRegistry.class, () -> meterRegistry)
+                .run(context -> {
+                    assertThat(context).hasSingleBean(MeterRegistry.class);
+                    assertThat(context.getBean(BatchMetricsListener.class).getMeterRegistry()).isSameAs(meterRegistry);
+                });
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.springbatchguide.batch;
+
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.reader.UuidSequence;
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchMetricsListenerTest {
+
+    private static final long SEED = 7L;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BatchMetricsListener listener;
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new BatchMetricsListener(meterRegistry);
+        embeddedJobRepository = new EmbeddedJobRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void recordsJobStepAndChunkMetrics() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        ItemProcessor<String, String> everyTenthFiltered = item -> processed.incrementAndGet() % 10 == 0 ? null : item;
+
+        JobExecution jobExecution = run(listener.register(embeddedJobRepository.stepBuilderFactory().get("metricsStep")
+                .<String, String> chunk(100)
+                .reader(reader(1000))
+                .processor(everyTenthFiltered)
+                .writer(items -> { })));
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        assertThat(meterRegistry.get("batch.job.duration").tag("job", "metricsJob").tag("status", "COMPLETED")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("batch.step.duration").tag("step", "metricsStep").tag("status", "COMPLETED")
+                .timer().count()).isEqualTo(1);
+
+        assertThat(counter("batch.step.items", "read")).isEqualTo(1000);
+        assertThat(counter("batch.step.items", "write")).isEqualTo(900);
+        assertThat(counter("batch.step.items", "filter")).isEqualTo(100);
+
+        double commits = meterRegistry.get("batch.step.commits").tag("step", "metricsStep").counter().count();
+        assertThat(commits).isEqualTo(11);
+        assertThat(meterRegistry.get("batch.step.rollbacks").counter().count()).isZero();
+
+        Timer chunkTimer = meterRegistry.get("batch.chunk.duration").tag("job", "metricsJob").tag("step", "metricsStep").timer();
+        assertThat(chunkTimer.count()).isEqualTo(11);
+        for (String phase : new String[] {"read", "process", "write"}) {
+            Timer phaseTimer = meterRegistry.get("batch.chunk.phase").tag("phase", phase).timer();
+            assertThat(phaseTimer.count()).isEqualTo(11);
+            assertThat(phaseTimer.totalTime(TimeUnit.NANOSECONDS))
+                    .isLessThanOrEqualTo(chunkTimer.totalTime(TimeUnit.NANOSECONDS));
+        }
+
+        // 마지막 빈 청크는 쓴 아이템이 없으므로 처리량을 기록하지 않는다.
+        assertThat(meterRegistry.get("batch.chunk.throughput").summary().count()).isEqualTo(10);
+        assertThat(meterRegistry.get("batch.chunk.throughput").summary().mean()).isPositive();
+    }
+
+    @Test
+    void recordsRollbacksAndSkips() throws Exception {
+        String poisonItem = UuidSequence.get(SEED, 150).toString();
+        ItemWriter<String> failingWriter = items -> {
+            if (items.contains(poisonItem)) {
+                throw new IllegalStateException("poison item");
+            }
+        };
+
+        SimpleStepBuilder<String, String> builder = embeddedJobRepository.stepBuilderFactory().get("metricsStep")
+                .<String, String> chunk(100)
+                .reader(reader(1000))
+                .writer(failingWriter)
+                .faultTolerant()
+                .skip(IllegalStateException.class)
+                .skipLimit(1);
+
+        JobExecution jobExecution = run(listener.register(builder));
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(counter("batch.step.skips", "write")).isEqualTo(1);
+        assertThat(counter("batch.step.skips", "read")).isZero();
+        assertThat(counter("batch.step.items", "write")).isEqualTo(999);
+        assertThat(meterRegistry.get("batch.step.rollbacks").counter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    private JobExecution run(SimpleStepBuilder<String, String> stepBuilder) throws Exception {
+        Job job = embeddedJobRepository.jobBuilderFactory().get("metricsJob")
+                .start(stepBuilder.build())
+                .listener(listener)
+                .build();
+        return embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+    }
+
+    private double counter(String name, String type) {
+        return meterRegistry.get(name).tag("job", "metricsJob").tag("step", "metricsStep").tag("type", type)
+                .counter().count();
+    }
+
+    private UuidItemReader reader(int itemCount) {
+        UuidItemReader reader = new UuidItemReader(itemCount);
+        reader.setSeed(SEED);
+        return reader;
+    }
+}
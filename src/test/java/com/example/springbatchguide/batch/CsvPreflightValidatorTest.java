@@ -0,0 +1,142 @@
+package com.example.springbatchguide.batch;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvPreflightValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countsRecordsAcrossSegmentBoundariesWithQuotedNewlines() throws Exception {
+        StringBuilder csv = new StringBuilder("id,name,memo\r\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append(i).append(",이름-").append(i).append(',');
+            csv.append(i % 7 == 0 ? "\"여러 줄,\n\"\"메모\"\"\"" : "memo").append("\r\n");
+        }
+        csv.append("500,last,no-newline");
+        Path file = write("input.csv", csv.toString());
+
+        // 구간을 아주 작게 나눠 멀티바이트 문자, 따옴표 안의 줄바꿈이 구간 경계에 걸치게 한다.
+        for (long segmentSize : new long[] {7, 64, 1000, Integer.MAX_VALUE}) {
+            CsvPreflightScanner scanner = new CsvPreflightScanner();
+            scanner.setSegmentSize(segmentSize);
+            CsvPreflightScanner.Result result = scanner.scan(file);
+
+            assertThat(result.getError()).as("segmentSize %d", segmentSize).isNull();
+            assertThat(result.getHeader()).containsExactly("id", "name", "memo");
+            assertThat(result.getRowCount()).as("segmentSize %d", segmentSize).isEqualTo(501);
+        }
+    }
+
+    @Test
+    void rejectsMalformedFiles() throws Exception {
+        CsvPreflightScanner scanner = new CsvPreflightScanner();
+        scanner.setSegmentSize(8);
+        CsvPreflightValidator validator = new CsvPreflightValidator(scanner, "fileName");
+
+        assertThatThrownBy(() -> validator.validate(parameters(write("columns.csv", "a,b\n1,2\n3\n4,5\n6,7,8\n"))))
+                .isInstanceOf(JobParametersInvalidException.class)
+                .hasMessageContaining("2 of 4 records do not have 2 columns (first: record 2 has 1)");
+        assertThatThrownBy(() -> validator.validate(parameters(write("quote.csv", "a,b\n1,\"2\n3,4\n"))))
+                .hasMessageContaining("unterminated quoted field");
+        assertThatThrownBy(() -> validator.validate(parameters(write("empty.csv", ""))))
+                .hasMessageContaining("file is empty");
+
+        Path latin1 = tempDir.resolve("latin1.csv");
+        Files.write(latin1, "a,b\n1,café\n".getBytes(StandardCharsets.ISO_8859_1));
+        assertThatThrownBy(() -> validator.validate(parameters(latin1)))
+                .hasMessageContaining("invalid character encoding at byte 9");
+
+        validator.setExpectedHeader("id", "name");
+        assertThatThrownBy(() -> validator.validate(parameters(write("header.csv", "a,b\n1,2\n"))))
+                .hasMessageContaining("header [a, b] does not match [id, name]");
+    }
+
+    @Test
+    void rejectsEmptyOrDuplicateColumnNamesAndStripsBom() throws Exception {
+        CsvPreflightValidator validator = new CsvPreflightValidator(new CsvPreflightScanner(), "fileName");
+
+        assertThatThrownBy(() -> validator.validate(parameters(write("blank.csv", "id,,name\n1,2,3\n"))))
+                .isInstanceOf(JobParametersInvalidException.class)
+                .hasMessageContaining("header column 2 has no name");
+        assertThatThrownBy(() -> validator.validate(parameters(write("duplicate.csv", "id,name,id\n1,2,3\n"))))
+                .hasMessageContaining("header column 'id' is duplicated");
+
+        validator.setExpectedHeader("id", "name");
+        validator.validate(parameters(write("bom.csv", "\uFEFFid,name\n1,kim\n")));
+        assertThat(new CsvPreflightScanner().scan(tempDir.resolve("bom.csv")).getHeader()).containsExactly("id", "name");
+    }
+
+    @Test
+    void cachesResultAndPassesRowCountToJob() throws Exception {
+        Path file = write("input.csv", "id,name\n1,kim\n2,lee\n");
+        CsvPreflightValidator validator = new CsvPreflightValidator(new CsvPreflightScanner(), "fileName");
+        AtomicLong rowCount = new AtomicLong(-1);
+
+        EmbeddedJobRepository embeddedJobRepository = new EmbeddedJobRepository();
+        try {
+            Job job = embeddedJobRepository.jobBuilderFactory().get("preflightJob")
+                    .start(embeddedJobRepository.stepBuilderFactory().get("countStep")
+                            .tasklet((contribution, chunkContext) -> {
+                                rowCount.set((Long) chunkContext.getStepContext().getJobExecutionContext()
+                                        .get(CsvPreflightValidator.rowCountKey("fileName")));
+                                return RepeatStatus.FINISHED;
+                            })
+                            .build())
+                    .validator(validator)
+                    .listener(validator)
+                    .build();
+
+            JobExecution first = embeddedJobRepository.getJobLauncher().run(job, parameters(file, 1));
+            JobExecution second = embeddedJobRepository.getJobLauncher().run(job, parameters(file, 2));
+
+            assertThat(first.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(rowCount.get()).isEqualTo(2);
+            assertThat(validator.getScanCount()).isEqualTo(1);
+
+            // 같은 크기로 내용이 바뀌면 다시 검사한다.
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            Files.write(file, "id,name\n1,kim\n2,le,\n".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(file, lastModified);
+            assertThatThrownBy(() -> embeddedJobRepository.getJobLauncher().run(job, parameters(file, 3)))
+                    .isInstanceOf(JobParametersInvalidException.class);
+            assertThat(validator.getScanCount()).isEqualTo(2);
+        } finally {
+            embeddedJobRepository.close();
+        }
+    }
+
+    private Path write(String name, String content) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static JobParameters parameters(Path file) {
+        return new JobParametersBuilder().addString("fileName", file.toString()).toJobParameters();
+    }
+
+    private static JobParameters parameters(Path file, long runId) {
+        return new JobParametersBuilder().addString("fileName", file.toString()).addLong("run.id", runId).toJobParameters();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.springbatchguide.chunk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveChunkSizePolicyTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private AdaptiveChunkSizePolicy policy;
+
+    private StepExecution stepExecution;
+
+    @BeforeEach
+    void setUp() {
+        policy = new AdaptiveChunkSizePolicy(10, 1000, 100);
+        policy.setInitialChunkSize(100);
+        policy.setIncrement(50);
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        policy.beforeStep(stepExecution);
+    }
+
+    @Test
+    void completesWhenChunkSizeReached() {
+        RepeatContext context = policy.start(new RepeatContextSupport(null));
+
+        for (int i = 0; i < 99; i++) {
+            policy.update(context);
+        }
+        assertThat(policy.isComplete(context)).isFalse();
+
+        policy.update(context);
+        assertThat(policy.isComplete(context)).isTrue();
+    }
+
+    @Test
+    void growsAdditivelyUnderTargetAndShrinksMultiplicativelyOverTarget() {
+        policy.adjust(100, 10 * MILLIS);
+        assertThat(policy.getChunkSize()).isEqualTo(150);
+
+        policy.adjust(150, 15 * MILLIS);
+        assertThat(policy.getChunkSize()).isEqualTo(200);
+
+        policy.adjust(200, 400 * MILLIS);
+        assertThat(policy.getChunkSize()).isEqualTo(100);
+    }
+
+    @Test
+    void holdsSizeWhenThroughputRegresses() {
+        policy.adjust(100, 10 * MILLIS);
+        policy.adjust(150, 60 * MILLIS);
+
+        assertThat(policy.getChunkSize()).isEqualTo(150);
+    }
+
+    @Test
+    void staysWithinBounds() {
+        for (int i = 0; i < 100; i++) {
+            policy.adjust(policy.getChunkSize(), MILLIS);
+        }
+        assertThat(policy.getChunkSize()).isEqualTo(1000);
+
+        for (int i = 0; i < 100; i++) {
+            policy.adjust(policy.getChunkSize(), 1000 * MILLIS);
+        }
+        assertThat(policy.getChunkSize()).isEqualTo(10);
+    }
+
+    @Test
+    void restartsFromLearnedChunkSize() {
+        policy.adjust(100, 10 * MILLIS);
+        policy.afterStep(stepExecution);
+        assertThat(stepExecution.getExecutionContext().getInt(AdaptiveChunkSizePolicy.CHUNK_SIZE_KEY)).isEqualTo(150);
+
+        AdaptiveChunkSizePolicy restarted = new AdaptiveChunkSizePolicy(10, 1000, 100);
+        restarted.beforeStep(stepExecution);
+
+        assertThat(restarted.getChunkSize()).isEqualTo(150);
+    }
+
+    @Test
+    void shrinksOnRollback() {
+        policy.afterChunkError(null);
+
+        assertThat(policy.getChunkSize()).isEqualTo(50);
+        assertThat(stepExecution.getExecutionContext().getInt(AdaptiveChunkSizePolicy.CHUNK_SIZE_KEY)).isEqualTo(50);
+    }
+}
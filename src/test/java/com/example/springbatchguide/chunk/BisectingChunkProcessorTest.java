@@ -0,0 +1,158 @@
+package com.example.springbatchguide.chunk;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import com.example.springbatchguide.writer.MultiRowInsertItemWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BisectingChunkProcessorTest {
+
+    private static final List<Long> DUPLICATES = Arrays.asList(13L, 57L, 58L);
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+        jdbcTemplate = embeddedJobRepository.jdbcTemplate();
+        for (String table : Arrays.asList("scan_item", "bisect_item")) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY)");
+            for (Long id : DUPLICATES) {
+                jdbcTemplate.update("INSERT INTO " + table + " (id) VALUES (?)", id);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void skipsSameItemsAsFaultTolerantScanWithFewerWrites() throws Exception {
+        CountingWriter scanWriter = new CountingWriter("scan_item");
+        List<Long> scanSkips = new ArrayList<>();
+        Step scanStep = chunkStep("scanStep", scanWriter).faultTolerant()
+                .skip(SQLIntegrityConstraintViolationException.class)
+                .skipLimit(10)
+                .listener(skipListener(scanSkips))
+                .build();
+
+        CountingWriter bisectWriter = new CountingWriter("bisect_item");
+        List<Long> bisectSkips = new ArrayList<>();
+        Step bisectStep = new BisectingStepBuilder<>(chunkStep("bisectStep", bisectWriter))
+                .skip(SQLIntegrityConstraintViolationException.class)
+                .skipLimit(10)
+                .listener(skipListener(bisectSkips))
+                .build();
+
+        StepExecution scan = run(scanStep);
+        StepExecution bisect = run(bisectStep);
+
+        assertThat(scan.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(bisect.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(bisect.getWriteCount()).isEqualTo(scan.getWriteCount()).isEqualTo(97);
+        assertThat(bisect.getWriteSkipCount()).isEqualTo(scan.getWriteSkipCount()).isEqualTo(3);
+        assertThat(bisect.getReadCount()).isEqualTo(scan.getReadCount());
+        assertThat(bisectSkips).isEqualTo(scanSkips).isEqualTo(DUPLICATES);
+        assertThat(ids("bisect_item")).isEqualTo(ids("scan_item")).hasSize(100);
+
+        // 스캔은 아이템마다 쓰고 커밋하지만, 이분 탐색은 실패한 아이템마다 약 2 * log2(100) 번만 더 쓴다.
+        assertThat(scanWriter.calls.get()).isGreaterThan(100);
+        assertThat(bisectWriter.calls.get()).isLessThanOrEqualTo(1 + DUPLICATES.size() * 2 * 7);
+        assertThat(bisect.getCommitCount()).isLessThan(scan.getCommitCount());
+    }
+
+    @Test
+    void failsStepAndRollsBackChunkWhenSkipLimitIsExceeded() throws Exception {
+        Step step = new BisectingStepBuilder<>(chunkStep("limitStep", new CountingWriter("bisect_item")))
+                .skip(SQLIntegrityConstraintViolationException.class)
+                .skipLimit(2)
+                .build();
+
+        StepExecution stepExecution = run(step);
+
+        assertThat(stepExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(stepExecution.getFailureExceptions()).hasAtLeastOneElementOfType(SkipLimitExceededException.class);
+        assertThat(stepExecution.getWriteSkipCount()).isZero();
+        // 세이브포인트까지 커밋된 구간도 청크 트랜잭션과 함께 롤백된다.
+        assertThat(ids("bisect_item")).isEqualTo(DUPLICATES);
+    }
+
+    private SimpleStepBuilder<Long, Long> chunkStep(String name, ItemWriter<Long> writer) {
+        List<Long> items = LongStream.range(0, 100).boxed().collect(Collectors.toList());
+        return embeddedJobRepository.stepBuilderFactory().get(name)
+                .<Long, Long> chunk(100)
+                .reader(new ListItemReader<>(items))
+                .writer(writer);
+    }
+
+    private StepExecution run(Step step) throws Exception {
+        JobExecution jobExecution = embeddedJobRepository.getJobLauncher().run(
+                embeddedJobRepository.jobBuilderFactory().get(step.getName() + "Job").start(step).build(), new JobParameters());
+        return jobExecution.getStepExecutions().iterator().next();
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+
+    private static SkipListener<Long, Long> skipListener(List<Long> skipped) {
+        return new SkipListener<Long, Long>() {
+            @Override
+            public void onSkipInRead(Throwable t) {
+            }
+
+            @Override
+            public void onSkipInWrite(Long item, Throwable t) {
+                skipped.add(item);
+            }
+
+            @Override
+            public void onSkipInProcess(Long item, Throwable t) {
+            }
+        };
+    }
+
+    private class CountingWriter implements ItemWriter<Long> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final MultiRowInsertItemWriter<Long> delegate;
+
+        CountingWriter(String table) {
+            this.delegate = new MultiRowInsertItemWriter<>(embeddedJobRepository.getDatabase(), table,
+                    Arrays.asList("id"), (item, ps, offset) -> ps.setLong(offset + 1, item));
+        }
+
+        @Override
+        public void write(List<? extends Long> items) throws Exception {
+            calls.incrementAndGet();
+            delegate.write(items);
+        }
+    }
+}
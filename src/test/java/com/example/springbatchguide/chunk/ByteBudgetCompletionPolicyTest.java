@@ -0,0 +1,100 @@
+package com.example.springbatchguide.chunk;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.support.ListItemReader;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteBudgetCompletionPolicyTest {
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final List<List<String>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void largeItemsCloseChunksEarlierThanSmallItems() throws Exception {
+        // 앞의 50 건은 10 바이트, 뒤의 50 건은 1000 바이트짜리 아이템
+        List<String> items = IntStream.range(0, 100)
+                .mapToObj(i -> "x".repeat(i < 50 ? 10 : 1000))
+                .collect(Collectors.toList());
+        ByteBudgetCompletionPolicy<String> policy = new ByteBudgetCompletionPolicy<>(String::length, 3000, 60_000);
+        policy.setMaxChunkSize(20);
+        policy.setMeterRegistry(meterRegistry);
+
+        JobExecution jobExecution = run(new ListItemReader<>(items), policy);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(chunks.stream().mapToInt(List::size).sum()).isEqualTo(100);
+        assertThat(chunks.subList(0, 2)).allSatisfy(chunk -> assertThat(chunk).hasSize(20));
+        // 예산(3000)을 넘긴 아이템까지 포함되므로 큰 아이템은 청크당 3 건 (세 번째 청크는 작은 아이템 10 건 + 큰 아이템 3 건)
+        assertThat(chunks.subList(3, chunks.size() - 1)).allSatisfy(chunk -> assertThat(chunk).hasSize(3));
+
+        DistributionSummary byBytes = meterRegistry.find("batch.chunk.items").tag("reason", "bytes").summary();
+        DistributionSummary byCount = meterRegistry.find("batch.chunk.items").tag("reason", "count").summary();
+        assertThat(byCount.count()).isEqualTo(2);
+        assertThat(byBytes.count()).isEqualTo(chunks.size() - 3);
+        assertThat(meterRegistry.find("batch.chunk.items").tag("step", "budgetStep").summaries()
+                .stream().mapToDouble(DistributionSummary::totalAmount).sum()).isEqualTo(100);
+    }
+
+    @Test
+    void slowReaderClosesChunksOnTimeBudget() throws Exception {
+        Iterator<String> items = IntStream.range(0, 20).mapToObj(String::valueOf).iterator();
+        ItemReader<String> slowReader = () -> {
+            Thread.sleep(20);
+            return items.hasNext() ? items.next() : null;
+        };
+        ByteBudgetCompletionPolicy<String> policy = new ByteBudgetCompletionPolicy<>(
+                ByteBudgetCompletionPolicy.ItemSizer.strings(), Long.MAX_VALUE, 100);
+        policy.setMeterRegistry(meterRegistry);
+
+        JobExecution jobExecution = run(slowReader, policy);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(chunks.stream().mapToInt(List::size).sum()).isEqualTo(20);
+        assertThat(chunks.size()).isGreaterThan(1);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.size()).isLessThan(20));
+        assertThat(meterRegistry.find("batch.chunk.items").tag("reason", "time").summary().count()).isPositive();
+    }
+
+    private JobExecution run(ItemReader<String> reader, ByteBudgetCompletionPolicy<String> policy) throws Exception {
+        Step step = embeddedJobRepository.stepBuilderFactory().get("budgetStep")
+                .<String, String> chunk(policy)
+                .reader(reader)
+                .writer(items -> chunks.add(new ArrayList<>(items)))
+                .listener(policy)
+                .build();
+
+        return embeddedJobRepository.getJobLauncher().run(
+                embeddedJobRepository.jobBuilderFactory().get("budgetJob").start(step).build(), new JobParameters());
+    }
+}
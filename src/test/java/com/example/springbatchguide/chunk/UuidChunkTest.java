@@ -0,0 +1,129 @@
+package com.example.springbatchguide.chunk;
+
+import com.example.springbatchguide.processor.UuidChunkItemProcessor;
+import com.example.springbatchguide.reader.UuidChunkItemReader;
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.writer.UuidChunkItemWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidChunkTest {
+
+    @Test
+    void readerProducesSameSequenceAsStringReader() throws Exception {
+        List<String> expected = readStrings(new UuidItemReader(2500), 42L);
+
+        UuidChunkItemReader reader = new UuidChunkItemReader(0, 2500, new UuidChunkPool(1000));
+        reader.setSeed(42L);
+        List<String> actual = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        UuidChunk chunk;
+        while ((chunk = reader.read()) != null) {
+            sizes.add(chunk.size());
+            actual.addAll(toStrings(chunk));
+        }
+        reader.close();
+
+        assertThat(sizes).containsExactly(1000, 1000, 500);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void restartResumesFromLastSavedChunk() throws Exception {
+        List<String> expected = readStrings(new UuidItemReader(30), 7L);
+
+        ExecutionContext executionContext = new ExecutionContext();
+        UuidChunkItemReader reader = new UuidChunkItemReader(0, 30, new UuidChunkPool(10));
+        reader.setSeed(7L);
+        reader.open(executionContext);
+        List<String> firstRun = toStrings(reader.read());
+        reader.update(executionContext);
+        reader.close();
+
+        UuidChunkItemReader restarted = new UuidChunkItemReader(0, 30, new UuidChunkPool(10));
+        restarted.open(executionContext);
+        List<String> secondRun = new ArrayList<>();
+        UuidChunk chunk;
+        while ((chunk = restarted.read()) != null) {
+            secondRun.addAll(toStrings(chunk));
+        }
+        restarted.close();
+
+        assertThat(firstRun).isEqualTo(expected.subList(0, 10));
+        assertThat(secondRun).isEqualTo(expected.subList(10, 30));
+    }
+
+    @Test
+    void processorFiltersInPlaceAndReleasesEmptyChunks() {
+        UuidChunkPool pool = new UuidChunkPool(4);
+        UuidChunk chunk = pool.acquire();
+        for (long i = 0; i < 4; i++) {
+            chunk.add(i, i);
+        }
+
+        UuidChunkItemProcessor evenOnly = new UuidChunkItemProcessor((most, least) -> most % 2 == 0, pool);
+        assertThat(evenOnly.process(chunk)).isSameAs(chunk);
+        assertThat(chunk.size()).isEqualTo(2);
+        assertThat(chunk.getMostSignificantBits(1)).isEqualTo(2);
+
+        UuidChunkItemProcessor none = new UuidChunkItemProcessor((most, least) -> false, pool);
+        assertThat(none.process(chunk)).isNull();
+        assertThat(pool.acquire()).isSameAs(chunk);
+        assertThat(pool.getCreatedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void writerEncodesRowsAndReleasesChunksOnlyAfterCommit() throws Exception {
+        UuidChunkPool pool = new UuidChunkPool(2);
+        UuidChunk chunk = pool.acquire();
+        chunk.add(0x123e4567e89b42d3L, 0xa456426614174000L);
+        chunk.add(-1L, 0L);
+
+        StringBuilder output = new StringBuilder();
+        UuidChunkItemWriter writer = new UuidChunkItemWriter(chunks -> chunks.forEach(
+                item -> UuidChunkItemWriter.encoder("> ", "\n").encode(item, output)), pool);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.write(Collections.singletonList(chunk));
+            assertThat(pool.acquire()).isNotSameAs(chunk);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(output.toString()).isEqualTo(
+                "> 123e4567-e89b-42d3-a456-426614174000\n> ffffffff-ffff-ffff-0000-000000000000");
+        assertThat(pool.acquire()).isSameAs(chunk);
+    }
+
+    private static List<String> toStrings(UuidChunk chunk) {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            items.add(chunk.appendTo(i, new StringBuilder()).toString());
+        }
+        return items;
+    }
+
+    private static List<String> readStrings(UuidItemReader reader, long seed) throws Exception {
+        reader.setSeed(seed);
+        reader.open(new ExecutionContext());
+        List<String> items = new ArrayList<>();
+        String item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.springbatchguide.conditinal;
+
+import com.example.springbatchguide.ConditionalJob;
+import com.example.springbatchguide.batch.CsvPreflightValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = ConditionalJob.class, properties = {
+        "conditional.decider.max-single-thread-items=100",
+        "conditional.partition.grid-size=3"})
+@ActiveProfiles("test")
+class ConditionalDeciderJobTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("job2")
+    private Job conditionalDeciderJob;
+
+    @Test
+    void routesByFileSizeAndProcessesEveryRecord() throws Exception {
+        // 2000 행 (약 26KB / 100 바이트 = 약 260건 추정) 은 파티셔닝, 20 행은 단일 스레드 경로로 처리한다.
+        JobExecution large = run(write("large.csv", 2000));
+        JobExecution small = run(write("small.csv", 20));
+
+        assertThat(large.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(stepNames(large)).contains("partitionedStep").doesNotContain("singleThreadStep");
+        assertThat(stepNames(large).stream().filter(name -> name.startsWith("decisionWorkerStep:"))).hasSize(3);
+        assertThat(writeCount(large, "decisionWorkerStep")).isEqualTo(2000);
+
+        assertThat(small.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(stepNames(small)).contains("singleThreadStep").doesNotContain("partitionedStep");
+        assertThat(writeCount(small, "singleThreadStep")).isEqualTo(20);
+    }
+
+    @Test
+    void routesByScannedRowCount() throws Exception {
+        // 50 행이지만 행마다 약 300 바이트라 파일 크기로는 약 150건으로 추정된다. 검사한 레코드 수로 단일 스레드 경로를 고른다.
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 0; i < 50; i++) {
+            csv.append(i).append(',').append(String.join("", Collections.nCopies(300, "x"))).append('\n');
+        }
+        Path file = this.tempDir.resolve("wide.csv");
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        assertThat(Files.size(file) / 100).isGreaterThan(100);
+
+        JobExecution jobExecution = run(file);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(jobExecution.getExecutionContext().getLong(CsvPreflightValidator.rowCountKey("fileName"))).isEqualTo(50);
+        assertThat(stepNames(jobExecution)).contains("singleThreadStep").doesNotContain("partitionedStep");
+        assertThat(writeCount(jobExecution, "singleThreadStep")).isEqualTo(50);
+    }
+
+    @Test
+    void rejectsMalformedFileBeforeRunning() throws Exception {
+        Path file = this.tempDir.resolve("malformed.csv");
+        Files.write(file, "id,name\n1,kim\n2\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> run(file)).isInstanceOf(JobParametersInvalidException.class);
+    }
+
+    @Test
+    void requiresExactlyOneInput() throws Exception {
+        assertThatThrownBy(() -> this.jobLauncher.run(this.conditionalDeciderJob, new JobParametersBuilder()
+                .addLong("run.id", 1L).toJobParameters()))
+                .isInstanceOf(JobParametersInvalidException.class);
+        assertThatThrownBy(() -> this.jobLauncher.run(this.conditionalDeciderJob, new JobParametersBuilder()
+                .addLong("itemCount", 10L)
+                .addString("fileName", write("both.csv", 10).toString()).toJobParameters()))
+                .isInstanceOf(JobParametersInvalidException.class);
+    }
+
+    private JobExecution run(Path file) throws Exception {
+        return this.jobLauncher.run(this.conditionalDeciderJob, new JobParametersBuilder()
+                .addString("fileName", file.toString()).toJobParameters());
+    }
+
+    private Path write(String name, int rows) throws Exception {
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(i).append(",name-").append(i).append('\n');
+        }
+        Path file = this.tempDir.resolve(name);
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> stepNames(JobExecution jobExecution) {
+        return jobExecution.getStepExecutions().stream()
+                .map(StepExecution::getStepName)
+                .collect(Collectors.toList());
+    }
+
+    private static int writeCount(JobExecution jobExecution, String stepNamePrefix) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith(stepNamePrefix))
+                .mapToInt(StepExecution::getWriteCount)
+                .sum();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.springbatchguide.conditinal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InputSizeDeciderTest {
+
+    private static final String JOB_NAME = "conditionalDeciderJob";
+
+    @TempDir
+    Path tempDir;
+
+    private JobExplorer jobExplorer;
+
+    private InputSizeDecider decider;
+
+    @BeforeEach
+    void setUp() {
+        jobExplorer = mock(JobExplorer.class);
+        when(jobExplorer.getJobInstances(eq(JOB_NAME), anyInt(), anyInt())).thenReturn(Collections.emptyList());
+
+        decider = new InputSizeDecider(jobExplorer, "singleThreadStep");
+        decider.setMaxSingleThreadItems(10_000);
+        decider.setMaxSingleThreadMillis(2_000);
+    }
+
+    @Test
+    void usesItemCountThresholdWithoutHistory() {
+        assertThat(decide(new JobParametersBuilder().addLong("itemCount", 5_000L).toJobParameters()))
+                .isEqualTo(InputSizeDecider.SINGLE_THREAD);
+        assertThat(decide(new JobParametersBuilder().addLong("itemCount", 50_000L).toJobParameters()))
+                .isEqualTo(InputSizeDecider.PARTITIONED);
+        assertThat(decide(new JobParameters())).isEqualTo(InputSizeDecider.PARTITIONED);
+    }
+
+    @Test
+    void estimatesItemCountFromFileSize() throws Exception {
+        Path small = Files.write(tempDir.resolve("small.csv"), new byte[100 * 100]);
+        Path large = Files.write(tempDir.resolve("large.csv"), new byte[100 * 20_000]);
+
+        assertThat(decide(new JobParametersBuilder().addString("fileName", small.toString()).toJobParameters()))
+                .isEqualTo(InputSizeDecider.SINGLE_THREAD);
+        assertThat(decide(new JobParametersBuilder().addString("fileName", large.toString()).toJobParameters()))
+                .isEqualTo(InputSizeDecider.PARTITIONED);
+    }
+
+    @Test
+    void usesPastSingleThreadDurationWhenAvailable() {
+        // 과거 실행 : 1000 건에 100ms -> 건당 0.1ms
+        givenHistory(1_000, 100);
+
+        assertThat(decide(new JobParametersBuilder().addLong("itemCount", 15_000L).toJobParameters()))
+                .isEqualTo(InputSizeDecider.SINGLE_THREAD);
+        assertThat(decide(new JobParametersBuilder().addLong("itemCount", 30_000L).toJobParameters()))
+                .isEqualTo(InputSizeDecider.PARTITIONED);
+    }
+
+    @Test
+    void cachesHistoryLookups() {
+        givenHistory(1_000, 100);
+
+        for (int i = 0; i < 100; i++) {
+            decide(new JobParametersBuilder().addLong("itemCount", 1_000L).toJobParameters());
+        }
+
+        verify(jobExplorer, times(1)).getJobInstances(eq(JOB_NAME), anyInt(), anyInt());
+    }
+
+    @Test
+    void reloadsHistoryAfterTtl() {
+        decider.setHistoryTtlMillis(0);
+
+        decide(new JobParametersBuilder().addLong("itemCount", 1_000L).toJobParameters());
+        decide(new JobParametersBuilder().addLong("itemCount", 1_000L).toJobParameters());
+
+        verify(jobExplorer, times(2)).getJobInstances(eq(JOB_NAME), anyInt(), anyInt());
+    }
+
+    private void givenHistory(int writeCount, long durationMillis) {
+        JobInstance jobInstance = new JobInstance(1L, JOB_NAME);
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(JOB_NAME, 1L, 1L);
+
+        StepExecution stepExecution = jobExecution.createStepExecution("singleThreadStep");
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        stepExecution.setWriteCount(writeCount);
+        stepExecution.setStartTime(new Date(0));
+        stepExecution.setEndTime(new Date(durationMillis));
+
+        // 다른 경로의 스텝은 계산에 포함하지 않는다.
+        StepExecution partitioned = jobExecution.createStepExecution("partitionedStep");
+        partitioned.setStatus(BatchStatus.COMPLETED);
+        partitioned.setWriteCount(1_000_000);
+        partitioned.setStartTime(new Date(0));
+        partitioned.setEndTime(new Date(1));
+
+        when(jobExplorer.getJobInstances(eq(JOB_NAME), anyInt(), anyInt())).thenReturn(Collections.singletonList(jobInstance));
+        when(jobExplorer.getJobExecutions(jobInstance)).thenReturn(Collections.singletonList(jobExecution));
+    }
+
+    private FlowExecutionStatus decide(JobParameters jobParameters) {
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(JOB_NAME, 2L, 2L, jobParameters);
+        return decider.decide(jobExecution, null);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.springbatchguide.dedup;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.support.ListItemReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeduplicatingItemProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private final List<String> written = new ArrayList<>();
+
+    private long runId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void filtersItemsWrittenByEarlierRunsAndWithinRun() throws Exception {
+        StepExecution first = run(items(0, 1000), 100_000, 0.01);
+        written.clear();
+        List<String> resent = items(500, 1500);
+        resent.addAll(items(1400, 1450));
+        StepExecution second = run(resent, 100_000, 0.01);
+
+        assertThat(first.getWriteCount()).isEqualTo(1000);
+        assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(second.getWriteCount()).isEqualTo(500);
+        assertThat(second.getFilterCount()).isEqualTo(550);
+        assertThat(written).isEqualTo(items(1000, 1500));
+        assertThat(second.getExecutionContext().getLong("dedup.duplicates")).isEqualTo(550);
+        assertThat(second.getExecutionContext().getLong("dedup.bloomBytes")).isLessThan(200_000);
+    }
+
+    @Test
+    void falsePositivesAreResolvedByExactLookup() throws Exception {
+        // 1,000 건짜리 필터에 2,000 건을 넣어 오탐을 많이 만든다.
+        run(items(0, 1000), 1000, 0.1);
+        written.clear();
+        StepExecution second = run(items(0, 2000), 1000, 0.1);
+
+        assertThat(written).isEqualTo(items(1000, 2000));
+        assertThat(second.getExecutionContext().getLong("dedup.duplicates")).isEqualTo(1000);
+        assertThat(second.getExecutionContext().getLong("dedup.falsePositives")).isPositive();
+        assertThat(second.getExecutionContext().getDouble("dedup.falsePositiveRate")).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    void rebuildsMissingBloomFilterFromStore() throws Exception {
+        run(items(0, 100), 10_000, 0.01);
+        Files.delete(tempDir.resolve("seen.bloom"));
+        written.clear();
+
+        StepExecution second = run(items(0, 200), 10_000, 0.01);
+
+        assertThat(written).isEqualTo(items(100, 200));
+        assertThat(second.getExecutionContext().getLong("dedup.falsePositives")).isZero();
+    }
+
+    @Test
+    void storeReadsAllKeysPageByPage() {
+        JdbcSeenItemStore store = new JdbcSeenItemStore(embeddedJobRepository.getDatabase(), "paged_item");
+        store.createTableIfNotExists();
+        store.addAll(items(0, 100));
+        store.setPageSize(7);
+
+        List<String> keys = new ArrayList<>();
+        store.forEach(keys::add);
+
+        assertThat(keys).containsExactlyInAnyOrderElementsOf(items(0, 100));
+    }
+
+    private StepExecution run(List<String> items, long expectedInsertions, double falsePositiveRate) throws Exception {
+        DeduplicatingItemProcessor<String> processor = new DeduplicatingItemProcessor<>(item -> item,
+                new JdbcSeenItemStore(embeddedJobRepository.getDatabase(), "seen_item"), tempDir.resolve("seen.bloom"));
+        processor.setExpectedInsertions(expectedInsertions);
+        processor.setFalsePositiveRate(falsePositiveRate);
+
+        Step step = embeddedJobRepository.stepBuilderFactory().get("dedupStep")
+                .<String, String> chunk(100)
+                .reader(new ListItemReader<>(items))
+                .processor(processor)
+                .writer(written::addAll)
+                .build();
+        JobExecution jobExecution = embeddedJobRepository.getJobLauncher().run(
+                embeddedJobRepository.jobBuilderFactory().get("dedupJob").start(step).build(),
+                new JobParametersBuilder().addLong("run.id", ++runId).toJobParameters());
+        return jobExecution.getStepExecutions().iterator().next();
+    }
+
+    private static List<String> items(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "item-" + i).collect(Collectors.toList());
+    }
+}
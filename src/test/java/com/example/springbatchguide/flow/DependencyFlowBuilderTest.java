@@ -0,0 +1,126 @@
+package com.example.springbatchguide.flow;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class DependencyFlowBuilderTest {
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private JobBuilderFactory jobBuilderFactory;
+
+    private StepBuilderFactory stepBuilderFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.embeddedJobRepository = new EmbeddedJobRepository();
+        this.jobBuilderFactory = this.embeddedJobRepository.jobBuilderFactory();
+        this.stepBuilderFactory = this.embeddedJobRepository.stepBuilderFactory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.embeddedJobRepository.close();
+    }
+
+    @Test
+    void runsIndependentStepsConcurrentlyInsideFlowStep() throws Exception {
+        Step loadFileStep = sleepingStep("loadFileStep");
+        Step loadCustomerStep = sleepingStep("loadCustomerStep");
+        Step updateStartStep = sleepingStep("updateStartStep");
+
+        Step initializeBatch = this.stepBuilderFactory.get("initializeBatch")
+                .flow(new DependencyFlowBuilder("preProcessingFlow", new SimpleAsyncTaskExecutor())
+                        .step(loadFileStep)
+                        .step(loadCustomerStep)
+                        .step(updateStartStep, loadFileStep, loadCustomerStep)
+                        .build())
+                .build();
+        Job job = this.jobBuilderFactory.get("flowJob").start(initializeBatch).build();
+
+        JobExecution jobExecution = this.embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Map<String, StepExecution> steps = jobExecution.getStepExecutions().stream()
+                .collect(Collectors.toMap(StepExecution::getStepName, Function.identity()));
+        assertThat(steps).containsKeys("initializeBatch", "loadFileStep", "loadCustomerStep", "updateStartStep");
+
+        StepExecution loadFile = steps.get("loadFileStep");
+        StepExecution loadCustomer = steps.get("loadCustomerStep");
+        StepExecution updateStart = steps.get("updateStartStep");
+
+        // 두 적재 스텝은 겹쳐서 실행되고, updateStartStep 은 둘 다 끝난 뒤 시작
+        assertThat(loadCustomer.getStartTime()).isBefore(loadFile.getEndTime());
+        assertThat(loadFile.getStartTime()).isBefore(loadCustomer.getEndTime());
+        assertThat(updateStart.getStartTime()).isAfterOrEqualTo(loadFile.getEndTime());
+        assertThat(updateStart.getStartTime()).isAfterOrEqualTo(loadCustomer.getEndTime());
+    }
+
+    @Test
+    void runsChainsAndDiamondsInDependencyOrder() throws Exception {
+        Step a = sleepingStep("a");
+        Step b = sleepingStep("b");
+        Step c = sleepingStep("c");
+        Step d = sleepingStep("d");
+        Step e = sleepingStep("e");
+
+        Job job = this.jobBuilderFactory.get("diamondJob")
+                .start(new DependencyFlowBuilder("diamond", new SimpleAsyncTaskExecutor())
+                        .step(a)
+                        .step(b, a)
+                        .step(c, a)
+                        .step(d, b)
+                        .step(e, d, c)
+                        .build())
+                .end()
+                .build();
+
+        JobExecution jobExecution = this.embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Map<String, StepExecution> steps = jobExecution.getStepExecutions().stream()
+                .collect(Collectors.toMap(StepExecution::getStepName, Function.identity()));
+        assertThat(steps.get("b").getStartTime()).isAfterOrEqualTo(steps.get("a").getEndTime());
+        assertThat(steps.get("d").getStartTime()).isAfterOrEqualTo(steps.get("b").getEndTime());
+        assertThat(steps.get("c").getStartTime()).isBefore(steps.get("d").getEndTime());
+        assertThat(steps.get("e").getStartTime()).isAfterOrEqualTo(steps.get("d").getEndTime());
+        assertThat(steps.get("e").getStartTime()).isAfterOrEqualTo(steps.get("c").getEndTime());
+    }
+
+    @Test
+    void rejectsDependencyOnUnregisteredStep() {
+        Step a = sleepingStep("a");
+        Step b = sleepingStep("b");
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new DependencyFlowBuilder("flow", new SimpleAsyncTaskExecutor()).step(b, a));
+    }
+
+    private Step sleepingStep(String name) {
+        return this.stepBuilderFactory.get(name)
+                .tasklet((contribution, chunkContext) -> {
+                    Thread.sleep(300);
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.springbatchguide.incremental;
+
+import com.example.springbatchguide.SpringBatchGuideApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = SpringBatchGuideApplication.class, properties = "incremental.append-only=true")
+@ActiveProfiles("test")
+class AppendOnlyBasicJobTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("job")
+    private Job basicJob;
+
+    @Test
+    void readsOnlyAppendedRows() throws Exception {
+        Path file = this.tempDir.resolve("input.csv");
+        Files.write(file, "id,name\n1,kim\n2,lee\n3,park\n".getBytes(StandardCharsets.UTF_8));
+
+        JobExecution first = run(file, "first");
+
+        Files.write(file, "4,choi\n5,jung\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        JobExecution second = run(file, "second");
+
+        assertThat(first.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(csvFileStep(first).getReadCount()).isEqualTo(3);
+        assertThat(csvFileStep(second).getReadCount()).isEqualTo(2);
+    }
+
+    private JobExecution run(Path file, String name) throws Exception {
+        return this.jobLauncher.run(this.basicJob, new JobParametersBuilder()
+                .addString("fileName", file.toString())
+                .addString("name", name)
+                .toJobParameters());
+    }
+
+    private static StepExecution csvFileStep(JobExecution jobExecution) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().equals("csvFileStep"))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.springbatchguide.incremental;
+
+import com.example.springbatchguide.reader.MappedCsvItemReader;
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InputFingerprintTaskletTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private Path file;
+
+    private final List<String> processed = new ArrayList<>();
+
+    private long runId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+        file = tempDir.resolve("input.csv");
+        Files.write(file, "id,name\n1,kim\n2,lee\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void skipsProcessingWhenInputIsUnchanged() throws Exception {
+        Job job = job(false);
+
+        JobExecution first = run(job);
+        assertThat(processed).containsExactly("1", "2");
+
+        // 내용은 같고 수정 시각만 바뀐 경우도 건너뛴다.
+        Files.setLastModifiedTime(file, Files.getLastModifiedTime(file));
+        JobExecution second = run(job);
+
+        assertThat(first.getStepExecutions()).hasSize(2);
+        assertThat(second.getStepExecutions()).hasSize(1);
+        assertThat(second.getStepExecutions().iterator().next().getExitStatus().getExitCode())
+                .isEqualTo(InputFingerprintTasklet.UNCHANGED.getExitCode());
+        assertThat(second.getExitStatus().getExitCode()).isEqualTo(ExitStatus.COMPLETED.getExitCode());
+        assertThat(processed).containsExactly("1", "2");
+    }
+
+    @Test
+    void processesOnlyAppendedRowsInAppendOnlyMode() throws Exception {
+        Job job = job(true);
+        run(job);
+
+        append("3,park\n4,choi\n");
+        run(job);
+
+        assertThat(processed).containsExactly("1", "2", "3", "4");
+    }
+
+    @Test
+    void reprocessesWholeFileWhenExistingRowsChange() throws Exception {
+        Job job = job(true);
+        run(job);
+
+        Files.write(file, "id,name\n1,KIM\n2,lee\n3,park\n".getBytes(StandardCharsets.UTF_8));
+        run(job);
+
+        assertThat(processed).containsExactly("1", "2", "1", "2", "3");
+    }
+
+    @Test
+    void reprocessesInputOfFailedRun() throws Exception {
+        Job job = job(false);
+        Files.write(file, "id,name\n1,kim\nx,lee\n".getBytes(StandardCharsets.UTF_8));
+        assertThat(run(job).getStatus()).isEqualTo(BatchStatus.FAILED);
+
+        Files.write(file, "id,name\n1,kim\n2,lee\n".getBytes(StandardCharsets.UTF_8));
+        run(job);
+        JobExecution unchanged = run(job);
+
+        assertThat(processed).containsExactly("1", "2");
+        assertThat(unchanged.getStepExecutions()).hasSize(1);
+    }
+
+    private Job job(boolean appendOnly) throws Exception {
+        InputFingerprintTasklet tasklet = new InputFingerprintTasklet(embeddedJobRepository.jobExplorer(), "fileName");
+        tasklet.setAppendOnly(appendOnly);
+
+        Step fingerprintStep = embeddedJobRepository.stepBuilderFactory().get("inputFingerprintStep")
+                .tasklet(tasklet)
+                .build();
+
+        // SpringBatchGuideApplication.csvItemReader 처럼 잡 ExecutionContext 의 시작 위치를 리더에 전달
+        MappedCsvItemReader<String> reader = new MappedCsvItemReader<>(file, record -> Long.toString(record.getLong(0)));
+        reader.setLinesToSkip(1);
+        Step processStep = embeddedJobRepository.stepBuilderFactory().get("processStep")
+                .<String, String> chunk(10)
+                .reader(reader)
+                .writer(processed::addAll)
+                .listener(new StepExecutionListenerSupport() {
+                    @Override
+                    public void beforeStep(StepExecution stepExecution) {
+                        reader.setStartOffset(stepExecution.getJobExecution().getExecutionContext()
+                                .getLong(InputFingerprintTasklet.startOffsetKey("fileName"), 0L));
+                    }
+                })
+                .build();
+
+        return embeddedJobRepository.jobBuilderFactory().get("incrementalJob")
+                .start(fingerprintStep)
+                .on(InputFingerprintTasklet.UNCHANGED.getExitCode()).end()
+                .from(fingerprintStep).on("*").to(processStep)
+                .end()
+                .build();
+    }
+
+    private JobExecution run(Job job) throws Exception {
+        return embeddedJobRepository.getJobLauncher().run(job, new JobParametersBuilder()
+                .addString("fileName", file.toString())
+                .addLong("run.id", ++runId)
+                .toJobParameters());
+    }
+
+    private void append(String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
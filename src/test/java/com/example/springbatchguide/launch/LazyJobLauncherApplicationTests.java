@@ -0,0 +1,47 @@
+package com.example.springbatchguide.launch;
+
+import com.example.springbatchguide.ChunkJob;
+import com.example.springbatchguide.ConditionalJob;
+import com.example.springbatchguide.FlowJob;
+import com.example.springbatchguide.SpringBatchGuideApplication;
+import com.example.springbatchguide.batch.BatchMetricsListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.configuration.support.MapJobRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LazyJobLauncherApplication 은 잡 이름을 직접 나열하므로, 구성 클래스에 잡 빈을 추가하면 이 테스트가 실패한다.
+ */
+@SpringBootTest(classes = {SpringBatchGuideApplication.class, ChunkJob.class, FlowJob.class, ConditionalJob.class})
+@ActiveProfiles("test")
+class LazyJobLauncherApplicationTests {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void registersEveryJobBeanWithItsConfiguration() {
+        Map<String, Class<?>> defined = new HashMap<>();
+        for (String beanName : this.beanFactory.getBeanNamesForType(Job.class)) {
+            String configurationBeanName = this.beanFactory.getBeanDefinition(beanName).getFactoryBeanName();
+            Class<?> configurationClass = ClassUtils.getUserClass(this.beanFactory.getType(configurationBeanName));
+            defined.put(this.beanFactory.getBean(beanName, Job.class).getName(), configurationClass);
+        }
+
+        LazyJobRegistrar registrar = new LazyJobLauncherApplication()
+                .lazyJobRegistrar(new MapJobRegistry(), new BatchMetricsListener(new SimpleMeterRegistry()));
+
+        assertThat(registrar.getConfigurations()).isEqualTo(defined);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.springbatchguide.launch;
+
+import com.example.springbatchguide.ChunkJob;
+import com.example.springbatchguide.ConditionalJob;
+import com.example.springbatchguide.FlowJob;
+import com.example.springbatchguide.SpringBatchGuideApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LazyJobLauncherApplication.class, properties = "chunk.item-count=1000")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LazyJobRegistrarTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private LazyJobRegistrar lazyJobRegistrar;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void startupRegistersJobNamesWithoutLoadingConfigurations() {
+        assertThat(this.jobRegistry.getJobNames()).containsExactlyInAnyOrder("basicJob", "chunkBasedJob",
+                "partitionedChunkJob", "jdbcChunkJob", "remoteChunkJob", "columnarChunkJob", "sortedChunkJob", "conditionalStepLogicJob",
+                "conditionalLogicJob", "conditionalDeciderJob");
+
+        assertThat(this.applicationContext.getBeanNamesForType(Job.class)).isEmpty();
+        assertThat(this.applicationContext.containsBean("itemReader")).isFalse();
+        assertThat(this.lazyJobRegistrar.isLoaded(ChunkJob.class)).isFalse();
+        assertThat(this.lazyJobRegistrar.isLoaded(FlowJob.class)).isFalse();
+    }
+
+    @Test
+    void launchingJobLoadsOnlyItsConfiguration() throws Exception {
+        Job job = this.jobRegistry.getJob("chunkBasedJob");
+        JobExecution jobExecution = this.jobLauncher.run(job, new JobParametersBuilder()
+                .addLong("run.id", System.nanoTime()).toJobParameters());
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(jobExecution.getStepExecutions().stream().mapToInt(StepExecution::getWriteCount).sum()).isEqualTo(1000);
+
+        assertThat(this.lazyJobRegistrar.isLoaded(ChunkJob.class)).isTrue();
+        assertThat(this.lazyJobRegistrar.isLoaded(FlowJob.class)).isFalse();
+        assertThat(this.lazyJobRegistrar.isLoaded(ConditionalJob.class)).isFalse();
+        assertThat(this.lazyJobRegistrar.isLoaded(SpringBatchGuideApplication.class)).isFalse();
+
+        LazyJobRegistrar.JobContextStatistics statistics = this.lazyJobRegistrar.getStatistics("chunkBasedJob");
+        assertThat(statistics).isNotNull();
+        assertThat(statistics.getHeapUsedBytes()).isPositive();
+        assertThat(this.lazyJobRegistrar.getStatistics("partitionedChunkJob")).isNull();
+
+        // 지표가 실제 레지스트리에 기록되는지 확인 (MeterRegistry 빈이 없으면 기록이 버려진다)
+        assertThat(this.meterRegistry.get("batch.job.duration").tag("job", "chunkBasedJob").timer().count()).isEqualTo(1);
+        assertThat(this.meterRegistry.get("batch.job.context.startup").tag("job", "chunkBasedJob").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void jobsOfSameConfigurationShareOneContext() throws Exception {
+        Job first = this.jobRegistry.getJob("conditionalLogicJob");
+        Job second = this.jobRegistry.getJob("conditionalDeciderJob");
+
+        assertThat(first.getName()).isEqualTo("conditionalLogicJob");
+        assertThat(second.getName()).isEqualTo("conditionalDeciderJob");
+        assertThat(this.jobRegistry.getJob("conditionalLogicJob")).isSameAs(first);
+        assertThat(this.lazyJobRegistrar.isLoaded(ConditionalJob.class)).isTrue();
+        assertThat(this.lazyJobRegistrar.isLoaded(ChunkJob.class)).isFalse();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springbatchguide.partition;
+
+import com.example.springbatchguide.ChunkJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ChunkJob.class, properties = "chunk.partition.grid-size=4")
+@ActiveProfiles("test")
+class PartitionedChunkJobTests {
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("chunkBasedJob")
+    private Job chunkBasedJob;
+
+    @Autowired
+    @Qualifier("partitionedChunkJob")
+    private Job partitionedChunkJob;
+
+    @Test
+    void partitionedJobWritesSameItemCountAsSingleThreadedJob() throws Exception {
+        JobExecution single = this.jobLauncher.run(this.chunkBasedJob, new JobParametersBuilder()
+                .addLong("run.id", 1L).toJobParameters());
+        JobExecution partitioned = this.jobLauncher.run(this.partitionedChunkJob, new JobParametersBuilder()
+                .addLong("run.id", 1L).toJobParameters());
+
+        assertThat(single.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(partitioned.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+        int singleWriteCount = writeCount(single, "chunkStep");
+        int partitionedWriteCount = writeCount(partitioned, "workerChunkStep");
+        long workerSteps = partitioned.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("workerChunkStep"))
+                .count();
+
+        assertThat(workerSteps).isEqualTo(4);
+        assertThat(partitionedWriteCount).isEqualTo(singleWriteCount).isEqualTo(100000);
+    }
+
+    private int writeCount(JobExecution jobExecution, String stepNamePrefix) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith(stepNamePrefix))
+                .mapToInt(StepExecution::getWriteCount)
+                .sum();
+    }
+}
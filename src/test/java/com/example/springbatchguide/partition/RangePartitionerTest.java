@@ -0,0 +1,31 @@
+package com.example.springbatchguide.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangePartitionerTest {
+
+    @Test
+    void splitsIntoContiguousRangesCoveringAllItems() {
+        Map<String, ExecutionContext> partitions = new RangePartitioner(10).partition(3);
+
+        assertThat(partitions).hasSize(3);
+        assertThat(range(partitions.get("partition0"))).containsExactly(0, 4);
+        assertThat(range(partitions.get("partition1"))).containsExactly(4, 7);
+        assertThat(range(partitions.get("partition2"))).containsExactly(7, 10);
+    }
+
+    @Test
+    void neverCreatesMorePartitionsThanItems() {
+        assertThat(new RangePartitioner(2).partition(8)).hasSize(2);
+        assertThat(new RangePartitioner(0).partition(8)).hasSize(1);
+    }
+
+    private int[] range(ExecutionContext context) {
+        return new int[] {context.getInt(RangePartitioner.MIN_INDEX_KEY), context.getInt(RangePartitioner.MAX_INDEX_KEY)};
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.springbatchguide.processor;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import com.example.springbatchguide.writer.AsyncItemWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncItemProcessorTest {
+
+    private static final int ITEM_COUNT = 100;
+
+    private static final int CHUNK_SIZE = 20;
+
+    private static final int CONCURRENCY_LIMIT = 4;
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    private final List<String> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(CONCURRENCY_LIMIT * 2);
+        taskExecutor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void processesConcurrentlyWithinLimitAndWritesInInputOrder() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ItemProcessor<String, String> slowProcessor = item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return Integer.parseInt(item) % 10 == 0 ? null : "enriched-" + item;
+        };
+
+        JobExecution jobExecution = run(slowProcessor, UnaryOperator.identity());
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(maxRunning.get()).isGreaterThan(1).isLessThanOrEqualTo(CONCURRENCY_LIMIT);
+        assertThat(written).containsExactlyElementsOf(items().stream()
+                .filter(item -> Integer.parseInt(item) % 10 != 0)
+                .map(item -> "enriched-" + item)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void failedItemIsSkippedInFaultTolerantStep() throws Exception {
+        ItemProcessor<String, String> processor = item -> {
+            if ("42".equals(item)) {
+                throw new IllegalArgumentException("invalid item " + item);
+            }
+            return item;
+        };
+
+        JobExecution jobExecution = run(processor, builder -> builder.faultTolerant()
+                .skip(IllegalArgumentException.class)
+                .skipLimit(1));
+
+        StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+        assertThat(written).hasSize(ITEM_COUNT - 1).doesNotContain("42").doesNotHaveDuplicates();
+    }
+
+    @Test
+    void failedItemIsReprocessedOnRetry() throws Exception {
+        Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+        ItemProcessor<String, String> processor = item -> {
+            if ("42".equals(item) && failedOnce.add(item)) {
+                throw new IllegalStateException("temporary failure");
+            }
+            return item;
+        };
+
+        JobExecution jobExecution = run(processor, builder -> builder.faultTolerant()
+                .retry(IllegalStateException.class)
+                .retryLimit(2));
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(written).containsExactlyElementsOf(items());
+    }
+
+    private JobExecution run(ItemProcessor<String, String> processor,
+                             UnaryOperator<SimpleStepBuilder<String, Future<String>>> customizer) throws Exception {
+        SimpleStepBuilder<String, Future<String>> builder = embeddedJobRepository.stepBuilderFactory().get("asyncStep")
+                .<String, Future<String>> chunk(CHUNK_SIZE)
+                .reader(new ListItemReader<>(items()))
+                .processor(new AsyncItemProcessor<>(processor, taskExecutor, CONCURRENCY_LIMIT))
+                .writer(new AsyncItemWriter<>(written::addAll));
+        Step step = customizer.apply(builder).build();
+
+        return embeddedJobRepository.getJobLauncher().run(
+                embeddedJobRepository.jobBuilderFactory().get("asyncJob").start(step).build(), new JobParameters());
+    }
+
+    private static List<String> items() {
+        return IntStream.range(0, ITEM_COUNT).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.springbatchguide.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedCsvItemReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsRecordsSkippingHeaderAndBlankLines() throws Exception {
+        Path file = write("id,name,amount\n1,kim,100\n\n2,lee,-20\r\n3,park,7");
+
+        MappedCsvItemReader<String> reader = new MappedCsvItemReader<>(file,
+                record -> record.getLong(0) + ":" + record.getString(1) + ":" + record.getInt(2));
+        reader.setLinesToSkip(1);
+
+        assertThat(readAll(reader, new ExecutionContext())).containsExactly("1:kim:100", "2:lee:-20", "3:park:7");
+    }
+
+    @Test
+    void handlesQuotedFieldsWithDelimitersNewlinesAndEscapedQuotes() throws Exception {
+        Path file = write("1,\"Seoul, Korea\",\"say \"\"hi\"\"\"\n2,\"multi\nline\",\n");
+
+        MappedCsvItemReader<String[]> reader = new MappedCsvItemReader<>(file, CsvRecord::toStringArray);
+
+        List<String[]> records = readAll(reader, new ExecutionContext());
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0)).containsExactly("1", "Seoul, Korea", "say \"hi\"");
+        assertThat(records.get(1)).containsExactly("2", "multi\nline", "");
+    }
+
+    @Test
+    void remapsWindowWhenRecordsCrossWindowBoundary() throws Exception {
+        StringBuilder content = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            content.append(i).append(",value-").append(i).append('\n');
+            expected.add("value-" + i);
+        }
+        Path file = write(content.toString());
+
+        MappedCsvItemReader<String> reader = new MappedCsvItemReader<>(file, record -> record.getString(1));
+        reader.setWindowSize(8);
+
+        assertThat(readAll(reader, new ExecutionContext())).isEqualTo(expected);
+    }
+
+    @Test
+    void restartSeeksToSavedByteOffset() throws Exception {
+        Path file = write("id\n1\n2\n3\n4\n5\n");
+        ExecutionContext executionContext = new ExecutionContext();
+
+        MappedCsvItemReader<Long> reader = new MappedCsvItemReader<>(file, record -> record.getLong(0));
+        reader.setLinesToSkip(1);
+        reader.open(executionContext);
+        assertThat(reader.read()).isEqualTo(1L);
+        assertThat(reader.read()).isEqualTo(2L);
+        reader.update(executionContext);
+        reader.close();
+
+        assertThat(executionContext.getLong("MappedCsvItemReader.offset")).isEqualTo(7L);
+
+        MappedCsvItemReader<Long> restarted = new MappedCsvItemReader<>(file, record -> record.getLong(0));
+        restarted.setLinesToSkip(1);
+        assertThat(readAll(restarted, executionContext)).containsExactly(3L, 4L, 5L);
+    }
+
+    private Path write(String content) throws Exception {
+        return Files.write(this.tempDir.resolve("input.csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> List<T> readAll(MappedCsvItemReader<T> reader, ExecutionContext executionContext) throws Exception {
+        reader.open(executionContext);
+        List<T> items = new ArrayList<>();
+        T item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+}
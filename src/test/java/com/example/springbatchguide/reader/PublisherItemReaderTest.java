@@ -0,0 +1,199 @@
+package com.example.springbatchguide.reader;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import com.example.springbatchguide.writer.PublishingItemWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublisherItemReaderTest {
+
+    private static final int CHUNK_SIZE = 10;
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private ExecutorService emitter;
+
+    private final List<Long> subscribedOffsets = new CopyOnWriteArrayList<>();
+
+    private final List<Long> requests = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong maxUndelivered = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+        emitter = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitter.shutdownNow();
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void requestsOneChunkAtATimeAndPublishesCommittedChunks() throws Exception {
+        CollectingSink sink = new CollectingSink();
+
+        JobExecution jobExecution = run(sink, item -> item);
+
+        assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(requests).allSatisfy(n -> assertThat(n).isEqualTo(CHUNK_SIZE));
+        assertThat(maxUndelivered.get()).isLessThanOrEqualTo(CHUNK_SIZE);
+        assertThat(sink.chunks).hasSize(5).allSatisfy(chunk -> assertThat(chunk).hasSize(CHUNK_SIZE));
+        assertThat(flatten(sink.chunks)).isEqualTo(range(0, 50));
+        assertThat(sink.completed).isTrue();
+    }
+
+    @Test
+    void restartResubscribesFromCheckpointedOffset() throws Exception {
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        ItemProcessor<Long, Long> processor = item -> {
+            if (item == 25 && failOnce.getAndSet(false)) {
+                throw new IllegalStateException("fail on " + item);
+            }
+            return item;
+        };
+
+        CollectingSink firstSink = new CollectingSink();
+        JobExecution first = run(firstSink, processor);
+        CollectingSink secondSink = new CollectingSink();
+        JobExecution second = run(secondSink, processor);
+
+        assertThat(first.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(subscribedOffsets).containsExactly(0L, 20L);
+
+        // 롤백된 청크(20~29)는 첫 번째 싱크에 전달되지 않는다.
+        assertThat(flatten(firstSink.chunks)).isEqualTo(range(0, 20));
+        assertThat(firstSink.error).isInstanceOf(IllegalStateException.class);
+        assertThat(flatten(secondSink.chunks)).isEqualTo(range(20, 50));
+        assertThat(secondSink.completed).isTrue();
+    }
+
+    private JobExecution run(CollectingSink sink, ItemProcessor<Long, Long> processor) throws Exception {
+        PublisherItemReader<Long> reader = new PublisherItemReader<>(offset -> new RangePublisher(offset, 50), CHUNK_SIZE);
+        reader.setReadTimeoutMillis(5_000);
+        PublishingItemWriter<Long> writer = new PublishingItemWriter<>(sink);
+        writer.setWriteTimeoutMillis(5_000);
+
+        Step step = embeddedJobRepository.stepBuilderFactory().get("publisherStep")
+                .<Long, Long> chunk(CHUNK_SIZE)
+                .reader(reader)
+                .processor(processor)
+                .writer(writer)
+                .listener((StepExecutionListener) writer)
+                .build();
+        Job job = embeddedJobRepository.jobBuilderFactory().get("publisherJob").start(step).build();
+
+        return embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+    }
+
+    private static List<Long> flatten(List<List<Long>> chunks) {
+        return chunks.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static List<Long> range(long from, long to) {
+        return IntStream.range((int) from, (int) to).mapToObj(i -> (long) i).collect(Collectors.toList());
+    }
+
+    /**
+     * 요청을 받는 즉시 별도 스레드에서 내보내는 빠른 소스. 요청 크기와 아직 꺼내지 않은 최대 건수를 기록한다.
+     */
+    private class RangePublisher implements Flow.Publisher<Long> {
+
+        private final long from;
+
+        private final long to;
+
+        RangePublisher(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Long> subscriber) {
+            subscribedOffsets.add(from);
+            AtomicLong next = new AtomicLong(from);
+            AtomicLong undelivered = new AtomicLong();
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requests.add(n);
+                    emitter.execute(() -> {
+                        maxUndelivered.accumulateAndGet(undelivered.addAndGet(n), Math::max);
+                        for (long i = 0; i < n && next.get() < to; i++) {
+                            subscriber.onNext(next.getAndIncrement());
+                            undelivered.decrementAndGet();
+                        }
+                        if (next.get() == to) {
+                            next.incrementAndGet();
+                            subscriber.onComplete();
+                        }
+                    });
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+    }
+
+    /**
+     * 청크를 하나씩 요청하는 싱크
+     */
+    private static class CollectingSink implements Flow.Subscriber<List<Long>> {
+
+        private final List<List<Long>> chunks = new ArrayList<>();
+
+        private Flow.Subscription subscription;
+
+        private boolean completed;
+
+        private Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<Long> chunk) {
+            chunks.add(chunk);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
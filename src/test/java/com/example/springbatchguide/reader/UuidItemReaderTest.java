@@ -0,0 +1,78 @@
+package com.example.springbatchguide.reader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidItemReaderTest {
+
+    @Test
+    void producesSameItemsForSameSeed() throws Exception {
+        assertThat(readAll(newReader(10, 42L), new ExecutionContext()))
+                .hasSize(10)
+                .doesNotHaveDuplicates()
+                .isEqualTo(readAll(newReader(10, 42L), new ExecutionContext()));
+    }
+
+    @Test
+    void producesVersion4Uuids() throws Exception {
+        for (String item : readAll(newReader(100, 7L), new ExecutionContext())) {
+            UUID uuid = UUID.fromString(item);
+            assertThat(uuid.version()).isEqualTo(4);
+            assertThat(uuid.variant()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void restartResumesFromLastSavedPositionWithSavedSeed() throws Exception {
+        List<String> expected = readAll(newReader(10, 42L), new ExecutionContext());
+
+        ExecutionContext executionContext = new ExecutionContext();
+        UuidItemReader reader = newReader(10, 42L);
+        reader.open(executionContext);
+        List<String> firstRun = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            firstRun.add(reader.read());
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        // 재시작 시 시드를 지정하지 않아도 저장된 시드를 사용
+        List<String> secondRun = readAll(newReader(10, null), executionContext);
+
+        assertThat(firstRun).isEqualTo(expected.subList(0, 4));
+        assertThat(secondRun).isEqualTo(expected.subList(4, 10));
+    }
+
+    @Test
+    void rangeReaderProducesSliceOfFullSequence() throws Exception {
+        List<String> expected = readAll(newReader(10, 42L), new ExecutionContext());
+
+        UuidItemReader reader = new UuidItemReader(3, 7);
+        reader.setSeed(42L);
+
+        assertThat(readAll(reader, new ExecutionContext())).isEqualTo(expected.subList(3, 7));
+    }
+
+    private UuidItemReader newReader(int itemCount, Long seed) {
+        UuidItemReader reader = new UuidItemReader(itemCount);
+        reader.setSeed(seed);
+        return reader;
+    }
+
+    private List<String> readAll(UuidItemReader reader, ExecutionContext executionContext) throws Exception {
+        reader.open(executionContext);
+        List<String> items = new ArrayList<>();
+        String item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+}
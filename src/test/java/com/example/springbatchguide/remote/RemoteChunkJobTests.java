@@ -0,0 +1,55 @@
+package com.example.springbatchguide.remote;
+
+import com.example.springbatchguide.ChunkJob;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ChunkJob.class, properties = {
+        "chunk.item-count=5000",
+        "chunk.writer.output=target/remote-chunk-output.txt"})
+@ActiveProfiles("test")
+class RemoteChunkJobTests {
+
+    private static final Path OUTPUT = Paths.get("target/remote-chunk-output.txt");
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("remoteChunkJob")
+    private Job remoteChunkJob;
+
+    @BeforeAll
+    static void deleteOutput() throws Exception {
+        Files.deleteIfExists(OUTPUT);
+    }
+
+    @Test
+    void managerStepOpensAndClosesLoopbackWorkersWriter() throws Exception {
+        // 컨텍스트가 뜰 때는 출력 파일을 열지 않는다.
+        assertThat(OUTPUT).doesNotExist();
+
+        for (long runId = 1; runId <= 2; runId++) {
+            JobExecution jobExecution = this.jobLauncher.run(this.remoteChunkJob, new JobParametersBuilder()
+                    .addLong("run.id", runId).toJobParameters());
+
+            assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(Files.readAllLines(OUTPUT)).hasSize(5000);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.springbatchguide.remote;
+
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.ListItemReader;
+
+import java.io.EOFException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RemoteChunkingTest {
+
+    private static final int ITEM_COUNT = 1000;
+
+    private static final int CHUNK_SIZE = 10;
+
+    private static final int THROTTLE_LIMIT = 4;
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private final Queue<String> written = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void loopbackWorkersWriteEveryChunkWithinThrottleLimit() throws Exception {
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<RemoteChunkItemWriter<String>> managerWriter = new ArrayList<>(1);
+        ItemWriter<String> workerWriter = items -> {
+            maxInFlight.accumulateAndGet(managerWriter.get(0).getInFlightCount(), Math::max);
+            Thread.sleep(1);
+            written.addAll(items);
+        };
+
+        try (LoopbackChunkChannel channel = new LoopbackChunkChannel(Arrays.asList(
+                new ChunkWorker<String, String>(null, workerWriter), new ChunkWorker<String, String>(null, workerWriter)))) {
+            managerWriter.add(newManagerWriter(channel));
+            JobExecution jobExecution = run(managerWriter.get(0));
+
+            assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(written).containsExactlyInAnyOrderElementsOf(items());
+            assertThat(maxInFlight.get()).isBetween(1, THROTTLE_LIMIT);
+            assertThat(managerWriter.get(0).getInFlightCount()).isZero();
+        }
+    }
+
+    @Test
+    void chunksOfStoppedLoopbackWorkerAreRedelivered() throws Exception {
+        AtomicInteger firstWorkerChunks = new AtomicInteger();
+        List<LoopbackChunkChannel> channels = new ArrayList<>(1);
+        // 세 번째 청크를 쓰는 도중 워커가 죽는다. (쓰기 전에 죽으므로 중복 없이 다른 워커가 쓴다)
+        ItemWriter<String> dyingWriter = items -> {
+            if (firstWorkerChunks.incrementAndGet() == 3) {
+                channels.get(0).stop(0);
+                throw new IllegalStateException("worker crashed");
+            }
+            written.addAll(items);
+        };
+        ItemWriter<String> survivingWriter = written::addAll;
+
+        try (LoopbackChunkChannel channel = new LoopbackChunkChannel(Arrays.asList(
+                new ChunkWorker<String, String>(null, dyingWriter), new ChunkWorker<String, String>(null, survivingWriter)))) {
+            channels.add(channel);
+            JobExecution jobExecution = run(newManagerWriter(channel));
+
+            assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(firstWorkerChunks.get()).isEqualTo(3);
+            assertThat(written).containsExactlyInAnyOrderElementsOf(items());
+        }
+    }
+
+    @Test
+    void socketChannelFailsOverWhenWorkerServerCloses() throws Exception {
+        AtomicInteger firstWorkerChunks = new AtomicInteger();
+        List<ChunkWorkerServer> servers = new ArrayList<>(2);
+        ItemWriter<String> dyingWriter = items -> {
+            if (firstWorkerChunks.incrementAndGet() == 5) {
+                servers.get(0).close();
+                throw new IllegalStateException("worker crashed");
+            }
+            written.addAll(items);
+        };
+
+        try (ChunkWorkerServer first = new ChunkWorkerServer(0, new ChunkWorker<String, String>(null, dyingWriter));
+             ChunkWorkerServer second = new ChunkWorkerServer(0, new ChunkWorker<String, String>(null, written::addAll))) {
+            servers.add(first);
+            servers.add(second);
+
+            try (SocketChunkChannel channel = new SocketChunkChannel(Arrays.asList(
+                    new InetSocketAddress("127.0.0.1", first.getPort()), new InetSocketAddress("127.0.0.1", second.getPort())))) {
+                assertThat(channel.getConnectedWorkerCount()).isEqualTo(2);
+
+                JobExecution jobExecution = run(newManagerWriter(channel));
+
+                assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+                assertThat(channel.getConnectedWorkerCount()).isEqualTo(1);
+                assertThat(written).containsExactlyInAnyOrderElementsOf(items());
+            }
+        }
+    }
+
+    @Test
+    void failureResponseFailsManagerStep() throws Exception {
+        ItemWriter<String> failingWriter = items -> {
+            if (items.contains("500")) {
+                throw new IllegalStateException("invalid item");
+            }
+            written.addAll(items);
+        };
+
+        try (LoopbackChunkChannel channel = new LoopbackChunkChannel(Arrays.asList(
+                new ChunkWorker<String, String>(null, failingWriter)))) {
+            JobExecution jobExecution = run(newManagerWriter(channel));
+
+            assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+            assertThat(jobExecution.getStepExecutions().iterator().next().getExitStatus().getExitDescription())
+                    .contains("invalid item");
+            assertThat(written).doesNotContain("500");
+        }
+    }
+
+    @Test
+    void workerServerRejectsClassesOutsideAllowList() throws Exception {
+        try (ChunkWorkerServer server = new ChunkWorkerServer(0, new ChunkWorker<String, String>(null, written::addAll));
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+
+            out.writeObject(new ChunkRequest(1L, 0L, new ArrayList<>(Arrays.asList("a", "b"))));
+            out.flush();
+            assertThat(((ChunkResponse) in.readObject()).isSuccessful()).isTrue();
+
+            // 허용 목록에 없는 클래스가 섞인 요청은 역직렬화하지 않고 연결을 끊는다.
+            out.writeObject(new ChunkRequest(1L, 1L, new ArrayList<>(Arrays.asList("c", new Date()))));
+            out.flush();
+            assertThatThrownBy(in::readObject).isInstanceOf(EOFException.class);
+            assertThat(written).containsExactly("a", "b");
+        }
+    }
+
+    private RemoteChunkItemWriter<String> newManagerWriter(ChunkChannel channel) {
+        RemoteChunkItemWriter<String> writer = new RemoteChunkItemWriter<>(channel);
+        writer.setThrottleLimit(THROTTLE_LIMIT);
+        writer.setResponseTimeoutMillis(10_000);
+        return writer;
+    }
+
+    private JobExecution run(RemoteChunkItemWriter<String> managerWriter) throws Exception {
+        Job job = embeddedJobRepository.jobBuilderFactory().get("remoteChunkJob")
+                .start(embeddedJobRepository.stepBuilderFactory().get("remoteChunkStep")
+                        .<String, String> chunk(CHUNK_SIZE)
+                        .reader(new ListItemReader<>(items()))
+                        .writer(managerWriter)
+                        .listener((StepExecutionListener) managerWriter)
+                        .build())
+                .build();
+        return embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+    }
+
+    private static List<String> items() {
+        return IntStream.range(0, ITEM_COUNT).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+}
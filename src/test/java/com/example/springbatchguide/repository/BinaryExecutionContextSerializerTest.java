@@ -0,0 +1,139 @@
+package com.example.springbatchguide.repository;
+
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.batch.item.ItemWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryExecutionContextSerializerTest {
+
+    @Test
+    void roundTripsSupportedAndFallbackTypes() throws Exception {
+        Map<String, Object> context = new HashMap<>();
+        context.put("string", "한글 문자열");
+        context.put("int", -42);
+        context.put("long", Long.MIN_VALUE);
+        context.put("double", 3.14d);
+        context.put("float", 1.5f);
+        context.put("short", (short) 7);
+        context.put("byte", (byte) -1);
+        context.put("true", true);
+        context.put("false", false);
+        context.put("date", new Date(1_700_000_000_000L));
+        context.put("list", new ArrayList<>(Arrays.asList("a", "b")));
+
+        BinaryExecutionContextSerializer serializer = new BinaryExecutionContextSerializer();
+        Map<String, Object> restored = serializer.deserialize(new ByteArrayInputStream(serialize(serializer, context)));
+
+        assertThat(restored).isEqualTo(context);
+        assertThat(restored.get("int")).isInstanceOf(Integer.class);
+        assertThat(restored.get("date")).isInstanceOf(Date.class);
+    }
+
+    @Test
+    void isSmallerThanJsonAndCompressesLargeContexts() throws Exception {
+        Map<String, Object> checkpoint = new HashMap<>();
+        checkpoint.put("batch.taskletType", "org.springframework.batch.core.step.item.ChunkOrientedTasklet");
+        checkpoint.put("batch.stepType", "org.springframework.batch.core.step.tasklet.TaskletStep");
+        checkpoint.put("uuidItemReader.read.count", 123_456);
+        checkpoint.put("uuidItemReader.seed", 987_654_321L);
+
+        BinaryExecutionContextSerializer binary = new BinaryExecutionContextSerializer();
+        Jackson2ExecutionContextStringSerializer json = new Jackson2ExecutionContextStringSerializer();
+        assertThat(serialize(binary, checkpoint).length).isLessThan(serialize(json, checkpoint).length);
+
+        Map<String, Object> large = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            large.put("partition" + i + ".reader.read.count", i);
+        }
+        BinaryExecutionContextSerializer uncompressed = new BinaryExecutionContextSerializer();
+        uncompressed.setCompress(false);
+        byte[] compressedBytes = serialize(binary, large);
+
+        assertThat(compressedBytes.length).isLessThan(serialize(uncompressed, large).length);
+        assertThat(binary.deserialize(new ByteArrayInputStream(compressedBytes))).isEqualTo(large);
+    }
+
+    @Test
+    void readsContextsWrittenAsJson() throws Exception {
+        Map<String, Object> context = new HashMap<>();
+        context.put("reader.read.count", 10);
+        context.put("fileName", "input.csv");
+
+        byte[] jsonBytes = serialize(new Jackson2ExecutionContextStringSerializer(), context);
+
+        assertThat(new BinaryExecutionContextSerializer().deserialize(new ByteArrayInputStream(jsonBytes))).isEqualTo(context);
+    }
+
+    @Test
+    void restartsFromCheckpointStoredInBinary() throws Exception {
+        try (EmbeddedJobRepository embeddedJobRepository =
+                     new EmbeddedJobRepository(new BinaryExecutionContextSerializer(), UnaryOperator.identity())) {
+            List<String> written = new ArrayList<>();
+            AtomicBoolean failOnce = new AtomicBoolean(true);
+            ItemWriter<String> writer = items -> {
+                if (written.size() >= 50 && failOnce.getAndSet(false)) {
+                    throw new IllegalStateException("write failure");
+                }
+                written.addAll(items);
+            };
+            UuidItemReader reader = new UuidItemReader(100);
+            reader.setSeed(1L);
+
+            Job job = embeddedJobRepository.jobBuilderFactory().get("binaryContextJob")
+                    .start(embeddedJobRepository.stepBuilderFactory().get("binaryContextStep")
+                            .<String, String> chunk(10)
+                            .reader(reader)
+                            .writer(writer)
+                            .build())
+                    .build();
+            JobParameters jobParameters = new JobParametersBuilder().addLong("seed", 1L).toJobParameters();
+
+            JobExecution failed = embeddedJobRepository.getJobLauncher().run(job, jobParameters);
+            assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+
+            String storedContext = embeddedJobRepository.jdbcTemplate()
+                    .queryForObject("SELECT SHORT_CONTEXT FROM BATCH_STEP_EXECUTION_CONTEXT", String.class);
+            assertThat(storedContext).startsWith("bin1:");
+
+            JobExecution restarted = embeddedJobRepository.getJobLauncher().run(job, jobParameters);
+            StepExecution stepExecution = restarted.getStepExecutions().iterator().next();
+            assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(stepExecution.getReadCount()).isEqualTo(50);
+            assertThat(written).hasSize(100).doesNotHaveDuplicates();
+
+            StepExecution explored = embeddedJobRepository.jobExplorer()
+                    .getStepExecution(restarted.getId(), stepExecution.getId());
+            assertThat(explored.getExecutionContext().getInt("UuidItemReader.read.count")).isEqualTo(100);
+            assertThat(explored.getExecutionContext().getLong("UuidItemReader.seed")).isEqualTo(1L);
+        }
+    }
+
+    private static byte[] serialize(org.springframework.batch.core.repository.ExecutionContextSerializer serializer,
+                                    Map<String, Object> context) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize(context, out);
+        return out.toString(StandardCharsets.ISO_8859_1).getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
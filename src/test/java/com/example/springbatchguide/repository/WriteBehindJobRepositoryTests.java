@@ -0,0 +1,168 @@
+package com.example.springbatchguide.repository;
+
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ItemWriter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindJobRepositoryTests {
+
+    private static final int ITEM_COUNT = 1000;
+
+    private static final int CHUNK_SIZE = 10;
+
+    private static final int FLUSH_INTERVAL_CHUNKS = 10;
+
+    private final Map<String, AtomicInteger> delegateCalls = new ConcurrentHashMap<>();
+
+    @Test
+    void batchedDurabilityCoalescesStepUpdatesAndPersistsSameFinalState() throws Exception {
+        Map<String, Object> immediate = runJob(WriteBehindJobRepository.Durability.IMMEDIATE);
+        int immediateUpdates = this.delegateCalls.get("update:StepExecution").get();
+        int immediateContextUpdates = this.delegateCalls.get("updateExecutionContext:StepExecution").get();
+
+        this.delegateCalls.clear();
+        Map<String, Object> batched = runJob(WriteBehindJobRepository.Durability.BATCHED);
+        int batchedUpdates = this.delegateCalls.get("update:StepExecution").get();
+        int batchedContextUpdates = this.delegateCalls.get("updateExecutionContext:StepExecution").get();
+
+        assertThat(batched).isEqualTo(immediate);
+        assertThat(((Number) batched.get("COMMIT_COUNT")).intValue()).isEqualTo(ITEM_COUNT / CHUNK_SIZE + 1);
+        assertThat(batchedUpdates).isLessThanOrEqualTo(immediateUpdates / 5);
+        assertThat(batchedContextUpdates).isLessThanOrEqualTo(immediateContextUpdates / 5);
+    }
+
+    @Test
+    void persistedProgressLagsByLessThanFlushInterval() throws Exception {
+        try (EmbeddedJobRepository embeddedJobRepository = newRepository(WriteBehindJobRepository.Durability.BATCHED)) {
+            List<Integer> lags = new ArrayList<>();
+            ChunkListener lagRecorder = new ChunkListener() {
+                @Override
+                public void beforeChunk(ChunkContext context) {
+                }
+
+                @Override
+                public void afterChunk(ChunkContext context) {
+                    StepExecution stepExecution = context.getStepContext().getStepExecution();
+                    Integer persisted = embeddedJobRepository.jdbcTemplate().queryForObject(
+                            "SELECT COMMIT_COUNT FROM BATCH_STEP_EXECUTION WHERE STEP_EXECUTION_ID = ?",
+                            Integer.class, stepExecution.getId());
+                    lags.add(stepExecution.getCommitCount() - persisted);
+                }
+
+                @Override
+                public void afterChunkError(ChunkContext context) {
+                }
+            };
+
+            Job job = embeddedJobRepository.jobBuilderFactory().get("writeBehindJob")
+                    .start(embeddedJobRepository.stepBuilderFactory().get("writeBehindStep")
+                            .<String, String> chunk(CHUNK_SIZE)
+                            .reader(newReader())
+                            .writer(items -> { })
+                            .listener(lagRecorder)
+                            .build())
+                    .build();
+
+            embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+
+            assertThat(lags).isNotEmpty().allMatch(lag -> lag >= 0 && lag < FLUSH_INTERVAL_CHUNKS);
+            assertThat(lags).anyMatch(lag -> lag > 0);
+        }
+    }
+
+    @Test
+    void failedStepIsFlushedSoRestartResumesFromLastCommittedChunk() throws Exception {
+        try (EmbeddedJobRepository embeddedJobRepository = newRepository(WriteBehindJobRepository.Durability.BATCHED)) {
+            List<String> written = new ArrayList<>();
+            AtomicBoolean failOnce = new AtomicBoolean(true);
+            AtomicInteger chunks = new AtomicInteger();
+            ItemWriter<String> writer = items -> {
+                if (chunks.incrementAndGet() == 16 && failOnce.getAndSet(false)) {
+                    throw new IllegalStateException("write failure");
+                }
+                written.addAll(items);
+            };
+
+            Job job = embeddedJobRepository.jobBuilderFactory().get("writeBehindJob")
+                    .start(embeddedJobRepository.stepBuilderFactory().get("writeBehindStep")
+                            .<String, String> chunk(CHUNK_SIZE)
+                            .reader(newReader())
+                            .writer(writer)
+                            .build())
+                    .build();
+
+            JobExecution failed = embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+            assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+            assertThat(written).hasSize(150);
+
+            JobExecution restarted = embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+            assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(written).hasSize(ITEM_COUNT).doesNotHaveDuplicates();
+        }
+    }
+
+    private Map<String, Object> runJob(WriteBehindJobRepository.Durability durability) throws Exception {
+        try (EmbeddedJobRepository embeddedJobRepository = newRepository(durability)) {
+            Job job = embeddedJobRepository.jobBuilderFactory().get("writeBehindJob")
+                    .start(embeddedJobRepository.stepBuilderFactory().get("writeBehindStep")
+                            .<String, String> chunk(CHUNK_SIZE)
+                            .reader(newReader())
+                            .writer(items -> { })
+                            .build())
+                    .build();
+
+            JobExecution jobExecution = embeddedJobRepository.getJobLauncher().run(job, new JobParameters());
+            assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+
+            Map<String, Object> persisted = embeddedJobRepository.jdbcTemplate().queryForMap(
+                    "SELECT STATUS, COMMIT_COUNT, READ_COUNT, WRITE_COUNT, ROLLBACK_COUNT FROM BATCH_STEP_EXECUTION");
+            persisted.put("CONTEXT", embeddedJobRepository.jdbcTemplate().queryForObject(
+                    "SELECT SHORT_CONTEXT FROM BATCH_STEP_EXECUTION_CONTEXT", String.class));
+            return persisted;
+        }
+    }
+
+    private EmbeddedJobRepository newRepository(WriteBehindJobRepository.Durability durability) throws Exception {
+        return new EmbeddedJobRepository(jobRepository ->
+                new WriteBehindJobRepository(counting(jobRepository), durability, FLUSH_INTERVAL_CHUNKS, 60_000));
+    }
+
+    private UuidItemReader newReader() {
+        UuidItemReader reader = new UuidItemReader(ITEM_COUNT);
+        reader.setSeed(42L);
+        return reader;
+    }
+
+    private JobRepository counting(JobRepository target) {
+        return (JobRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {JobRepository.class},
+                (proxy, method, args) -> {
+                    String key = method.getName() + ":" + method.getParameterTypes()[0].getSimpleName();
+                    this.delegateCalls.computeIfAbsent(key, name -> new AtomicInteger()).incrementAndGet();
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.springbatchguide.sort;
+
+import com.example.springbatchguide.reader.UuidItemReader;
+import com.example.springbatchguide.support.EmbeddedJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExternalSortTest {
+
+    private static final int ITEM_COUNT = 5000;
+
+    private static final long SEED = 42L;
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedJobRepository embeddedJobRepository;
+
+    private final List<String> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        embeddedJobRepository = new EmbeddedJobRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddedJobRepository.close();
+    }
+
+    @Test
+    void mergesSortedRunsAndDeletesThem() throws Exception {
+        JobExecution execution = run(sortJob(item -> item, written::addAll));
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(SortedRunWriter.parseRuns(execution.getExecutionContext().getString(SortedRunWriter.runsKey("runs")))).hasSize(8);
+        assertThat(written).isEqualTo(expected());
+        assertThat(runFiles()).isEmpty();
+        assertThat(tempDir.resolve(String.valueOf(execution.getJobId()))).doesNotExist();
+    }
+
+    @Test
+    void restartedSortStepKeepsCommittedRuns() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        ItemProcessor<String, String> failOnce = item -> {
+            if (processed.incrementAndGet() == 3000) {
+                throw new IllegalStateException("boom");
+            }
+            return item;
+        };
+
+        JobExecution failed = run(sortJob(failOnce, written::addAll));
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(runFiles()).hasSize(4);
+
+        JobExecution restarted = run(sortJob(failOnce, written::addAll));
+
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(stepExecution(restarted, "sortRunStep").getReadCount()).isEqualTo(ITEM_COUNT - 2800);
+        assertThat(written).isEqualTo(expected());
+    }
+
+    @Test
+    void restartedMergeStepResumesFromSavedOffsets() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        ItemWriter<String> failOnce = items -> {
+            if (writes.incrementAndGet() == 3) {
+                throw new IllegalStateException("boom");
+            }
+            written.addAll(items);
+        };
+
+        JobExecution failed = run(sortJob(item -> item, failOnce));
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(written).hasSize(2000);
+        assertThat(runFiles()).hasSize(8);
+
+        JobExecution restarted = run(sortJob(item -> item, failOnce));
+
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(stepExecution(restarted, "sortMergeStep").getReadCount()).isEqualTo(ITEM_COUNT - 2000);
+        assertThat(written).isEqualTo(expected());
+        assertThat(runFiles()).isEmpty();
+    }
+
+    @Test
+    void otherJobInstanceDoesNotTouchRunsKeptForRestart() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        ItemProcessor<String, String> failOnce = item -> {
+            if (processed.incrementAndGet() == 3000) {
+                throw new IllegalStateException("boom");
+            }
+            return item;
+        };
+
+        JobExecution failed = run(sortJob(failOnce, written::addAll));
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        List<Path> keptRuns = runFiles();
+        assertThat(keptRuns).hasSize(4).allMatch(run -> run.getParent().equals(tempDir.resolve(String.valueOf(failed.getJobId()))));
+
+        // 다른 잡 인스턴스는 자기 디렉터리에 런을 만들고 지운다.
+        JobExecution other = run(sortJob(item -> item, items -> { }), SEED + 1);
+        assertThat(other.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(runFiles()).isEqualTo(keptRuns);
+        assertThat(tempDir.resolve(String.valueOf(other.getJobId()))).doesNotExist();
+
+        JobExecution restarted = run(sortJob(failOnce, written::addAll));
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(written).isEqualTo(expected());
+    }
+
+    @Test
+    void restartFailsWhenCommittedRunIsMissing() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        ItemProcessor<String, String> failOnce = item -> {
+            if (processed.incrementAndGet() == 3000) {
+                throw new IllegalStateException("boom");
+            }
+            return item;
+        };
+
+        JobExecution failed = run(sortJob(failOnce, written::addAll));
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        Files.delete(runFiles().get(0));
+
+        JobExecution restarted = run(sortJob(failOnce, written::addAll));
+
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(stepExecution(restarted, "sortRunStep").getFailureExceptions())
+                .anySatisfy(e -> assertThat(e).hasMessageContaining("is missing"));
+    }
+
+    /**
+     * 700 건마다 런 하나 (5000 건이면 8 개), 병합 스텝은 1000 건씩 쓴다.
+     */
+    private Job sortJob(ItemProcessor<String, String> processor, ItemWriter<String> writer) {
+        SortedRunWriter<String> runWriter = new SortedRunWriter<>(tempDir, "runs", RunCodec.strings(), Comparator.naturalOrder());
+        runWriter.setParallelSortThreshold(500);
+
+        return embeddedJobRepository.jobBuilderFactory().get("sortJob")
+                .start(embeddedJobRepository.stepBuilderFactory().get("sortRunStep")
+                        .<String, String> chunk(700)
+                        .reader(reader())
+                        .processor(processor)
+                        .writer(runWriter)
+                        .build())
+                .next(embeddedJobRepository.stepBuilderFactory().get("sortMergeStep")
+                        .<String, String> chunk(1000)
+                        .reader(new LateBindingMergeReader())
+                        .writer(writer)
+                        .build())
+                .build();
+    }
+
+    private JobExecution run(Job job) throws Exception {
+        return run(job, SEED);
+    }
+
+    private JobExecution run(Job job, long seed) throws Exception {
+        JobParameters jobParameters = new JobParametersBuilder().addLong("seed", seed).toJobParameters();
+        return embeddedJobRepository.getJobLauncher().run(job, jobParameters);
+    }
+
+    private static UuidItemReader reader() {
+        UuidItemReader reader = new UuidItemReader(ITEM_COUNT);
+        reader.setSeed(SEED);
+        return reader;
+    }
+
+    private static List<String> expected() throws Exception {
+        UuidItemReader reader = reader();
+        reader.open(new ExecutionContext());
+        List<String> items = new ArrayList<>();
+        for (String item = reader.read(); item != null; item = reader.read()) {
+            items.add(item);
+        }
+        reader.close();
+        items.sort(Comparator.naturalOrder());
+        return items;
+    }
+
+    private List<Path> runFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            return files.filter(file -> file.toString().endsWith(".run")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static StepExecution stepExecution(JobExecution jobExecution, String stepName) {
+        return jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().equals(stepName))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    /**
+     * 스텝 스코프 대신 beforeStep 에서 잡 ExecutionContext 의 런 목록으로 리더를 만든다. (beforeStep 은 open 보다 먼저 호출됨)
+     */
+    private static class LateBindingMergeReader implements ItemStreamReader<String>, StepExecutionListener {
+
+        private SortedRunMergeReader<String> delegate;
+
+        @Override
+        public void beforeStep(StepExecution stepExecution) {
+            String runs = stepExecution.getJobExecution().getExecutionContext().getString(SortedRunWriter.runsKey("runs"));
+            delegate = new SortedRunMergeReader<>(SortedRunWriter.parseRuns(runs), RunCodec.strings(), Comparator.naturalOrder());
+            delegate.setBufferSize(256);
+        }
+
+        @Override
+        public ExitStatus afterStep(StepExecution stepExecution) {
+            return delegate.afterStep(stepExecution);
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+            delegate.open(executionContext);
+        }
+
+        @Override
+        public String read() throws Exception {
+            return delegate.read();
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+            delegate.update(executionContext);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
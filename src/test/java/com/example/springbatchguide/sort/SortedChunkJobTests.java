@@ -0,0 +1,64 @@
+package com.example.springbatchguide.sort;
+
+import com.example.springbatchguide.ChunkJob;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ChunkJob.class, properties = {
+        "chunk.item-count=5000",
+        "chunk.sort.run-bytes=65536",
+        "chunk.sort.directory=target/sorted-chunk-runs",
+        "chunk.writer.output=target/sorted-chunk-output.txt"})
+@ActiveProfiles("test")
+class SortedChunkJobTests {
+
+    private static final Path OUTPUT = Paths.get("target/sorted-chunk-output.txt");
+
+    private static final Path RUN_DIRECTORY = Paths.get("target/sorted-chunk-runs");
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("sortedChunkJob")
+    private Job sortedChunkJob;
+
+    @BeforeAll
+    static void deleteOutput() throws Exception {
+        Files.deleteIfExists(OUTPUT);
+        FileSystemUtils.deleteRecursively(RUN_DIRECTORY);
+    }
+
+    @Test
+    void stepScopedRunWriterSortsEachExecutionAndCleansUp() throws Exception {
+        for (long runId = 1; runId <= 2; runId++) {
+            JobExecution jobExecution = this.jobLauncher.run(this.sortedChunkJob, new JobParametersBuilder()
+                    .addLong("run.id", runId).toJobParameters());
+
+            assertThat(jobExecution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(SortedRunWriter.parseRuns(jobExecution.getExecutionContext()
+                    .getString(SortedRunWriter.runsKey("sortedRuns")))).hasSizeGreaterThan(1);
+
+            List<String> lines = Files.readAllLines(OUTPUT);
+            assertThat(lines).hasSize(5000).isSorted();
+            assertThat(RUN_DIRECTORY.resolve(String.valueOf(jobExecution.getJobId()))).doesNotExist();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.springbatchguide.support;
+
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * 스프링 컨텍스트 없이 내장 H2 잡 저장소 위에서 잡을 실행하기 위한 테스트 지원 클래스
+ */
+public class EmbeddedJobRepository implements AutoCloseable {
+
+    private final EmbeddedDatabase database;
+
+    private final DataSourceTransactionManager transactionManager;
+
+    private final JobRepository jobRepository;
+
+    private final SimpleJobLauncher jobLauncher;
+
+    private final ExecutionContextSerializer serializer;
+
+    public EmbeddedJobRepository() throws Exception {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * @param decorator 생성된 JobRepository 를 감쌀 데코레이터
+     */
+    public EmbeddedJobRepository(UnaryOperator<JobRepository> decorator) throws Exception {
+        this(null, decorator);
+    }
+
+    /**
+     * @param serializer JobRepository 와 JobExplorer 가 사용할 ExecutionContext 직렬화기 (null 이면 기본값)
+     * @param decorator 생성된 JobRepository 를 감쌀 데코레이터
+     */
+    public EmbeddedJobRepository(ExecutionContextSerializer serializer, UnaryOperator<JobRepository> decorator) throws Exception {
+        this.serializer = serializer;
+        this.database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        this.transactionManager = new DataSourceTransactionManager(this.database);
+
+        JobRepositoryFactoryBean jobRepositoryFactoryBean = new JobRepositoryFactoryBean();
+        jobRepositoryFactoryBean.setDataSource(this.database);
+        jobRepositoryFactoryBean.setTransactionManager(this.transactionManager);
+        if (serializer != null) {
+            jobRepositoryFactoryBean.setSerializer(serializer);
+        }
+        jobRepositoryFactoryBean.afterPropertiesSet();
+        this.jobRepository = decorator.apply(jobRepositoryFactoryBean.getObject());
+
+        this.jobLauncher = new SimpleJobLauncher();
+        this.jobLauncher.setJobRepository(this.jobRepository);
+        this.jobLauncher.afterPropertiesSet();
+    }
+
+    public EmbeddedDatabase getDatabase() {
+        return this.database;
+    }
+
+    public DataSourceTransactionManager getTransactionManager() {
+        return this.transactionManager;
+    }
+
+    public JobRepository getJobRepository() {
+        return this.jobRepository;
+    }
+
+    public SimpleJobLauncher getJobLauncher() {
+        return this.jobLauncher;
+    }
+
+    public JobExplorer jobExplorer() throws Exception {
+        JobExplorerFactoryBean jobExplorerFactoryBean = new JobExplorerFactoryBean();
+        jobExplorerFactoryBean.setDataSource(this.database);
+        if (this.serializer != null) {
+            jobExplorerFactoryBean.setSerializer(this.serializer);
+        }
+        jobExplorerFactoryBean.afterPropertiesSet();
+        return jobExplorerFactoryBean.getObject();
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(this.database);
+    }
+
+    public JobBuilderFactory jobBuilderFactory() {
+        return new JobBuilderFactory(this.jobRepository);
+    }
+
+    public StepBuilderFactory stepBuilderFactory() {
+        return new StepBuilderFactory(this.jobRepository, this.transactionManager);
+    }
+
+    @Override
+    public void close() {
+        this.database.shutdown();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springbatchguide.writer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferedChannelItemWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new ResourcelessTransactionManager());
+
+    @Test
+    void writesChunkAfterCommit() throws Exception {
+        Path output = this.tempDir.resolve("committed.txt");
+        BufferedChannelItemWriter<String> writer = newWriter(output);
+        writer.open(new ExecutionContext());
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            write(writer, Arrays.asList("a", "b"));
+            assertThat(output).isEmptyFile();
+        });
+        writer.close();
+
+        assertThat(Files.readAllLines(output)).containsExactly(">> a", ">> b");
+    }
+
+    @Test
+    void neverFlushesRolledBackChunk() throws Exception {
+        Path output = this.tempDir.resolve("rolledback.txt");
+        BufferedChannelItemWriter<String> writer = newWriter(output);
+        writer.open(new ExecutionContext());
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            write(writer, Arrays.asList("lost"));
+            status.setRollbackOnly();
+        });
+        this.transactionTemplate.executeWithoutResult(status -> write(writer, Arrays.asList("kept")));
+        writer.close();
+
+        assertThat(Files.readAllLines(output)).containsExactly(">> kept");
+    }
+
+    @Test
+    void asyncFlushWritesAllChunksInCommitOrder() throws Exception {
+        Path output = this.tempDir.resolve("async.txt");
+        BufferedChannelItemWriter<String> writer = newWriter(output);
+        writer.setAsyncFlush(true);
+        writer.setQueueCapacity(2);
+        writer.open(new ExecutionContext());
+
+        List<String> expected = IntStream.range(0, 100).mapToObj(i -> ">> " + i).collect(Collectors.toList());
+        for (int chunk = 0; chunk < 10; chunk++) {
+            List<String> items = IntStream.range(chunk * 10, chunk * 10 + 10)
+                    .mapToObj(String::valueOf).collect(Collectors.toList());
+            this.transactionTemplate.executeWithoutResult(status -> write(writer, items));
+        }
+        writer.close();
+
+        assertThat(Files.readAllLines(output)).isEqualTo(expected);
+    }
+
+    @Test
+    void writesImmediatelyOutsideTransaction() throws Exception {
+        Path output = this.tempDir.resolve("direct.txt");
+        BufferedChannelItemWriter<String> writer = newWriter(output);
+        writer.open(new ExecutionContext());
+
+        writer.write(Arrays.asList("x"));
+
+        assertThat(Files.readAllLines(output)).containsExactly(">> x");
+        writer.close();
+    }
+
+    private BufferedChannelItemWriter<String> newWriter(Path output) {
+        BufferedChannelItemWriter<String> writer =
+                new BufferedChannelItemWriter<>(output, (item, line) -> line.append(">> ").append(item));
+        writer.setLineSeparator("\n");
+        return writer;
+    }
+
+    private void write(BufferedChannelItemWriter<String> writer, List<String> items) {
+        try {
+            writer.write(items);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.springbatchguide.writer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiRowInsertItemWriterTest {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE multi_row_item (id BIGINT PRIMARY KEY, name VARCHAR(64) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE batch_item (id BIGINT PRIMARY KEY, name VARCHAR(64) NOT NULL)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(4);
+        taskExecutor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void splitsChunkIntoStatementsBoundedByPacketSize() throws Exception {
+        MultiRowInsertItemWriter<Item> writer = newWriter("multi_row_item");
+        writer.setEstimatedRowBytes(100);
+        writer.setMaxPacketBytes(800);
+
+        assertThat(writer.getRowsPerStatement()).isEqualTo(7);
+
+        write(writer, items(0, 100));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM multi_row_item", Integer.class)).isEqualTo(100);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM multi_row_item WHERE id = 99", String.class)).isEqualTo("item-99");
+        assertThat(writer.getRowsWritten()).isEqualTo(100);
+    }
+
+    @Test
+    void writesSameRowsAsJdbcBatchItemWriter() throws Exception {
+        JdbcBatchItemWriter<Item> batchWriter = new JdbcBatchItemWriterBuilder<Item>()
+                .dataSource(dataSource)
+                .sql("INSERT INTO batch_item (id, name) VALUES (?, ?)")
+                .itemPreparedStatementSetter((item, ps) -> {
+                    ps.setLong(1, item.id);
+                    ps.setString(2, item.name);
+                })
+                .build();
+        batchWriter.afterPropertiesSet();
+        MultiRowInsertItemWriter<Item> multiRowWriter = newWriter("multi_row_item");
+
+        writeChunks(batchWriter::write);
+        writeChunks(multiRowWriter::write);
+
+        List<Map<String, Object>> expected = jdbcTemplate.queryForList("SELECT id, name FROM batch_item ORDER BY id");
+        assertThat(jdbcTemplate.queryForList("SELECT id, name FROM multi_row_item ORDER BY id")).isEqualTo(expected).hasSize(ITEM_COUNT);
+        assertThat(multiRowWriter.getRowsPerSecond()).isPositive();
+    }
+
+    @Test
+    void parallelSlicesCommitAndRollBackWithChunkTransaction() {
+        MultiRowInsertItemWriter<Item> writer = newWriter("multi_row_item");
+        writer.setMaxRowsPerStatement(10);
+        writer.setParallelism(3, taskExecutor);
+
+        transactionTemplate.execute(status -> {
+            try {
+                writer.write(items(0, 95));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+            return null;
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM multi_row_item", Integer.class)).isZero();
+
+        write(writer, items(0, 95));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM multi_row_item", Integer.class)).isEqualTo(95);
+    }
+
+    @Test
+    void failedSliceRollsBackWholeChunk() {
+        jdbcTemplate.update("INSERT INTO multi_row_item (id, name) VALUES (80, 'existing')");
+        MultiRowInsertItemWriter<Item> writer = newWriter("multi_row_item");
+        writer.setMaxRowsPerStatement(10);
+        writer.setParallelism(3, taskExecutor);
+
+        assertThatThrownBy(() -> write(writer, items(0, 95))).hasRootCauseInstanceOf(java.sql.SQLException.class);
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM multi_row_item", Long.class)).containsExactly(80L);
+    }
+
+    @Test
+    void createsTableOnOpen() {
+        MultiRowInsertItemWriter<Item> writer = newWriter("created_item");
+        writer.setCreateTableSql("CREATE TABLE IF NOT EXISTS created_item (id BIGINT PRIMARY KEY, name VARCHAR(64) NOT NULL)");
+
+        writer.open(new ExecutionContext());
+        write(writer, items(0, 10));
+        writer.close();
+        // 재실행할 때 다시 열어도 기존 행은 그대로 남는다.
+        writer.open(new ExecutionContext());
+        write(writer, items(10, 20));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM created_item", Integer.class)).isEqualTo(20);
+    }
+
+    private MultiRowInsertItemWriter<Item> newWriter(String table) {
+        return new MultiRowInsertItemWriter<>(dataSource, table, Arrays.asList("id", "name"), (item, ps, offset) -> {
+            ps.setLong(offset + 1, item.id);
+            ps.setString(offset + 2, item.name);
+        });
+    }
+
+    private void writeChunks(ChunkWrite write) {
+        for (int from = 0; from < ITEM_COUNT; from += 1000) {
+            List<Item> chunk = items(from, from + 1000);
+            transactionTemplate.execute(status -> {
+                try {
+                    write.write(chunk);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            });
+        }
+    }
+
+    private void write(MultiRowInsertItemWriter<Item> writer, List<Item> items) {
+        transactionTemplate.execute(status -> {
+            try {
+                writer.write(items);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        });
+    }
+
+    private static List<Item> items(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> new Item(i, "item-" + i)).collect(Collectors.toList());
+    }
+
+    private interface ChunkWrite {
+        void write(List<Item> items) throws Exception;
+    }
+
+    private static class Item {
+
+        final long id;
+
+        final String name;
+
+        Item(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}